@@ -164,7 +164,8 @@ public class SetAsterixPhysicalOperatorsRule implements IAlgebraicRewriteRule {
                                             gby.getGroupByList(),
                                             physicalOptimizationConfig.getMaxFramesExternalGroupBy(),
                                             (long) physicalOptimizationConfig.getMaxFramesExternalGroupBy()
-                                                    * physicalOptimizationConfig.getFrameSize());
+                                                    * physicalOptimizationConfig.getFrameSize(),
+                                            physicalOptimizationConfig.isAdaptivePreAggregation());
                                     generateMergeAggregationExpressions(gby, context);
                                     op.setPhysicalOperator(externalGby);
                                     setToExternalGby = true;
@@ -118,6 +118,7 @@ public class APIFramework {
     private static final Set<String> CONFIGURABLE_PARAMETER_NAMES =
             ImmutableSet.of(CompilerProperties.COMPILER_JOINMEMORY_KEY, CompilerProperties.COMPILER_GROUPMEMORY_KEY,
                     CompilerProperties.COMPILER_SORTMEMORY_KEY, CompilerProperties.COMPILER_PARALLELISM_KEY,
+                    CompilerProperties.COMPILER_SORTMERGEJOIN_KEY, CompilerProperties.COMPILER_PREAGGREGATION_KEY,
                     FunctionUtil.IMPORT_PRIVATE_FUNCTIONS, FuzzyUtils.SIM_FUNCTION_PROP_NAME,
                     FuzzyUtils.SIM_THRESHOLD_PROP_NAME, SubscribeFeedStatement.WAIT_FOR_COMPLETION,
                     FeedActivityDetails.FEED_POLICY_NAME, FeedActivityDetails.COLLECT_LOCATIONS, "inline_with",
@@ -247,6 +248,12 @@ public class APIFramework {
         OptimizationConfUtil.getPhysicalOptimizationConfig().setMaxFramesExternalSort(sortFrameLimit);
         OptimizationConfUtil.getPhysicalOptimizationConfig().setMaxFramesExternalGroupBy(groupFrameLimit);
         OptimizationConfUtil.getPhysicalOptimizationConfig().setMaxFramesForJoin(joinFrameLimit);
+        OptimizationConfUtil.getPhysicalOptimizationConfig().setSortMergeJoin(
+                getBoolean(querySpecificConfig.get(CompilerProperties.COMPILER_SORTMERGEJOIN_KEY),
+                        compilerProperties.isSortMergeJoin()));
+        OptimizationConfUtil.getPhysicalOptimizationConfig().setAdaptivePreAggregation(
+                getBoolean(querySpecificConfig.get(CompilerProperties.COMPILER_PREAGGREGATION_KEY),
+                        compilerProperties.isPreAggregation()));
 
         HeuristicCompilerFactoryBuilder builder =
                 new HeuristicCompilerFactoryBuilder(OptimizationContextFactory.INSTANCE);
@@ -488,6 +495,11 @@ public class APIFramework {
         return parameter == null ? parallelismInConfiguration : integerIPropertyInterpreter.parse(parameter);
     }
 
+    // Gets a boolean parameter.
+    private static boolean getBoolean(String parameter, boolean valueInConfiguration) {
+        return parameter == null ? valueInConfiguration : OptionTypes.BOOLEAN.parse(parameter);
+    }
+
     // Validates if the query contains unsupported query parameters.
     private static void validateConfig(Map<String, String> config) throws AlgebricksException {
         for (String parameterName : config.keySet()) {
@@ -24,6 +24,8 @@ import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -82,8 +84,8 @@ import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTracker;
-import org.apache.hyracks.storage.am.lsm.common.impls.AsynchronousScheduler;
 import org.apache.hyracks.storage.am.lsm.common.impls.PrefixMergePolicyFactory;
+import org.apache.hyracks.storage.am.lsm.common.impls.PrioritizedScheduler;
 import org.apache.hyracks.storage.common.ILocalResourceRepository;
 import org.apache.hyracks.storage.common.buffercache.BufferCache;
 import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
@@ -93,6 +95,7 @@ import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICacheMemoryAllocator;
 import org.apache.hyracks.storage.common.buffercache.IPageCleanerPolicy;
 import org.apache.hyracks.storage.common.buffercache.IPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.TwoQueueClockPageReplacementStrategy;
 import org.apache.hyracks.storage.common.file.FileMapManager;
 import org.apache.hyracks.storage.common.file.ILocalResourceRepositoryFactory;
 import org.apache.hyracks.storage.common.file.IResourceIdFactory;
@@ -120,6 +123,7 @@ public class NCAppRuntimeContext implements INcApplicationContext {
     private IMetadataNode metadataNodeStub;
 
     private ILSMIOOperationScheduler lsmIOScheduler;
+    private ExecutorService mergeExecutor;
     private PersistentLocalResourceRepository localResourceRepository;
     private IIOManager ioManager;
     private boolean isShuttingdown;
@@ -167,11 +171,13 @@ public class NCAppRuntimeContext implements INcApplicationContext {
         threadExecutor = new ThreadExecutor(getServiceContext().getThreadFactory());
         ICacheMemoryAllocator allocator = new HeapBufferAllocator();
         IPageCleanerPolicy pcp = new DelayPageCleanerPolicy(600000);
-        IPageReplacementStrategy prs = new ClockPageReplacementStrategy(allocator,
-                storageProperties.getBufferCachePageSize(), storageProperties.getBufferCacheNumPages());
+        IPageReplacementStrategy prs = createPageReplacementStrategy(allocator);
 
-        AsynchronousScheduler.INSTANCE.init(getServiceContext().getThreadFactory());
-        lsmIOScheduler = AsynchronousScheduler.INSTANCE;
+        lsmIOScheduler = new PrioritizedScheduler(getServiceContext().getThreadFactory(),
+                storageProperties.getMergeMaxConcurrent(), storageProperties.getMergeMaxBandwidth());
+        // the number of its threads is bounded by the merges that the scheduler runs concurrently
+        mergeExecutor = storageProperties.getMergePartitions() > 1
+                ? Executors.newCachedThreadPool(getServiceContext().getThreadFactory()) : null;
 
         metadataMergePolicyFactory = new PrefixMergePolicyFactory();
 
@@ -271,6 +277,21 @@ public class NCAppRuntimeContext implements INcApplicationContext {
         lccm.register((ILifeCycleComponent) txnSubsystem.getTransactionManager());
         lccm.register((ILifeCycleComponent) txnSubsystem.getLockManager());
         lccm.register(txnSubsystem.getCheckpointManager());
+        lccm.register((ILifeCycleComponent) lsmIOScheduler);
+    }
+
+    private IPageReplacementStrategy createPageReplacementStrategy(ICacheMemoryAllocator allocator) {
+        String policy = storageProperties.getBufferCacheReplacementPolicy();
+        int pageSize = storageProperties.getBufferCachePageSize();
+        int numPages = storageProperties.getBufferCacheNumPages();
+        switch (policy.toLowerCase()) {
+            case "clock":
+                return new ClockPageReplacementStrategy(allocator, pageSize, numPages);
+            case "2q":
+                return new TwoQueueClockPageReplacementStrategy(allocator, pageSize, numPages);
+            default:
+                throw new IllegalStateException("Unknown buffer cache replacement policy: " + policy);
+        }
     }
 
     @Override
@@ -290,6 +311,9 @@ public class NCAppRuntimeContext implements INcApplicationContext {
 
     @Override
     public void deinitialize() throws HyracksDataException {
+        if (mergeExecutor != null) {
+            mergeExecutor.shutdown();
+        }
     }
 
     @Override
@@ -317,6 +341,11 @@ public class NCAppRuntimeContext implements INcApplicationContext {
         return lsmIOScheduler;
     }
 
+    @Override
+    public ExecutorService getMergeExecutor() {
+        return mergeExecutor;
+    }
+
     @Override
     public ILocalResourceRepository getLocalResourceRepository() {
         return localResourceRepository;
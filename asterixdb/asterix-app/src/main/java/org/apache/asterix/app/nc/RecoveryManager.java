@@ -68,6 +68,7 @@ import org.apache.hyracks.api.application.INCServiceContext;
 import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponent;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
@@ -318,6 +319,10 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
         Map<Long, LocalResource> resourcesMap = localResourceRepository.loadAndGetAllResources();
         Map<Long, Long> resourceId2MaxLSNMap = new HashMap<>();
         TxnId tempKeyTxnId = new TxnId(-1, -1, -1, null, -1, false);
+        //the log is read by this thread while the redo is sharded across the workers
+        int redoThreads = txnSubsystem.getTransactionProperties().getRecoveryRedoThreads();
+        RedoWorkerPool redoWorkers = redoThreads > 1
+                ? new RedoWorkerPool(redoThreads, serviceCtx.getThreadFactory(), datasetLifecycleManager) : null;
 
         ILogRecord logRecord = null;
         try {
@@ -396,7 +401,11 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
                                 }
 
                                 if (lsn > maxDiskLastLsn) {
-                                    redo(logRecord, datasetLifecycleManager);
+                                    if (redoWorkers != null) {
+                                        redoWorkers.submit(logRecord);
+                                    } else {
+                                        redo(logRecord, datasetLifecycleManager);
+                                    }
                                     redoCount++;
                                 }
                             }
@@ -415,8 +424,14 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
                 }
                 logRecord = logReader.next();
             }
+            if (redoWorkers != null) {
+                redoWorkers.complete();
+            }
             LOGGER.info("Logs REDO phase completed. Redo logs count: " + redoCount);
         } finally {
+            if (redoWorkers != null) {
+                redoWorkers.abort();
+            }
             //close all indexes
             Set<Long> resourceIdList = resourceId2MaxLSNMap.keySet();
             for (long r : resourceIdList) {
@@ -713,21 +728,25 @@ public class RecoveryManager implements IRecoveryManager, ILifeCycleComponent {
     }
 
     private static void redo(ILogRecord logRecord, IDatasetLifecycleManager datasetLifecycleManager) {
+        redo(logRecord.getDatasetId(), logRecord.getResourceId(), logRecord.getNewOp(), logRecord.getNewValue(),
+                datasetLifecycleManager);
+    }
+
+    static void redo(int datasetId, long resourceId, byte newOp, ITupleReference newValue,
+            IDatasetLifecycleManager datasetLifecycleManager) {
         try {
-            int datasetId = logRecord.getDatasetId();
-            long resourceId = logRecord.getResourceId();
             ILSMIndex index = (ILSMIndex) datasetLifecycleManager.getIndex(datasetId, resourceId);
             ILSMIndexAccessor indexAccessor =
                     index.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
-            if (logRecord.getNewOp() == AbstractIndexModificationOperationCallback.INSERT_BYTE) {
-                indexAccessor.forceInsert(logRecord.getNewValue());
-            } else if (logRecord.getNewOp() == AbstractIndexModificationOperationCallback.DELETE_BYTE) {
-                indexAccessor.forceDelete(logRecord.getNewValue());
-            } else if (logRecord.getNewOp() == AbstractIndexModificationOperationCallback.UPSERT_BYTE) {
+            if (newOp == AbstractIndexModificationOperationCallback.INSERT_BYTE) {
+                indexAccessor.forceInsert(newValue);
+            } else if (newOp == AbstractIndexModificationOperationCallback.DELETE_BYTE) {
+                indexAccessor.forceDelete(newValue);
+            } else if (newOp == AbstractIndexModificationOperationCallback.UPSERT_BYTE) {
                 // redo, upsert the new value
-                indexAccessor.forceUpsert(logRecord.getNewValue());
+                indexAccessor.forceUpsert(newValue);
             } else {
-                throw new IllegalStateException("Unsupported OperationType: " + logRecord.getNewOp());
+                throw new IllegalStateException("Unsupported OperationType: " + newOp);
             }
         } catch (Exception e) {
             throw new IllegalStateException("Failed to redo", e);
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.nc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.asterix.common.api.IDatasetLifecycleManager;
+import org.apache.asterix.common.exceptions.ACIDException;
+import org.apache.asterix.common.transactions.ILogRecord;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+
+/**
+ * Applies the redo of update log records on a pool of threads while the log is read by a single thread.
+ * The records are sharded by dataset and partition, so that the records of an index are redone by one thread in LSN
+ * order, while different partitions are redone in parallel.
+ */
+class RedoWorkerPool {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final RedoTask END_OF_LOG = new RedoTask(-1, -1, (byte) 0, null);
+
+    private final IDatasetLifecycleManager datasetLifecycleManager;
+    private final List<BlockingQueue<RedoTask>> queues = new ArrayList<>();
+    private final List<Future<Void>> workers = new ArrayList<>();
+    private final ExecutorService executor;
+    private volatile boolean aborted = false;
+
+    RedoWorkerPool(int numWorkers, ThreadFactory threadFactory, IDatasetLifecycleManager datasetLifecycleManager) {
+        this.datasetLifecycleManager = datasetLifecycleManager;
+        executor = Executors.newFixedThreadPool(numWorkers, threadFactory);
+        for (int i = 0; i < numWorkers; i++) {
+            BlockingQueue<RedoTask> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            queues.add(queue);
+            workers.add(executor.submit(() -> redo(queue)));
+        }
+    }
+
+    /**
+     * Queues the redo of the update log record. The record is copied, so the log reader can reuse it.
+     */
+    void submit(ILogRecord logRecord) throws ACIDException {
+        RedoTask task;
+        try {
+            task = new RedoTask(logRecord.getDatasetId(), logRecord.getResourceId(), logRecord.getNewOp(),
+                    TupleUtils.copyTuple(logRecord.getNewValue()));
+        } catch (HyracksDataException e) {
+            throw new ACIDException(e);
+        }
+        put(Math.floorMod(31 * logRecord.getDatasetId() + logRecord.getResourcePartition(), queues.size()), task);
+    }
+
+    /**
+     * Waits until all the queued records are redone.
+     */
+    void complete() throws ACIDException {
+        try {
+            for (int i = 0; i < queues.size(); i++) {
+                put(i, END_OF_LOG);
+            }
+            for (Future<Void> worker : workers) {
+                awaitWorker(worker);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ACIDException(e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void put(int shard, RedoTask task) throws ACIDException {
+        try {
+            // a worker that failed stops taking records, so its queue may never drain
+            while (!queues.get(shard).offer(task, 100, TimeUnit.MILLISECONDS)) {
+                if (workers.get(shard).isDone()) {
+                    awaitWorker(workers.get(shard));
+                    throw new ACIDException("Redo worker " + shard + " stopped before the end of the log");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ACIDException(e);
+        }
+    }
+
+    /**
+     * Drops the queued records and stops the workers, unless they have completed already.
+     */
+    void abort() {
+        aborted = true;
+        for (BlockingQueue<RedoTask> queue : queues) {
+            queue.clear();
+            queue.offer(END_OF_LOG);
+        }
+        executor.shutdown();
+        for (Future<Void> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // the failure that caused the abort has been reported already
+            }
+        }
+    }
+
+    private Void redo(BlockingQueue<RedoTask> queue) throws InterruptedException {
+        RedoTask task = queue.take();
+        while (task != END_OF_LOG && !aborted) {
+            RecoveryManager.redo(task.datasetId, task.resourceId, task.newOp, task.newValue,
+                    datasetLifecycleManager);
+            task = queue.take();
+        }
+        return null;
+    }
+
+    private static void awaitWorker(Future<Void> worker) throws ACIDException, InterruptedException {
+        try {
+            worker.get();
+        } catch (ExecutionException e) {
+            throw new ACIDException(e.getCause());
+        }
+    }
+
+    private static class RedoTask {
+        private final int datasetId;
+        private final long resourceId;
+        private final byte newOp;
+        private final ITupleReference newValue;
+
+        RedoTask(int datasetId, long resourceId, byte newOp, ITupleReference newValue) {
+            this.datasetId = datasetId;
+            this.resourceId = resourceId;
+            this.newOp = newOp;
+            this.newValue = newValue;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.nc;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import org.apache.asterix.common.api.IDatasetLifecycleManager;
+import org.apache.asterix.common.transactions.ILogRecord;
+import org.apache.asterix.transaction.management.opcallbacks.AbstractIndexModificationOperationCallback;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.common.IModificationOperationCallback;
+import org.apache.hyracks.storage.common.ISearchOperationCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RedoWorkerPoolTest {
+    private static final int NUM_DATASETS = 3;
+    private static final int NUM_PARTITIONS = 4;
+    // a primary and a secondary index per dataset partition
+    private static final int NUM_INDEXES = 2;
+    private static final int NUM_KEYS = 16;
+    private static final int NUM_RECORDS = 5000;
+    private static final int NUM_WORKERS = 4;
+    private static final byte[] OPS = { AbstractIndexModificationOperationCallback.INSERT_BYTE,
+            AbstractIndexModificationOperationCallback.DELETE_BYTE,
+            AbstractIndexModificationOperationCallback.UPSERT_BYTE };
+
+    @Test
+    public void testParallelRedoMatchesSerialRedo() throws Exception {
+        List<LogEntry> log = createLog(new Random(17));
+
+        Map<Long, List<String>> serialRedo = new HashMap<>();
+        IDatasetLifecycleManager serialDatasets = mockDatasetLifecycleManager(serialRedo);
+        for (LogEntry entry : log) {
+            RecoveryManager.redo(entry.datasetId, entry.resourceId, entry.newOp,
+                    TupleUtils.createIntegerTuple(entry.key, entry.value), serialDatasets);
+        }
+
+        Map<Long, List<String>> parallelRedo = new HashMap<>();
+        RedoWorkerPool redoWorkers = new RedoWorkerPool(NUM_WORKERS, Executors.defaultThreadFactory(),
+                mockDatasetLifecycleManager(parallelRedo));
+        // like the log reader, reuse a single record and tuple for all the log entries
+        LogEntry[] current = new LogEntry[1];
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference newValue = new ArrayTupleReference();
+        ILogRecord logRecord = mockLogRecord(current, newValue);
+        try {
+            for (LogEntry entry : log) {
+                current[0] = entry;
+                TupleUtils.createIntegerTuple(tupleBuilder, newValue, entry.key, entry.value);
+                redoWorkers.submit(logRecord);
+            }
+            redoWorkers.complete();
+        } finally {
+            redoWorkers.abort();
+        }
+
+        Assert.assertEquals(NUM_DATASETS * NUM_PARTITIONS * NUM_INDEXES, serialRedo.size());
+        Assert.assertEquals(serialRedo, parallelRedo);
+    }
+
+    /**
+     * Creates a log of updates that interleaves the datasets, partitions and indexes, and that updates the same keys
+     * of an index repeatedly, so that the result of the redo depends on the order of the updates of an index.
+     */
+    private static List<LogEntry> createLog(Random random) {
+        List<LogEntry> log = new ArrayList<>();
+        for (int i = 0; i < NUM_RECORDS; i++) {
+            int datasetId = random.nextInt(NUM_DATASETS);
+            int partition = random.nextInt(NUM_PARTITIONS);
+            long resourceId = (datasetId * NUM_PARTITIONS + partition) * NUM_INDEXES + random.nextInt(NUM_INDEXES);
+            log.add(new LogEntry(datasetId, partition, resourceId, OPS[random.nextInt(OPS.length)],
+                    random.nextInt(NUM_KEYS), i));
+        }
+        return log;
+    }
+
+    /**
+     * Creates the indexes of all the resources, each recording the updates that are applied to it in order.
+     */
+    private static IDatasetLifecycleManager mockDatasetLifecycleManager(Map<Long, List<String>> updates)
+            throws Exception {
+        Map<Long, ILSMIndex> indexes = new HashMap<>();
+        for (long resourceId = 0; resourceId < NUM_DATASETS * NUM_PARTITIONS * NUM_INDEXES; resourceId++) {
+            List<String> indexUpdates = Collections.synchronizedList(new ArrayList<>());
+            updates.put(resourceId, indexUpdates);
+            ILSMIndexAccessor accessor = mock(ILSMIndexAccessor.class);
+            doAnswer(invocation -> indexUpdates.add("insert " + toString(invocation.getArguments()[0])))
+                    .when(accessor).forceInsert(any(ITupleReference.class));
+            doAnswer(invocation -> indexUpdates.add("delete " + toString(invocation.getArguments()[0])))
+                    .when(accessor).forceDelete(any(ITupleReference.class));
+            doAnswer(invocation -> indexUpdates.add("upsert " + toString(invocation.getArguments()[0])))
+                    .when(accessor).forceUpsert(any(ITupleReference.class));
+            ILSMIndex index = mock(ILSMIndex.class);
+            when(index.createAccessor(any(IModificationOperationCallback.class), any(ISearchOperationCallback.class)))
+                    .thenReturn(accessor);
+            indexes.put(resourceId, index);
+        }
+        IDatasetLifecycleManager datasetLifecycleManager = mock(IDatasetLifecycleManager.class);
+        when(datasetLifecycleManager.getIndex(anyInt(), anyLong()))
+                .thenAnswer(invocation -> indexes.get(invocation.getArguments()[1]));
+        return datasetLifecycleManager;
+    }
+
+    private static ILogRecord mockLogRecord(LogEntry[] current, ITupleReference newValue) {
+        ILogRecord logRecord = mock(ILogRecord.class);
+        when(logRecord.getDatasetId()).thenAnswer(invocation -> current[0].datasetId);
+        when(logRecord.getResourcePartition()).thenAnswer(invocation -> current[0].partition);
+        when(logRecord.getResourceId()).thenAnswer(invocation -> current[0].resourceId);
+        when(logRecord.getNewOp()).thenAnswer(invocation -> current[0].newOp);
+        when(logRecord.getNewValue()).thenReturn(newValue);
+        return logRecord;
+    }
+
+    private static String toString(Object tuple) {
+        ITupleReference tupleRef = (ITupleReference) tuple;
+        return IntegerPointable.getInteger(tupleRef.getFieldData(0), tupleRef.getFieldStart(0)) + "="
+                + IntegerPointable.getInteger(tupleRef.getFieldData(1), tupleRef.getFieldStart(1));
+    }
+
+    private static class LogEntry {
+        private final int datasetId;
+        private final int partition;
+        private final long resourceId;
+        private final byte newOp;
+        private final int key;
+        private final int value;
+
+        LogEntry(int datasetId, int partition, long resourceId, byte newOp, int key, int value) {
+            this.datasetId = datasetId;
+            this.partition = partition;
+            this.resourceId = resourceId;
+            this.newOp = newOp;
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -53,6 +53,18 @@ public interface IDatasetLifecycleManager extends IResourceLifecycleManager<IInd
      */
     void scheduleAsyncFlushForLaggingDatasets(long nonSharpCheckpointTargetLSN) throws HyracksDataException;
 
+    /**
+     * Schedules asynchronous flush on the datasets that have the oldest memory components with
+     * first LSN < nonSharpCheckpointTargetLSN, so that at most maxFlushes datasets are being flushed at a time.
+     *
+     * @param nonSharpCheckpointTargetLSN
+     * @param maxFlushes
+     *            the maximum number of datasets being flushed, or 0 to flush all the lagging datasets
+     * @throws HyracksDataException
+     */
+    void scheduleAsyncFlushForLaggingDatasets(long nonSharpCheckpointTargetLSN, int maxFlushes)
+            throws HyracksDataException;
+
     /**
      * creates (if necessary) and returns the dataset info.
      *
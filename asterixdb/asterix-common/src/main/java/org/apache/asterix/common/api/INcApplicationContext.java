@@ -21,6 +21,7 @@ package org.apache.asterix.common.api;
 import java.io.IOException;
 import java.rmi.RemoteException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.asterix.common.context.IStorageComponentProvider;
 import org.apache.asterix.common.exceptions.ACIDException;
@@ -54,6 +55,11 @@ public interface INcApplicationContext extends IApplicationContext {
 
     ILSMIOOperationScheduler getLSMIOScheduler();
 
+    /**
+     * @return the executor that merges the key ranges of split merges, or null if merges are not split
+     */
+    ExecutorService getMergeExecutor();
+
     ILSMMergePolicyFactory getMetadataMergePolicyFactory();
 
     IBufferCache getBufferCache();
@@ -18,6 +18,7 @@
  */
 package org.apache.asterix.common.config;
 
+import static org.apache.hyracks.control.common.config.OptionTypes.BOOLEAN;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
@@ -46,6 +47,10 @@ public class CompilerProperties extends AbstractProperties {
                 "other integer values dictate the number of query execution parallel partitions. The system will " +
                 "fall back to use the number of all available CPU cores in the cluster as the degree of parallelism " +
                 "if the number set by a user is too large or too small"),
+        COMPILER_SORTMERGEJOIN(BOOLEAN, false, "Whether a hash join is replaced with a sort-merge join if both of " +
+                "its inputs are already sorted on the join keys"),
+        COMPILER_PREAGGREGATION(BOOLEAN, false, "Whether the local group-by of a two-phase aggregation stops " +
+                "aggregating, instead of spilling, when it doesn't reduce its input"),
         COMPILER_PREGELIX_HOME(STRING, "~/pregelix", "Pregelix installation root directory");
 
         private final IOptionType type;
@@ -91,6 +96,10 @@ public class CompilerProperties extends AbstractProperties {
 
     public static final String COMPILER_PARALLELISM_KEY = Option.COMPILER_PARALLELISM.ini();
 
+    public static final String COMPILER_SORTMERGEJOIN_KEY = Option.COMPILER_SORTMERGEJOIN.ini();
+
+    public static final String COMPILER_PREAGGREGATION_KEY = Option.COMPILER_PREAGGREGATION.ini();
+
     public static final int COMPILER_PARALLELISM_AS_STORAGE = 0;
 
     public CompilerProperties(PropertiesAccessor accessor) {
@@ -117,6 +126,14 @@ public class CompilerProperties extends AbstractProperties {
         return accessor.getInt(Option.COMPILER_PARALLELISM);
     }
 
+    public boolean isSortMergeJoin() {
+        return accessor.getBoolean(Option.COMPILER_SORTMERGEJOIN);
+    }
+
+    public boolean isPreAggregation() {
+        return accessor.getBoolean(Option.COMPILER_PREAGGREGATION);
+    }
+
     public String getPregelixHome() {
         return accessor.getString(Option.COMPILER_PREGELIX_HOME);
     }
@@ -43,6 +43,11 @@ public class NodeProperties extends AbstractProperties {
                 appConfig -> FileUtil.joinPath(appConfig.getString(ControllerConfig.Option.DEFAULT_DIR), "txn-log"),
                 "The directory where transaction logs should be stored",
                 "<value of " + ControllerConfig.Option.DEFAULT_DIR.cmdline() + ">/txn-log"),
+        TXN_LOG_STRIPEDIRS(
+                OptionTypes.STRING_ARRAY,
+                new String[0],
+                "Additional directories, ideally on other devices, across which the transaction logs are striped "
+                        + "(the log must be checkpointed before this is changed)"),
         STORAGE_SUBDIR(OptionTypes.STRING, "storage", "The subdirectory name under each iodevice used for storage"),
         STARTING_PARTITION_ID(
                 OptionTypes.INTEGER,
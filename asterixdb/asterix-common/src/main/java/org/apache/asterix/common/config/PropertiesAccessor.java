@@ -78,6 +78,7 @@ public class PropertiesAccessor implements IApplicationConfig {
     private final Map<String, String> coredumpConfig = new HashMap<>();
     private final IApplicationConfig cfg;
     private final Map<String, String> transactionLogDirs = new HashMap<>();
+    private final Map<String, String[]> transactionLogStripeDirs = new HashMap<>();
     private final Map<String, String> asterixBuildProperties = new HashMap<>();
     private final Map<String, ClusterPartition[]> nodePartitionsMap;
     private final SortedMap<Integer, ClusterPartition> clusterPartitions;
@@ -242,6 +243,7 @@ public class PropertiesAccessor implements IApplicationConfig {
         IApplicationConfig nodeCfg = cfg.getNCEffectiveConfig(ncId);
         coredumpConfig.put(ncId, nodeCfg.getString(NodeProperties.Option.CORE_DUMP_DIR));
         transactionLogDirs.put(ncId, nodeCfg.getString(NodeProperties.Option.TXN_LOG_DIR));
+        transactionLogStripeDirs.put(ncId, nodeCfg.getStringArray(NodeProperties.Option.TXN_LOG_STRIPEDIRS));
         int partitionId = nodeCfg.getInt(NodeProperties.Option.STARTING_PARTITION_ID);
         if (partitionId != -1) {
             uniquePartitionId.setValue(partitionId);
@@ -300,6 +302,10 @@ public class PropertiesAccessor implements IApplicationConfig {
         return transactionLogDirs;
     }
 
+    public Map<String, String[]> getTransactionLogStripeDirs() {
+        return transactionLogStripeDirs;
+    }
+
     public Map<String, String> getCoredumpConfig() {
         return coredumpConfig;
     }
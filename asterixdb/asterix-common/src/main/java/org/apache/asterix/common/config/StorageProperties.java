@@ -22,6 +22,7 @@ import static org.apache.hyracks.control.common.config.OptionTypes.DOUBLE;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
+import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
 import static org.apache.hyracks.util.StorageUtil.StorageUnit.KILOBYTE;
 
 import java.util.function.Function;
@@ -40,6 +41,7 @@ public class StorageProperties extends AbstractProperties {
         // By default, uses 1/4 of the maximum heap size for read cache, i.e., disk buffer cache.
         STORAGE_BUFFERCACHE_SIZE(LONG_BYTE_UNIT, Runtime.getRuntime().maxMemory() / 4),
         STORAGE_BUFFERCACHE_MAXOPENFILES(INTEGER, Integer.MAX_VALUE),
+        STORAGE_BUFFERCACHE_REPLACEMENTPOLICY(STRING, "clock"),
         STORAGE_MEMORYCOMPONENT_GLOBALBUDGET(LONG_BYTE_UNIT, Runtime.getRuntime().maxMemory() / 4),
         STORAGE_MEMORYCOMPONENT_PAGESIZE(INTEGER_BYTE_UNIT, StorageUtil.getIntSizeInBytes(128, KILOBYTE)),
         STORAGE_MEMORYCOMPONENT_NUMPAGES(INTEGER, (Function<IApplicationConfig, Integer>) accessor ->
@@ -48,12 +50,16 @@ public class StorageProperties extends AbstractProperties {
                 (int) (accessor.getLong(STORAGE_MEMORYCOMPONENT_GLOBALBUDGET) /
                         (16 * accessor.getInt(STORAGE_MEMORYCOMPONENT_PAGESIZE)))),
         STORAGE_MEMORYCOMPONENT_NUMCOMPONENTS(INTEGER, 2),
+        STORAGE_MEMORYCOMPONENT_REBALANCEINTERVAL(INTEGER, 0),
         STORAGE_METADATA_MEMORYCOMPONENT_NUMPAGES(INTEGER, (Function<IApplicationConfig, Integer>) accessor ->
                 // By default, uses the min of 1/64 of the STORAGE_MEMORYCOMPONENT_GLOBALBUDGET and 256 pages
                 // for the write buffer budget for a metadata dataset, including data and indexes.
                 Math.min((int) (accessor.getLong(STORAGE_MEMORYCOMPONENT_GLOBALBUDGET)
                         / (64 * accessor.getInt(STORAGE_MEMORYCOMPONENT_PAGESIZE))), 256)),
-        STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE(DOUBLE, 0.01d);
+        STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE(DOUBLE, 0.01d),
+        STORAGE_LSM_MERGE_MAXCONCURRENT(INTEGER, 0),
+        STORAGE_LSM_MERGE_MAXBANDWIDTH(LONG_BYTE_UNIT, 0L),
+        STORAGE_LSM_MERGE_PARTITIONS(INTEGER, 1);
 
         private final IOptionType interpreter;
         private final Object defaultValue;
@@ -83,6 +89,9 @@ public class StorageProperties extends AbstractProperties {
                             " of the buffer cache page size.";
                 case STORAGE_BUFFERCACHE_MAXOPENFILES:
                     return "The maximum number of open files in the buffer cache";
+                case STORAGE_BUFFERCACHE_REPLACEMENTPOLICY:
+                    return "The page replacement policy of the buffer cache. Supported values are \"clock\" and the"
+                            + " scan resistant \"2q\"";
                 case STORAGE_MEMORYCOMPONENT_GLOBALBUDGET:
                     return "The size of memory allocated to the memory components.  The value should be a multiple " +
                             "of the memory component page size";
@@ -95,10 +104,23 @@ public class StorageProperties extends AbstractProperties {
                             "the pages are 75% full and the remaining 25% is un-utilized";
                 case STORAGE_MEMORYCOMPONENT_NUMCOMPONENTS:
                     return "The number of memory components to be used per lsm index";
+                case STORAGE_MEMORYCOMPONENT_REBALANCEINTERVAL:
+                    return "The interval (in seconds) at which the memory component budget of the open datasets is "
+                            + "rebalanced according to their write rates, within the global budget (0 disables the "
+                            + "rebalancing)";
                 case STORAGE_METADATA_MEMORYCOMPONENT_NUMPAGES:
                     return "The number of pages to allocate for a metadata memory component";
                 case STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE:
                     return "The maximum acceptable false positive rate for bloom filters associated with LSM indexes";
+                case STORAGE_LSM_MERGE_MAXCONCURRENT:
+                    return "The maximum number of merges of LSM components that run concurrently on an I/O device "
+                            + "(0 means unlimited)";
+                case STORAGE_LSM_MERGE_MAXBANDWIDTH:
+                    return "The maximum number of bytes per second that merges of LSM components read on a node "
+                            + "(0 means unlimited)";
+                case STORAGE_LSM_MERGE_PARTITIONS:
+                    return "The number of key ranges that a merge of LSM B-tree components is split into, each "
+                            + "merged by a thread of its own (1 means merges are not split)";
                 default:
                     throw new IllegalStateException("NYI: " + this);
             }
@@ -146,6 +168,10 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getInt(Option.STORAGE_BUFFERCACHE_MAXOPENFILES);
     }
 
+    public String getBufferCacheReplacementPolicy() {
+        return accessor.getString(Option.STORAGE_BUFFERCACHE_REPLACEMENTPOLICY);
+    }
+
     public int getMemoryComponentPageSize() {
         return accessor.getInt(Option.STORAGE_MEMORYCOMPONENT_PAGESIZE);
     }
@@ -162,6 +188,10 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getInt(Option.STORAGE_MEMORYCOMPONENT_NUMCOMPONENTS);
     }
 
+    public int getMemoryComponentRebalanceInterval() {
+        return accessor.getInt(Option.STORAGE_MEMORYCOMPONENT_REBALANCEINTERVAL);
+    }
+
     public long getMemoryComponentGlobalBudget() {
         return accessor.getLong(Option.STORAGE_MEMORYCOMPONENT_GLOBALBUDGET);
     }
@@ -170,6 +200,18 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getDouble(Option.STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE);
     }
 
+    public int getMergeMaxConcurrent() {
+        return accessor.getInt(Option.STORAGE_LSM_MERGE_MAXCONCURRENT);
+    }
+
+    public long getMergeMaxBandwidth() {
+        return accessor.getLong(Option.STORAGE_LSM_MERGE_MAXBANDWIDTH);
+    }
+
+    public int getMergePartitions() {
+        return accessor.getInt(Option.STORAGE_LSM_MERGE_PARTITIONS);
+    }
+
     public int getBufferCacheNumPages() {
         return (int) (getBufferCacheSize() / (getBufferCachePageSize() + IBufferCache.RESERVED_HEADER_BYTES));
     }
@@ -25,6 +25,7 @@ import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNI
 import static org.apache.hyracks.util.StorageUtil.StorageUnit.KILOBYTE;
 import static org.apache.hyracks.util.StorageUtil.StorageUnit.MEGABYTE;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import org.apache.hyracks.api.config.IOption;
@@ -47,6 +48,16 @@ public class TransactionProperties extends AbstractProperties {
                 "The frequency (in seconds) the checkpoint thread should check to see if a checkpoint should be written"
         ),
         TXN_LOG_CHECKPOINT_HISTORY(INTEGER, 0, "The number of checkpoints to keep in the transaction log"),
+        TXN_LOG_CHECKPOINT_MAXFLUSHES(INTEGER, 0,
+                "The maximum number of datasets that checkpoints flush at a time, oldest memory components first, so "
+                        + "that the transaction log is truncated incrementally (0 flushes all the datasets that hold "
+                        + "back a checkpoint at once)"),
+        TXN_LOG_GROUPCOMMIT_MAXWAIT(INTEGER, 0,
+                "The maximum time (in microseconds) a transaction log flush waits for more log records to commit "
+                        + "together, adapted to the arrival rate of log records (0 disables the wait)"),
+        TXN_LOG_GROUPCOMMIT_BYTES(INTEGER_BYTE_UNIT, StorageUtil.getIntSizeInBytes(64, KILOBYTE),
+                "The size (in bytes) of the pending log records that ends the group commit wait of a transaction "
+                        + "log flush"),
         TXN_LOCK_ESCALATIONTHRESHOLD(INTEGER, 1000,
                 "The maximum number of entity locks to obtain before upgrading to a dataset lock"),
         TXN_LOCK_SHRINKTIMER(INTEGER, 5000,
@@ -56,7 +67,9 @@ public class TransactionProperties extends AbstractProperties {
         TXN_COMMITPROFILER_ENABLED(BOOLEAN, false, "Enable output of commit profiler logs"),
         TXN_COMMITPROFILER_REPORTINTERVAL(INTEGER, 5, "Interval (in seconds) to report commit profiler logs"),
         TXN_JOB_RECOVERY_MEMORYSIZE(LONG_BYTE_UNIT, StorageUtil.getLongSizeInBytes(64L, MEGABYTE),
-                "The memory budget (in bytes) used for recovery");
+                "The memory budget (in bytes) used for recovery"),
+        TXN_RECOVERY_REDOTHREADS(INTEGER, 1,
+                "The number of threads that redo the logs of different dataset partitions during recovery");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -101,6 +114,17 @@ public class TransactionProperties extends AbstractProperties {
         return accessor.getTransactionLogDirs().get(nodeId);
     }
 
+    /**
+     * @return the directories other than the log directory across which the transaction logs of the node are striped
+     */
+    public String[] getLogStripeDirectories(String nodeId) {
+        String[] stripeDirs = accessor.getTransactionLogStripeDirs().get(nodeId);
+        if (stripeDirs == null) {
+            return new String[0];
+        }
+        return Arrays.stream(stripeDirs).filter(dir -> !dir.isEmpty()).toArray(String[]::new);
+    }
+
     public Map<String, String> getLogDirectories() {
         return accessor.getTransactionLogDirs();
     }
@@ -125,10 +149,22 @@ public class TransactionProperties extends AbstractProperties {
         return accessor.getInt(Option.TXN_LOG_CHECKPOINT_POLLFREQUENCY);
     }
 
+    public int getLogGroupCommitMaxWait() {
+        return accessor.getInt(Option.TXN_LOG_GROUPCOMMIT_MAXWAIT);
+    }
+
+    public int getLogGroupCommitBytes() {
+        return accessor.getInt(Option.TXN_LOG_GROUPCOMMIT_BYTES);
+    }
+
     public int getCheckpointHistory() {
         return accessor.getInt(Option.TXN_LOG_CHECKPOINT_HISTORY);
     }
 
+    public int getCheckpointMaxFlushes() {
+        return accessor.getInt(Option.TXN_LOG_CHECKPOINT_MAXFLUSHES);
+    }
+
     public int getEntityToDatasetLockEscalationThreshold() {
         return accessor.getInt(Option.TXN_LOCK_ESCALATIONTHRESHOLD);
     }
@@ -156,4 +192,8 @@ public class TransactionProperties extends AbstractProperties {
     public long getJobRecoveryMemorySize() {
         return accessor.getLong(Option.TXN_JOB_RECOVERY_MEMORYSIZE);
     }
+
+    public int getRecoveryRedoThreads() {
+        return accessor.getInt(Option.TXN_RECOVERY_REDOTHREADS);
+    }
 }
@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,6 +51,8 @@ import org.apache.hyracks.storage.common.ILocalResourceRepository;
 import org.apache.hyracks.storage.common.LocalResource;
 
 public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeCycleComponent {
+    private static final long MEMORY_RELEASE_TIMEOUT_MS = 60000;
+    private static final long MEMORY_RELEASE_POLL_MS = 10;
     private final Map<Integer, DatasetResource> datasets = new ConcurrentHashMap<>();
     private final StorageProperties storageProperties;
     private final ILocalResourceRepository resourceRepository;
@@ -59,6 +63,7 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
     private final LogRecord logRecord;
     private final int numPartitions;
     private volatile boolean stopped = false;
+    private DatasetMemoryRebalancer memoryRebalancer;
 
     public DatasetLifecycleManager(StorageProperties storageProperties, ILocalResourceRepository resourceRepository,
             int firstAvilableUserDatasetID, ILogManager logManager, int numPartitions) {
@@ -342,6 +347,11 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
     @Override
     public synchronized void start() {
         used = 0;
+        int rebalanceInterval = storageProperties.getMemoryComponentRebalanceInterval();
+        if (rebalanceInterval > 0) {
+            memoryRebalancer = new DatasetMemoryRebalancer(this, rebalanceInterval);
+            memoryRebalancer.start();
+        }
     }
 
     @Override
@@ -361,29 +371,236 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
 
     @Override
     public synchronized void scheduleAsyncFlushForLaggingDatasets(long targetLSN) throws HyracksDataException {
+        scheduleAsyncFlushForLaggingDatasets(targetLSN, 0);
+    }
+
+    @Override
+    public synchronized void scheduleAsyncFlushForLaggingDatasets(long targetLSN, int maxFlushes)
+            throws HyracksDataException {
         //schedule flush for datasets with min LSN (Log Serial Number) < targetLSN
+        if (maxFlushes <= 0) {
+            for (DatasetResource dsr : datasets.values()) {
+                scheduleAsyncFlushIfLagging(dsr, targetLSN);
+            }
+            return;
+        }
+        //incremental checkpoint: only flush the datasets with the oldest memory components, so that the flushes
+        //(and the truncation of the log) are spread over the checkpoint rounds
+        int flushesInProgress = 0;
+        List<DatasetResource> laggingDatasets = new ArrayList<>();
+        Map<DatasetResource, Long> laggingFirstLSNs = new HashMap<>();
         for (DatasetResource dsr : datasets.values()) {
-            PrimaryIndexOperationTracker opTracker = dsr.getOpTracker();
-            synchronized (opTracker) {
-                for (IndexInfo iInfo : dsr.getIndexes().values()) {
-                    AbstractLSMIOOperationCallback ioCallback =
-                            (AbstractLSMIOOperationCallback) iInfo.getIndex().getIOOperationCallback();
-                    if (!(((AbstractLSMIndex) iInfo.getIndex()).isCurrentMutableComponentEmpty()
-                            || ioCallback.hasPendingFlush() || opTracker.isFlushLogCreated()
-                            || opTracker.isFlushOnExit())) {
-                        long firstLSN = ioCallback.getFirstLSN();
-                        if (firstLSN < targetLSN) {
-                            opTracker.setFlushOnExit(true);
-                            if (opTracker.getNumActiveOperations() == 0) {
-                                // No Modify operations currently, we need to trigger the flush and we can do so safely
-                                opTracker.flushIfRequested();
-                            }
-                            break;
-                        }
+            synchronized (dsr.getOpTracker()) {
+                if (isFlushInProgress(dsr)) {
+                    flushesInProgress++;
+                    continue;
+                }
+                long firstLSN = getLaggingFirstLSN(dsr, targetLSN);
+                if (firstLSN < targetLSN) {
+                    laggingDatasets.add(dsr);
+                    laggingFirstLSNs.put(dsr, firstLSN);
+                }
+            }
+        }
+        laggingDatasets.sort(Comparator.comparing(laggingFirstLSNs::get));
+        for (int i = 0; i < laggingDatasets.size() && flushesInProgress < maxFlushes; i++) {
+            if (scheduleAsyncFlushIfLagging(laggingDatasets.get(i), targetLSN)) {
+                flushesInProgress++;
+            }
+        }
+    }
+
+    private static boolean scheduleAsyncFlushIfLagging(DatasetResource dsr, long targetLSN)
+            throws HyracksDataException {
+        PrimaryIndexOperationTracker opTracker = dsr.getOpTracker();
+        synchronized (opTracker) {
+            if (opTracker.isFlushLogCreated() || opTracker.isFlushOnExit()
+                    || getLaggingFirstLSN(dsr, targetLSN) >= targetLSN) {
+                return false;
+            }
+            scheduleAsyncFlush(opTracker);
+            return true;
+        }
+    }
+
+    /*
+     * The caller must hold the lock of the operation tracker.
+     */
+    private static void scheduleAsyncFlush(PrimaryIndexOperationTracker opTracker) throws HyracksDataException {
+        opTracker.setFlushOnExit(true);
+        if (opTracker.getNumActiveOperations() == 0) {
+            // No Modify operations currently, we need to trigger the flush and we can do so safely
+            opTracker.flushIfRequested();
+        }
+    }
+
+    /**
+     * Resizes the memory component budget of the open user datasets according to their write rates, within the
+     * global memory component budget. The datasets whose memory components exceed their reduced budget are flushed,
+     * and the other datasets only grow into the memory that is not held by memory components.
+     *
+     * @see DatasetMemoryRebalancer
+     */
+    public synchronized void rebalanceMemory() throws HyracksDataException {
+        if (stopped) {
+            return;
+        }
+        List<DatasetResource> openDatasets = new ArrayList<>();
+        long openDatasetsSize = 0;
+        for (DatasetResource dsr : datasets.values()) {
+            DatasetInfo dsInfo = dsr.getDatasetInfo();
+            if (dsInfo.isOpen() && dsInfo.isMemoryAllocated() && !dsInfo.isExternal()
+                    && dsInfo.getDatasetID() >= getFirstAvilableUserDatasetID()) {
+                openDatasets.add(dsr);
+                openDatasetsSize += dsr.getVirtualBufferCaches().getTotalSize();
+            }
+        }
+        if (openDatasets.isEmpty()) {
+            return;
+        }
+        long[] writeRates = new long[openDatasets.size()];
+        int[] defaultNumPages = new int[openDatasets.size()];
+        for (int i = 0; i < openDatasets.size(); i++) {
+            DatasetVirtualBufferCaches vbcs = openDatasets.get(i).getVirtualBufferCaches();
+            writeRates[i] = vbcs.updateWriteRate();
+            defaultNumPages[i] = vbcs.getDefaultNumPages();
+        }
+        int pageSize = storageProperties.getMemoryComponentPageSize();
+        long availablePages = (capacity - used + openDatasetsSize) / pageSize;
+        int[] numPages = DatasetMemoryRebalancer.computeNumPages(writeRates, defaultNumPages, availablePages);
+        if (numPages == null) {
+            return;
+        }
+        // the pages over a reduced budget are only released when the memory components are flushed, so the datasets
+        // only grow into the memory that is free and reach their new budget once the shrunk datasets were flushed
+        for (int i = 0; i < openDatasets.size(); i++) {
+            if (numPages[i] < openDatasets.get(i).getVirtualBufferCaches().getNumPages()) {
+                resizeDatasetMemory(openDatasets.get(i), numPages[i]);
+            }
+        }
+        long freePages = (capacity - used - getUnreleasedSize()) / pageSize;
+        for (int i = 0; i < openDatasets.size(); i++) {
+            DatasetResource dsr = openDatasets.get(i);
+            int oldNumPages = dsr.getVirtualBufferCaches().getNumPages();
+            if (numPages[i] > oldNumPages && freePages > 0) {
+                int growth = (int) Math.min(numPages[i] - oldNumPages, freePages);
+                resizeDatasetMemory(dsr, oldNumPages + growth);
+                freePages -= growth;
+            }
+            // flush the cold datasets that hold more memory than their new budget
+            synchronized (dsr.getOpTracker()) {
+                if (dsr.getVirtualBufferCaches().isFull() && !isFlushInProgress(dsr)
+                        && getLaggingFirstLSN(dsr, Long.MAX_VALUE) < Long.MAX_VALUE) {
+                    scheduleAsyncFlush(dsr.getOpTracker());
+                }
+            }
+        }
+    }
+
+    private void resizeDatasetMemory(DatasetResource dsr, int numPages) {
+        DatasetVirtualBufferCaches vbcs = dsr.getVirtualBufferCaches();
+        long oldSize = vbcs.getTotalSize();
+        vbcs.setNumPages(numPages);
+        used += vbcs.getTotalSize() - oldSize;
+    }
+
+    /*
+     * Gives the datasets that grew their memory component budget back their configured budget.
+     * Returns true if memory was released.
+     */
+    private boolean restoreDefaultDatasetMemory() {
+        boolean released = false;
+        for (DatasetResource dsr : datasets.values()) {
+            DatasetVirtualBufferCaches vbcs = dsr.getVirtualBufferCaches();
+            if (dsr.getDatasetInfo().isMemoryAllocated() && vbcs.getNumPages() > vbcs.getDefaultNumPages()) {
+                resizeDatasetMemory(dsr, vbcs.getDefaultNumPages());
+                released = true;
+            }
+        }
+        return released;
+    }
+
+    /*
+     * Flushes the datasets whose memory components hold pages over their budget and waits until some of these pages
+     * are released. Returns true if memory was released.
+     */
+    private boolean awaitDatasetMemoryRelease() throws HyracksDataException {
+        long unreleased = getUnreleasedSize();
+        if (unreleased == 0) {
+            return false;
+        }
+        for (DatasetResource dsr : datasets.values()) {
+            if (dsr.getDatasetInfo().isMemoryAllocated() && dsr.getVirtualBufferCaches().getUnreleasedSize() > 0) {
+                synchronized (dsr.getOpTracker()) {
+                    if (!isFlushInProgress(dsr) && getLaggingFirstLSN(dsr, Long.MAX_VALUE) < Long.MAX_VALUE) {
+                        scheduleAsyncFlush(dsr.getOpTracker());
                     }
                 }
             }
         }
+        long deadline = System.currentTimeMillis() + MEMORY_RELEASE_TIMEOUT_MS;
+        while (getUnreleasedSize() >= unreleased) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                // the memory is released by the flushes, which may need this lock to complete
+                wait(MEMORY_RELEASE_POLL_MS);
+            } catch (InterruptedException e) {
+                throw new HyracksDataException(e);
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Returns the size of the pages that the memory components hold over their budget. A reduced budget only releases
+     * the pages when the memory components are flushed, so until then the pages cannot be given to other datasets.
+     */
+    private long getUnreleasedSize() {
+        long unreleased = 0;
+        for (DatasetResource dsr : datasets.values()) {
+            if (dsr.getDatasetInfo().isMemoryAllocated()) {
+                unreleased += dsr.getVirtualBufferCaches().getUnreleasedSize();
+            }
+        }
+        return unreleased;
+    }
+
+    /*
+     * Returns the smallest first LSN of the memory components of the dataset that can be flushed, or Long.MAX_VALUE
+     * if none of them is behind the targetLSN. The caller must hold the lock of the dataset's operation tracker.
+     */
+    private static long getLaggingFirstLSN(DatasetResource dsr, long targetLSN) throws HyracksDataException {
+        long minFirstLSN = Long.MAX_VALUE;
+        for (IndexInfo iInfo : dsr.getIndexes().values()) {
+            AbstractLSMIOOperationCallback ioCallback =
+                    (AbstractLSMIOOperationCallback) iInfo.getIndex().getIOOperationCallback();
+            if (!(((AbstractLSMIndex) iInfo.getIndex()).isCurrentMutableComponentEmpty()
+                    || ioCallback.hasPendingFlush())) {
+                long firstLSN = ioCallback.getFirstLSN();
+                if (firstLSN < targetLSN) {
+                    minFirstLSN = Math.min(minFirstLSN, firstLSN);
+                }
+            }
+        }
+        return minFirstLSN;
+    }
+
+    /*
+     * The caller must hold the lock of the dataset's operation tracker.
+     */
+    private static boolean isFlushInProgress(DatasetResource dsr) {
+        PrimaryIndexOperationTracker opTracker = dsr.getOpTracker();
+        if (opTracker.isFlushLogCreated() || opTracker.isFlushOnExit()) {
+            return true;
+        }
+        for (IndexInfo iInfo : dsr.getIndexes().values()) {
+            if (((AbstractLSMIOOperationCallback) iInfo.getIndex().getIOOperationCallback()).hasPendingFlush()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /*
@@ -486,6 +703,10 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
         if (dumpState) {
             dumpState(outputStream);
         }
+        if (memoryRebalancer != null) {
+            memoryRebalancer.shutdown();
+            memoryRebalancer.interrupt();
+        }
 
         closeAllDatasets();
 
@@ -501,17 +722,19 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
         sb.append(String.format("Memory used = %d\n", used));
         sb.append("\n");
 
-        String dsHeaderFormat = "%-10s %-6s %-16s %-12s\n";
-        String dsFormat = "%-10d %-6b %-16d %-12d\n";
+        String dsHeaderFormat = "%-10s %-6s %-16s %-14s %-14s %-12s\n";
+        String dsFormat = "%-10d %-6b %-16d %-14d %-14d %-12d\n";
         String idxHeaderFormat = "%-10s %-11s %-6s %-16s %-6s\n";
         String idxFormat = "%-10d %-11d %-6b %-16d %-6s\n";
 
         sb.append("[Datasets]\n");
-        sb.append(String.format(dsHeaderFormat, "DatasetID", "Open", "Reference Count", "Last Access"));
+        sb.append(String.format(dsHeaderFormat, "DatasetID", "Open", "Reference Count", "Memory Pages", "Write Rate",
+                "Last Access"));
         for (DatasetResource dsr : datasets.values()) {
             DatasetInfo dsInfo = dsr.getDatasetInfo();
+            DatasetVirtualBufferCaches vbcs = dsr.getVirtualBufferCaches();
             sb.append(String.format(dsFormat, dsInfo.getDatasetID(), dsInfo.isOpen(), dsInfo.getReferenceCount(),
-                    dsInfo.getLastAccess()));
+                    vbcs.getNumPages(), vbcs.getWriteRate(), dsInfo.getLastAccess()));
         }
         sb.append("\n");
 
@@ -541,7 +764,9 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
         }
         synchronized (dsInfo) {
             if (dsInfo.isOpen() && dsInfo.isMemoryAllocated()) {
-                used -= getVirtualBufferCaches(dsInfo.getDatasetID()).getTotalSize();
+                DatasetVirtualBufferCaches vbcs = getVirtualBufferCaches(dsInfo.getDatasetID());
+                used -= vbcs.getTotalSize();
+                vbcs.setNumPages(vbcs.getDefaultNumPages());
                 dsInfo.setMemoryAllocated(false);
             }
         }
@@ -561,8 +786,8 @@ public class DatasetLifecycleManager implements IDatasetLifecycleManager, ILifeC
             // This is not needed for external datasets' indexes since they never use the virtual buffer cache.
             if (!dsInfo.isMemoryAllocated() && !dsInfo.isExternal()) {
                 long additionalSize = getVirtualBufferCaches(dsInfo.getDatasetID()).getTotalSize();
-                while (used + additionalSize > capacity) {
-                    if (!evictCandidateDataset()) {
+                while (used + getUnreleasedSize() + additionalSize > capacity) {
+                    if (!evictCandidateDataset() && !restoreDefaultDatasetMemory() && !awaitDatasetMemoryRelease()) {
                         throw new HyracksDataException("Cannot allocate dataset " + dsInfo.getDatasetID()
                                 + " memory since memory budget would be exceeded.");
                     }
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.common.context;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A daemon thread that periodically rebalances the memory component budget of the open datasets according to their
+ * write rates, within the global memory component budget of the node. Datasets that are written to get a larger
+ * budget, so that they flush larger components less often, and cold datasets are shrunk to a minimum budget.
+ *
+ * @see DatasetLifecycleManager#rebalanceMemory()
+ */
+public class DatasetMemoryRebalancer extends Thread {
+
+    private static final Logger LOGGER = Logger.getLogger(DatasetMemoryRebalancer.class.getName());
+    // the budget of a dataset stays within [default / MIN_BUDGET_DIVISOR, default * MAX_BUDGET_FACTOR]
+    private static final int MIN_BUDGET_DIVISOR = 4;
+    private static final int MAX_BUDGET_FACTOR = 4;
+
+    private final DatasetLifecycleManager datasetLifecycleManager;
+    private final long intervalInSecs;
+    private volatile boolean shouldRun = true;
+
+    public DatasetMemoryRebalancer(DatasetLifecycleManager datasetLifecycleManager, long intervalInSecs) {
+        this.datasetLifecycleManager = datasetLifecycleManager;
+        this.intervalInSecs = intervalInSecs;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        Thread.currentThread().setName("Dataset Memory Rebalancer");
+        while (shouldRun) {
+            try {
+                sleep(intervalInSecs * 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!shouldRun) {
+                return;
+            }
+            try {
+                datasetLifecycleManager.rebalanceMemory();
+            } catch (HyracksDataException e) {
+                LOGGER.log(Level.WARNING, "Error while rebalancing the memory of the datasets", e);
+            }
+        }
+    }
+
+    public void shutdown() {
+        shouldRun = false;
+    }
+
+    /**
+     * Computes the number of memory component pages of the datasets. Each dataset gets a minimum budget, and the
+     * remaining pages are shared in proportion to the write rates, up to a maximum budget per dataset. When none of
+     * the datasets is written to, they get their configured budget back if it fits.
+     *
+     * @param writeRates
+     *            the write rates of the datasets
+     * @param defaultNumPages
+     *            the configured number of pages of the datasets
+     * @param availablePages
+     *            the number of pages that the datasets share
+     * @return the number of pages of the datasets, or null if the datasets do not fit in the available pages
+     */
+    public static int[] computeNumPages(long[] writeRates, int[] defaultNumPages, long availablePages) {
+        int[] numPages = new int[writeRates.length];
+        long remainingPages = availablePages;
+        long totalWriteRate = 0;
+        for (int i = 0; i < writeRates.length; i++) {
+            numPages[i] = Math.max(defaultNumPages[i] / MIN_BUDGET_DIVISOR, 1);
+            remainingPages -= numPages[i];
+            totalWriteRate += writeRates[i];
+        }
+        if (remainingPages < 0) {
+            return null;
+        }
+        if (totalWriteRate > 0) {
+            for (int i = 0; i < writeRates.length; i++) {
+                long share = (long) (remainingPages * ((double) writeRates[i] / totalWriteRate));
+                numPages[i] = (int) Math.min(numPages[i] + share, (long) defaultNumPages[i] * MAX_BUDGET_FACTOR);
+            }
+            return numPages;
+        }
+        long totalDefaultNumPages = 0;
+        for (int defaultNumPage : defaultNumPages) {
+            totalDefaultNumPages += defaultNumPage;
+        }
+        return totalDefaultNumPages <= availablePages ? defaultNumPages.clone() : numPages;
+    }
+}
@@ -36,6 +36,11 @@ public class DatasetVirtualBufferCaches {
     private final int firstAvilableUserDatasetID;
     private final int numPartitions;
     private final Map<Integer, List<IVirtualBufferCache>> ioDeviceVirtualBufferCaches = new HashMap<>();
+    private final List<VirtualBufferCache> virtualBufferCaches = new ArrayList<>();
+    private volatile int numPages;
+    // the moving average of the pages that the memory components use per rebalancing round of the memory budget
+    private long writeRate = 0;
+    private long lastTotalPagesUsed = 0;
 
     public DatasetVirtualBufferCaches(int datasetID, StorageProperties storageProperties,
             int firstAvilableUserDatasetID, int numPartitions) {
@@ -43,22 +48,21 @@ public class DatasetVirtualBufferCaches {
         this.storageProperties = storageProperties;
         this.firstAvilableUserDatasetID = firstAvilableUserDatasetID;
         this.numPartitions = numPartitions;
+        this.numPages = getDefaultNumPages();
     }
 
     public List<IVirtualBufferCache> initializeVirtualBufferCaches(IResourceMemoryManager memoryManager,
             int ioDeviceNum) {
-        int numPages = datasetID < firstAvilableUserDatasetID
-                ? storageProperties.getMetadataMemoryComponentNumPages()
-                : storageProperties.getMemoryComponentNumPages();
+        int numPages = getDefaultNumPages();
         List<IVirtualBufferCache> vbcs = new ArrayList<>();
         for (int i = 0; i < storageProperties.getMemoryComponentsNum(); i++) {
-            MultitenantVirtualBufferCache vbc = new MultitenantVirtualBufferCache(
-                    new VirtualBufferCache(
-                            new ResourceHeapBufferAllocator(memoryManager,
-                                    Integer.toString(datasetID)),
-                            storageProperties.getMemoryComponentPageSize(),
-                            numPages / storageProperties.getMemoryComponentsNum() / numPartitions));
-            vbcs.add(vbc);
+            VirtualBufferCache vbc = new VirtualBufferCache(
+                    new ResourceHeapBufferAllocator(memoryManager, Integer.toString(datasetID)),
+                    storageProperties.getMemoryComponentPageSize(),
+                    numPages / storageProperties.getMemoryComponentsNum() / numPartitions);
+            vbc.setPageBudget(getPageBudget(vbc, this.numPages));
+            virtualBufferCaches.add(vbc);
+            vbcs.add(new MultitenantVirtualBufferCache(vbc));
         }
         ioDeviceVirtualBufferCaches.put(ioDeviceNum, vbcs);
         return vbcs;
@@ -75,9 +79,94 @@ public class DatasetVirtualBufferCaches {
     }
 
     public long getTotalSize() {
-        int numPages = datasetID < firstAvilableUserDatasetID
-                ? storageProperties.getMetadataMemoryComponentNumPages()
-                : storageProperties.getMemoryComponentNumPages();
         return storageProperties.getMemoryComponentPageSize() * ((long) numPages);
     }
+
+    /**
+     * @return the configured number of pages of the memory components of the dataset
+     */
+    public int getDefaultNumPages() {
+        return datasetID < firstAvilableUserDatasetID ? storageProperties.getMetadataMemoryComponentNumPages()
+                : storageProperties.getMemoryComponentNumPages();
+    }
+
+    public int getNumPages() {
+        return numPages;
+    }
+
+    /**
+     * Resizes the memory budget of the dataset, which is shared by the memory components of all its indexes.
+     */
+    public void setNumPages(int numPages) {
+        synchronized (ioDeviceVirtualBufferCaches) {
+            this.numPages = numPages;
+            for (VirtualBufferCache vbc : virtualBufferCaches) {
+                vbc.setPageBudget(getPageBudget(vbc, numPages));
+            }
+        }
+    }
+
+    /**
+     * Observes the pages that the memory components used since the last call.
+     *
+     * @return the moving average of the pages used per call
+     */
+    public long updateWriteRate() {
+        long totalPagesUsed = 0;
+        synchronized (ioDeviceVirtualBufferCaches) {
+            for (VirtualBufferCache vbc : virtualBufferCaches) {
+                totalPagesUsed += vbc.getTotalPagesUsed();
+            }
+        }
+        writeRate = (writeRate + totalPagesUsed - lastTotalPagesUsed) / 2;
+        lastTotalPagesUsed = totalPagesUsed;
+        return writeRate;
+    }
+
+    public long getWriteRate() {
+        return writeRate;
+    }
+
+    /**
+     * @return the size of the pages that the memory components of the dataset hold
+     */
+    public long getAllocatedSize() {
+        long allocatedPages = 0;
+        synchronized (ioDeviceVirtualBufferCaches) {
+            for (VirtualBufferCache vbc : virtualBufferCaches) {
+                allocatedPages += vbc.getAllocatedPages();
+            }
+        }
+        return storageProperties.getMemoryComponentPageSize() * allocatedPages;
+    }
+
+    /**
+     * @return the size of the pages that the memory components hold over their budget, which are only released when
+     *         the memory components are reset after a flush
+     */
+    public long getUnreleasedSize() {
+        long unreleasedPages = 0;
+        synchronized (ioDeviceVirtualBufferCaches) {
+            for (VirtualBufferCache vbc : virtualBufferCaches) {
+                unreleasedPages += Math.max(vbc.getAllocatedPages() - vbc.getPageBudget(), 0);
+            }
+        }
+        return storageProperties.getMemoryComponentPageSize() * unreleasedPages;
+    }
+
+    public boolean isFull() {
+        synchronized (ioDeviceVirtualBufferCaches) {
+            for (VirtualBufferCache vbc : virtualBufferCaches) {
+                if (vbc.isFull()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private int getPageBudget(VirtualBufferCache vbc, int numPages) {
+        return numPages == getDefaultNumPages() ? vbc.getNumPages()
+                : Math.max(numPages / storageProperties.getMemoryComponentsNum() / numPartitions, 1);
+    }
 }
@@ -26,6 +26,7 @@ public class CheckpointProperties {
     private final int lsnThreshold;
     private final int pollFrequency;
     private final int historyToKeep;
+    private final int maxFlushes;
 
     public CheckpointProperties(TransactionProperties txnProperties, String nodeId) {
         // Currently we use the log files directory for checkpoints
@@ -33,6 +34,7 @@ public class CheckpointProperties {
         lsnThreshold = txnProperties.getCheckpointLSNThreshold();
         pollFrequency = txnProperties.getCheckpointPollFrequency();
         historyToKeep = txnProperties.getCheckpointHistory();
+        maxFlushes = txnProperties.getCheckpointMaxFlushes();
     }
 
     public int getLsnThreshold() {
@@ -47,6 +49,10 @@ public class CheckpointProperties {
         return historyToKeep;
     }
 
+    public int getMaxFlushes() {
+        return maxFlushes;
+    }
+
     public String getCheckpointDirPath() {
         return checkpointDirPath;
     }
@@ -32,6 +32,8 @@ public class LogManagerProperties implements Serializable {
     // follow the naming convention <logFilePrefix>_<number> where number starts from 0
     private final String logFilePrefix;
     private final String logDir;
+    // directories across which the log files are striped besides the log directory
+    private final String[] logStripeDirs;
 
     // number of log pages in the log buffer
     private final int logPageSize;
@@ -39,13 +41,20 @@ public class LogManagerProperties implements Serializable {
     private final int numLogPages;
     // maximum size of each log file
     private final long logPartitionSize;
+    // maximum wait (in microseconds) of a log flush for more log records to commit together
+    private final int groupCommitMaxWait;
+    // size of the pending log records that ends the group commit wait
+    private final int groupCommitBytes;
 
     public LogManagerProperties(TransactionProperties txnProperties, String nodeId) {
         this.logPageSize = txnProperties.getLogBufferPageSize();
         this.numLogPages = txnProperties.getLogBufferNumPages();
         long logPartitionSize = txnProperties.getLogPartitionSize();
         this.logDir = txnProperties.getLogDirectory(nodeId);
+        this.logStripeDirs = txnProperties.getLogStripeDirectories(nodeId);
         this.logFilePrefix = DEFAULT_LOG_FILE_PREFIX;
+        this.groupCommitMaxWait = txnProperties.getLogGroupCommitMaxWait();
+        this.groupCommitBytes = txnProperties.getLogGroupCommitBytes();
         int logBufferSize = logPageSize * numLogPages;
         //make sure that the log partition size is the multiple of log buffer size.
         this.logPartitionSize = (logPartitionSize / logBufferSize) * logBufferSize;
@@ -63,6 +72,10 @@ public class LogManagerProperties implements Serializable {
         return logDir;
     }
 
+    public String[] getLogStripeDirs() {
+        return logStripeDirs;
+    }
+
     public int getLogPageSize() {
         return logPageSize;
     }
@@ -71,14 +84,25 @@ public class LogManagerProperties implements Serializable {
         return numLogPages;
     }
 
+    public int getGroupCommitMaxWait() {
+        return groupCommitMaxWait;
+    }
+
+    public int getGroupCommitBytes() {
+        return groupCommitBytes;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append("log_dir_ : " + logDir + lineSeparator);
+        builder.append("log_stripe_dirs : " + String.join(",", logStripeDirs) + lineSeparator);
         builder.append("log_file_prefix" + logFilePrefix + lineSeparator);
         builder.append("log_page_size : " + logPageSize + lineSeparator);
         builder.append("num_log_pages : " + numLogPages + lineSeparator);
         builder.append("log_partition_size : " + logPartitionSize + lineSeparator);
+        builder.append("group_commit_max_wait : " + groupCommitMaxWait + lineSeparator);
+        builder.append("group_commit_bytes : " + groupCommitBytes + lineSeparator);
         return builder.toString();
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.test.context;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.asterix.common.config.StorageProperties;
+import org.apache.asterix.common.context.DatasetInfo;
+import org.apache.asterix.common.context.DatasetLifecycleManager;
+import org.apache.asterix.common.context.DatasetMemoryRebalancer;
+import org.apache.asterix.common.transactions.ILogManager;
+import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
+import org.apache.hyracks.storage.common.ILocalResourceRepository;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DatasetMemoryRebalancerTest {
+    private static final int PAGE_SIZE = 128;
+    private static final int NUM_PAGES = 15;
+    private static final long GLOBAL_BUDGET = 3L * NUM_PAGES * PAGE_SIZE;
+
+    @Test
+    public void hotDatasetsGrowTest() {
+        int[] numPages = DatasetMemoryRebalancer.computeNumPages(new long[] { 0, 30, 10 },
+                new int[] { 100, 100, 100 }, 300);
+        // the cold dataset shrinks to the minimum, and the others share the rest according to their write rates
+        Assert.assertArrayEquals(new int[] { 25, 25 + 168, 25 + 56 }, numPages);
+    }
+
+    @Test
+    public void maximumBudgetTest() {
+        int[] numPages = DatasetMemoryRebalancer.computeNumPages(new long[] { 1, 0 }, new int[] { 100, 100 }, 10000);
+        Assert.assertArrayEquals(new int[] { 400, 25 }, numPages);
+    }
+
+    @Test
+    public void idleDatasetsTest() {
+        Assert.assertArrayEquals(new int[] { 100, 100 },
+                DatasetMemoryRebalancer.computeNumPages(new long[] { 0, 0 }, new int[] { 100, 100 }, 300));
+        Assert.assertArrayEquals(new int[] { 25, 25 },
+                DatasetMemoryRebalancer.computeNumPages(new long[] { 0, 0 }, new int[] { 100, 100 }, 150));
+        Assert.assertNull(
+                DatasetMemoryRebalancer.computeNumPages(new long[] { 0, 0 }, new int[] { 100, 100 }, 40));
+    }
+
+    @Test
+    public void globalBudgetTest() throws Exception {
+        StorageProperties storageProperties = mock(StorageProperties.class);
+        when(storageProperties.getMemoryComponentGlobalBudget()).thenReturn(GLOBAL_BUDGET);
+        when(storageProperties.getMemoryComponentPageSize()).thenReturn(PAGE_SIZE);
+        when(storageProperties.getMemoryComponentsNum()).thenReturn(1);
+        when(storageProperties.getMemoryComponentNumPages()).thenReturn(NUM_PAGES);
+        when(storageProperties.getMetadataMemoryComponentNumPages()).thenReturn(NUM_PAGES);
+        DatasetLifecycleManager dlm = new DatasetLifecycleManager(storageProperties,
+                mock(ILocalResourceRepository.class), 1, mock(ILogManager.class), 1);
+        IVirtualBufferCache hot = openDataset(dlm, 1);
+        IVirtualBufferCache cold = openDataset(dlm, 2);
+        fill(cold);
+        for (int round = 0; round < 10; round++) {
+            // the hot dataset is flushed whenever it is full, the cold one only in the 6th round
+            fill(hot);
+            hot.reset();
+            if (round == 5) {
+                cold.reset();
+            }
+            dlm.rebalanceMemory();
+            fill(hot);
+            assertWithinGlobalBudget(dlm, 3);
+        }
+        // once the cold dataset released its memory, the hot dataset uses it
+        Assert.assertEquals(NUM_PAGES / 4, dlm.getDatasetLifecycle(2).getVirtualBufferCaches().getNumPages());
+        Assert.assertEquals(3 * NUM_PAGES - NUM_PAGES / 4,
+                dlm.getDatasetLifecycle(1).getVirtualBufferCaches().getNumPages());
+
+        // a dataset that is opened waits for the grown dataset to release the memory over its configured budget
+        Thread flusher = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            hot.reset();
+        });
+        flusher.start();
+        IVirtualBufferCache opened = openDataset(dlm, 3);
+        flusher.join();
+        fill(opened);
+        Assert.assertEquals(NUM_PAGES, dlm.getDatasetLifecycle(1).getVirtualBufferCaches().getNumPages());
+        assertWithinGlobalBudget(dlm, 4);
+    }
+
+    private static IVirtualBufferCache openDataset(DatasetLifecycleManager dlm, int datasetId) throws Exception {
+        DatasetInfo dsInfo = dlm.getDatasetLifecycle(datasetId).getDatasetInfo();
+        dsInfo.setOpen(true);
+        // a dataset in use is not evicted
+        dsInfo.touch();
+        List<IVirtualBufferCache> vbcs = dlm.getVirtualBufferCaches(datasetId, 0);
+        Assert.assertEquals(1, vbcs.size());
+        vbcs.get(0).open();
+        return vbcs.get(0);
+    }
+
+    private static void fill(IVirtualBufferCache vbc) throws Exception {
+        for (int pageId = 0; !vbc.isFull(); pageId++) {
+            vbc.pin(BufferedFileHandle.getDiskPageId(0, pageId), true);
+        }
+    }
+
+    private static void assertWithinGlobalBudget(DatasetLifecycleManager dlm, int numDatasets) {
+        long allocated = 0;
+        for (int datasetId = 1; datasetId < numDatasets; datasetId++) {
+            allocated += dlm.getDatasetLifecycle(datasetId).getVirtualBufferCaches().getAllocatedSize();
+        }
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated <= GLOBAL_BUDGET);
+    }
+}
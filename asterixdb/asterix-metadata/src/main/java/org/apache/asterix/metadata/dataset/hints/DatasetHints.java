@@ -24,6 +24,7 @@ import java.util.Set;
 import org.apache.asterix.common.dataflow.ICcApplicationContext;
 import org.apache.asterix.runtime.utils.ClusterStateManager;
 import org.apache.hyracks.algebricks.common.utils.Pair;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 
 /**
  * Collection of hints supported by create dataset statement.
@@ -58,6 +59,9 @@ public class DatasetHints {
         Set<IHint> hints = new HashSet<>();
         hints.add(new DatasetCardinalityHint());
         hints.add(new DatasetNodegroupCardinalityHint());
+        hints.add(new DatasetCompressionHint());
+        hints.add(new DatasetBloomFilterHint());
+        hints.add(new DatasetMemoryComponentHint());
         return hints;
     }
 
@@ -127,4 +131,75 @@ public class DatasetHints {
 
     }
 
+    /**
+     * Hint representing the compression scheme of the pages of the dataset's on-disk components.
+     */
+    public static class DatasetCompressionHint implements IHint {
+        public static final String NAME = "COMPRESSION";
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Pair<Boolean, String> validateValue(ICcApplicationContext appCtx, String value) {
+            try {
+                CompressionScheme.fromName(value);
+            } catch (IllegalArgumentException e) {
+                return new Pair<>(false, e.getMessage());
+            }
+            return new Pair<>(true, null);
+        }
+
+    }
+
+    /**
+     * Hint representing the layout of the bloom filters of the dataset's on-disk components. Blocked filters
+     * answer a lookup with a single page access at the cost of a slightly higher false positive rate.
+     */
+    public static class DatasetBloomFilterHint implements IHint {
+        public static final String NAME = "BLOOM_FILTER";
+        public static final String STANDARD = "standard";
+        public static final String BLOCKED = "blocked";
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Pair<Boolean, String> validateValue(ICcApplicationContext appCtx, String value) {
+            if (STANDARD.equalsIgnoreCase(value) || BLOCKED.equalsIgnoreCase(value)) {
+                return new Pair<>(true, null);
+            }
+            return new Pair<>(false, "Value must be " + STANDARD + " or " + BLOCKED);
+        }
+
+    }
+
+    /**
+     * Hint representing the structure of the in-memory components of the dataset's BTree indexes. Skip lists let
+     * concurrent writers insert without latching pages.
+     */
+    public static class DatasetMemoryComponentHint implements IHint {
+        public static final String NAME = "MEMORY_COMPONENT";
+        public static final String BTREE = "btree";
+        public static final String SKIPLIST = "skiplist";
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Pair<Boolean, String> validateValue(ICcApplicationContext appCtx, String value) {
+            if (BTREE.equalsIgnoreCase(value) || SKIPLIST.equalsIgnoreCase(value)) {
+                return new Pair<>(true, null);
+            }
+            return new Pair<>(false, "Value must be " + BTREE + " or " + SKIPLIST);
+        }
+
+    }
+
 }
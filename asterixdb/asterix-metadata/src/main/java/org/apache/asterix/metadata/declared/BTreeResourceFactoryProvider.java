@@ -18,6 +18,8 @@
  */
 package org.apache.asterix.metadata.declared;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -29,8 +31,13 @@ import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.external.indexing.FilesIndexDescription;
 import org.apache.asterix.external.indexing.IndexingConstants;
 import org.apache.asterix.metadata.api.IResourceFactoryProvider;
+import org.apache.asterix.metadata.dataset.hints.DatasetHints.DatasetBloomFilterHint;
+import org.apache.asterix.metadata.dataset.hints.DatasetHints.DatasetCompressionHint;
+import org.apache.asterix.metadata.dataset.hints.DatasetHints.DatasetMemoryComponentHint;
 import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
+import org.apache.asterix.metadata.entities.InternalDatasetDetails;
+import org.apache.asterix.metadata.utils.DatasetUtil;
 import org.apache.asterix.metadata.utils.IndexUtil;
 import org.apache.asterix.om.types.ARecordType;
 import org.apache.asterix.om.types.IAType;
@@ -50,6 +57,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTrackerFactory;
 import org.apache.hyracks.storage.common.IResourceFactory;
 import org.apache.hyracks.storage.common.IStorageManager;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 
 public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
 
@@ -94,17 +102,65 @@ public class BTreeResourceFactoryProvider implements IResourceFactoryProvider {
             case INTERNAL:
                 AsterixVirtualBufferCacheProvider vbcProvider =
                         new AsterixVirtualBufferCacheProvider(dataset.getDatasetId());
+                int zoneMapField = getZoneMapField(dataset, index);
                 return new LSMBTreeLocalResourceFactory(storageManager, typeTraits, cmpFactories, filterTypeTraits,
                         filterCmpFactories, filterFields, opTrackerFactory, ioOpCallbackFactory,
                         metadataPageManagerFactory, vbcProvider, ioSchedulerProvider, mergePolicyFactory,
                         mergePolicyProperties, durable, bloomFilterFields, bloomFilterFalsePositiveRate,
-                        index.isPrimaryIndex(), btreeFields);
+                        index.isPrimaryIndex(), btreeFields, getCompressionScheme(dataset),
+                        isBlockedBloomFilter(dataset), zoneMapField,
+                        zoneMapField < 0 ? null : cmpFactories[zoneMapField], isSkipListMemoryComponent(dataset));
             default:
                 throw new CompilationException(ErrorCode.COMPILATION_UNKNOWN_DATASET_TYPE,
                         dataset.getDatasetType().toString());
         }
     }
 
+    private static CompressionScheme getCompressionScheme(Dataset dataset) {
+        String compressionHint = dataset.getHints().get(DatasetCompressionHint.NAME);
+        return compressionHint == null ? CompressionScheme.NONE : CompressionScheme.fromName(compressionHint);
+    }
+
+    /**
+     * @return the key field that holds the filter field, if it isn't the leading one, or -1. A zone map over it lets
+     *         the searches that carry a filter range skip the leaves of the disk components that are out of the range.
+     */
+    private static int getZoneMapField(Dataset dataset, Index index) {
+        List<String> filterField = DatasetUtil.getFilterField(dataset);
+        if (filterField == null) {
+            return -1;
+        }
+        List<List<String>> keyFieldNames = new ArrayList<>();
+        List<Integer> keySourceIndicators = new ArrayList<>();
+        if (!index.isPrimaryIndex()) {
+            keyFieldNames.addAll(index.getKeyFieldNames());
+            keySourceIndicators.addAll(index.getKeyFieldSourceIndicators() == null
+                    ? Collections.nCopies(index.getKeyFieldNames().size(), 0) : index.getKeyFieldSourceIndicators());
+        }
+        List<List<String>> primaryKeys = dataset.getPrimaryKeys();
+        List<Integer> pkSourceIndicators =
+                ((InternalDatasetDetails) dataset.getDatasetDetails()).getKeySourceIndicator();
+        keyFieldNames.addAll(primaryKeys);
+        keySourceIndicators
+                .addAll(pkSourceIndicators == null ? Collections.nCopies(primaryKeys.size(), 0) : pkSourceIndicators);
+        for (int i = 1; i < keyFieldNames.size(); i++) {
+            if (keySourceIndicators.get(i) == 0 && filterField.equals(keyFieldNames.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlockedBloomFilter(Dataset dataset) {
+        String bloomFilterHint = dataset.getHints().get(DatasetBloomFilterHint.NAME);
+        return DatasetBloomFilterHint.BLOCKED.equalsIgnoreCase(bloomFilterHint);
+    }
+
+    private static boolean isSkipListMemoryComponent(Dataset dataset) {
+        String memoryComponentHint = dataset.getHints().get(DatasetMemoryComponentHint.NAME);
+        return DatasetMemoryComponentHint.SKIPLIST.equalsIgnoreCase(memoryComponentHint);
+    }
+
     private static ITypeTraits[] getTypeTraits(MetadataProvider metadataProvider, Dataset dataset, Index index,
             ARecordType recordType, ARecordType metaType) throws AlgebricksException {
         ITypeTraits[] primaryTypeTraits = dataset.getPrimaryTypeTraits(metadataProvider, recordType, metaType);
@@ -18,6 +18,8 @@
  */
 package org.apache.asterix.runtime.utils;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.asterix.common.api.IDatasetLifecycleManager;
 import org.apache.asterix.common.api.INcApplicationContext;
 import org.apache.hyracks.api.application.INCServiceContext;
@@ -42,6 +44,16 @@ public class RuntimeComponentsProvider implements IStorageManager, ILSMIOOperati
         return ((INcApplicationContext) ctx.getApplicationContext()).getLSMIOScheduler();
     }
 
+    @Override
+    public int getNumMergePartitions(INCServiceContext ctx) {
+        return ((INcApplicationContext) ctx.getApplicationContext()).getStorageProperties().getMergePartitions();
+    }
+
+    @Override
+    public ExecutorService getMergeExecutor(INCServiceContext ctx) {
+        return ((INcApplicationContext) ctx.getApplicationContext()).getMergeExecutor();
+    }
+
     @Override
     public IBufferCache getBufferCache(INCServiceContext ctx) {
         return ((INcApplicationContext) ctx.getApplicationContext()).getBufferCache();
@@ -32,14 +32,18 @@ import org.apache.asterix.common.transactions.DatasetId;
 import org.apache.asterix.common.transactions.ILockManager;
 import org.apache.asterix.common.transactions.ITransactionContext;
 import org.apache.asterix.common.transactions.ITransactionManager;
+import org.apache.asterix.transaction.management.service.locking.FastEntityLockTable.JobFastLocks;
 import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponent;
 
 /**
  * A concurrent implementation of the ILockManager interface.
+ * Entity-level X locks are first tried on the lock words of a FastEntityLockTable, and only go through the
+ * ResourceGroupTable if the fast path meets a conflict.
  *
  * @see ResourceGroupTable
  * @see ResourceGroup
+ * @see FastEntityLockTable
  */
 public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent {
 
@@ -54,6 +58,8 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
     public static final boolean CHECK_CONSISTENCY = false;
 
     private ResourceGroupTable table;
+    private FastEntityLockTable fastLocks;
+    private ConcurrentHashMap<Integer, JobFastLocks> jobId2FastLocks;
     private ResourceArenaManager resArenaMgr;
     private RequestArenaManager reqArenaMgr;
     private JobArenaManager jobArenaMgr;
@@ -93,6 +99,8 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
     public ConcurrentLockManager(final int lockManagerShrinkTimer, final int noArenas, final int tableSize)
             throws ACIDException {
         this.table = new ResourceGroupTable(tableSize);
+        this.fastLocks = new FastEntityLockTable(tableSize * 64);
+        jobId2FastLocks = new ConcurrentHashMap<>();
         resArenaMgr = new ResourceArenaManager(noArenas, lockManagerShrinkTimer);
         reqArenaMgr = new RequestArenaManager(noArenas, lockManagerShrinkTimer);
         jobArenaMgr = new JobArenaManager(noArenas, lockManagerShrinkTimer);
@@ -104,8 +112,16 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             throws ACIDException {
         log("lock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         stats.lock();
+        final long startTime = System.nanoTime();
 
         final int jobId = txnContext.getJobId().getId();
+        final int stripe = fastLocks.getStripe(datasetId.getId(), entityHashValue);
+        if (tryFastLock(stripe, entityHashValue, lockMode, txnContext)) {
+            stats.lockAcquired(true, System.nanoTime() - startTime);
+            return;
+        }
+        pinStripe(stripe, txnContext);
+        boolean locked = false;
         final long jobSlot = findOrAllocJobSlot(jobId);
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
         group.getLatch();
@@ -113,7 +129,6 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             validateJob(txnContext);
             final long resSlot = findOrAllocResourceSlot(group, datasetId.getId(), entityHashValue);
             final long reqSlot = allocRequestSlot(resSlot, jobSlot, lockMode);
-            boolean locked = false;
             while (!locked) {
                 final LockAction act = determineLockAction(resSlot, jobSlot, lockMode);
                 switch (act) {
@@ -148,13 +163,52 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             throw new WaitInterruptedException(txnContext, "interrupted", e);
         } finally {
             group.releaseLatch();
+            if (!locked) {
+                fastLocks.unpin(stripe);
+            }
         }
+        stats.lockAcquired(false, System.nanoTime() - startTime);
 
         if (CHECK_CONSISTENCY) {
             assertLocksCanBefoundInJobQueue();
         }
     }
 
+    /**
+     * Takes an entity-level X lock on the fast path, if no other request for the stripe of the entity is managed by
+     * the ResourceGroupTable and no other job holds fast locks on the stripe.
+     */
+    private boolean tryFastLock(int stripe, int entityHashValue, byte lockMode, ITransactionContext txnContext)
+            throws ACIDException {
+        if (entityHashValue == NIL || lockMode != LockMode.X) {
+            return false;
+        }
+        validateJob(txnContext);
+        final int jobId = txnContext.getJobId().getId();
+        if (!fastLocks.tryFastLock(stripe, jobId)) {
+            return false;
+        }
+        jobId2FastLocks.computeIfAbsent(jobId, id -> new JobFastLocks()).add(stripe);
+        return true;
+    }
+
+    private boolean fastUnlock(int stripe, int jobId) {
+        final JobFastLocks jobFastLocks = jobId2FastLocks.get(jobId);
+        return jobFastLocks != null && jobFastLocks.remove(stripe) && fastLocks.fastUnlock(stripe, jobId);
+    }
+
+    /**
+     * Pins the stripe of a request that goes through the ResourceGroupTable, waiting for the fast locks of other jobs
+     * on the stripe to be released.
+     */
+    private void pinStripe(int stripe, ITransactionContext txnContext) throws ACIDException {
+        try {
+            fastLocks.pin(stripe, txnContext.getJobId().getId());
+        } catch (InterruptedException e) {
+            throw new WaitInterruptedException(txnContext, "interrupted", e);
+        }
+    }
+
     private void enqueueWaiter(final ResourceGroup group, final long reqSlot, final long resSlot, final long jobSlot,
             final LockAction act, ITransactionContext txnContext) throws ACIDException, InterruptedException {
         final Queue queue = act.modify ? upgrader : waiter;
@@ -330,7 +384,8 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
 
         final int jobId = txnContext.getJobId().getId();
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
-        if (group.firstResourceIndex.get() == NILL) {
+        final int stripe = fastLocks.getStripe(datasetId.getId(), entityHashValue);
+        if (group.firstResourceIndex.get() == NILL && !fastLocks.isFastLockedByOther(stripe, jobId)) {
             validateJob(txnContext);
             // if we do not have a resource in the group, we know that the
             // resource that we are looking for is not locked
@@ -340,6 +395,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         // we only allocate a request slot if we actually have to wait
         long reqSlot = NILL;
 
+        pinStripe(stripe, txnContext);
         group.getLatch();
         try {
             validateJob(txnContext);
@@ -380,6 +436,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                 reqArenaMgr.deallocate(reqSlot);
             }
             group.releaseLatch();
+            fastLocks.unpin(stripe);
         }
     }
 
@@ -388,8 +445,19 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             throws ACIDException {
         log("tryLock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         stats.tryLock();
+        final long startTime = System.nanoTime();
 
         final int jobId = txnContext.getJobId().getId();
+        final int stripe = fastLocks.getStripe(datasetId.getId(), entityHashValue);
+        if (tryFastLock(stripe, entityHashValue, lockMode, txnContext)) {
+            stats.lockAcquired(true, System.nanoTime() - startTime);
+            return true;
+        }
+        if (!fastLocks.tryPin(stripe, jobId)) {
+            validateJob(txnContext);
+            return false;
+        }
+        boolean locked = false;
         final long jobSlot = findOrAllocJobSlot(jobId);
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
         group.getLatch();
@@ -407,6 +475,8 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                     // no break
                 case GET:
                     addHolder(reqSlot, resSlot, jobSlot);
+                    locked = true;
+                    stats.lockAcquired(false, System.nanoTime() - startTime);
                     return true;
                 case WAIT:
                 case CONV:
@@ -416,6 +486,9 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             }
         } finally {
             group.releaseLatch();
+            if (!locked) {
+                fastLocks.unpin(stripe);
+            }
         }
     }
 
@@ -427,6 +500,11 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
 
         final int jobId = txnContext.getJobId().getId();
         final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
+        if (fastLocks.isFastLockedByOther(fastLocks.getStripe(datasetId.getId(), entityHashValue), jobId)) {
+            validateJob(txnContext);
+            // only X locks are taken on the fast path
+            return false;
+        }
         if (group.firstResourceIndex.get() == NILL) {
             validateJob(txnContext);
             // if we do not have a resource in the group, we know that the
@@ -468,11 +546,45 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             throws ACIDException {
         log("unlock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         final int jobId = txnContext.getJobId().getId();
+        final int stripe = fastLocks.getStripe(datasetId.getId(), entityHashValue);
+        if (entityHashValue != NIL && (lockMode == LockMode.X || lockMode == LockMode.ANY)
+                && fastLocks.isFastLocked(stripe, jobId) && (!fastLocks.isPinned(stripe)
+                        || !holdsLockInTable(datasetId.getId(), entityHashValue, lockMode, jobId))) {
+            stats.unlock();
+            // a lock that is not found anymore was released with the other locks of the job
+            fastUnlock(stripe, jobId);
+            return;
+        }
         final long jobSlot = jobId2JobSlotMap.get(jobId);
 
         unlock(datasetId.getId(), entityHashValue, lockMode, jobSlot);
     }
 
+    /**
+     * @return true, if the job holds a lock on the resource that is managed by the ResourceGroupTable
+     */
+    private boolean holdsLockInTable(int dsId, int entityHashValue, byte lockMode, int jobId) {
+        final Long jobSlot = jobId2JobSlotMap.get(jobId);
+        if (jobSlot == null) {
+            return false;
+        }
+        final ResourceGroup group = table.get(dsId, entityHashValue);
+        group.getLatch();
+        try {
+            final long resSlot = findResourceInGroup(group, dsId, entityHashValue);
+            long holder = resSlot < 0 ? NILL : resArenaMgr.getLastHolder(resSlot);
+            while (holder != NILL) {
+                if (requestMatches(holder, jobSlot, lockMode)) {
+                    return true;
+                }
+                holder = reqArenaMgr.getNextRequest(holder);
+            }
+            return false;
+        } finally {
+            group.releaseLatch();
+        }
+    }
+
     private void unlock(int dsId, int entityHashValue, byte lockMode, long jobSlot) throws ACIDException {
         log("unlock", dsId, entityHashValue, lockMode, null);
         stats.unlock();
@@ -491,6 +603,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             }
 
             long holder = removeLastHolder(resource, jobSlot, lockMode);
+            fastLocks.unpin(fastLocks.getStripe(dsId, entityHashValue));
 
             // deallocate request
             if (DEBUG_MODE) {
@@ -529,6 +642,12 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         stats.releaseLocks();
 
         int jobId = txnContext.getJobId().getId();
+        JobFastLocks jobFastLocks = jobId2FastLocks.remove(jobId);
+        if (jobFastLocks != null) {
+            for (int stripe : jobFastLocks.removeAll()) {
+                fastLocks.fastUnlock(stripe, jobId);
+            }
+        }
         Long jobSlot = jobId2JobSlotMap.get(jobId);
         if (jobSlot == null) {
             // we don't know the job, so there are no locks for it - we're done
@@ -1070,6 +1189,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
     @Override
     public void dumpState(OutputStream os) throws IOException {
         os.write(dump().getBytes());
+        os.write(stats.append(new StringBuilder("\n")).append('\n').toString().getBytes());
     }
 
     @Override
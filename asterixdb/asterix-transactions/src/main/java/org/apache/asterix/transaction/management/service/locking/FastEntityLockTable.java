@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.locking;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock words for the uncontended fast path of entity-level X locks in the ConcurrentLockManager.
+ * The entities are hashed to stripes. The lock word of a stripe packs
+ * - the job that holds fast locks on entities of the stripe (bits 0-31),
+ * - the number of fast locks that the job holds (bits 32-47),
+ * - the number of requests for the stripe that are managed by the ResourceGroupTable, called pins (bits 48-61), and
+ * - a flag that is set while a request waits for the fast locks of the stripe to be released (bit 62).
+ * A job only takes a fast lock if the stripe has no pins, and a request for another job only pins the stripe once it
+ * has no fast locks. So the requests of the ResourceGroupTable never have to look at the fast locks, and a conflict
+ * with a fast lock inflates the stripe to the ResourceGroupTable once the fast locks are released. While a request
+ * waits, the holder job takes no new fast locks on the stripe either, so its fast locks drain and the waiter cannot
+ * be starved by a job that keeps locking other entities of the stripe.
+ * As the fast locks are per stripe, a job that holds fast locks also makes the requests of other jobs for unrelated
+ * entities of the same stripe wait. The ConcurrentLockManager sizes the table at 64 stripes per slot of the
+ * ResourceGroupTable (65536 stripes for the default table size) to keep such collisions rare.
+ *
+ * @see ConcurrentLockManager
+ */
+class FastEntityLockTable {
+    private static final long JOB_MASK = 0xFFFFFFFFL;
+    private static final long HOLD_UNIT = 1L << 32;
+    private static final long HOLD_MASK = 0xFFFFL << 32;
+    private static final long PIN_UNIT = 1L << 48;
+    private static final long PIN_MASK = 0x3FFFL << 48;
+    private static final long WAITER = 1L << 62;
+    private static final int NUM_MONITORS = 64;
+    private static final long WAIT_TIMEOUT_MS = 100;
+
+    private final AtomicLongArray words;
+    private final Object[] monitors = new Object[NUM_MONITORS];
+    private final int mask;
+
+    FastEntityLockTable(int numStripes) {
+        int size = Integer.highestOneBit(Math.max(numStripes - 1, 1)) << 1;
+        words = new AtomicLongArray(size);
+        mask = size - 1;
+        for (int i = 0; i < NUM_MONITORS; i++) {
+            monitors[i] = new Object();
+        }
+    }
+
+    int getStripe(int dsId, int entityHashValue) {
+        int h = dsId * 0x9E3779B9 ^ entityHashValue;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Takes a fast lock for the job, if the stripe has no pins, no request waits for it and no other job holds fast
+     * locks on it.
+     */
+    boolean tryFastLock(int stripe, int jobId) {
+        while (true) {
+            long word = words.get(stripe);
+            long holds = word & HOLD_MASK;
+            if ((word & (PIN_MASK | WAITER)) != 0 || holds == HOLD_MASK || (holds != 0 && getJob(word) != jobId)) {
+                return false;
+            }
+            long newWord = holds == 0 ? (jobId & JOB_MASK) | HOLD_UNIT : word + HOLD_UNIT;
+            if (words.compareAndSet(stripe, word, newWord)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a fast lock of the job.
+     *
+     * @return false, if the job does not hold fast locks on the stripe
+     */
+    boolean fastUnlock(int stripe, int jobId) {
+        while (true) {
+            long word = words.get(stripe);
+            long holds = word & HOLD_MASK;
+            if (holds == 0 || getJob(word) != jobId) {
+                return false;
+            }
+            long newWord = holds == HOLD_UNIT ? word & PIN_MASK : word - HOLD_UNIT;
+            if (words.compareAndSet(stripe, word, newWord)) {
+                if (holds == HOLD_UNIT && (word & WAITER) != 0) {
+                    Object monitor = getMonitor(stripe);
+                    synchronized (monitor) {
+                        monitor.notifyAll();
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Pins the stripe for a request of the job, waiting until no other job holds fast locks on it.
+     */
+    void pin(int stripe, int jobId) throws InterruptedException {
+        while (!tryPin(stripe, jobId)) {
+            awaitFastUnlock(stripe, jobId);
+        }
+    }
+
+    /**
+     * Pins the stripe for a request of the job, unless another job holds fast locks on it.
+     */
+    boolean tryPin(int stripe, int jobId) {
+        while (true) {
+            long word = words.get(stripe);
+            if (isFastLockedByOther(word, jobId)) {
+                return false;
+            }
+            if ((word & PIN_MASK) == PIN_MASK) {
+                // a full pin count only happens with thousands of concurrent requests for the stripe
+                Thread.yield();
+                continue;
+            }
+            if (words.compareAndSet(stripe, word, word + PIN_UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    void unpin(int stripe) {
+        words.getAndAdd(stripe, -PIN_UNIT);
+    }
+
+    boolean isFastLockedByOther(int stripe, int jobId) {
+        return isFastLockedByOther(words.get(stripe), jobId);
+    }
+
+    boolean isFastLocked(int stripe, int jobId) {
+        long word = words.get(stripe);
+        return (word & HOLD_MASK) != 0 && getJob(word) == jobId;
+    }
+
+    boolean isPinned(int stripe) {
+        return (words.get(stripe) & PIN_MASK) != 0;
+    }
+
+    private void awaitFastUnlock(int stripe, int jobId) throws InterruptedException {
+        Object monitor = getMonitor(stripe);
+        synchronized (monitor) {
+            long word = words.get(stripe);
+            // the flag makes the job that releases the last fast lock wake us up
+            if (isFastLockedByOther(word, jobId) && words.compareAndSet(stripe, word, word | WAITER)) {
+                monitor.wait(WAIT_TIMEOUT_MS);
+            }
+        }
+    }
+
+    private Object getMonitor(int stripe) {
+        return monitors[stripe & (NUM_MONITORS - 1)];
+    }
+
+    private static boolean isFastLockedByOther(long word, int jobId) {
+        return (word & HOLD_MASK) != 0 && getJob(word) != jobId;
+    }
+
+    private static int getJob(long word) {
+        return (int) (word & JOB_MASK);
+    }
+
+    /**
+     * The stripes on which a job holds fast locks, once per fast lock, so that they can be released with the other
+     * locks of the job.
+     */
+    static class JobFastLocks {
+        private int[] stripes = new int[8];
+        private int size = 0;
+
+        synchronized void add(int stripe) {
+            if (size == stripes.length) {
+                stripes = Arrays.copyOf(stripes, size * 2);
+            }
+            stripes[size++] = stripe;
+        }
+
+        synchronized boolean remove(int stripe) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (stripes[i] == stripe) {
+                    stripes[i] = stripes[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized int[] removeAll() {
+            int[] removed = Arrays.copyOf(stripes, size);
+            size = 0;
+            return removed;
+        }
+    }
+}
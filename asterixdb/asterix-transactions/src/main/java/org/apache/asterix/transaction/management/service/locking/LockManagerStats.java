@@ -32,6 +32,11 @@ final class LockManagerStats {
     private final AtomicLong itlCnt = new AtomicLong();
     private final AtomicLong ulCnt = new AtomicLong();
     private final AtomicLong rlCnt = new AtomicLong();
+    // acquired locks and the time it took to acquire them, on the fast path and through the resource group table
+    private final AtomicLong flCnt = new AtomicLong();
+    private final AtomicLong flNanos = new AtomicLong();
+    private final AtomicLong glCnt = new AtomicLong();
+    private final AtomicLong glNanos = new AtomicLong();
 
     LockManagerStats(int loggingPeriod) {
         this.loggingPeriod = loggingPeriod;
@@ -44,6 +49,21 @@ final class LockManagerStats {
     final void unlock()         { ulCnt.incrementAndGet(); }
     final void releaseLocks()   { rlCnt.incrementAndGet(); }
 
+    final void lockAcquired(boolean fast, long nanos) {
+        if (fast) {
+            flCnt.incrementAndGet();
+            flNanos.addAndGet(nanos);
+        } else {
+            glCnt.incrementAndGet();
+            glNanos.addAndGet(nanos);
+        }
+    }
+
+    private static long average(AtomicLong nanos, AtomicLong cnt) {
+        long n = cnt.get();
+        return n == 0 ? 0 : nanos.get() / n;
+    }
+
     final int requestSum() {
         return lCnt.intValue() + ilCnt.intValue() + tlCnt.intValue()
                 + itlCnt.intValue() + ulCnt.intValue() + rlCnt.intValue();
@@ -57,6 +77,10 @@ final class LockManagerStats {
         .append(", instantTryLock : ").append(itlCnt)
         .append(", unlock : ").append(ulCnt)
         .append(", releaseLocks : ").append(rlCnt)
+        .append(", fastLocks : ").append(flCnt)
+        .append(", fastLockAvgNanos : ").append(average(flNanos, flCnt))
+        .append(", groupLocks : ").append(glCnt)
+        .append(", groupLockAvgNanos : ").append(average(glNanos, glCnt))
         .append(" }");
         return sb;
     }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how long the log flusher waits for more log records before it forces the log records of a log page that
+ * are pending, so that they are committed as a group with a single force.
+ * The wait is the time the log records are expected to take to reach the byte threshold at the observed arrival
+ * rate, bounded by the maximum wait. When log records arrive less often than the maximum wait, the flusher does not
+ * wait, since a lone committer would wait for nothing.
+ */
+public class GroupCommitPolicy {
+    // weight of the latest observation in the moving averages, as a shift
+    private static final int AVERAGE_SHIFT = 3;
+
+    private final long maxWaitNanos;
+    private final int byteThreshold;
+    private long lastAppendNanos = -1;
+    private volatile long avgInterArrivalNanos = Long.MAX_VALUE;
+    private volatile long avgLogSize = 0;
+
+    public GroupCommitPolicy(long maxWaitMicros, int byteThreshold) {
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.byteThreshold = byteThreshold;
+    }
+
+    public boolean isEnabled() {
+        return maxWaitNanos > 0;
+    }
+
+    public int getByteThreshold() {
+        return byteThreshold;
+    }
+
+    /**
+     * Observes the arrival of a log record. It is called by the log appenders, one at a time.
+     */
+    public synchronized void logAppended(int logSize) {
+        long now = System.nanoTime();
+        if (lastAppendNanos < 0) {
+            avgLogSize = logSize;
+        } else {
+            long interArrival = now - lastAppendNanos;
+            avgInterArrivalNanos = avgInterArrivalNanos == Long.MAX_VALUE ? interArrival
+                    : avgInterArrivalNanos + ((interArrival - avgInterArrivalNanos) >> AVERAGE_SHIFT);
+            avgLogSize += (logSize - avgLogSize) >> AVERAGE_SHIFT;
+        }
+        lastAppendNanos = now;
+    }
+
+    /**
+     * @param pendingBytes
+     *            the size of the log records that are waiting to be forced
+     * @return the time (in nanoseconds) to wait for more log records before forcing the pending ones
+     */
+    public long getWaitNanos(int pendingBytes) {
+        long interArrival = Math.max(avgInterArrivalNanos, 1);
+        if (!isEnabled() || pendingBytes >= byteThreshold || interArrival >= maxWaitNanos) {
+            return 0;
+        }
+        long expectedLogs = (byteThreshold - pendingBytes) / Math.max(avgLogSize, 1) + 1;
+        return expectedLogs >= maxWaitNanos / interArrival ? maxWaitNanos : expectedLogs * interArrival;
+    }
+}
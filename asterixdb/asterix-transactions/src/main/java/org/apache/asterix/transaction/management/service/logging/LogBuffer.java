@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
@@ -63,9 +64,18 @@ public class LogBuffer implements ILogBuffer {
     private boolean stop;
     private final JobId reusableJobId;
     private final DatasetId reusableDatasetId;
+    private final GroupCommitPolicy groupCommitPolicy;
+    private final LogFlushStatistics flushStatistics;
 
     public LogBuffer(ITransactionSubsystem txnSubsystem, int logPageSize, MutableLong flushLSN) {
+        this(txnSubsystem, logPageSize, flushLSN, null, null);
+    }
+
+    public LogBuffer(ITransactionSubsystem txnSubsystem, int logPageSize, MutableLong flushLSN,
+            GroupCommitPolicy groupCommitPolicy, LogFlushStatistics flushStatistics) {
         this.txnSubsystem = txnSubsystem;
+        this.groupCommitPolicy = groupCommitPolicy;
+        this.flushStatistics = flushStatistics;
         this.logPageSize = logPageSize;
         this.flushLSN = flushLSN;
         appendBuffer = ByteBuffer.allocate(logPageSize);
@@ -90,6 +100,9 @@ public class LogBuffer implements ILogBuffer {
     @Override
     public void append(ILogRecord logRecord, long appendLsn) {
         logRecord.writeLogRecord(appendBuffer);
+        if (groupCommitPolicy != null) {
+            groupCommitPolicy.logAppended(logRecord.getLogSize());
+        }
 
         if (logRecord.getLogSource() == LogSource.LOCAL && logRecord.getLogType() != LogType.FLUSH
                 && logRecord.getLogType() != LogType.WAIT) {
@@ -188,6 +201,7 @@ public class LogBuffer implements ILogBuffer {
                             continue;
                         }
                     }
+                    waitForGroupCommit();
                     endOffset = appendOffset;
                 }
                 internalFlush(flushOffset, endOffset);
@@ -201,12 +215,37 @@ public class LogBuffer implements ILogBuffer {
         }
     }
 
+    /**
+     * Waits, as long as the group commit policy allows, for more log records to be appended before the pending ones
+     * are forced. It is called with the monitor of the buffer held, which appenders notify.
+     */
+    private void waitForGroupCommit() {
+        if (groupCommitPolicy == null || !groupCommitPolicy.isEnabled() || appendOffset == flushOffset) {
+            return;
+        }
+        long waitNanos = groupCommitPolicy.getWaitNanos(appendOffset - flushOffset);
+        long deadline = System.nanoTime() + waitNanos;
+        while (waitNanos > 0 && !full.get() && !stop
+                && appendOffset - flushOffset < groupCommitPolicy.getByteThreshold()) {
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+            } catch (InterruptedException e) {
+                // force what is pending
+                return;
+            }
+            waitNanos = deadline - System.nanoTime();
+        }
+    }
+
     private void internalFlush(int beginOffset, int endOffset) {
         try {
             if (endOffset > beginOffset) {
                 flushBuffer.limit(endOffset);
                 fileChannel.write(flushBuffer);
                 fileChannel.force(false);
+                if (flushStatistics != null) {
+                    flushStatistics.logForced();
+                }
                 flushOffset = endOffset;
                 synchronized (flushLSN) {
                     flushLSN.set(flushLSN.get() + (endOffset - beginOffset));
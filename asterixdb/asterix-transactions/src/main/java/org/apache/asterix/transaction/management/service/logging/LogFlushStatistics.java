@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograms of the number of log forces per second and of the latency of job commits and aborts, which show the
+ * effect of the group commit settings.
+ */
+public class LogFlushStatistics {
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final Histogram forcesPerSecond = new Histogram();
+    private final Histogram commitLatencyMicros = new Histogram();
+    private long currentSecond = -1;
+    private long forcesInCurrentSecond = 0;
+
+    /**
+     * Counts a force of the log. It is called by the log flusher.
+     */
+    public synchronized void logForced() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        if (second != currentSecond) {
+            if (currentSecond >= 0) {
+                forcesPerSecond.add(forcesInCurrentSecond);
+                // seconds without any force
+                for (long idle = currentSecond + 1; idle < second && idle <= currentSecond + 60; idle++) {
+                    forcesPerSecond.add(0);
+                }
+            }
+            currentSecond = second;
+            forcesInCurrentSecond = 0;
+        }
+        forcesInCurrentSecond++;
+    }
+
+    public void commitCompleted(long latencyNanos) {
+        commitLatencyMicros.add(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+
+    public Histogram getForcesPerSecond() {
+        return forcesPerSecond;
+    }
+
+    public Histogram getCommitLatencyMicros() {
+        return commitLatencyMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "forces_per_second : " + forcesPerSecond + LINE_SEPARATOR + "commit_latency_us : "
+                + commitLatencyMicros + LINE_SEPARATOR;
+    }
+
+    /**
+     * A histogram with power of two buckets: bucket 0 counts the value 0 and bucket i counts the values in
+     * [2^(i-1), 2^i).
+     */
+    public static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+
+        public void add(long value) {
+            buckets.incrementAndGet(getBucket(value));
+        }
+
+        public static int getBucket(long value) {
+            return value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value);
+        }
+
+        public long getCount(int bucket) {
+            return buckets.get(bucket);
+        }
+
+        public long getTotalCount() {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < buckets.length(); i++) {
+                long count = buckets.get(i);
+                if (count > 0) {
+                    if (sb.length() > 1) {
+                        sb.append(", ");
+                    }
+                    sb.append(i == 0 ? "0" : "<" + (1L << i)).append(": ").append(count);
+                }
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
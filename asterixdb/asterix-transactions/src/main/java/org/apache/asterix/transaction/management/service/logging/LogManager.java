@@ -31,6 +31,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -61,6 +62,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     private static final Logger LOGGER = Logger.getLogger(LogManager.class.getName());
     private static final long SMALLEST_LOG_FILE_ID = 0;
     private static final int INITIAL_LOG_SIZE = 0;
+    private static final int LOG_STRIPE_CHUNK_SIZE = 32 * 1024;
     public static final boolean IS_DEBUG_MODE = false;// true
     /*
      * Finals
@@ -69,14 +71,20 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     private final LogManagerProperties logManagerProperties;
     private final int numLogPages;
     private final String logDir;
+    private final String[] logStripeDirs;
     private final String logFilePrefix;
     private final MutableLong flushLSN;
     private final String nodeId;
     private final FlushLogsLogger flushLogsLogger;
     private final HashMap<Long, Integer> txnLogFileId2ReaderCount = new HashMap<>();
+    // the checkpoint LSN of a deletion of old log files that stopped at a log file being read (guarded by
+    // txnLogFileId2ReaderCount)
+    private long deferredDeletionLSN = -1;
     protected final long logFileSize;
     protected final int logPageSize;
     protected final AtomicLong appendLSN;
+    protected final GroupCommitPolicy groupCommitPolicy;
+    protected final LogFlushStatistics flushStatistics;
     /*
      * Mutables
      */
@@ -97,7 +105,11 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         logPageSize = logManagerProperties.getLogPageSize();
         numLogPages = logManagerProperties.getNumLogPages();
         logDir = logManagerProperties.getLogDir();
+        logStripeDirs = logManagerProperties.getLogStripeDirs();
         logFilePrefix = logManagerProperties.getLogFilePrefix();
+        groupCommitPolicy = new GroupCommitPolicy(logManagerProperties.getGroupCommitMaxWait(),
+                logManagerProperties.getGroupCommitBytes());
+        flushStatistics = new LogFlushStatistics();
         flushLSN = new MutableLong();
         appendLSN = new AtomicLong();
         nodeId = txnSubsystem.getId();
@@ -111,7 +123,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         flushQ = new LinkedBlockingQueue<>(numLogPages);
         stashQ = new LinkedBlockingQueue<>(numLogPages);
         for (int i = 0; i < numLogPages; i++) {
-            emptyQ.offer(new LogBuffer(txnSubsystem, logPageSize, flushLSN));
+            emptyQ.offer(new LogBuffer(txnSubsystem, logPageSize, flushLSN, groupCommitPolicy, flushStatistics));
         }
         appendLSN.set(initializeLogAnchor(nextLogFileId));
         flushLSN.set(appendLSN.get());
@@ -137,6 +149,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     }
 
     protected void appendToLogTail(ILogRecord logRecord) throws ACIDException {
+        long startTime = System.nanoTime();
         syncAppendToLogTail(logRecord);
 
         if ((logRecord.getLogType() == LogType.JOB_COMMIT || logRecord.getLogType() == LogType.ABORT
@@ -151,6 +164,9 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
                 }
             }
         }
+        if (logRecord.getLogType() == LogType.JOB_COMMIT || logRecord.getLogType() == LogType.ABORT) {
+            flushStatistics.commitCompleted(System.nanoTime() - startTime);
+        }
     }
 
     protected synchronized void syncAppendToLogTail(ILogRecord logRecord) throws ACIDException {
@@ -205,7 +221,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
             }
             // for now, alloc a new buffer for each large page
             // TODO: pool large pages??
-            appendPage = new LogBuffer(txnSubsystem, logSize, flushLSN);
+            appendPage = new LogBuffer(txnSubsystem, logSize, flushLSN, groupCommitPolicy, flushStatistics);
             appendPage.setFileChannel(appendChannel);
             flushQ.offer(appendPage);
         } else {
@@ -290,6 +306,9 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
 
         // #. dump LSNInfo
         dumpLSNInfo(os);
+
+        // #. dump FlushStatistics
+        dumpFlushStatistics(os);
     }
 
     private void dumpConfVars(OutputStream os) {
@@ -323,6 +342,25 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         }
     }
 
+    private void dumpFlushStatistics(OutputStream os) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("\n>>dump_begin\t>>----- [FlushStatistics] -----\n");
+            sb.append(flushStatistics.toString());
+            sb.append(">>dump_end\t>>----- [FlushStatistics] -----\n");
+            os.write(sb.toString().getBytes());
+        } catch (Exception e) {
+            // ignore exception and continue dumping as much as possible.
+            if (IS_DEBUG_MODE) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public LogFlushStatistics getFlushStatistics() {
+        return flushStatistics;
+    }
+
     private long initializeLogAnchor(long nextLogFileId) {
         long fileId = 0;
         long offset = 0;
@@ -332,14 +370,19 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
                 List<Long> logFileIds = getLogFileIds();
                 if (logFileIds == null) {
                     fileId = nextLogFileId;
-                    createFileIfNotExists(getLogFilePath(fileId));
+                    createLogFile(fileId);
                     if (LOGGER.isLoggable(Level.INFO)) {
                         LOGGER.info("created a log file: " + getLogFilePath(fileId));
                     }
                 } else {
                     fileId = logFileIds.get(logFileIds.size() - 1);
-                    File logFile = new File(getLogFilePath(fileId));
-                    offset = logFile.length();
+                    try (FileChannel logFileChannel = openLogFile(fileId, "rw", null)) {
+                        offset = logFileChannel.size();
+                        // a striped log file ends at the first byte that a stripe is missing, so the chunks that the
+                        // other stripes hold behind it are dropped before new log records are appended
+                        logFileChannel.truncate(offset);
+                        logFileChannel.force(false);
+                    }
                 }
             } else {
                 fileId = nextLogFileId;
@@ -347,7 +390,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
                 if (LOGGER.isLoggable(Level.INFO)) {
                     LOGGER.info("created the log directory: " + logManagerProperties.getLogDir());
                 }
-                createFileIfNotExists(getLogFilePath(fileId));
+                createLogFile(fileId);
                 if (LOGGER.isLoggable(Level.INFO)) {
                     LOGGER.info("created a log file: " + getLogFilePath(fileId));
                 }
@@ -379,24 +422,31 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
              * At this point, any future LogReader should read from LSN >= checkpointLSN
              */
             synchronized (txnLogFileId2ReaderCount) {
+                deferredDeletionLSN = -1;
                 for (Long id : logFileIds) {
                     /**
                      * Stop deletion if:
                      * The log file which contains the checkpointLSN has been reached.
                      * The oldest log file being accessed by a LogReader has been reached.
                      */
-                    if (id >= checkpointLSNLogFileID
-                            || (txnLogFileId2ReaderCount.containsKey(id) && txnLogFileId2ReaderCount.get(id) > 0)) {
+                    if (id >= checkpointLSNLogFileID) {
+                        break;
+                    }
+                    if (txnLogFileId2ReaderCount.containsKey(id) && txnLogFileId2ReaderCount.get(id) > 0) {
+                        // resume the deletion once the log file is no longer read
+                        deferredDeletionLSN = checkpointLSN;
                         break;
                     }
 
                     //delete old log file
-                    File file = new File(getLogFilePath(id));
-                    file.delete();
-                    txnLogFileId2ReaderCount.remove(id);
-                    if (LOGGER.isLoggable(Level.INFO)) {
-                        LOGGER.info("Deleted log file " + file.getAbsolutePath());
+                    for (int stripe = 0; stripe <= logStripeDirs.length; stripe++) {
+                        File file = new File(getLogStripeFilePath(stripe, id));
+                        file.delete();
+                        if (LOGGER.isLoggable(Level.INFO)) {
+                            LOGGER.info("Deleted log file " + file.getAbsolutePath());
+                        }
                     }
+                    txnLogFileId2ReaderCount.remove(id);
                 }
             }
         }
@@ -429,13 +479,18 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
                 throw new IllegalStateException("Failed to close a fileChannel of a log file");
             }
         }
-        txnLogFileId2ReaderCount.clear();
+        synchronized (txnLogFileId2ReaderCount) {
+            txnLogFileId2ReaderCount.clear();
+            deferredDeletionLSN = -1;
+        }
         List<Long> logFileIds = getLogFileIds();
         if (logFileIds != null) {
             for (Long id : logFileIds) {
-                File file = new File(getLogFilePath(id));
-                if (!file.delete()) {
-                    throw new IllegalStateException("Failed to delete a file: " + file.getAbsolutePath());
+                for (int stripe = 0; stripe <= logStripeDirs.length; stripe++) {
+                    File file = new File(getLogStripeFilePath(stripe, id));
+                    if (!file.delete() && (stripe == 0 || file.exists())) {
+                        throw new IllegalStateException("Failed to delete a file: " + file.getAbsolutePath());
+                    }
                 }
             }
             return logFileIds.get(logFileIds.size() - 1);
@@ -478,6 +533,17 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         return logDir + File.separator + logFilePrefix + "_" + fileId;
     }
 
+    /**
+     * @return the path of the part of the log file that is stored in the stripe, where stripe 0 is the log directory
+     *         and the other stripes are the log stripe directories
+     */
+    private String getLogStripeFilePath(int stripe, long fileId) {
+        if (stripe == 0) {
+            return getLogFilePath(fileId);
+        }
+        return logStripeDirs[stripe - 1] + File.separator + logFilePrefix + "_" + fileId;
+    }
+
     public long getLogFileOffset(long lsn) {
         return lsn % logFileSize;
     }
@@ -499,23 +565,55 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         return (new File(path)).mkdir();
     }
 
+    private boolean createLogFile(long fileId) throws IOException {
+        boolean created = true;
+        for (int stripe = 0; stripe <= logStripeDirs.length; stripe++) {
+            created &= createFileIfNotExists(getLogStripeFilePath(stripe, fileId));
+        }
+        return created;
+    }
+
+    /**
+     * Opens an existing log file. A log file that is striped across several directories is opened as a
+     * {@link StripedLogFileChannel}.
+     *
+     * @param forceExecutor
+     *            forces the stripes in parallel, or null for a log file that is only read
+     */
+    private FileChannel openLogFile(long fileId, String mode, Executor forceExecutor) throws IOException {
+        FileChannel[] stripes = new FileChannel[logStripeDirs.length + 1];
+        try {
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                File file = new File(getLogStripeFilePath(stripe, fileId));
+                if (!file.exists()) {
+                    throw new IOException("Log file with id(" + fileId + ") was not found in " + file.getParent()
+                            + ". Were the log stripe directories changed before the log was checkpointed?");
+                }
+                stripes[stripe] = new RandomAccessFile(file, mode).getChannel();
+            }
+        } catch (IOException e) {
+            for (FileChannel stripe : stripes) {
+                if (stripe != null) {
+                    stripe.close();
+                }
+            }
+            throw e;
+        }
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        return new StripedLogFileChannel(stripes, LOG_STRIPE_CHUNK_SIZE, forceExecutor);
+    }
+
     private FileChannel getFileChannel(long lsn, boolean create) {
         FileChannel newFileChannel = null;
         try {
             long fileId = getLogFileId(lsn);
-            String logFilePath = getLogFilePath(fileId);
-            File file = new File(logFilePath);
-            if (create) {
-                if (!file.createNewFile()) {
-                    throw new IllegalStateException();
-                }
-            } else {
-                if (!file.exists()) {
-                    throw new IllegalStateException();
-                }
+            if (create && !createLogFile(fileId)) {
+                throw new IllegalStateException();
             }
-            RandomAccessFile raf = new RandomAccessFile(new File(logFilePath), "rw");
-            newFileChannel = raf.getChannel();
+            newFileChannel =
+                    openLogFile(fileId, "rw", txnSubsystem.getAsterixAppRuntimeContextProvider().getThreadExecutor());
             newFileChannel.position(getLogFileOffset(lsn));
         } catch (IOException e) {
             throw new IllegalStateException(e);
@@ -564,13 +662,11 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     @Override
     public TxnLogFile getLogFile(long LSN) throws IOException {
         long fileId = getLogFileId(LSN);
-        String logFilePath = getLogFilePath(fileId);
-        File file = new File(logFilePath);
+        File file = new File(getLogFilePath(fileId));
         if (!file.exists()) {
             throw new IOException("Log file with id(" + fileId + ") was not found. Requested LSN: " + LSN);
         }
-        RandomAccessFile raf = new RandomAccessFile(new File(logFilePath), "r");
-        FileChannel newFileChannel = raf.getChannel();
+        FileChannel newFileChannel = openLogFile(fileId, "r", null);
         TxnLogFile logFile = new TxnLogFile(this, newFileChannel, fileId, fileId * logFileSize);
         touchLogFile(fileId);
         return logFile;
@@ -604,6 +700,9 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
                             "Invalid log file reader count (ID=" + fileId + ", count: " + newReaderCount + ")");
                 }
                 txnLogFileId2ReaderCount.put(fileId, newReaderCount);
+                if (newReaderCount == 0 && deferredDeletionLSN >= 0) {
+                    deleteOldLogFiles(deferredDeletionLSN);
+                }
             } else {
                 throw new IllegalStateException("Trying to close log file id(" + fileId + ") which was not opened.");
             }
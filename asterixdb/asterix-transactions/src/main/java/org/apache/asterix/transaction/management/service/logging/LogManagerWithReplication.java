@@ -76,6 +76,7 @@ public class LogManagerWithReplication extends LogManager {
 
     @Override
     protected void appendToLogTail(ILogRecord logRecord) throws ACIDException {
+        long startTime = System.nanoTime();
         syncAppendToLogTail(logRecord);
 
         if (logRecord.isReplicated()) {
@@ -111,6 +112,9 @@ public class LogManagerWithReplication extends LogManager {
                     }
                 }
             }
+            if (logRecord.getLogType() == LogType.JOB_COMMIT || logRecord.getLogType() == LogType.ABORT) {
+                flushStatistics.commitCompleted(System.nanoTime() - startTime);
+            }
         }
     }
 
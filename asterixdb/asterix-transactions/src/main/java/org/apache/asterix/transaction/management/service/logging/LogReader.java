@@ -39,6 +39,8 @@ public class LogReader implements ILogReader {
 
     public static final boolean IS_DEBUG_MODE = false;//true
     private static final Logger LOGGER = Logger.getLogger(LogReader.class.getName());
+    // the part of the read buffer after the requested log record when reading backwards
+    private static final int READ_BEHIND_TAIL_DIVISOR = 4;
     private final ILogManager logMgr;
     private final long logFileSize;
     private final int logPageSize;
@@ -191,12 +193,27 @@ public class LogReader implements ILogReader {
     }
 
     private boolean fillLogReadBuffer(int readSize, ByteBuffer readBuffer) throws ACIDException {
+        return fillLogReadBuffer(readLSN, readSize, readBuffer);
+    }
+
+    /**
+     * Fills the log buffer with the log page that ends a little after the current position, so that the log records
+     * before it are read from the buffer as well. This is the way random reads go, e.g. when a rollback follows the
+     * previous LSNs of a transaction.
+     */
+    private void fillLogReadBufferBackwards() throws ACIDException {
+        long beginLSN = Math.max(fileBeginLSN, readLSN - logPageSize + logPageSize / READ_BEHIND_TAIL_DIVISOR);
+        fillLogReadBuffer(beginLSN, logPageSize, readBuffer);
+        readBuffer.position((int) (readLSN - bufferBeginLSN));
+    }
+
+    private boolean fillLogReadBuffer(long beginLSN, int readSize, ByteBuffer readBuffer) throws ACIDException {
         int size = 0;
         int read = 0;
         readBuffer.position(0);
         readBuffer.limit(readSize);
         try {
-            logFile.position(readLSN % logFileSize);
+            logFile.position(beginLSN % logFileSize);
             //We loop here because read() may return 0, but this simply means we are waiting on IO.
             //Therefore we want to break out only when either the buffer is full, or we reach EOF.
             while (size < readSize && read != -1) {
@@ -213,7 +230,9 @@ public class LogReader implements ILogReader {
         if (size == 0 && read == -1) {
             return false; //EOF
         }
-        bufferBeginLSN = readLSN;
+        if (readBuffer == this.readBuffer) {
+            bufferBeginLSN = beginLSN;
+        }
         return true;
     }
 
@@ -240,9 +259,16 @@ public class LogReader implements ILogReader {
                 //log is not in the current log file
                 logFile.close();
                 getLogFile();
-                fillLogReadBuffer();
-            } else if (readLSN < bufferBeginLSN || readLSN >= bufferBeginLSN + readBuffer.limit()) {
-                //log is not in the current read buffer
+                if (LSN < bufferBeginLSN) {
+                    fillLogReadBufferBackwards();
+                } else {
+                    fillLogReadBuffer();
+                }
+            } else if (readLSN < bufferBeginLSN) {
+                //log is before the current read buffer
+                fillLogReadBufferBackwards();
+            } else if (readLSN >= bufferBeginLSN + readBuffer.limit()) {
+                //log is after the current read buffer
                 fillLogReadBuffer();
             } else {
                 //log is either completely in the current read buffer or truncated
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A transaction log file whose content is striped across files in several directories, ideally on different devices.
+ * The log file is split into chunks which are assigned to the stripes round robin, so that flushing a large group of
+ * log records writes to all the stripes, and the stripes that were written to are forced in parallel.
+ * Positions and sizes are those of the log file, so that log buffers and log readers use the channel like the one of
+ * a regular log file and the LSNs keep a single global order.
+ * Only reading, writing, forcing and truncating are supported. Transfers, memory mapping and locking are not used for
+ * log files and are rejected.
+ */
+public class StripedLogFileChannel extends FileChannel {
+    private final FileChannel[] stripes;
+    private final boolean[] dirty;
+    private final int chunkSize;
+    private final Executor forceExecutor;
+    private long position = 0;
+
+    /**
+     * @param forceExecutor
+     *            runs the forces of all but one of the stripes, or null to force the stripes one after the other
+     */
+    public StripedLogFileChannel(FileChannel[] stripes, int chunkSize, Executor forceExecutor) {
+        this.stripes = stripes;
+        this.dirty = new boolean[stripes.length];
+        this.chunkSize = chunkSize;
+        this.forceExecutor = forceExecutor;
+    }
+
+    private int getStripe(long pos) {
+        return (int) ((pos / chunkSize) % stripes.length);
+    }
+
+    private long getStripeOffset(long pos) {
+        return (pos / chunkSize / stripes.length) * chunkSize + pos % chunkSize;
+    }
+
+    private int getChunkRemaining(long pos) {
+        return chunkSize - (int) (pos % chunkSize);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int read = read(dst, position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int read = read(dsts[i]);
+            if (read < 0) {
+                return total == 0 ? -1 : total;
+            }
+            total += read;
+            if (dsts[i].hasRemaining()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long pos) throws IOException {
+        int total = 0;
+        int limit = dst.limit();
+        try {
+            while (dst.hasRemaining()) {
+                int length = Math.min(dst.remaining(), getChunkRemaining(pos));
+                dst.limit(dst.position() + length);
+                int read = stripes[getStripe(pos)].read(dst, getStripeOffset(pos));
+                dst.limit(limit);
+                if (read <= 0) {
+                    break;
+                }
+                total += read;
+                pos += read;
+                if (read < length) {
+                    break;
+                }
+            }
+        } finally {
+            dst.limit(limit);
+        }
+        return total == 0 && dst.hasRemaining() ? -1 : total;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int written = write(src, position);
+        position += written;
+        return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            total += write(srcs[i]);
+        }
+        return total;
+    }
+
+    @Override
+    public int write(ByteBuffer src, long pos) throws IOException {
+        int total = 0;
+        int limit = src.limit();
+        try {
+            while (src.hasRemaining()) {
+                int stripe = getStripe(pos);
+                int length = Math.min(src.remaining(), getChunkRemaining(pos));
+                src.limit(src.position() + length);
+                long stripeOffset = getStripeOffset(pos);
+                while (src.hasRemaining()) {
+                    stripeOffset += stripes[stripe].write(src, stripeOffset);
+                }
+                src.limit(limit);
+                dirty[stripe] = true;
+                total += length;
+                pos += length;
+            }
+        } finally {
+            src.limit(limit);
+        }
+        return total;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public FileChannel position(long newPosition) {
+        position = newPosition;
+        return this;
+    }
+
+    /**
+     * @return the size of the log file, i.e., the length of its prefix that is stored in the stripes. A stripe that
+     *         was not completely written before a crash cuts the log file at its first missing byte.
+     */
+    @Override
+    public long size() throws IOException {
+        long size = Long.MAX_VALUE;
+        for (int i = 0; i < stripes.length; i++) {
+            long stripeSize = stripes[i].size();
+            long firstMissingByte = (stripeSize / chunkSize * stripes.length + i) * chunkSize + stripeSize % chunkSize;
+            size = Math.min(size, firstMissingByte);
+        }
+        return size;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        List<FileChannel> written = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            if (dirty[i]) {
+                dirty[i] = false;
+                written.add(stripes[i]);
+            }
+        }
+        List<FutureTask<Void>> forces = new ArrayList<>();
+        for (int i = 1; i < written.size() && forceExecutor != null; i++) {
+            FileChannel stripe = written.get(i);
+            FutureTask<Void> force = new FutureTask<>(() -> {
+                stripe.force(metaData);
+                return null;
+            });
+            forceExecutor.execute(force);
+            forces.add(force);
+        }
+        for (int i = 0; i < written.size() - forces.size(); i++) {
+            written.get(i).force(metaData);
+        }
+        for (FutureTask<Void> force : forces) {
+            try {
+                force.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Truncates every stripe to its part of the first size bytes of the log file, e.g., to drop the chunks that a
+     * crash left behind the first missing byte.
+     */
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        long roundSize = (long) chunkSize * stripes.length;
+        for (int i = 0; i < stripes.length; i++) {
+            long lastRound = Math.min(Math.max(size % roundSize - (long) i * chunkSize, 0), chunkSize);
+            long stripeSize = size / roundSize * chunkSize + lastRound;
+            if (stripes[i].size() > stripeSize) {
+                stripes[i].truncate(stripeSize);
+                dirty[i] = true;
+            }
+        }
+        position = Math.min(position, size);
+        return this;
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) {
+        throw new UnsupportedOperationException("transferTo is not supported by a striped log file");
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+        throw new UnsupportedOperationException("transferFrom is not supported by a striped log file");
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) {
+        throw new UnsupportedOperationException("A striped log file cannot be mapped");
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("A striped log file cannot be locked");
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("A striped log file cannot be locked");
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        IOException failure = null;
+        for (FileChannel stripe : stripes) {
+            try {
+                stripe.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
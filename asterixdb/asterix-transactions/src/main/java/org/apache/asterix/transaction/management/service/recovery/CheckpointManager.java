@@ -57,7 +57,9 @@ public class CheckpointManager extends AbstractCheckpointManager {
      * Attempts to perform a soft checkpoint at the specified {@code checkpointTargetLSN}.
      * If a checkpoint cannot be captured due to datasets having LSN < {@code checkpointTargetLSN},
      * an asynchronous flush is triggered on them. When a checkpoint is successful, all transaction
-     * log files that end with LSN < {@code checkpointTargetLSN} are deleted.
+     * log files that end with LSN < {@code checkpointTargetLSN} are deleted. With incremental checkpoints,
+     * only the datasets with the oldest memory components are flushed at a time, and the log files that end
+     * before the oldest memory component are deleted even before the checkpoint reaches its target.
      */
     @Override
     public synchronized long tryCheckpoint(long checkpointTargetLSN) throws HyracksDataException {
@@ -68,12 +70,15 @@ public class CheckpointManager extends AbstractCheckpointManager {
             // Flush datasets with indexes behind target checkpoint LSN
             IDatasetLifecycleManager datasetLifecycleManager = txnSubsystem.getAsterixAppRuntimeContextProvider()
                     .getDatasetLifecycleManager();
-            datasetLifecycleManager.scheduleAsyncFlushForLaggingDatasets(checkpointTargetLSN);
+            datasetLifecycleManager.scheduleAsyncFlushForLaggingDatasets(checkpointTargetLSN, maxFlushes);
         }
         capture(minFirstLSN, false);
         if (checkpointSucceeded) {
             txnSubsystem.getLogManager().deleteOldLogFiles(minFirstLSN);
             LOGGER.info(String.format("soft checkpoint succeeded at LSN(%s)", minFirstLSN));
+        } else if (maxFlushes > 0) {
+            // Incremental checkpoint: the log before the oldest memory component is no longer needed
+            txnSubsystem.getLogManager().deleteOldLogFiles(minFirstLSN);
         }
         return minFirstLSN;
     }
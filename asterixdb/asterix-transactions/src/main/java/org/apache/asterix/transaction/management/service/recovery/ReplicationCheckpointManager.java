@@ -90,7 +90,9 @@ public class ReplicationCheckpointManager extends AbstractCheckpointManager {
      * an asynchronous flush is triggered on them. If the checkpoint fails due to a replica index,
      * a request is sent to the primary replica of the index to flush it.
      * When a checkpoint is successful, all transaction log files that end with
-     * LSN < {@code checkpointTargetLSN} are deleted.
+     * LSN < {@code checkpointTargetLSN} are deleted. With incremental checkpoints, only the datasets
+     * with the oldest memory components are flushed at a time, and the log files that end before the
+     * oldest memory component are deleted even before the checkpoint reaches its target.
      */
     @Override
     public synchronized long tryCheckpoint(long checkpointTargetLSN) throws HyracksDataException {
@@ -101,7 +103,7 @@ public class ReplicationCheckpointManager extends AbstractCheckpointManager {
             // Flush datasets with indexes behind target checkpoint LSN
             final IDatasetLifecycleManager datasetLifecycleManager =
                     txnSubsystem.getAsterixAppRuntimeContextProvider().getDatasetLifecycleManager();
-            datasetLifecycleManager.scheduleAsyncFlushForLaggingDatasets(checkpointTargetLSN);
+            datasetLifecycleManager.scheduleAsyncFlushForLaggingDatasets(checkpointTargetLSN, maxFlushes);
             // Request remote replicas to flush lagging indexes
             final IReplicationManager replicationManager =
                     txnSubsystem.getAsterixAppRuntimeContextProvider().getAppContext().getReplicationManager();
@@ -115,6 +117,9 @@ public class ReplicationCheckpointManager extends AbstractCheckpointManager {
         if (checkpointSucceeded) {
             txnSubsystem.getLogManager().deleteOldLogFiles(minFirstLSN);
             LOGGER.info(String.format("soft checkpoint succeeded with at LSN(%s)", minFirstLSN));
+        } else if (maxFlushes > 0) {
+            // Incremental checkpoint: the log before the oldest memory component is no longer needed
+            txnSubsystem.getLogManager().deleteOldLogFiles(minFirstLSN);
         }
         return minFirstLSN;
     }
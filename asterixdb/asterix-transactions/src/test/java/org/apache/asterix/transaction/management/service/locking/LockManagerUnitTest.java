@@ -28,8 +28,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Logger;
 
@@ -40,6 +43,7 @@ import org.apache.asterix.common.transactions.JobId;
 import org.apache.asterix.transaction.management.service.locking.Request.Kind;
 import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -148,6 +152,116 @@ public class LockManagerUnitTest {
         expectError(execute(reqs), j(1), IllegalStateException.class);
     }
 
+    @Test
+    public void testFastPathConflicts() throws Exception {
+        Assert.assertTrue(lockMgr.tryLock(d(1), e(1), LockMode.X, j(1)));
+        Assert.assertTrue(lockMgr.tryLock(d(1), e(1), LockMode.X, j(1)));
+        Assert.assertFalse(lockMgr.tryLock(d(1), e(1), LockMode.X, j(2)));
+        Assert.assertFalse(lockMgr.tryLock(d(1), e(1), LockMode.S, j(2)));
+        Assert.assertFalse(lockMgr.instantTryLock(d(1), e(1), LockMode.S, j(2)));
+        lockMgr.unlock(d(1), e(1), LockMode.X, j(1));
+        Assert.assertFalse(lockMgr.tryLock(d(1), e(1), LockMode.X, j(2)));
+        lockMgr.releaseLocks(j(1));
+        Assert.assertTrue(lockMgr.instantTryLock(d(1), e(1), LockMode.S, j(2)));
+
+        // a lock of the resource group table keeps other jobs off the fast path
+        Assert.assertTrue(lockMgr.tryLock(d(1), e(1), LockMode.S, j(2)));
+        Assert.assertFalse(lockMgr.tryLock(d(1), e(1), LockMode.X, j(1)));
+        lockMgr.releaseLocks(j(2));
+        Assert.assertTrue(lockMgr.tryLock(d(1), e(1), LockMode.X, j(1)));
+        lockMgr.unlock(d(1), e(1), LockMode.ANY, j(1));
+        Assert.assertTrue(lockMgr.tryLock(d(1), e(1), LockMode.X, j(2)));
+        lockMgr.releaseLocks(j(2));
+    }
+
+    @Test
+    public void testConcurrentEntityLocks() throws Exception {
+        final int numEntities = 8;
+        // -1 for an X lock, otherwise the number of S locks
+        final AtomicInteger[] holders = new AtomicInteger[numEntities];
+        for (int i = 0; i < numEntities; ++i) {
+            holders[i] = new AtomicInteger();
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            final ITransactionContext txnCtx = j(t + 1);
+            final Random rnd = new Random(t);
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5000; ++i) {
+                        int entity = rnd.nextInt(numEntities);
+                        boolean exclusive = rnd.nextInt(4) != 0;
+                        byte mode = exclusive ? LockMode.X : LockMode.S;
+                        lockMgr.lock(d(1), e(entity), mode, txnCtx);
+                        if (exclusive) {
+                            Assert.assertTrue(holders[entity].compareAndSet(0, -1));
+                            holders[entity].set(0);
+                        } else {
+                            Assert.assertTrue(holders[entity].incrementAndGet() > 0);
+                            holders[entity].decrementAndGet();
+                        }
+                        lockMgr.unlock(d(1), e(entity), mode, txnCtx);
+                    }
+                } catch (Throwable th) {
+                    failure.compareAndSet(null, th);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("concurrent locker failed", failure.get());
+        }
+    }
+
+    @Test
+    public void testFastLockWaiterIsNotStarved() throws Exception {
+        // find three entities that share a stripe of the fast lock table of the lock manager
+        final FastEntityLockTable stripes = new FastEntityLockTable(LOCK_MGR_TABLE_SIZE * 64);
+        final int[] entities = new int[3];
+        for (int i = 1, n = 0; n < entities.length; ++i) {
+            if (stripes.getStripe(1, e(i)) == stripes.getStripe(1, e(1))) {
+                entities[n++] = e(i);
+            }
+        }
+        final ITransactionContext holder = j(1);
+        final ITransactionContext waiter = j(2);
+        lockMgr.lock(d(1), entities[0], LockMode.X, holder);
+
+        final AtomicBoolean locked = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiterThread = new Thread(() -> {
+            try {
+                lockMgr.lock(d(1), entities[1], LockMode.X, waiter);
+                locked.set(true);
+            } catch (Throwable th) {
+                failure.compareAndSet(null, th);
+            }
+        });
+        waiterThread.start();
+
+        // the holder always holds a lock on the stripe, but its fast locks must drain once the waiter arrived
+        final long deadline = System.currentTimeMillis() + 10000;
+        int held = 0;
+        while (!locked.get() && failure.get() == null && System.currentTimeMillis() < deadline) {
+            int next = held == 0 ? 2 : 0;
+            lockMgr.lock(d(1), entities[next], LockMode.X, holder);
+            lockMgr.unlock(d(1), entities[held], LockMode.X, holder);
+            held = next;
+        }
+        final boolean starved = !locked.get();
+        lockMgr.releaseLocks(holder);
+        waiterThread.join();
+        lockMgr.releaseLocks(waiter);
+        if (failure.get() != null) {
+            throw new AssertionError("waiter failed", failure.get());
+        }
+        Assert.assertFalse("waiter was starved by the fast locks of the holder", starved);
+    }
+
     //--------------------------------------------------------------------
     // Helper methods
     //--------------------------------------------------------------------
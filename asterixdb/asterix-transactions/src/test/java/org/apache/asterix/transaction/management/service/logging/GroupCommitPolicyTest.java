@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GroupCommitPolicyTest {
+    private static final long MAX_WAIT_MICROS = TimeUnit.SECONDS.toMicros(10);
+
+    @Test
+    public void disabledTest() {
+        GroupCommitPolicy policy = new GroupCommitPolicy(0, 1024);
+        for (int i = 0; i < 100; i++) {
+            policy.logAppended(64);
+        }
+        Assert.assertFalse(policy.isEnabled());
+        Assert.assertEquals(0, policy.getWaitNanos(64));
+    }
+
+    @Test
+    public void adaptiveWaitTest() {
+        GroupCommitPolicy policy = new GroupCommitPolicy(MAX_WAIT_MICROS, 1024);
+        // no arrival rate has been observed yet
+        policy.logAppended(64);
+        Assert.assertEquals(0, policy.getWaitNanos(64));
+
+        // frequent arrivals wait for the records that fill the threshold, but never longer than the maximum wait
+        for (int i = 0; i < 100; i++) {
+            policy.logAppended(64);
+        }
+        long wait = policy.getWaitNanos(64);
+        Assert.assertTrue(wait > 0);
+        Assert.assertTrue(wait <= TimeUnit.MICROSECONDS.toNanos(MAX_WAIT_MICROS));
+        Assert.assertTrue(policy.getWaitNanos(1024 - 64) <= wait);
+        Assert.assertEquals(0, policy.getWaitNanos(1024));
+    }
+
+    @Test
+    public void histogramTest() {
+        LogFlushStatistics.Histogram histogram = new LogFlushStatistics.Histogram();
+        histogram.add(0);
+        histogram.add(1);
+        histogram.add(5);
+        histogram.add(7);
+        Assert.assertEquals(1, histogram.getCount(0));
+        Assert.assertEquals(1, histogram.getCount(LogFlushStatistics.Histogram.getBucket(1)));
+        Assert.assertEquals(2, histogram.getCount(LogFlushStatistics.Histogram.getBucket(4)));
+        Assert.assertEquals(4, histogram.getTotalCount());
+        Assert.assertEquals("{0: 1, <2: 1, <8: 2}", histogram.toString());
+    }
+}
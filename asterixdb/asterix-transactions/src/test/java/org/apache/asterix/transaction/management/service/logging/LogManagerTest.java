@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.asterix.common.api.ThreadExecutor;
+import org.apache.asterix.common.config.TransactionProperties;
+import org.apache.asterix.common.transactions.IAppRuntimeContextProvider;
+import org.apache.asterix.common.transactions.ILogReader;
+import org.apache.asterix.common.transactions.ILogRecord;
+import org.apache.asterix.common.transactions.ITransactionContext;
+import org.apache.asterix.common.transactions.ITransactionManager;
+import org.apache.asterix.common.transactions.ITransactionSubsystem;
+import org.apache.asterix.common.transactions.LogRecord;
+import org.apache.asterix.common.transactions.LogType;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogManagerTest {
+    private static final int LOG_PAGE_SIZE = 256;
+    private static final int NUM_LOG_PAGES = 2;
+    private static final long LOG_FILE_SIZE = 4 * LOG_PAGE_SIZE * NUM_LOG_PAGES;
+    private static final int NUM_LOG_FILES = 4;
+
+    private File dir;
+    private LogManager logMgr;
+    // the LSNs of the logged records, the job id of a record is its index
+    private final List<Long> lsns = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("txn-log").toFile();
+        TransactionProperties txnProperties = mock(TransactionProperties.class);
+        when(txnProperties.getLogBufferPageSize()).thenReturn(LOG_PAGE_SIZE);
+        when(txnProperties.getLogBufferNumPages()).thenReturn(NUM_LOG_PAGES);
+        when(txnProperties.getLogPartitionSize()).thenReturn(LOG_FILE_SIZE);
+        when(txnProperties.getLogDirectory(anyString())).thenReturn(dir.getAbsolutePath());
+        when(txnProperties.getLogStripeDirectories(anyString())).thenReturn(new String[0]);
+        IAppRuntimeContextProvider contextProvider = mock(IAppRuntimeContextProvider.class);
+        when(contextProvider.getThreadExecutor()).thenReturn(new ThreadExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        }));
+        ITransactionSubsystem txnSubsystem = mock(ITransactionSubsystem.class);
+        when(txnSubsystem.getId()).thenReturn("nc1");
+        when(txnSubsystem.getTransactionProperties()).thenReturn(txnProperties);
+        when(txnSubsystem.getAsterixAppRuntimeContextProvider()).thenReturn(contextProvider);
+        logMgr = new LogManager(txnSubsystem);
+
+        ITransactionContext txnCtx = mock(ITransactionContext.class);
+        when(txnCtx.getTxnState()).thenReturn(ITransactionManager.ACTIVE);
+        ILogReader reader = logMgr.getLogReader(true);
+        while (logMgr.getLogFileIds().size() < NUM_LOG_FILES) {
+            LogRecord logRecord = new LogRecord();
+            logRecord.setLogType(LogType.WAIT);
+            logRecord.setJobId(lsns.size());
+            logRecord.setTxnCtx(txnCtx);
+            logRecord.computeAndSetLogSize();
+            logMgr.log(logRecord);
+            lsns.add(-1L);
+        }
+        // the LSNs are found by scanning the log
+        reader.initializeScan(0);
+        for (ILogRecord logRecord = reader.next(); logRecord != null; logRecord = reader.next()) {
+            lsns.set(logRecord.getJobId(), logRecord.getLSN());
+        }
+        reader.close();
+        Assert.assertFalse(lsns.contains(-1L));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        logMgr.stop(false, null);
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void backwardReadTest() throws Exception {
+        // the records are read back from the last one to the first one, across the log pages and log files
+        ILogReader reader = logMgr.getLogReader(false);
+        try {
+            for (int i = lsns.size() - 1; i >= 0; i--) {
+                checkRead(reader, i);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void randomReadTest() throws Exception {
+        List<Integer> jobIds = new ArrayList<>();
+        for (int i = 0; i < lsns.size(); i++) {
+            jobIds.add(i);
+        }
+        Collections.shuffle(jobIds, new Random(17));
+        ILogReader reader = logMgr.getLogReader(false);
+        try {
+            for (int jobId : jobIds) {
+                checkRead(reader, jobId);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void deferredDeletionTest() throws Exception {
+        List<Long> logFileIds = logMgr.getLogFileIds();
+        long lastLogFileId = logFileIds.get(logFileIds.size() - 1);
+        ILogReader reader = logMgr.getLogReader(false);
+        checkRead(reader, 0);
+
+        // the first log file is being read, so no log file is deleted yet
+        logMgr.deleteOldLogFiles(lastLogFileId * LOG_FILE_SIZE);
+        Assert.assertEquals(logFileIds, logMgr.getLogFileIds());
+
+        // the deletion is resumed once the reader closes the first log file
+        reader.close();
+        Assert.assertEquals(Collections.singletonList(lastLogFileId), logMgr.getLogFileIds());
+    }
+
+    private void checkRead(ILogReader reader, int jobId) throws Exception {
+        ILogRecord logRecord = reader.read(lsns.get(jobId));
+        Assert.assertEquals(LogType.WAIT, logRecord.getLogType());
+        Assert.assertEquals(jobId, logRecord.getJobId());
+        Assert.assertEquals((long) lsns.get(jobId), logRecord.getLSN());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StripedLogFileChannelTest {
+    private static final int NUM_STRIPES = 3;
+    private static final int CHUNK_SIZE = 100;
+
+    private File dir;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("striped-log").toFile();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private StripedLogFileChannel open(String mode) throws IOException {
+        FileChannel[] stripes = new FileChannel[NUM_STRIPES];
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new RandomAccessFile(new File(dir, "stripe_" + i), mode).getChannel();
+        }
+        return new StripedLogFileChannel(stripes, CHUNK_SIZE, executor);
+    }
+
+    @Test
+    public void writeAndReadTest() throws IOException {
+        byte[] log = new byte[CHUNK_SIZE * NUM_STRIPES * 4 + 37];
+        new Random(17).nextBytes(log);
+        try (FileChannel channel = open("rw")) {
+            // appends of different sizes, some of which span several chunks
+            int offset = 0;
+            int length = 1;
+            while (offset < log.length) {
+                length = Math.min(length * 3, log.length - offset);
+                Assert.assertEquals(length, channel.write(ByteBuffer.wrap(log, offset, length)));
+                channel.force(false);
+                offset += length;
+                Assert.assertEquals(offset, channel.position());
+                Assert.assertEquals(offset, channel.size());
+            }
+        }
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            Assert.assertTrue(new File(dir, "stripe_" + i).length() > 0);
+        }
+
+        try (FileChannel channel = open("r")) {
+            Assert.assertEquals(log.length, channel.size());
+            channel.position(CHUNK_SIZE / 2);
+            ByteBuffer buffer = ByteBuffer.allocate(log.length);
+            while (channel.read(buffer) > 0) {
+                // read until the end of the log file
+            }
+            Assert.assertEquals(log.length - CHUNK_SIZE / 2, buffer.position());
+            for (int i = 0; i < buffer.position(); i++) {
+                Assert.assertEquals(log[CHUNK_SIZE / 2 + i], buffer.get(i));
+            }
+            buffer.clear();
+            Assert.assertEquals(-1, channel.read(buffer));
+        }
+    }
+
+    @Test
+    public void missingChunkTest() throws IOException {
+        byte[] log = new byte[CHUNK_SIZE * NUM_STRIPES * 2];
+        try (FileChannel channel = open("rw")) {
+            channel.write(ByteBuffer.wrap(log));
+            channel.force(false);
+        }
+        // the last stripe loses its second chunk, which cuts the log file before it
+        try (FileChannel stripe = new RandomAccessFile(new File(dir, "stripe_" + (NUM_STRIPES - 1)), "rw")
+                .getChannel()) {
+            stripe.truncate(CHUNK_SIZE + 10);
+        }
+        try (FileChannel channel = open("r")) {
+            Assert.assertEquals(CHUNK_SIZE * (2 * NUM_STRIPES - 1) + 10, channel.size());
+        }
+    }
+
+    @Test
+    public void truncateTest() throws IOException {
+        byte[] log = new byte[CHUNK_SIZE * NUM_STRIPES * 2];
+        try (FileChannel channel = open("rw")) {
+            channel.write(ByteBuffer.wrap(log));
+            channel.force(false);
+        }
+        // the first stripe loses its second chunk, while the other stripes hold the chunks behind it
+        try (FileChannel stripe = new RandomAccessFile(new File(dir, "stripe_0"), "rw").getChannel()) {
+            stripe.truncate(CHUNK_SIZE + 10);
+        }
+        long durableSize = CHUNK_SIZE * NUM_STRIPES + 10;
+        try (FileChannel channel = open("rw")) {
+            Assert.assertEquals(durableSize, channel.size());
+            channel.truncate(channel.size());
+            channel.force(false);
+        }
+        Assert.assertEquals(CHUNK_SIZE + 10, new File(dir, "stripe_0").length());
+        for (int i = 1; i < NUM_STRIPES; i++) {
+            Assert.assertEquals(CHUNK_SIZE, new File(dir, "stripe_" + i).length());
+        }
+
+        // the log records that are appended from there on aren't followed by stale chunks
+        byte[] tail = new byte[CHUNK_SIZE * 2];
+        new Random(17).nextBytes(tail);
+        try (FileChannel channel = open("rw")) {
+            channel.position(channel.size());
+            channel.write(ByteBuffer.wrap(tail));
+            channel.force(false);
+        }
+        try (FileChannel channel = open("r")) {
+            Assert.assertEquals(durableSize + tail.length, channel.size());
+            ByteBuffer buffer = ByteBuffer.allocate(tail.length);
+            Assert.assertEquals(tail.length, channel.read(buffer, durableSize));
+            Assert.assertArrayEquals(tail, buffer.array());
+        }
+    }
+}
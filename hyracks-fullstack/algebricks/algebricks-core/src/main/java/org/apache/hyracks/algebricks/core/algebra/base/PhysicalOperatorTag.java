@@ -60,6 +60,7 @@ public enum PhysicalOperatorTag {
     SINK_WRITE,
     SORT_GROUP_BY,
     SORT_MERGE_EXCHANGE,
+    SORT_MERGE_JOIN,
     SPLIT,
     STABLE_SORT,
     STATS,
@@ -70,12 +70,20 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
 
     private final long inputSize;
     private final int frameLimit;
+    // whether a local group-by pre-aggregates adaptively instead of spilling
+    private final boolean isAdaptivePreAggregation;
     private List<LogicalVariable> columnSet = new ArrayList<LogicalVariable>();
 
     public ExternalGroupByPOperator(List<Pair<LogicalVariable, Mutable<ILogicalExpression>>> gbyList, int frameLimit,
             long fileSize) {
+        this(gbyList, frameLimit, fileSize, false);
+    }
+
+    public ExternalGroupByPOperator(List<Pair<LogicalVariable, Mutable<ILogicalExpression>>> gbyList, int frameLimit,
+            long fileSize, boolean isAdaptivePreAggregation) {
         this.frameLimit = frameLimit;
         this.inputSize = fileSize;
+        this.isAdaptivePreAggregation = isAdaptivePreAggregation;
         computeColumnSet(gbyList);
     }
 
@@ -261,9 +269,11 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
         int hashTableSize = ExternalGroupOperatorDescriptor.calculateGroupByTableCardinality(memoryBudgetInBytes,
                 groupByColumnsCount, context.getFrameSize());
 
+        // A local group-by only pre-aggregates for the global one, which merges whatever it doesn't reduce.
         ExternalGroupOperatorDescriptor gbyOpDesc = new ExternalGroupOperatorDescriptor(spec, hashTableSize, inputSize,
                 keyAndDecFields, frameLimit, comparatorFactories, normalizedKeyFactory, aggregatorFactory, mergeFactory,
-                recordDescriptor, recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories));
+                recordDescriptor, recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories),
+                isPreAggregating(gby));
         contributeOpDesc(builder, gby, gbyOpDesc);
         ILogicalOperator src = op.getInputs().get(0).getValue();
         builder.contributeGraphEdge(src, 0, op, 0);
@@ -272,10 +282,15 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
     @Override
     public Pair<int[], int[]> getInputOutputDependencyLabels(ILogicalOperator op) {
         int[] inputDependencyLabels = new int[] { 0 };
-        int[] outputDependencyLabels = new int[] { 1 };
+        // The pre-aggregation of a local group-by is pipelined.
+        int[] outputDependencyLabels = new int[] { isPreAggregating((GroupByOperator) op) ? 0 : 1 };
         return new Pair<int[], int[]>(inputDependencyLabels, outputDependencyLabels);
     }
 
+    private boolean isPreAggregating(GroupByOperator gby) {
+        return isAdaptivePreAggregation && !gby.isGlobal();
+    }
+
     @Override
     public boolean expensiveThanMaterialization() {
         return true;
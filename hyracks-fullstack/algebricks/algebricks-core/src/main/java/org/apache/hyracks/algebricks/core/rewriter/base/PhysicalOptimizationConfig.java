@@ -34,6 +34,8 @@ public class PhysicalOptimizationConfig {
     private static final String DEFAULT_HASH_GROUP_TABLE_SIZE = "DEFAULT_HASH_GROUP_TABLE_SIZE";
     private static final String DEFAULT_EXTERNAL_GROUP_TABLE_SIZE = "DEFAULT_EXTERNAL_GROUP_TABLE_SIZE";
     private static final String DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE = "DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE";
+    private static final String SORT_MERGE_JOIN = "SORT_MERGE_JOIN";
+    private static final String ADAPTIVE_PRE_AGGREGATION = "ADAPTIVE_PRE_AGGREGATION";
 
     private Properties properties = new Properties();
 
@@ -133,6 +135,22 @@ public class PhysicalOptimizationConfig {
         setInt(DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE, tableSize);
     }
 
+    public boolean isSortMergeJoin() {
+        return getBoolean(SORT_MERGE_JOIN, false);
+    }
+
+    public void setSortMergeJoin(boolean sortMergeJoin) {
+        setBoolean(SORT_MERGE_JOIN, sortMergeJoin);
+    }
+
+    public boolean isAdaptivePreAggregation() {
+        return getBoolean(ADAPTIVE_PRE_AGGREGATION, false);
+    }
+
+    public void setAdaptivePreAggregation(boolean adaptivePreAggregation) {
+        setBoolean(ADAPTIVE_PRE_AGGREGATION, adaptivePreAggregation);
+    }
+
     private void setInt(String property, int value) {
         properties.setProperty(property, Integer.toString(value));
     }
@@ -157,4 +175,16 @@ public class PhysicalOptimizationConfig {
             return Double.parseDouble(value);
     }
 
+    private void setBoolean(String property, boolean value) {
+        properties.setProperty(property, Boolean.toString(value));
+    }
+
+    private boolean getBoolean(String property, boolean defaultValue) {
+        String value = properties.getProperty(property);
+        if (value == null)
+            return defaultValue;
+        else
+            return Boolean.parseBoolean(value);
+    }
+
 }
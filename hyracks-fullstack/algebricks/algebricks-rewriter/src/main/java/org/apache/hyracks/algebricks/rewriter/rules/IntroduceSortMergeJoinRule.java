@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.rewriter.rules;
+
+import java.util.List;
+
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.IPhysicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HybridHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.SortMergeJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
+import org.apache.hyracks.algebricks.core.algebra.properties.PropertiesUtil;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+
+/**
+ * Replaces a hybrid hash join with a sort-merge join if both of its inputs are already sorted on the join keys, e.g.,
+ * when they are scans of primary indexes on the join keys that are partitioned the same way. The sort-merge join
+ * neither builds a hash table nor spills, and it keeps the order of its left input.
+ * The rule looks at the delivered physical properties of the join inputs, so it has to run after the
+ * EnforceStructuralPropertiesRule. It only fires if the sort-merge join is enabled in the physical optimization
+ * config.
+ */
+public class IntroduceSortMergeJoinRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        return false;
+    }
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        if (!context.getPhysicalOptimizationConfig().isSortMergeJoin()) {
+            return false;
+        }
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.INNERJOIN
+                && op.getOperatorTag() != LogicalOperatorTag.LEFTOUTERJOIN) {
+            return false;
+        }
+        IPhysicalOperator pop = op.getPhysicalOperator();
+        if (pop == null || pop.getOperatorTag() != PhysicalOperatorTag.HYBRID_HASH_JOIN) {
+            return false;
+        }
+        HybridHashJoinPOperator hhj = (HybridHashJoinPOperator) pop;
+        if (!isSortedOn(op.getInputs().get(0), hhj.getKeysLeftBranch(), context)
+                || !isSortedOn(op.getInputs().get(1), hhj.getKeysRightBranch(), context)) {
+            return false;
+        }
+        op.setPhysicalOperator(new SortMergeJoinPOperator(hhj.getKind(), hhj.getPartitioningType(),
+                hhj.getKeysLeftBranch(), hhj.getKeysRightBranch(), hhj.getMemSizeInFrames()));
+        op.computeDeliveredPhysicalProperties(context);
+        return true;
+    }
+
+    private static boolean isSortedOn(Mutable<ILogicalOperator> inputRef, List<LogicalVariable> keys,
+            IOptimizationContext context) {
+        AbstractLogicalOperator input = (AbstractLogicalOperator) inputRef.getValue();
+        IPhysicalPropertiesVector delivered = input.getDeliveredPhysicalProperties();
+        if (delivered == null) {
+            return false;
+        }
+        return PropertiesUtil.matchLocalProperties(SortMergeJoinPOperator.getAscendingOrder(keys),
+                delivered.getLocalProperties(), context.getEquivalenceClassMap(input), context.getFDList(input));
+    }
+}
@@ -169,7 +169,8 @@ public class SetAlgebricksPhysicalOperatorsRule implements IAlgebraicRewriteRule
                                             gby.getGroupByList(),
                                             physicalOptimizationConfig.getMaxFramesExternalGroupBy(),
                                             (long) physicalOptimizationConfig.getMaxFramesExternalGroupBy()
-                                                    * physicalOptimizationConfig.getFrameSize());
+                                                    * physicalOptimizationConfig.getFrameSize(),
+                                            physicalOptimizationConfig.isAdaptivePreAggregation());
                                     op.setPhysicalOperator(externalGby);
                                     break;
                                 }
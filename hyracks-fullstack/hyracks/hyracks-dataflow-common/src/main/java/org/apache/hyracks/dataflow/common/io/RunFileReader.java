@@ -100,6 +100,23 @@ public class RunFileReader implements IFrameReader {
         handle = null;
     }
 
+    /**
+     * @return the position of the next frame in the file
+     */
+    public long getReadPointer() {
+        return readPtr;
+    }
+
+    /**
+     * Moves the reader to a frame that it read before.
+     *
+     * @param position
+     *            the position of the frame, as returned by {@link #getReadPointer()} before the frame was read
+     */
+    public void seek(long position) {
+        readPtr = position;
+    }
+
     public long getFileSize() {
         return size;
     }
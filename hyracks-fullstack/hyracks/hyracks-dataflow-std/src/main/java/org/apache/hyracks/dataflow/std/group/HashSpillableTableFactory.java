@@ -238,6 +238,27 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             @Override
             public int flushFrames(int partition, IFrameWriter writer, AggregateType type) throws HyracksDataException {
+                int count = appendPartition(partition, writer, type);
+                outputAppender.write(writer, true);
+                spilledSet.set(partition);
+                return count;
+            }
+
+            @Override
+            public int flushAndReset(IFrameWriter writer, AggregateType type) throws HyracksDataException {
+                int count = 0;
+                for (int partition = 0; partition < numPartitions; partition++) {
+                    count += appendPartition(partition, writer, type);
+                }
+                outputAppender.write(writer, true);
+                hashTableForTuplePointer.reset();
+                bufferManager.reset();
+                spilledSet.clear();
+                return count;
+            }
+
+            private int appendPartition(int partition, IFrameWriter writer, AggregateType type)
+                    throws HyracksDataException {
                 int count = 0;
                 for (int hashEntryPid = getFirstEntryInHashTable(partition); hashEntryPid < getLastEntryInHashTable(
                         partition); hashEntryPid++) {
@@ -274,11 +295,14 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                         }
                     }
                 }
-                outputAppender.write(writer, true);
-                spilledSet.set(partition);
                 return count;
             }
 
+            @Override
+            public int getNumOfGroups() {
+                return hashTableForTuplePointer.getTupleCount();
+            }
+
             @Override
             public int getNumPartitions() {
                 return bufferManager.getNumPartitions();
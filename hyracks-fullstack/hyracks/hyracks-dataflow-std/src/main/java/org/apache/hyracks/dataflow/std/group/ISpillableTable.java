@@ -57,6 +57,21 @@ public interface ISpillableTable {
      */
     int flushFrames(int partition, IFrameWriter writer, AggregateType type) throws HyracksDataException;
 
+    /**
+     * Flush all the partitions to writer, and reset the table to the initial state without marking any partition
+     * as spilled. The table keeps its memory, so that it can be filled again.
+     * @param writer
+     * @param type
+     * @return the numOfTuples that have been flushed
+     * @throws HyracksDataException
+     */
+    int flushAndReset(IFrameWriter writer, AggregateType type) throws HyracksDataException;
+
+    /**
+     * Get the number of groups in the table
+     */
+    int getNumOfGroups();
+
     /**
      * Get number of partitions
      */
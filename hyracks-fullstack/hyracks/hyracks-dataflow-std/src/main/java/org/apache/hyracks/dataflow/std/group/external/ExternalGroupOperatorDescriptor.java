@@ -58,12 +58,25 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
     private final RecordDescriptor outRecDesc;
     private final int tableSize;
     private final long fileSize;
+    // If set, the operator only pre-aggregates its input for a downstream group-by and never spills or blocks.
+    private final boolean isAdaptivePreAggregation;
 
     public ExternalGroupOperatorDescriptor(IOperatorDescriptorRegistry spec, int inputSizeInTuple, long inputFileSize,
             int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
             INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory partialAggregatorFactory,
             IAggregatorDescriptorFactory intermediateAggregateFactory, RecordDescriptor partialAggRecordDesc,
             RecordDescriptor outRecordDesc, ISpillableTableFactory spillableTableFactory) {
+        this(spec, inputSizeInTuple, inputFileSize, keyFields, framesLimit, comparatorFactories,
+                firstNormalizerFactory, partialAggregatorFactory, intermediateAggregateFactory, partialAggRecordDesc,
+                outRecordDesc, spillableTableFactory, false);
+    }
+
+    public ExternalGroupOperatorDescriptor(IOperatorDescriptorRegistry spec, int inputSizeInTuple, long inputFileSize,
+            int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory partialAggregatorFactory,
+            IAggregatorDescriptorFactory intermediateAggregateFactory, RecordDescriptor partialAggRecordDesc,
+            RecordDescriptor outRecordDesc, ISpillableTableFactory spillableTableFactory,
+            boolean isAdaptivePreAggregation) {
         super(spec, 1, 1);
         this.framesLimit = framesLimit;
         if (framesLimit <= 3) {
@@ -91,6 +104,7 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         outRecDescs[0] = outRecordDesc;
         this.tableSize = inputSizeInTuple;
         this.fileSize = inputFileSize;
+        this.isAdaptivePreAggregation = isAdaptivePreAggregation;
     }
 
     /*
@@ -102,6 +116,14 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
      */
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
+        if (isAdaptivePreAggregation) {
+            PreAggregateActivity preAggregateAct =
+                    new PreAggregateActivity(new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
+            builder.addActivity(this, preAggregateAct);
+            builder.addSourceEdge(0, preAggregateAct, 0);
+            builder.addTargetEdge(0, preAggregateAct, 0);
+            return;
+        }
         AggregateActivity aggregateAct = new AggregateActivity(new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
         MergeActivity mergeAct = new MergeActivity(new ActivityId(odId, MERGE_ACTIVITY_ID));
 
@@ -132,6 +154,24 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         }
     }
 
+    private class PreAggregateActivity extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public PreAggregateActivity(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                final IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                        throws HyracksDataException {
+            return new ExternalGroupPreAggregateOperatorNodePushable(ctx, tableSize, fileSize, keyFields, framesLimit,
+                    comparatorFactories, firstNormalizerFactory, partialAggregatorFactory,
+                    recordDescProvider.getInputRecordDescriptor(getActivityId(), 0), outRecDescs[0],
+                    spillableTableFactory);
+        }
+    }
+
     private class MergeActivity extends AbstractActivityNode {
         private static final long serialVersionUID = 1L;
 
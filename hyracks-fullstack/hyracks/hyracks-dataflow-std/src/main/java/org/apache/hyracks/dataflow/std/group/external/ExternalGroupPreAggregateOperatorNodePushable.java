@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.external;
+
+import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.AggregateState;
+import org.apache.hyracks.dataflow.std.group.AggregateType;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+
+/**
+ * Computes partial aggregates for a group-by downstream that merges them, e.g., before the exchange of a two-phase
+ * aggregation. So it never spills: if its table is full, the groups in the table are sent downstream.
+ * The input is processed in rounds of frames. If the aggregation of a round creates a new group for nearly every
+ * input tuple, it doesn't pay off, and the rest of the input bypasses the table: each tuple is sent downstream as the
+ * partial aggregate of a group of its own. Only the first frame of a round is aggregated while bypassing, and the
+ * aggregation is turned back on once that frame is reduced enough.
+ */
+public class ExternalGroupPreAggregateOperatorNodePushable extends AbstractUnaryInputUnaryOutputOperatorNodePushable {
+    private static final Logger LOGGER =
+            Logger.getLogger(ExternalGroupPreAggregateOperatorNodePushable.class.getName());
+    private static final int FRAMES_PER_ROUND = 8;
+    // The aggregation doesn't pay off if it reduces its input to more than this fraction.
+    private static final double MAX_REDUCTION_RATIO = 0.9;
+
+    private final IHyracksTaskContext ctx;
+    private final int[] keyFields;
+    private final int[] keyFieldsInPartialResults;
+    private final IBinaryComparator[] comparators;
+    private final INormalizedKeyComputer firstNormalizerComputer;
+    private final IAggregatorDescriptorFactory aggregatorFactory;
+    private final int framesLimit;
+    private final ISpillableTableFactory spillableTableFactory;
+    private final RecordDescriptor inRecordDescriptor;
+    private final RecordDescriptor outRecordDescriptor;
+    private final int tableSize;
+    private final long fileSize;
+    private final FrameTupleAccessor accessor;
+
+    private ISpillableTable table;
+    // The aggregator, the state tuples and the output of the tuples that bypass the table
+    private IAggregatorDescriptor bypassAggregator;
+    private AggregateState bypassState;
+    private ArrayTupleBuilder stateTupleBuilder;
+    private ArrayTupleBuilder outputTupleBuilder;
+    private IFrame stateFrame;
+    private FrameTupleAppender stateAppender;
+    private FrameTupleAccessor stateAccessor;
+    private FrameTupleAppender outputAppender;
+
+    private boolean isBypassing = false;
+    private int framesInRound = 0;
+    private long tuplesInRound = 0;
+    private long groupsInRound = 0;
+    private long numOfBypassedTuples = 0;
+    private boolean isFailed = false;
+
+    public ExternalGroupPreAggregateOperatorNodePushable(IHyracksTaskContext ctx, int tableSize, long fileSize,
+            int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory aggregatorFactory,
+            RecordDescriptor inRecordDescriptor, RecordDescriptor outRecordDescriptor,
+            ISpillableTableFactory spillableTableFactory) {
+        this.ctx = ctx;
+        this.framesLimit = framesLimit;
+        this.aggregatorFactory = aggregatorFactory;
+        this.keyFields = keyFields;
+        this.keyFieldsInPartialResults = new int[keyFields.length];
+        for (int i = 0; i < keyFields.length; ++i) {
+            keyFieldsInPartialResults[i] = i;
+        }
+        this.comparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        this.firstNormalizerComputer = firstNormalizerFactory == null ? null
+                : firstNormalizerFactory.createNormalizedKeyComputer();
+        this.spillableTableFactory = spillableTableFactory;
+        this.inRecordDescriptor = inRecordDescriptor;
+        this.outRecordDescriptor = outRecordDescriptor;
+        this.tableSize = tableSize;
+        this.fileSize = fileSize;
+        this.accessor = new FrameTupleAccessor(inRecordDescriptor);
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        table = spillableTableFactory.buildSpillableTable(ctx, tableSize, fileSize, keyFields, comparators,
+                firstNormalizerComputer, aggregatorFactory, inRecordDescriptor, outRecordDescriptor, framesLimit, 0);
+        bypassAggregator = aggregatorFactory.createAggregator(ctx, inRecordDescriptor, outRecordDescriptor, keyFields,
+                keyFieldsInPartialResults, null);
+        bypassState = bypassAggregator.createAggregateStates();
+        stateTupleBuilder = new ArrayTupleBuilder(outRecordDescriptor.getFieldCount());
+        outputTupleBuilder = new ArrayTupleBuilder(outRecordDescriptor.getFieldCount());
+        stateFrame = new VSizeFrame(ctx);
+        stateAppender = new FrameTupleAppender(stateFrame);
+        stateAccessor = new FrameTupleAccessor(outRecordDescriptor);
+        outputAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+        writer.open();
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        accessor.reset(buffer);
+        if (isBypassing && framesInRound > 0) {
+            bypass();
+        } else {
+            aggregate();
+            if (isBypassing && !isNotReducing()) {
+                isBypassing = false;
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Pre-aggregation is turned back on after bypassing " + numOfBypassedTuples
+                            + " tuples.");
+                }
+            }
+        }
+        if (++framesInRound == FRAMES_PER_ROUND) {
+            if (!isBypassing && isNotReducing()) {
+                isBypassing = true;
+                // The groups of the table are unlikely to be hit again.
+                table.flushAndReset(writer, AggregateType.FINAL);
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Pre-aggregation is bypassed after reducing " + tuplesInRound + " tuples to "
+                            + groupsInRound + " groups.");
+                }
+            }
+            framesInRound = 0;
+            tuplesInRound = 0;
+            groupsInRound = 0;
+        }
+    }
+
+    private boolean isNotReducing() {
+        return groupsInRound > MAX_REDUCTION_RATIO * tuplesInRound;
+    }
+
+    private void aggregate() throws HyracksDataException {
+        int tupleCount = accessor.getTupleCount();
+        int groupsBefore = table.getNumOfGroups();
+        for (int i = 0; i < tupleCount; i++) {
+            if (!table.insert(accessor, i)) {
+                // The downstream group-by merges these groups with the ones that the table creates from now on.
+                groupsInRound += table.flushAndReset(writer, AggregateType.FINAL) - groupsBefore;
+                groupsBefore = 0;
+                if (!table.insert(accessor, i)) {
+                    throw new HyracksDataException("Failed to insert a new buffer into the aggregate operator!");
+                }
+            }
+        }
+        groupsInRound += table.getNumOfGroups() - groupsBefore;
+        tuplesInRound += tupleCount;
+    }
+
+    private void bypass() throws HyracksDataException {
+        int tupleCount = accessor.getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            stateTupleBuilder.reset();
+            for (int k = 0; k < keyFields.length; k++) {
+                stateTupleBuilder.addField(accessor, i, keyFields[k]);
+            }
+            bypassAggregator.init(stateTupleBuilder, accessor, i, bypassState);
+            if (!appendState()) {
+                writeStates();
+                if (!appendState()) {
+                    throw new HyracksDataException("The aggregate state is too large to be fit into a frame.");
+                }
+            }
+        }
+        writeStates();
+        numOfBypassedTuples += tupleCount;
+    }
+
+    private boolean appendState() throws HyracksDataException {
+        return stateAppender.append(stateTupleBuilder.getFieldEndOffsets(), stateTupleBuilder.getByteArray(), 0,
+                stateTupleBuilder.getSize());
+    }
+
+    private void writeStates() throws HyracksDataException {
+        stateAccessor.reset(stateFrame.getBuffer());
+        int stateCount = stateAccessor.getTupleCount();
+        for (int i = 0; i < stateCount; i++) {
+            outputTupleBuilder.reset();
+            for (int k = 0; k < keyFieldsInPartialResults.length; k++) {
+                outputTupleBuilder.addField(stateAccessor, i, keyFieldsInPartialResults[k]);
+            }
+            if (bypassAggregator.outputFinalResult(outputTupleBuilder, stateAccessor, i, bypassState)) {
+                FrameUtils.appendSkipEmptyFieldToWriter(writer, outputAppender,
+                        outputTupleBuilder.getFieldEndOffsets(), outputTupleBuilder.getByteArray(), 0,
+                        outputTupleBuilder.getSize());
+            }
+        }
+        stateAppender.reset(stateFrame, true);
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        isFailed = true;
+        writer.fail();
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (!isFailed) {
+                table.flushAndReset(writer, AggregateType.FINAL);
+                outputAppender.write(writer, true);
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Pre-aggregation bypassed " + numOfBypassedTuples + " tuples.");
+                }
+            }
+        } finally {
+            try {
+                if (table != null) {
+                    table.close();
+                }
+                if (bypassAggregator != null) {
+                    bypassAggregator.close();
+                    bypassState.close();
+                }
+            } finally {
+                writer.close();
+            }
+        }
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.TupleInFrameListAccessor;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.OpenAddressingHashTable;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
 
@@ -56,6 +57,8 @@ public class InMemoryHashJoin {
     private final boolean isLeftOuter;
     private final ArrayTupleBuilder missingTupleBuild;
     private final ISerializableTable table;
+    // Replaces the table when the probe is done a frame at a time (see join(int[], int, IFrameWriter)).
+    private final OpenAddressingHashTable openAddressingTable;
     private final int tableSize;
     private final TuplePointer storedTuplePointer;
     private final boolean reverseOutputOrder; //Should we reverse the order of tuples, we are writing in output
@@ -64,6 +67,10 @@ public class InMemoryHashJoin {
     // To release frames
     ISimpleFrameBufferManager bufferManager;
     private final boolean isTableCapacityNotZero;
+    // The hash values and the candidate slots of the tuples of the current probe frame
+    private int[] probeHashes = new int[0];
+    private int[] probeSlots = new int[0];
+    private int[] probeTupleIndexes = new int[0];
 
     private static final Logger LOGGER = Logger.getLogger(InMemoryHashJoin.class.getName());
 
@@ -83,8 +90,34 @@ public class InMemoryHashJoin {
             boolean isLeftOuter, IMissingWriter[] missingWritersBuild, ISerializableTable table,
             IPredicateEvaluator predEval, boolean reverse, ISimpleFrameBufferManager bufferManager)
             throws HyracksDataException {
+        this(ctx, tableSize, accessorProbe, tpcProbe, accessorBuild, rDBuild, tpcBuild, comparator, isLeftOuter,
+                missingWritersBuild, table, null, predEval, reverse, bufferManager);
+    }
+
+    /**
+     * Creates a join that keeps the build tuples in an open addressing table with inline hash values and probes it a
+     * frame at a time. The partition computers must return the full hash value of a tuple for Integer.MAX_VALUE
+     * partitions, which the field hash partition computers do.
+     */
+    public InMemoryHashJoin(IHyracksTaskContext ctx, int tableSize, FrameTupleAccessor accessorProbe,
+            ITuplePartitionComputer tpcProbe, FrameTupleAccessor accessorBuild,
+            RecordDescriptor rDBuild, ITuplePartitionComputer tpcBuild, FrameTuplePairComparator comparator,
+            boolean isLeftOuter, IMissingWriter[] missingWritersBuild, OpenAddressingHashTable table,
+            IPredicateEvaluator predEval, boolean reverse, ISimpleFrameBufferManager bufferManager)
+            throws HyracksDataException {
+        this(ctx, tableSize, accessorProbe, tpcProbe, accessorBuild, rDBuild, tpcBuild, comparator, isLeftOuter,
+                missingWritersBuild, null, table, predEval, reverse, bufferManager);
+    }
+
+    private InMemoryHashJoin(IHyracksTaskContext ctx, int tableSize, FrameTupleAccessor accessorProbe,
+            ITuplePartitionComputer tpcProbe, FrameTupleAccessor accessorBuild,
+            RecordDescriptor rDBuild, ITuplePartitionComputer tpcBuild, FrameTuplePairComparator comparator,
+            boolean isLeftOuter, IMissingWriter[] missingWritersBuild, ISerializableTable table,
+            OpenAddressingHashTable openAddressingTable, IPredicateEvaluator predEval, boolean reverse,
+            ISimpleFrameBufferManager bufferManager) throws HyracksDataException {
         this.tableSize = tableSize;
         this.table = table;
+        this.openAddressingTable = openAddressingTable;
         storedTuplePointer = new TuplePointer();
         buffers = new ArrayList<>();
         this.accessorBuild = accessorBuild;
@@ -123,6 +156,12 @@ public class InMemoryHashJoin {
         int bIndex = buffers.size() - 1;
         accessorBuild.reset(buffer);
         int tCount = accessorBuild.getTupleCount();
+        if (openAddressingTable != null) {
+            for (int i = 0; i < tCount; ++i) {
+                openAddressingTable.insert(tpcBuild.partition(accessorBuild, i, Integer.MAX_VALUE), bIndex, i);
+            }
+            return;
+        }
         for (int i = 0; i < tCount; ++i) {
             int entry = tpcBuild.partition(accessorBuild, i, tableSize);
             storedTuplePointer.reset(bIndex, i);
@@ -147,7 +186,8 @@ public class InMemoryHashJoin {
      * @return the number of frames that have been reclaimed. If no compaction has happened, the value -1 is returned.
      */
     public int compactHashTable() throws HyracksDataException {
-        if (table.isGarbageCollectionNeeded()) {
+        // The open addressing table doesn't leave any garbage behind.
+        if (table != null && table.isGarbageCollectionNeeded()) {
             return table.collectGarbage(tupleAccessor, tpcBuild);
         }
         return -1;
@@ -158,6 +198,11 @@ public class InMemoryHashJoin {
      * This method assumes that the accessorProbe is already set to the current probe frame.
      */
     void join(int tid, IFrameWriter writer) throws HyracksDataException {
+        if (openAddressingTable != null) {
+            int hash = tpcProbe.partition(accessorProbe, tid, Integer.MAX_VALUE);
+            join(tid, hash, openAddressingTable.find(hash), writer);
+            return;
+        }
         boolean matchFound = false;
         if (isTableCapacityNotZero) {
             int entry = tpcProbe.partition(accessorProbe, tid, tableSize);
@@ -187,11 +232,72 @@ public class InMemoryHashJoin {
     public void join(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
         accessorProbe.reset(buffer);
         int tupleCount0 = accessorProbe.getTupleCount();
+        if (openAddressingTable != null) {
+            ensureProbeCapacity(tupleCount0);
+            for (int i = 0; i < tupleCount0; ++i) {
+                probeTupleIndexes[i] = i;
+            }
+            join(probeTupleIndexes, tupleCount0, writer);
+            return;
+        }
         for (int i = 0; i < tupleCount0; ++i) {
             join(i, writer);
         }
     }
 
+    /**
+     * Reads the given tuples from the probe side and joins them with tuples from the build side.
+     * This method assumes that the accessorProbe is already set to the current probe frame.
+     * With the open addressing table, the tuples are joined in three passes: the first one computes the hash values
+     * of all tuples, the second one looks them up in the table, which only reads the slots of the table, and the last
+     * one compares the tuples with the build tuples that have the same hash value. The lookups of the second pass
+     * don't depend on each other, so that the processor can overlap their cache misses.
+     */
+    void join(int[] tids, int numTuples, IFrameWriter writer) throws HyracksDataException {
+        if (openAddressingTable == null) {
+            for (int i = 0; i < numTuples; ++i) {
+                join(tids[i], writer);
+            }
+            return;
+        }
+        ensureProbeCapacity(numTuples);
+        for (int i = 0; i < numTuples; ++i) {
+            probeHashes[i] = tpcProbe.partition(accessorProbe, tids[i], Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < numTuples; ++i) {
+            probeSlots[i] = openAddressingTable.find(probeHashes[i]);
+        }
+        for (int i = 0; i < numTuples; ++i) {
+            join(tids[i], probeHashes[i], probeSlots[i], writer);
+        }
+    }
+
+    private void join(int tid, int hash, int firstSlot, IFrameWriter writer) throws HyracksDataException {
+        boolean matchFound = false;
+        for (int slot = firstSlot; slot >= 0; slot = openAddressingTable.findNext(slot, hash)) {
+            int tIndex = openAddressingTable.getTupleIndex(slot);
+            accessorBuild.reset(buffers.get(openAddressingTable.getFrameIndex(slot)));
+            if (tpComparator.compare(accessorProbe, tid, accessorBuild, tIndex) == 0
+                    && evaluatePredicate(tid, tIndex)) {
+                matchFound = true;
+                appendToResult(tid, tIndex, writer);
+            }
+        }
+        if (!matchFound && isLeftOuter) {
+            FrameUtils.appendConcatToWriter(writer, appender, accessorProbe, tid,
+                    missingTupleBuild.getFieldEndOffsets(), missingTupleBuild.getByteArray(), 0,
+                    missingTupleBuild.getSize());
+        }
+    }
+
+    private void ensureProbeCapacity(int numTuples) {
+        if (probeHashes.length < numTuples) {
+            probeHashes = new int[numTuples];
+            probeSlots = new int[numTuples];
+            probeTupleIndexes = new int[numTuples];
+        }
+    }
+
     public void resetAccessorProbe(IFrameTupleAccessor newAccessorProbe) {
         accessorProbe.reset(newAccessorProbe.getBuffer());
     }
@@ -216,6 +322,10 @@ public class InMemoryHashJoin {
     }
 
     public void closeTable() throws HyracksDataException {
+        if (openAddressingTable != null) {
+            openAddressingTable.close();
+            return;
+        }
         table.close();
     }
 
@@ -19,7 +19,10 @@
 package org.apache.hyracks.dataflow.std.join;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameWriter;
@@ -44,7 +47,9 @@ import org.apache.hyracks.dataflow.std.buffermanager.IPartitionedTupleBufferMana
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.PreferToSpillFullyOccupiedFramePolicy;
 import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
-import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.FrameBloomFilter;
+import org.apache.hyracks.dataflow.std.structures.HeavyHitterSketch;
+import org.apache.hyracks.dataflow.std.structures.OpenAddressingHashTable;
 import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
@@ -55,6 +60,12 @@ import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
  */
 public class OptimizedHybridHashJoin {
 
+    private static final Logger LOGGER = Logger.getLogger(OptimizedHybridHashJoin.class.getName());
+    // The Bloom filter over the spilled build tuples takes at most 1/32 of the memory.
+    private static final int BUILD_FILTER_MEMORY_FRACTION = 32;
+    // The number of the most frequent build key hash values that are tracked to find the hot partitions.
+    private static final int NUM_HEAVY_HITTER_COUNTERS = 16;
+
     // Used for special probe BigObject which can not be held into the Join memory
     private FrameTupleAppender bigProbeFrameAppender;
 
@@ -108,6 +119,25 @@ public class OptimizedHybridHashJoin {
     private TuplePointer tempPtr = new TuplePointer(); // this is a reusable object to store the pointer,which is not used anywhere.
                                                        // we mainly use it to match the corresponding function signature.
     private int[] probePSizeInTups;
+    private int[] residentProbeTuples = new int[0]; // the probe tuples of a frame that belong to resident partitions
+
+    // A Bloom filter over the hash values of the spilled build tuples. The probe tuples of spilled partitions that
+    // it rejects can't have a match, so they are dropped instead of being spilled. It is created at the first spill,
+    // and it is disabled for left outer joins and if there is no memory for it. It only applies to the probe tuples
+    // that reach this join: the operators of the probe side, e.g. the repartitioning, still see all of them.
+    private FrameBloomFilter buildFilter;
+    // The filter leaves at least a frame for every partition, which a spilled partition keeps to write its tuples.
+    private final int buildFilterFrameLimit;
+    private boolean isBuildFilterDisabled;
+    private int[] hashesBeforeBuildFilter; // the hash values of the first spilled partition
+    private int numOfHashesBeforeBuildFilter;
+    private int numOfProbeTuplesDroppedByFilter;
+
+    // The most frequent hash values of the build tuples. A resident partition is hot if a single key of it has more
+    // build tuples than an average partition. Hot partitions are spilled last, since all the probe tuples of a hot key
+    // end up in the same partition at every level of recursion, while the other partitions can be split further.
+    private final HeavyHitterSketch buildHeavyHitters = new HeavyHitterSketch(NUM_HEAVY_HITTER_COUNTERS);
+    private int numOfHotPartitionsKeptInMemory;
 
     public OptimizedHybridHashJoin(IHyracksTaskContext ctx, int memSizeInFrames, int numOfPartitions,
             String probeRelName,
@@ -139,6 +169,8 @@ public class OptimizedHybridHashJoin {
         this.isReversed = false;
 
         this.spilledStatus = new BitSet(numOfPartitions);
+        this.buildFilterFrameLimit =
+                Math.min(memSizeInFrames / BUILD_FILTER_MEMORY_FRACTION, memSizeInFrames - numOfPartitions);
 
         this.nonMatchWriters = isLeftOuter ? new IMissingWriter[nullWriterFactories1.length] : null;
         if (isLeftOuter) {
@@ -157,6 +189,8 @@ public class OptimizedHybridHashJoin {
         spillPolicy = new PreferToSpillFullyOccupiedFramePolicy(bufferManager, spilledStatus);
         spilledStatus.clear();
         buildPSizeInTups = new int[numOfPartitions];
+        buildHeavyHitters.reset();
+        isBuildFilterDisabled = isLeftOuter || buildFilterFrameLimit <= 0;
     }
 
     public void build(ByteBuffer buffer) throws HyracksDataException {
@@ -165,6 +199,7 @@ public class OptimizedHybridHashJoin {
 
         for (int i = 0; i < tupleCount; ++i) {
             int pid = buildHpc.partition(accessorBuild, i, numOfPartitions);
+            buildHeavyHitters.add(buildHpc.partition(accessorBuild, i, Integer.MAX_VALUE), pid);
             processTuple(i, pid);
             buildPSizeInTups[pid]++;
         }
@@ -179,6 +214,13 @@ public class OptimizedHybridHashJoin {
 
     private void selectAndSpillVictim(int pid) throws HyracksDataException {
         int victimPartition = spillPolicy.selectVictimPartition(pid);
+        if (victimPartition == pid && !spilledStatus.get(pid) && isHotPartition(pid)) {
+            int coldPartition = findColdInMemPartitionWithMaxMemoryUsage();
+            if (coldPartition >= 0) {
+                victimPartition = coldPartition;
+                numOfHotPartitionsKeptInMemory++;
+            }
+        }
         if (victimPartition < 0) {
             throw new HyracksDataException(
                     "No more space left in the memory buffer, please assign more memory to hash-join.");
@@ -186,11 +228,51 @@ public class OptimizedHybridHashJoin {
         spillPartition(victimPartition);
     }
 
+    private boolean isHotPartition(int pid) {
+        return buildHeavyHitters.getMaxCount(pid) > buildHeavyHitters.getNumOfValues() / numOfPartitions;
+    }
+
+    private int findColdInMemPartitionWithMaxMemoryUsage() {
+        int victim = -1;
+        int max = 0;
+        for (int p = spilledStatus.nextClearBit(0); p >= 0
+                && p < numOfPartitions; p = spilledStatus.nextClearBit(p + 1)) {
+            int partSize = bufferManager.getPhysicalSize(p);
+            if (partSize > max && !isHotPartition(p)) {
+                max = partSize;
+                victim = p;
+            }
+        }
+        return victim;
+    }
+
     private void spillPartition(int pid) throws HyracksDataException {
         RunFileWriter writer = getSpillWriterOrCreateNewOneIfNotExist(pid, SIDE.BUILD);
-        bufferManager.flushPartition(pid, writer);
+        bufferManager.flushPartition(pid, new BuildFilterWriter(writer));
         bufferManager.clearPartition(pid);
         spilledStatus.set(pid);
+        if (buildFilter == null && !isBuildFilterDisabled) {
+            // The frames of the first spilled partition have been released, so that the filter can use them.
+            createBuildFilter();
+        }
+    }
+
+    private void createBuildFilter() throws HyracksDataException {
+        buildFilter =
+                FrameBloomFilter.create(buildFilterFrameLimit, ctx.getInitialFrameSize(), bufferManagerForHashTable);
+        if (buildFilter == null) {
+            isBuildFilterDisabled = true;
+        } else {
+            for (int i = 0; i < numOfHashesBeforeBuildFilter; i++) {
+                buildFilter.add(hashesBeforeBuildFilter[i]);
+            }
+        }
+        hashesBeforeBuildFilter = null;
+        numOfHashesBeforeBuildFilter = 0;
+    }
+
+    private int getBuildFilterFrameCount() {
+        return buildFilter == null ? 0 : buildFilter.getNumFrames();
     }
 
     private void closeBuildPartition(int pid) throws HyracksDataException {
@@ -224,6 +306,11 @@ public class OptimizedHybridHashJoin {
     }
 
     public void closeBuild() throws HyracksDataException {
+        // The filter must have seen all the spilled build tuples, and its memory isn't considered by the hash table.
+        if (buildFilter == null) {
+            isBuildFilterDisabled = true;
+            hashesBeforeBuildFilter = null;
+        }
         // Flushes the remaining chunks of the all spilled partitions to the disk.
         closeAllSpilledPartitions(SIDE.BUILD);
 
@@ -262,7 +349,9 @@ public class OptimizedHybridHashJoin {
             for (int pid = spilledStatus.nextSetBit(0); pid >= 0
                     && pid < numOfPartitions; pid = spilledStatus.nextSetBit(pid + 1)) {
                 if (bufferManager.getNumTuples(pid) > 0) {
-                    bufferManager.flushPartition(pid, getSpillWriterOrCreateNewOneIfNotExist(pid, whichSide));
+                    RunFileWriter writer = getSpillWriterOrCreateNewOneIfNotExist(pid, whichSide);
+                    bufferManager.flushPartition(pid,
+                            whichSide == SIDE.BUILD ? new BuildFilterWriter(writer) : writer);
                     bufferManager.clearPartition(pid);
                 }
             }
@@ -289,7 +378,8 @@ public class OptimizedHybridHashJoin {
     private int makeSpaceForHashTableAndBringBackSpilledPartitions() throws HyracksDataException {
         // we need number of |spilledPartitions| buffers to store the probe data
         int frameSize = ctx.getInitialFrameSize();
-        long freeSpace = (long) (memSizeInFrames - spilledStatus.cardinality()) * frameSize;
+        long freeSpace = (long) (memSizeInFrames - spilledStatus.cardinality() - getBuildFilterFrameCount())
+                * frameSize;
 
         // For partitions in main memory, we deduct their size from the free space.
         int inMemTupCount = 0;
@@ -451,7 +541,9 @@ public class OptimizedHybridHashJoin {
     }
 
     private void createInMemoryJoiner(int inMemTupCount) throws HyracksDataException {
-        ISerializableTable table = new SerializableHashTable(inMemTupCount, ctx, bufferManagerForHashTable);
+        // The open addressing table needs less memory than the SerializableHashTable that the space is reserved for.
+        OpenAddressingHashTable table = new OpenAddressingHashTable(inMemTupCount, ctx.getInitialFrameSize(),
+                bufferManagerForHashTable);
         this.inMemJoiner = new InMemoryHashJoin(ctx, inMemTupCount, new FrameTupleAccessor(probeRd), probeHpc,
                 new FrameTupleAccessor(buildRd), buildRd, buildHpc,
                 new FrameTuplePairComparator(probeKeys, buildKeys, comparators), isLeftOuter, nonMatchWriters, table,
@@ -503,11 +595,21 @@ public class OptimizedHybridHashJoin {
             return;
         }
         inMemJoiner.resetAccessorProbe(accessorProbe);
+        if (residentProbeTuples.length < tupleCount) {
+            residentProbeTuples = new int[tupleCount];
+        }
+        int residentTupleCount = 0;
         for (int i = 0; i < tupleCount; ++i) {
             int pid = probeHpc.partition(accessorProbe, i, numOfPartitions);
 
             if (buildPSizeInTups[pid] > 0 || isLeftOuter) { //Tuple has potential match from previous phase
                 if (spilledStatus.get(pid)) { //pid is Spilled
+                    if (buildFilter != null
+                            && !buildFilter.mightContain(probeHpc.partition(accessorProbe, i, Integer.MAX_VALUE))) {
+                        // No spilled build tuple has the hash value of this tuple.
+                        numOfProbeTuplesDroppedByFilter++;
+                        continue;
+                    }
                     while (!bufferManager.insertTuple(pid, accessorProbe, i, tempPtr)) {
                         int victim = pid;
                         if (bufferManager.getNumTuples(pid) == 0) { // current pid is empty, choose the biggest one
@@ -522,11 +624,12 @@ public class OptimizedHybridHashJoin {
                         bufferManager.clearPartition(victim);
                     }
                 } else { //pid is Resident
-                    inMemJoiner.join(i, writer);
+                    residentProbeTuples[residentTupleCount++] = i;
                 }
                 probePSizeInTups[pid]++;
             }
         }
+        inMemJoiner.join(residentProbeTuples, residentTupleCount, writer);
     }
 
     private void flushBigProbeObjectToDisk(int pid, FrameTupleAccessor accessorProbe, int i)
@@ -549,11 +652,24 @@ public class OptimizedHybridHashJoin {
         //We do NOT join the spilled partitions here, that decision is made at the descriptor level
         //(which join technique to use)
         inMemJoiner.completeJoin(writer);
+        if (numOfHotPartitionsKeptInMemory > 0 && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("OptimizedHybridHashJoin spilled a cold partition instead of a hot one "
+                    + numOfHotPartitionsKeptInMemory + " times.");
+        }
+        if (buildFilter != null && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("OptimizedHybridHashJoin dropped " + numOfProbeTuplesDroppedByFilter
+                    + " probe tuples of spilled partitions with a Bloom filter of " + buildFilter.getNumFrames()
+                    + " frames.");
+        }
     }
 
     public void releaseResource() throws HyracksDataException {
         inMemJoiner.closeTable();
         closeAllSpilledPartitions(SIDE.PROBE);
+        if (buildFilter != null) {
+            buildFilter.close();
+            buildFilter = null;
+        }
         bufferManager.close();
         inMemJoiner = null;
         bufferManager = null;
@@ -607,6 +723,27 @@ public class OptimizedHybridHashJoin {
         return max;
     }
 
+    /**
+     * @return the largest number of tuples on the smaller side of a spilled partition pair, which is the side that
+     *         the next level of the join builds on. The build side is always used for left outer joins, since their
+     *         roles are never reversed.
+     */
+    public int getMaxSpilledPartitionSizeToBuild() {
+        int max = 0;
+        for (int pid = spilledStatus.nextSetBit(0); pid >= 0
+                && pid < numOfPartitions; pid = spilledStatus.nextSetBit(pid + 1)) {
+            int size = isLeftOuter ? buildPSizeInTups[pid] : Math.min(buildPSizeInTups[pid], probePSizeInTups[pid]);
+            if (size > max) {
+                max = size;
+            }
+        }
+        return max;
+    }
+
+    public int getNumberOfProbeTuplesDroppedByFilter() {
+        return numOfProbeTuplesDroppedByFilter;
+    }
+
     public BitSet getPartitionStatus() {
         return spilledStatus;
     }
@@ -681,4 +818,57 @@ public class OptimizedHybridHashJoin {
         }
         return buf.toString();
     }
+
+    /**
+     * Adds the hash values of the build tuples that are spilled to the Bloom filter before it writes them.
+     */
+    private class BuildFilterWriter implements IFrameWriter {
+        private final IFrameWriter writer;
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(buildRd);
+
+        BuildFilterWriter(IFrameWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+            writer.open();
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            if (!isBuildFilterDisabled) {
+                accessor.reset(buffer, buffer.position(), buffer.remaining());
+                int tupleCount = accessor.getTupleCount();
+                for (int i = 0; i < tupleCount; i++) {
+                    int hash = buildHpc.partition(accessor, i, Integer.MAX_VALUE);
+                    if (buildFilter != null) {
+                        buildFilter.add(hash);
+                    } else {
+                        addHashBeforeBuildFilter(hash);
+                    }
+                }
+            }
+            writer.nextFrame(buffer);
+        }
+
+        private void addHashBeforeBuildFilter(int hash) {
+            if (hashesBeforeBuildFilter == null) {
+                hashesBeforeBuildFilter = new int[1024];
+            } else if (numOfHashesBeforeBuildFilter == hashesBeforeBuildFilter.length) {
+                hashesBeforeBuildFilter = Arrays.copyOf(hashesBeforeBuildFilter, numOfHashesBeforeBuildFilter * 2);
+            }
+            hashesBeforeBuildFilter[numOfHashesBeforeBuildFilter++] = hash;
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+            writer.fail();
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            writer.close();
+        }
+    }
 }
@@ -63,7 +63,7 @@ import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
-import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.OpenAddressingHashTable;
 import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
 
@@ -86,6 +86,9 @@ import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
  *         If target partition's buffer is full, try to allocate a new buffer for it.
  *         if no free buffer is available, find the largest resident partition and spill it. Using its freed
  *         buffers after spilling, allocate a new buffer for the target partition.
+ *         While reading R, we also track its most frequent keys. A partition that holds a key with more tuples
+ *         than an average partition is hot: if it needs a new buffer, we spill the largest cold partition
+ *         instead, since a hot key can't be split by recursive partitioning.
  *         Being done with R, close the build phase. (During closing we write the very last buffer of each
  *         spilled partition to the disk, and we do partition tuning, where we try to bring back as many buffers,
  *         belonging to spilled partitions as possible into memory, based on the free buffers - We will stop at the
@@ -101,9 +104,10 @@ import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
  *         Once scanning of S is done, we try to join partition pairs (Ri, Si) of the spilled partitions:
  *         if any of Ri or Si is smaller than M, then we simply use an in-memory hash join to join them
  *         otherwise we apply HHJ recursively:
- *         if after applying HHJ recursively, we do not gain enough size reduction (max size of the
- *         resulting partitions were more than 80% of the initial Ri,Si size) then we switch to
- *         nested loop join for joining.
+ *         if after applying HHJ recursively, we do not gain enough size reduction (max size of the smaller
+ *         sides of the resulting spilled partition pairs were more than 80% of the size of the smaller one of the
+ *         initial Ri,Si) then we switch to nested loop join for joining. (Only the build side counts for left outer
+ *         joins, since they can't reverse roles.)
  *         (At each step of partition-pair joining, we consider role reversal, which means if size of Si were
  *         greater than Ri, then we make sure that we switch the roles of build/probe between them)
  */
@@ -482,7 +486,9 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                     int frameSize = ctx.getInitialFrameSize();
                     long buildPartSize = (long) Math.ceil((double) buildSideReader.getFileSize() / (double) frameSize);
                     long probePartSize = (long) Math.ceil((double) probeSideReader.getFileSize() / (double) frameSize);
-                    int beforeMax = Math.max(buildSizeInTuple, probeSizeInTuple);
+                    // A skewed side doesn't shrink by repartitioning, but it doesn't have to as long as the side to
+                    // build on does, so only the latter is used to decide whether a recursion makes progress.
+                    int beforeMax = isLeftOuter ? buildSizeInTuple : Math.min(buildSizeInTuple, probeSizeInTuple);
 
                     if (LOGGER.isLoggable(Level.FINE)) {
                         LOGGER.fine("\n>>>Joining Partition Pairs (thread_id " + Thread.currentThread().getId()
@@ -611,9 +617,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                     }
 
                     try {
-                        int maxAfterBuildSize = rHHj.getMaxBuildPartitionSize();
-                        int maxAfterProbeSize = rHHj.getMaxProbePartitionSize();
-                        int afterMax = Math.max(maxAfterBuildSize, maxAfterProbeSize);
+                        int afterMax = rHHj.getMaxSpilledPartitionSizeToBuild();
 
                         BitSet rPStatus = rHHj.getPartitionStatus();
                         if (!forceNLJ && (afterMax < (NLJ_SWITCH_THRESHOLD * beforeMax))) {
@@ -716,7 +720,8 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                             state.memForJoin * ctx.getInitialFrameSize());
                     ISimpleFrameBufferManager bufferManager = new FramePoolBackedFrameBufferManager(framePool);
 
-                    ISerializableTable table = new SerializableHashTable(tabSize, ctx, bufferManager);
+                    OpenAddressingHashTable table = new OpenAddressingHashTable(tabSize, ctx.getInitialFrameSize(),
+                            bufferManager);
                     InMemoryHashJoin joiner = new InMemoryHashJoin(ctx, tabSize, new FrameTupleAccessor(probeRDesc),
                             hpcRepProbe, new FrameTupleAccessor(buildRDesc), buildRDesc, hpcRepBuild,
                             new FrameTuplePairComparator(pKeys, bKeys, comparators), isLeftOuter, nonMatchWriter, table,
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IMissingWriter;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluator;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
+
+/**
+ * Joins an outer input and an inner input that are both sorted in ascending order of their join keys.
+ * The inner input is cached in a run file and the outer input is streamed. The inner tuples that can match an outer
+ * tuple form a window of consecutive inner tuples, which only moves forward since the outer tuples arrive in order.
+ * The window is delimited by two comparators of an outer tuple with an inner tuple:
+ * - the lower bound comparator is positive if the inner tuple is below the window of the outer tuple, and
+ * - the upper bound comparator is negative if the inner tuple is above the window of the outer tuple.
+ * For an equi-join both are the comparator of the join keys. For a band join, e.g. outer.k - a <= inner.k <= outer.k
+ * + b, they compare the inner key with the bounds of the band. The predicate evaluator checks the rest of the join
+ * condition on the pairs of the window. The frames of the window are kept in memory. If the inner tuples of a window
+ * don't fit in the given memory, e.g. for a key with many duplicates, the rest of the window is read from the run
+ * file again for every outer tuple, like in a nested loop join, until the window fits in memory again.
+ */
+public class SortMergeJoin {
+    private final FrameTupleAccessor accessorInner;
+    private final FrameTupleAccessor accessorOuter;
+    private final FrameTupleAppender appender;
+    private final ITuplePairComparator lowerBoundComparator;
+    private final ITuplePairComparator upperBoundComparator;
+    private final IFrame outBuffer;
+    private final IFrame readBuffer;
+    private final IDeallocatableFramePool windowFramePool;
+    private final ArrayDeque<ByteBuffer> windowFrames = new ArrayDeque<>();
+    private final RunFileWriter runFileWriter;
+    private final boolean isLeftOuter;
+    private final ArrayTupleBuilder missingTupleBuilder;
+    private final IPredicateEvaluator predEvaluator;
+    private RunFileReader runFileReader;
+    private boolean isInnerExhausted;
+    // the index of the first tuple of the window in the first frame of the window
+    private int windowStartTuple;
+    // whether the current outer tuple has a match
+    private boolean matchFound;
+
+    public SortMergeJoin(IHyracksTaskContext ctx, FrameTupleAccessor accessorOuter, FrameTupleAccessor accessorInner,
+            ITuplePairComparator lowerBoundComparator, ITuplePairComparator upperBoundComparator, int memSize,
+            IPredicateEvaluator predEval, boolean isLeftOuter, IMissingWriter[] missingWriters)
+            throws HyracksDataException {
+        this.accessorInner = accessorInner;
+        this.accessorOuter = accessorOuter;
+        this.appender = new FrameTupleAppender();
+        this.lowerBoundComparator = lowerBoundComparator;
+        this.upperBoundComparator = upperBoundComparator;
+        this.outBuffer = new VSizeFrame(ctx);
+        this.readBuffer = new VSizeFrame(ctx);
+        this.appender.reset(outBuffer, true);
+        if (memSize < 3) {
+            throw new HyracksDataException("Not enough memory is available for Sort Merge Join");
+        }
+        this.windowFramePool = new DeallocatableFramePool(ctx, ctx.getInitialFrameSize() * (memSize - 2));
+        this.predEvaluator = predEval;
+
+        this.isLeftOuter = isLeftOuter;
+        if (isLeftOuter) {
+            int innerFieldCount = this.accessorInner.getFieldCount();
+            missingTupleBuilder = new ArrayTupleBuilder(innerFieldCount);
+            DataOutput out = missingTupleBuilder.getDataOutput();
+            for (int i = 0; i < innerFieldCount; i++) {
+                missingWriters[i].writeMissing(out);
+                missingTupleBuilder.addFieldEndOffset();
+            }
+        } else {
+            missingTupleBuilder = null;
+        }
+
+        FileReference file = ctx.getJobletContext()
+                .createManagedWorkspaceFile(this.getClass().getSimpleName() + this.toString());
+        runFileWriter = new RunFileWriter(file, ctx.getIoManager());
+        runFileWriter.open();
+    }
+
+    public void cache(ByteBuffer buffer) throws HyracksDataException {
+        runFileWriter.nextFrame(buffer);
+    }
+
+    public void closeCache() throws HyracksDataException {
+        if (runFileWriter != null) {
+            runFileWriter.close();
+        }
+    }
+
+    public void join(ByteBuffer outerBuffer, IFrameWriter writer) throws HyracksDataException {
+        accessorOuter.reset(outerBuffer);
+        int tupleCount = accessorOuter.getTupleCount();
+        for (int i = 0; i < tupleCount; ++i) {
+            moveWindow(i);
+            boolean matchFound = joinWindow(i, writer);
+            if (!matchFound && isLeftOuter) {
+                final int[] ntFieldEndOffsets = missingTupleBuilder.getFieldEndOffsets();
+                final byte[] ntByteArray = missingTupleBuilder.getByteArray();
+                final int ntSize = missingTupleBuilder.getSize();
+                FrameUtils.appendConcatToWriter(writer, appender, accessorOuter, i, ntFieldEndOffsets, ntByteArray, 0,
+                        ntSize);
+            }
+        }
+    }
+
+    /**
+     * Drops the inner tuples below the window of the given outer tuple and reads inner frames until the window ends
+     * in memory, i.e. until the last inner tuple in memory is above the window or the inner input is exhausted, or
+     * until the memory is full.
+     */
+    private void moveWindow(int outerTupleId) throws HyracksDataException {
+        while (true) {
+            while (!windowFrames.isEmpty()) {
+                resetInner(windowFrames.peekFirst());
+                if (windowStartTuple >= accessorInner.getTupleCount()) {
+                    windowFramePool.deAllocateBuffer(windowFrames.pollFirst());
+                    windowStartTuple = 0;
+                } else if (lowerBoundComparator.compare(accessorOuter, outerTupleId, accessorInner,
+                        windowStartTuple) > 0) {
+                    windowStartTuple++;
+                } else {
+                    break;
+                }
+            }
+            if (!windowFrames.isEmpty()) {
+                resetInner(windowFrames.peekLast());
+                int lastTuple = accessorInner.getTupleCount() - 1;
+                if (lastTuple >= 0
+                        && upperBoundComparator.compare(accessorOuter, outerTupleId, accessorInner, lastTuple) < 0) {
+                    return;
+                }
+            }
+            if (isInnerExhausted || !readInnerFrame()) {
+                return;
+            }
+        }
+    }
+
+    private boolean readInnerFrame() throws HyracksDataException {
+        if (runFileReader == null) {
+            runFileReader = runFileWriter.createDeleteOnCloseReader();
+            runFileReader.open();
+        }
+        long position = runFileReader.getReadPointer();
+        if (!runFileReader.nextFrame(readBuffer)) {
+            isInnerExhausted = true;
+            closeReader();
+            return false;
+        }
+        ByteBuffer frame = windowFramePool.allocateFrame(readBuffer.getFrameSize());
+        if (frame == null) {
+            // The window doesn't fit in memory, the frame is read again once the window moves forward.
+            runFileReader.seek(position);
+            return false;
+        }
+        FrameUtils.copyAndFlip(readBuffer.getBuffer(), frame);
+        windowFrames.addLast(frame);
+        return true;
+    }
+
+    private boolean joinWindow(int outerTupleId, IFrameWriter writer) throws HyracksDataException {
+        matchFound = false;
+        int start = windowStartTuple;
+        for (Iterator<ByteBuffer> iter = windowFrames.iterator(); iter.hasNext(); start = 0) {
+            resetInner(iter.next());
+            if (joinInnerTuples(outerTupleId, start, false, writer)) {
+                return matchFound;
+            }
+        }
+        if (!isInnerExhausted) {
+            // The rest of the window didn't fit in memory, so it is read from the run file. If not even the start of
+            // the window is in memory, the inner tuples below the window are read as well.
+            boolean checkLowerBound = windowFrames.isEmpty();
+            long position = runFileReader.getReadPointer();
+            try {
+                while (runFileReader.nextFrame(readBuffer)) {
+                    resetInner(readBuffer.getBuffer());
+                    if (joinInnerTuples(outerTupleId, 0, checkLowerBound, writer)) {
+                        break;
+                    }
+                }
+            } finally {
+                runFileReader.seek(position);
+            }
+        }
+        return matchFound;
+    }
+
+    /**
+     * Joins the outer tuple with the inner tuples of the current inner frame from the given one on.
+     *
+     * @return true if the window ends in the frame
+     */
+    private boolean joinInnerTuples(int outerTupleId, int start, boolean checkLowerBound, IFrameWriter writer)
+            throws HyracksDataException {
+        int tupleCount = accessorInner.getTupleCount();
+        for (int j = start; j < tupleCount; ++j) {
+            if (upperBoundComparator.compare(accessorOuter, outerTupleId, accessorInner, j) < 0) {
+                return true;
+            }
+            if (checkLowerBound && lowerBoundComparator.compare(accessorOuter, outerTupleId, accessorInner, j) > 0) {
+                continue;
+            }
+            if (predEvaluator == null || predEvaluator.evaluate(accessorOuter, outerTupleId, accessorInner, j)) {
+                matchFound = true;
+                FrameUtils.appendConcatToWriter(writer, appender, accessorOuter, outerTupleId, accessorInner, j);
+            }
+        }
+        return false;
+    }
+
+    private void resetInner(ByteBuffer frame) {
+        accessorInner.reset(frame, 0, frame.limit());
+    }
+
+    public void completeJoin(IFrameWriter writer) throws HyracksDataException {
+        appender.write(writer, true);
+    }
+
+    public void releaseMemory() throws HyracksDataException {
+        try {
+            if (runFileReader == null && !isInnerExhausted) {
+                // the outer input was empty, so the inner input was never read
+                runFileWriter.getFileReference().delete();
+            } else {
+                closeReader();
+            }
+        } finally {
+            while (!windowFrames.isEmpty()) {
+                windowFramePool.deAllocateBuffer(windowFrames.pollFirst());
+            }
+            windowFramePool.close();
+        }
+    }
+
+    private void closeReader() throws HyracksDataException {
+        if (runFileReader != null) {
+            runFileReader.close();
+            runFileReader = null;
+        }
+    }
+}
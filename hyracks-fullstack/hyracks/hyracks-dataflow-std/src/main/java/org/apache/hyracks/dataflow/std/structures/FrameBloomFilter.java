@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+
+/**
+ * A Bloom filter over hash values whose bits are stored in frames that are assigned by a buffer manager.
+ * It answers whether a hash value may have been added, with false positives but without false negatives.
+ * The bit positions of a hash value are derived from two halves of the mixed hash value (double hashing).
+ */
+public class FrameBloomFilter {
+
+    private static final int NUM_HASHES = 3;
+
+    private final ISimpleFrameBufferManager bufferManager;
+    private final ByteBuffer[] frames;
+    private final int frameBits;
+    private final long numBits;
+
+    private FrameBloomFilter(ISimpleFrameBufferManager bufferManager, ByteBuffer[] frames, int frameSize) {
+        this.bufferManager = bufferManager;
+        this.frames = frames;
+        this.frameBits = frameSize * Byte.SIZE;
+        this.numBits = (long) frames.length * frameBits;
+    }
+
+    /**
+     * Creates a filter with at most the given number of frames.
+     *
+     * @return the filter, or null if the buffer manager can't assign a single frame
+     */
+    public static FrameBloomFilter create(int maxNumFrames, int frameSize, ISimpleFrameBufferManager bufferManager)
+            throws HyracksDataException {
+        ByteBuffer[] frames = new ByteBuffer[maxNumFrames];
+        int numFrames = 0;
+        while (numFrames < maxNumFrames) {
+            ByteBuffer frame = bufferManager.acquireFrame(frameSize);
+            if (frame == null) {
+                break;
+            }
+            Arrays.fill(frame.array(), frame.arrayOffset(), frame.arrayOffset() + frameSize, (byte) 0);
+            frames[numFrames++] = frame;
+        }
+        return numFrames == 0 ? null
+                : new FrameBloomFilter(bufferManager, Arrays.copyOf(frames, numFrames), frameSize);
+    }
+
+    public void add(int hashValue) {
+        int mixed = mix(hashValue);
+        long h1 = mixed & 0xFFFFFFFFL;
+        long h2 = (Integer.rotateLeft(mixed, 16) & 0xFFFFFFFFL) | 1L;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            long bit = (h1 + i * h2) % numBits;
+            ByteBuffer frame = frames[(int) (bit / frameBits)];
+            int offset = (int) (bit % frameBits);
+            frame.put(offset >>> 3, (byte) (frame.get(offset >>> 3) | (1 << (offset & 7))));
+        }
+    }
+
+    public boolean mightContain(int hashValue) {
+        int mixed = mix(hashValue);
+        long h1 = mixed & 0xFFFFFFFFL;
+        long h2 = (Integer.rotateLeft(mixed, 16) & 0xFFFFFFFFL) | 1L;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            long bit = (h1 + i * h2) % numBits;
+            int offset = (int) (bit % frameBits);
+            if ((frames[(int) (bit / frameBits)].get(offset >>> 3) & (1 << (offset & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the finalizer of MurmurHash3, so that every bit of the hash value affects every bit position
+    private static int mix(int hashValue) {
+        int h = hashValue;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    public int getNumFrames() {
+        return frames.length;
+    }
+
+    /**
+     * Releases the frames of this filter.
+     */
+    public void close() {
+        for (ByteBuffer frame : frames) {
+            bufferManager.releaseFrame(frame);
+        }
+        Arrays.fill(frames, null);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+/**
+ * Finds the most frequent hash values of a stream with the Misra-Gries algorithm: k counters are kept, and a value
+ * without a counter either takes a free counter or decrements all the counters. The count of a value is
+ * underestimated by at most n / (k + 1) after n values, so every value that occurs more often than that has a counter.
+ * Each value is tagged with the partition it belongs to, so that the partitions of the frequent values can be found.
+ */
+public class HeavyHitterSketch {
+    private final int[] hashes;
+    private final int[] partitions;
+    private final int[] counts;
+    private int numOfCounters;
+    private int numOfValues;
+
+    public HeavyHitterSketch(int maxNumOfCounters) {
+        hashes = new int[maxNumOfCounters];
+        partitions = new int[maxNumOfCounters];
+        counts = new int[maxNumOfCounters];
+    }
+
+    public void add(int hash, int partition) {
+        numOfValues++;
+        for (int i = 0; i < numOfCounters; i++) {
+            if (hashes[i] == hash) {
+                counts[i]++;
+                return;
+            }
+        }
+        if (numOfCounters < counts.length) {
+            hashes[numOfCounters] = hash;
+            partitions[numOfCounters] = partition;
+            counts[numOfCounters++] = 1;
+            return;
+        }
+        int i = 0;
+        while (i < numOfCounters) {
+            if (--counts[i] == 0) {
+                // moves the last counter into the free slot
+                numOfCounters--;
+                hashes[i] = hashes[numOfCounters];
+                partitions[i] = partitions[numOfCounters];
+                counts[i] = counts[numOfCounters];
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @return a lower bound of the number of occurrences of the most frequent hash value of the given partition
+     */
+    public int getMaxCount(int partition) {
+        int max = 0;
+        for (int i = 0; i < numOfCounters; i++) {
+            if (partitions[i] == partition && counts[i] > max) {
+                max = counts[i];
+            }
+        }
+        return max;
+    }
+
+    public int getNumOfValues() {
+        return numOfValues;
+    }
+
+    public void reset() {
+        numOfCounters = 0;
+        numOfValues = 0;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+
+/**
+ * A hash table of tuple pointers with open addressing (linear probing), whose slots are stored in frames that are
+ * assigned by a buffer manager. A slot keeps the hash value of its tuple inline next to the tuple pointer:
+ * [hash value][frame index][tuple index]. So a lookup rejects the tuples with a different hash value without
+ * touching the frames that contain the tuples, and the tuples with the same hash value are found by scanning
+ * consecutive slots instead of following a chain.
+ * The number of slots is a power of two that keeps the load factor at most 0.75. It is doubled when more tuples are
+ * inserted than the table was created for.
+ */
+public class OpenAddressingHashTable {
+
+    private static final int SLOT_SIZE = 3 * Integer.BYTES;
+    private static final int EMPTY = -1;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // multiplier of the Fibonacci hashing that spreads the hash values over the slots
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private final ISimpleFrameBufferManager bufferManager;
+    private final int frameSize;
+    private final int slotsPerFrame;
+    private ByteBuffer[] frames;
+    private int mask;
+    private int shift;
+    private int tupleCount;
+    private int maxTupleCount;
+
+    public OpenAddressingHashTable(int tupleCapacity, int frameSize, ISimpleFrameBufferManager bufferManager)
+            throws HyracksDataException {
+        this.bufferManager = bufferManager;
+        this.frameSize = frameSize;
+        this.slotsPerFrame = frameSize / SLOT_SIZE;
+        this.frames = allocate(getCapacity(tupleCapacity));
+    }
+
+    /**
+     * Inserts a tuple pointer with the given hash value. Only the 31 low-order bits of the hash value are used.
+     */
+    public void insert(int hashValue, int frameIndex, int tupleIndex) throws HyracksDataException {
+        if (tupleCount >= maxTupleCount) {
+            grow();
+        }
+        insertIntoSlot(hashValue & Integer.MAX_VALUE, frameIndex, tupleIndex);
+        tupleCount++;
+    }
+
+    /**
+     * @return the first slot whose tuple has the given hash value, or -1 if there is no such tuple
+     */
+    public int find(int hashValue) {
+        int hash = hashValue & Integer.MAX_VALUE;
+        return scan(getHomeSlot(hash), hash);
+    }
+
+    /**
+     * @return the slot after the given one whose tuple has the given hash value, or -1 if there is no such tuple
+     */
+    public int findNext(int slot, int hashValue) {
+        return scan((slot + 1) & mask, hashValue & Integer.MAX_VALUE);
+    }
+
+    public int getFrameIndex(int slot) {
+        return frames[slot / slotsPerFrame].getInt(getOffset(slot) + Integer.BYTES);
+    }
+
+    public int getTupleIndex(int slot) {
+        return frames[slot / slotsPerFrame].getInt(getOffset(slot) + 2 * Integer.BYTES);
+    }
+
+    public int getTupleCount() {
+        return tupleCount;
+    }
+
+    public long getCurrentByteSize() {
+        return (long) frames.length * frameSize;
+    }
+
+    /**
+     * Releases the frames of this table.
+     */
+    public void close() {
+        release(frames, frames.length);
+        frames = new ByteBuffer[0];
+        tupleCount = 0;
+        maxTupleCount = 0;
+    }
+
+    public static long getExpectedTableFrameCount(int tupleCapacity, int frameSize) {
+        return (long) Math.ceil((double) getCapacity(tupleCapacity) / (frameSize / SLOT_SIZE));
+    }
+
+    public static long getExpectedTableByteSize(int tupleCapacity, int frameSize) {
+        return getExpectedTableFrameCount(tupleCapacity, frameSize) * frameSize;
+    }
+
+    private static int getCapacity(int tupleCapacity) {
+        long minCapacity = (long) Math.ceil(Math.max(tupleCapacity, 1) / MAX_LOAD_FACTOR);
+        return minCapacity >= MAX_CAPACITY ? MAX_CAPACITY : Integer.highestOneBit((int) minCapacity - 1) << 1;
+    }
+
+    private int scan(int startSlot, int hash) {
+        int slot = startSlot;
+        while (true) {
+            int slotHash = frames[slot / slotsPerFrame].getInt(getOffset(slot));
+            if (slotHash == hash) {
+                return slot;
+            }
+            if (slotHash == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insertIntoSlot(int hash, int frameIndex, int tupleIndex) {
+        int slot = getHomeSlot(hash);
+        while (frames[slot / slotsPerFrame].getInt(getOffset(slot)) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        ByteBuffer frame = frames[slot / slotsPerFrame];
+        int offset = getOffset(slot);
+        frame.putInt(offset, hash);
+        frame.putInt(offset + Integer.BYTES, frameIndex);
+        frame.putInt(offset + 2 * Integer.BYTES, tupleIndex);
+    }
+
+    private int getHomeSlot(int hash) {
+        return (hash * GOLDEN_RATIO) >>> shift;
+    }
+
+    private int getOffset(int slot) {
+        return (slot % slotsPerFrame) * SLOT_SIZE;
+    }
+
+    private void grow() throws HyracksDataException {
+        int capacity = mask + 1;
+        if (capacity >= MAX_CAPACITY) {
+            throw new HyracksDataException("The hash table can't hold more than " + maxTupleCount + " tuples.");
+        }
+        ByteBuffer[] oldFrames = frames;
+        frames = allocate(capacity * 2);
+        for (int slot = 0; slot < capacity; slot++) {
+            ByteBuffer frame = oldFrames[slot / slotsPerFrame];
+            int offset = getOffset(slot);
+            int hash = frame.getInt(offset);
+            if (hash != EMPTY) {
+                insertIntoSlot(hash, frame.getInt(offset + Integer.BYTES), frame.getInt(offset + 2 * Integer.BYTES));
+            }
+        }
+        release(oldFrames, oldFrames.length);
+    }
+
+    private ByteBuffer[] allocate(int capacity) throws HyracksDataException {
+        ByteBuffer[] newFrames = new ByteBuffer[(capacity + slotsPerFrame - 1) / slotsPerFrame];
+        for (int i = 0; i < newFrames.length; i++) {
+            newFrames[i] = bufferManager.acquireFrame(frameSize);
+            if (newFrames[i] == null) {
+                release(newFrames, i);
+                throw new HyracksDataException("Can't allocate a frame for Hash Table. Please allocate more budget.");
+            }
+            Arrays.fill(newFrames[i].array(), newFrames[i].arrayOffset(), newFrames[i].arrayOffset() + frameSize,
+                    (byte) EMPTY);
+        }
+        mask = capacity - 1;
+        shift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+        maxTupleCount = (int) (capacity * MAX_LOAD_FACTOR);
+        return newFrames;
+    }
+
+    private void release(ByteBuffer[] framesToRelease, int count) {
+        for (int i = 0; i < count; i++) {
+            bufferManager.releaseFrame(framesToRelease[i]);
+        }
+    }
+}
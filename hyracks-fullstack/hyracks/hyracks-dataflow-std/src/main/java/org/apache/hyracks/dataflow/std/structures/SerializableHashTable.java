@@ -79,6 +79,7 @@ public class SerializableHashTable extends SimpleSerializableHashTable {
     public void reset() {
         super.reset();
         currentByteSize = 0;
+        wastedIntSpaceCount = 0;
     }
 
     @Override
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FrameBloomFilterTest {
+
+    final int num = 10000;
+    protected IHyracksFrameMgrContext ctx;
+    private ISimpleFrameBufferManager bufferManager;
+
+    @Before
+    public void setup() throws HyracksDataException {
+        ctx = new FrameManager(256);
+        bufferManager = new FramePoolBackedFrameBufferManager(
+                new DeallocatableFramePool(ctx, ctx.getInitialFrameSize() * 64));
+    }
+
+    @Test
+    public void testMightContain() throws Exception {
+        FrameBloomFilter filter = FrameBloomFilter.create(64, ctx.getInitialFrameSize(), bufferManager);
+        assertEquals(64, filter.getNumFrames());
+        Random random = new Random(17);
+        int[] hashValues = new int[num];
+        for (int i = 0; i < num; i++) {
+            hashValues[i] = random.nextInt();
+            filter.add(hashValues[i]);
+        }
+        for (int i = 0; i < num; i++) {
+            assertTrue(filter.mightContain(hashValues[i]));
+        }
+        // 131072 bits for 10000 hash values have about 1% false positives
+        int falsePositives = 0;
+        for (int i = 0; i < num; i++) {
+            if (filter.mightContain(random.nextInt())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < num / 20);
+    }
+
+    @Test
+    public void testMemoryBudget() throws Exception {
+        FrameBloomFilter filter = FrameBloomFilter.create(100, ctx.getInitialFrameSize(), bufferManager);
+        assertEquals(64, filter.getNumFrames());
+        assertNull(FrameBloomFilter.create(1, ctx.getInitialFrameSize(), bufferManager));
+        filter.close();
+        filter = FrameBloomFilter.create(1, ctx.getInitialFrameSize(), bufferManager);
+        assertEquals(1, filter.getNumFrames());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HeavyHitterSketchTest {
+
+    final int num = 100000;
+    final int numOfPartitions = 32;
+
+    @Test
+    public void testHeavyHitters() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(16);
+        Random random = new Random(17);
+        int hotHash = 42;
+        int hotCount = 0;
+        for (int i = 0; i < num; i++) {
+            // a tenth of the values are the hot value, the rest are (nearly) unique
+            int hash = random.nextInt(10) == 0 ? hotHash : random.nextInt();
+            if (hash == hotHash) {
+                hotCount++;
+            }
+            sketch.add(hash, Math.floorMod(hash, numOfPartitions));
+        }
+        assertEquals(num, sketch.getNumOfValues());
+        int hotPartition = hotHash % numOfPartitions;
+        // the count is underestimated by at most num / 17
+        assertTrue(sketch.getMaxCount(hotPartition) <= hotCount);
+        assertTrue(sketch.getMaxCount(hotPartition) >= hotCount - num / 17);
+        for (int p = 0; p < numOfPartitions; p++) {
+            if (p != hotPartition) {
+                assertTrue(sketch.getMaxCount(p) <= num / numOfPartitions);
+            }
+        }
+    }
+
+    @Test
+    public void testReset() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(2);
+        for (int i = 0; i < 10; i++) {
+            sketch.add(1, 1);
+        }
+        sketch.add(2, 2);
+        sketch.add(3, 3);
+        assertEquals(9, sketch.getMaxCount(1));
+        assertEquals(0, sketch.getMaxCount(2));
+        assertEquals(0, sketch.getMaxCount(3));
+        sketch.reset();
+        assertEquals(0, sketch.getNumOfValues());
+        assertEquals(0, sketch.getMaxCount(1));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OpenAddressingHashTableTest {
+
+    final int NUM_HASH_VALUES = 101;
+    final int num = 10000;
+    protected IHyracksFrameMgrContext ctx;
+    private IDeallocatableFramePool framePool;
+    private ISimpleFrameBufferManager bufferManager;
+
+    @Before
+    public void setup() throws HyracksDataException {
+        ctx = new FrameManager(256);
+        framePool = new DeallocatableFramePool(ctx, ctx.getInitialFrameSize() * 2048);
+        bufferManager = new FramePoolBackedFrameBufferManager(framePool);
+    }
+
+    @Test
+    public void testInsertAndFind() throws Exception {
+        OpenAddressingHashTable table = new OpenAddressingHashTable(num, ctx.getInitialFrameSize(), bufferManager);
+        insert(table);
+        assertFind(table);
+        assertEquals(-1, table.find(NUM_HASH_VALUES));
+        table.close();
+        assertEquals(0, table.getCurrentByteSize());
+    }
+
+    @Test
+    public void testGrow() throws Exception {
+        OpenAddressingHashTable table = new OpenAddressingHashTable(1, ctx.getInitialFrameSize(), bufferManager);
+        insert(table);
+        assertFind(table);
+        assertTrue(table.getCurrentByteSize() > OpenAddressingHashTable.getExpectedTableByteSize(1,
+                ctx.getInitialFrameSize()));
+    }
+
+    @Test
+    public void testExpectedSize() throws Exception {
+        // the table never needs more memory than the space that is reserved for a SerializableHashTable
+        int frameSize = ctx.getInitialFrameSize();
+        for (int tupleCount = 1; tupleCount < num; tupleCount += 7) {
+            assertTrue(OpenAddressingHashTable.getExpectedTableByteSize(tupleCount, frameSize) <= SerializableHashTable
+                    .getExpectedTableByteSize(tupleCount, frameSize));
+        }
+        OpenAddressingHashTable table = new OpenAddressingHashTable(num, frameSize, bufferManager);
+        assertEquals(OpenAddressingHashTable.getExpectedTableByteSize(num, frameSize), table.getCurrentByteSize());
+        insert(table);
+        assertEquals(OpenAddressingHashTable.getExpectedTableByteSize(num, frameSize), table.getCurrentByteSize());
+    }
+
+    private void insert(OpenAddressingHashTable table) throws HyracksDataException {
+        for (int i = 0; i < num; i++) {
+            table.insert(i % NUM_HASH_VALUES, i, i);
+        }
+        assertEquals(num, table.getTupleCount());
+    }
+
+    private void assertFind(OpenAddressingHashTable table) {
+        for (int h = 0; h < NUM_HASH_VALUES; h++) {
+            int count = 0;
+            for (int slot = table.find(h); slot >= 0; slot = table.findNext(slot, h)) {
+                assertEquals(h, table.getFrameIndex(slot) % NUM_HASH_VALUES);
+                assertEquals(table.getFrameIndex(slot), table.getTupleIndex(slot));
+                count++;
+            }
+            assertEquals(num / NUM_HASH_VALUES + (h < num % NUM_HASH_VALUES ? 1 : 0), count);
+        }
+    }
+}
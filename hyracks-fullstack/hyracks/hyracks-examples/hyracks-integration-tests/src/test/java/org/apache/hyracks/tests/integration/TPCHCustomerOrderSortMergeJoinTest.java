@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.integration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.constraints.PartitionConstraintHelper;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.dataset.ResultSetId;
+import org.apache.hyracks.api.io.FileSplit;
+import org.apache.hyracks.api.io.ManagedFileSplit;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.parsers.IValueParserFactory;
+import org.apache.hyracks.dataflow.common.data.parsers.IntegerParserFactory;
+import org.apache.hyracks.dataflow.common.data.parsers.UTF8StringParserFactory;
+import org.apache.hyracks.dataflow.std.connectors.MToNBroadcastConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.file.ConstantFileSplitProvider;
+import org.apache.hyracks.dataflow.std.file.DelimitedDataTupleParserFactory;
+import org.apache.hyracks.dataflow.std.file.FileScanOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.JoinComparatorFactory;
+import org.apache.hyracks.dataflow.std.join.NestedLoopJoinOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.SortMergeJoinOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.result.ResultWriterOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.sort.InMemorySortOperatorDescriptor;
+import org.apache.hyracks.tests.util.NoopMissingWriterFactory;
+import org.apache.hyracks.tests.util.ResultSerializerFactoryProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that the sort-merge join of the sorted customers and orders returns the same tuples as the nested loop join.
+ */
+public class TPCHCustomerOrderSortMergeJoinTest extends AbstractIntegrationTest {
+    private static final int CUSTOMER_KEY = 0;
+    private static final int ORDER_CUSTOMER_KEY = 1;
+    private static final int NUM_CUSTOMERS = 150;
+    private static final String MISSING_ORDER_FIELDS = ", , , , , , , ,";
+
+    /**
+     * Compares an integer key of the outer tuple with an integer key of the inner tuple. The inner tuple is below the
+     * band of the outer tuple if its key is smaller than the outer key - width and above the band if its key is
+     * larger than the outer key + width. The tuples within the band are equal.
+     */
+    private static class BandComparatorFactory implements ITuplePairComparatorFactory {
+        private static final long serialVersionUID = 1L;
+
+        private final int outerField;
+        private final int innerField;
+        private final int width;
+
+        public BandComparatorFactory(int outerField, int innerField, int width) {
+            this.outerField = outerField;
+            this.innerField = innerField;
+            this.width = width;
+        }
+
+        @Override
+        public ITuplePairComparator createTuplePairComparator(IHyracksTaskContext ctx) {
+            return (IFrameTupleAccessor accessor0, int tIndex0, IFrameTupleAccessor accessor1, int tIndex1) -> {
+                int outerKey = getKey(accessor0, tIndex0, outerField);
+                int innerKey = getKey(accessor1, tIndex1, innerField);
+                if (innerKey < outerKey - width) {
+                    return 1;
+                }
+                return innerKey > outerKey + width ? -1 : 0;
+            };
+        }
+
+        private static int getKey(IFrameTupleAccessor accessor, int tIndex, int field) {
+            return IntegerPointable.getInteger(accessor.getBuffer().array(), accessor.getTupleStartOffset(tIndex)
+                    + accessor.getFieldSlotsLength() + accessor.getFieldStartOffset(tIndex, field));
+        }
+    }
+
+    @Test
+    public void customerOrderCIDJoin() throws Exception {
+        assertSameResults(false, false, -1);
+    }
+
+    @Test
+    public void orderCustomerCIDJoin() throws Exception {
+        assertSameResults(true, false, -1);
+    }
+
+    @Test
+    public void customerOrderCIDOuterJoin() throws Exception {
+        // the nested loop join pads an outer tuple for each inner frame without a match, so the outer join is checked
+        // against the inner join
+        List<String> innerJoinResults = join(false, false, false, -1);
+        List<String> matched = new ArrayList<>();
+        Set<String> unmatchedKeys = new HashSet<>();
+        for (String result : join(true, false, true, -1)) {
+            if (result.trim().endsWith(MISSING_ORDER_FIELDS)) {
+                Assert.assertTrue(unmatchedKeys.add(getKey(result)));
+            } else {
+                matched.add(result);
+            }
+        }
+        Assert.assertEquals(innerJoinResults, matched);
+        Assert.assertFalse(unmatchedKeys.isEmpty());
+        Set<String> matchedKeys = new HashSet<>();
+        for (String result : matched) {
+            Assert.assertFalse(unmatchedKeys.contains(getKey(result)));
+            matchedKeys.add(getKey(result));
+        }
+        Assert.assertEquals(NUM_CUSTOMERS, matchedKeys.size() + unmatchedKeys.size());
+    }
+
+    @Test
+    public void customerOrderCIDBandJoin() throws Exception {
+        assertSameResults(false, false, 2);
+    }
+
+    @Test
+    public void orderCustomerCIDBandJoin() throws Exception {
+        assertSameResults(true, false, 1);
+    }
+
+    @Test
+    public void customerOrderCIDWideBandJoin() throws Exception {
+        // the orders of a window don't fit in the memory of the join, so the rest of the window is read from disk
+        assertSameResults(false, false, 40);
+    }
+
+    private void assertSameResults(boolean isOrderOuter, boolean isLeftOuter, int bandWidth) throws Exception {
+        List<String> expected = join(false, isOrderOuter, isLeftOuter, bandWidth);
+        List<String> actual = join(true, isOrderOuter, isLeftOuter, bandWidth);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, actual);
+    }
+
+    /**
+     * Joins the customers and the orders on the customer key, or on a band of integer customer keys if the band width
+     * is not negative, and returns the sorted results.
+     */
+    private List<String> join(boolean isSortMerge, boolean isOrderOuter, boolean isLeftOuter, int bandWidth)
+            throws Exception {
+        JobSpecification spec = new JobSpecification();
+        boolean isBandJoin = bandWidth >= 0;
+
+        FileSplit[] custSplits = new FileSplit[] { new ManagedFileSplit(NC1_ID,
+                "data" + File.separator + "tpch0.001" + File.separator + "customer.tbl") };
+        IValueParserFactory[] custParsers = new IValueParserFactory[8];
+        ISerializerDeserializer[] custSerdes = new ISerializerDeserializer[custParsers.length];
+        initFields(custParsers, custSerdes, isBandJoin ? CUSTOMER_KEY : -1);
+        RecordDescriptor custDesc = new RecordDescriptor(custSerdes);
+        FileScanOperatorDescriptor custScanner = new FileScanOperatorDescriptor(spec,
+                new ConstantFileSplitProvider(custSplits), new DelimitedDataTupleParserFactory(custParsers, '|'),
+                custDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, custScanner, NC1_ID);
+
+        FileSplit[] ordersSplits = new FileSplit[] { new ManagedFileSplit(NC2_ID,
+                "data" + File.separator + "tpch0.001" + File.separator + "orders.tbl") };
+        IValueParserFactory[] ordersParsers = new IValueParserFactory[9];
+        ISerializerDeserializer[] ordersSerdes = new ISerializerDeserializer[ordersParsers.length];
+        initFields(ordersParsers, ordersSerdes, isBandJoin ? ORDER_CUSTOMER_KEY : -1);
+        RecordDescriptor ordersDesc = new RecordDescriptor(ordersSerdes);
+        FileScanOperatorDescriptor ordScanner = new FileScanOperatorDescriptor(spec,
+                new ConstantFileSplitProvider(ordersSplits), new DelimitedDataTupleParserFactory(ordersParsers, '|'),
+                ordersDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, ordScanner, NC2_ID);
+
+        IOperatorDescriptor outer = isOrderOuter ? ordScanner : custScanner;
+        IOperatorDescriptor inner = isOrderOuter ? custScanner : ordScanner;
+        RecordDescriptor outerDesc = isOrderOuter ? ordersDesc : custDesc;
+        RecordDescriptor innerDesc = isOrderOuter ? custDesc : ordersDesc;
+        int outerKey = isOrderOuter ? ORDER_CUSTOMER_KEY : CUSTOMER_KEY;
+        int innerKey = isOrderOuter ? CUSTOMER_KEY : ORDER_CUSTOMER_KEY;
+
+        ISerializerDeserializer[] joinSerdes =
+                new ISerializerDeserializer[outerDesc.getFieldCount() + innerDesc.getFieldCount()];
+        System.arraycopy(outerDesc.getFields(), 0, joinSerdes, 0, outerDesc.getFieldCount());
+        System.arraycopy(innerDesc.getFields(), 0, joinSerdes, outerDesc.getFieldCount(), innerDesc.getFieldCount());
+        RecordDescriptor joinDesc = new RecordDescriptor(joinSerdes);
+
+        IMissingWriterFactory[] nonMatchWriterFactories = null;
+        if (isLeftOuter) {
+            nonMatchWriterFactories = new IMissingWriterFactory[innerDesc.getFieldCount()];
+            for (int j = 0; j < nonMatchWriterFactories.length; j++) {
+                nonMatchWriterFactories[j] = NoopMissingWriterFactory.INSTANCE;
+            }
+        }
+
+        IBinaryComparatorFactory keyComparatorFactory = PointableBinaryComparatorFactory
+                .of(isBandJoin ? IntegerPointable.FACTORY : UTF8StringPointable.FACTORY);
+        ITuplePairComparatorFactory joinComparatorFactory = isBandJoin
+                ? new BandComparatorFactory(outerKey, innerKey, bandWidth)
+                : new JoinComparatorFactory(keyComparatorFactory, outerKey, innerKey);
+
+        IOperatorDescriptor join;
+        if (isSortMerge) {
+            InMemorySortOperatorDescriptor outerSorter = new InMemorySortOperatorDescriptor(spec,
+                    new int[] { outerKey }, new IBinaryComparatorFactory[] { keyComparatorFactory }, outerDesc);
+            PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, outerSorter, NC1_ID);
+            spec.connect(new MToNBroadcastConnectorDescriptor(spec), outer, 0, outerSorter, 0);
+            InMemorySortOperatorDescriptor innerSorter = new InMemorySortOperatorDescriptor(spec,
+                    new int[] { innerKey }, new IBinaryComparatorFactory[] { keyComparatorFactory }, innerDesc);
+            PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, innerSorter, NC1_ID);
+            spec.connect(new MToNBroadcastConnectorDescriptor(spec), inner, 0, innerSorter, 0);
+
+            join = new SortMergeJoinOperatorDescriptor(spec, joinComparatorFactory, joinComparatorFactory, joinDesc, 4,
+                    null, isLeftOuter, nonMatchWriterFactories);
+            spec.connect(new OneToOneConnectorDescriptor(spec), outerSorter, 0, join, 0);
+            spec.connect(new OneToOneConnectorDescriptor(spec), innerSorter, 0, join, 1);
+        } else {
+            join = new NestedLoopJoinOperatorDescriptor(spec, joinComparatorFactory, joinDesc, 4, isLeftOuter,
+                    nonMatchWriterFactories);
+            spec.connect(new MToNBroadcastConnectorDescriptor(spec), outer, 0, join, 0);
+            spec.connect(new MToNBroadcastConnectorDescriptor(spec), inner, 0, join, 1);
+        }
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, join, NC1_ID);
+
+        ResultSetId rsId = new ResultSetId(1);
+        spec.addResultSetId(rsId);
+
+        IOperatorDescriptor printer = new ResultWriterOperatorDescriptor(spec, rsId, false, false,
+                ResultSerializerFactoryProvider.INSTANCE.getResultSerializerFactoryProvider());
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, printer, NC1_ID);
+        spec.connect(new OneToOneConnectorDescriptor(spec), join, 0, printer, 0);
+        spec.addRoot(printer);
+
+        JobId jobId = executeTest(spec);
+        List<String> results = readResults(spec, jobId, rsId);
+        hcc.waitForCompletion(jobId);
+        Collections.sort(results);
+        return results;
+    }
+
+    private static String getKey(String result) {
+        return result.substring(0, result.indexOf(','));
+    }
+
+    private static void initFields(IValueParserFactory[] parsers, ISerializerDeserializer[] serdes, int intField) {
+        for (int i = 0; i < parsers.length; i++) {
+            parsers[i] = i == intField ? IntegerParserFactory.INSTANCE : UTF8StringParserFactory.INSTANCE;
+            serdes[i] = i == intField ? IntegerSerializerDeserializer.INSTANCE : new UTF8StringSerializerDeserializer();
+        }
+    }
+}
@@ -38,12 +38,19 @@ public class BloomFilter {
     private static final int NUM_HASHES_USED_OFFSET = NUM_PAGES_OFFSET + 4; // 4
     private static final int NUM_ELEMENTS_OFFSET = NUM_HASHES_USED_OFFSET + 4; // 8
     private static final int NUM_BITS_OFFSET = NUM_ELEMENTS_OFFSET + 8; // 12
+    private static final int LAYOUT_OFFSET = NUM_BITS_OFFSET + 8; // 20
+    // filters written before blocked filters were introduced don't have a layout
+    private static final long BLOCKED_LAYOUT = 0x426c6f636b656431L;
+    // in a blocked filter, all the bits of a key are in a single block of the size of a cache line
+    private static final int BLOCK_SIZE_IN_BITS = 64 * Byte.SIZE;
 
     private final IBufferCache bufferCache;
     private final FileReference file;
     private final int[] keyFields;
     private int fileId = -1;
     private boolean isActivated = false;
+    // the layout of the filters built by this instance, replaced by the persisted one when the filter is activated
+    private boolean blocked;
 
     private int numPages;
     private int numHashes;
@@ -54,10 +61,21 @@ public class BloomFilter {
     private static final long SEED = 0L;
 
     public BloomFilter(IBufferCache bufferCache, FileReference file, int[] keyFields) throws HyracksDataException {
+        this(bufferCache, file, keyFields, false);
+    }
+
+    /**
+     * @param blocked
+     *            whether to build a blocked filter, in which all the bits of a key are in the same page and cache
+     *            line, so that a lookup pins a single page. Ignored if the page size is not a multiple of a block.
+     */
+    public BloomFilter(IBufferCache bufferCache, FileReference file, int[] keyFields, boolean blocked)
+            throws HyracksDataException {
         this.bufferCache = bufferCache;
         this.file = file;
         this.keyFields = keyFields;
         this.numBitsPerPage = bufferCache.getPageSize() * Byte.SIZE;
+        this.blocked = blocked && numBitsPerPage % BLOCK_SIZE_IN_BITS == 0;
     }
 
     public int getFileId() {
@@ -82,11 +100,18 @@ public class BloomFilter {
         return numElements;
     }
 
+    public boolean isBlocked() {
+        return blocked;
+    }
+
     public boolean contains(ITupleReference tuple, long[] hashes) throws HyracksDataException {
         if (numPages == 0) {
             return false;
         }
         MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+        if (blocked) {
+            return containsBlocked(hashes);
+        }
         for (int i = 0; i < numHashes; ++i) {
             long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
 
@@ -112,6 +137,46 @@ public class BloomFilter {
         return true;
     }
 
+    private boolean containsBlocked(long[] hashes) throws HyracksDataException {
+        long block = getBlock(hashes, numBits);
+        // we increment the page id by one, since the metadata page id of the filter is 0.
+        ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, getPageIndex(block) + 1), false);
+        page.acquireReadLatch();
+        try {
+            ByteBuffer buffer = page.getBuffer();
+            int blockStart = getBitIndexInPage(block, 0);
+            for (int i = 0; i < numHashes; ++i) {
+                int bit = blockStart + getBitIndexInBlock(hashes, i);
+                if ((buffer.get(bit >> 3) & (1 << (bit & 0x07))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            page.releaseReadLatch();
+            bufferCache.unpin(page);
+        }
+    }
+
+    private static long getBlock(long[] hashes, long numBits) {
+        return (hashes[0] & Long.MAX_VALUE) % (numBits / BLOCK_SIZE_IN_BITS);
+    }
+
+    private int getPageIndex(long block) {
+        return (int) (block * BLOCK_SIZE_IN_BITS / numBitsPerPage);
+    }
+
+    private int getBitIndexInPage(long block, int bitIndexInBlock) {
+        return (int) (block * BLOCK_SIZE_IN_BITS % numBitsPerPage) + bitIndexInBlock;
+    }
+
+    private static int getBitIndexInBlock(long[] hashes, int i) {
+        // an odd stride visits distinct bits of the block for the first BLOCK_SIZE_IN_BITS hashes
+        int start = (int) hashes[1];
+        int stride = (int) (hashes[1] >>> 32) | 1;
+        return (start + i * stride) & (BLOCK_SIZE_IN_BITS - 1);
+    }
+
     public synchronized void create() throws HyracksDataException {
         if (isActivated) {
             throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_ACTIVE_BLOOM_FILTER);
@@ -147,6 +212,7 @@ public class BloomFilter {
             numHashes = metaPage.getBuffer().getInt(NUM_HASHES_USED_OFFSET);
             numElements = metaPage.getBuffer().getLong(NUM_ELEMENTS_OFFSET);
             numBits = metaPage.getBuffer().getLong(NUM_BITS_OFFSET);
+            blocked = metaPage.getBuffer().getLong(LAYOUT_OFFSET) == BLOCKED_LAYOUT;
         } finally {
             metaPage.releaseReadLatch();
             bufferCache.unpin(metaPage);
@@ -199,7 +265,13 @@ public class BloomFilter {
             queue = bufferCache.createFIFOQueue();
             this.numElements = numElements;
             this.numHashes = numHashes;
-            numBits = this.numElements * numBitsPerElement;
+            long requestedNumBits = this.numElements * numBitsPerElement;
+            if (blocked) {
+                // round up to a whole number of blocks
+                requestedNumBits = (requestedNumBits + BLOCK_SIZE_IN_BITS - 1) / BLOCK_SIZE_IN_BITS
+                        * BLOCK_SIZE_IN_BITS;
+            }
+            numBits = requestedNumBits;
             long tmp = (long) Math.ceil(numBits / (double) numBitsPerPage);
             if (tmp > Integer.MAX_VALUE) {
                 throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_BLOOM_FILTER_WITH_NUMBER_OF_PAGES, tmp);
@@ -236,14 +308,25 @@ public class BloomFilter {
             metaDataPage.getBuffer().putInt(NUM_HASHES_USED_OFFSET, numHashes);
             metaDataPage.getBuffer().putLong(NUM_ELEMENTS_OFFSET, numElements);
             metaDataPage.getBuffer().putLong(NUM_BITS_OFFSET, numBits);
+            metaDataPage.getBuffer().putLong(LAYOUT_OFFSET, blocked ? BLOCKED_LAYOUT : 0L);
         }
 
+        // the key ranges of a merge are added by threads of their own
         @Override
-        public void add(ITupleReference tuple) throws HyracksDataException {
+        public synchronized void add(ITupleReference tuple) throws HyracksDataException {
             if (numPages == 0) {
                 throw HyracksDataException.create(ErrorCode.CANNOT_ADD_TUPLES_TO_DUMMY_BLOOM_FILTER);
             }
             MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+            if (blocked) {
+                long block = getBlock(hashes, numBits);
+                ByteBuffer buffer = pages[getPageIndex(block)].getBuffer();
+                for (int i = 0; i < numHashes; ++i) {
+                    int bit = getBitIndexInPage(block, getBitIndexInBlock(hashes, i));
+                    buffer.put(bit >> 3, (byte) (buffer.get(bit >> 3) | (1 << (bit & 0x07))));
+                }
+                return;
+            }
             for (int i = 0; i < numHashes; ++i) {
                 long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
                 ICachedPage page = pages[(int) (hash / numBitsPerPage)];
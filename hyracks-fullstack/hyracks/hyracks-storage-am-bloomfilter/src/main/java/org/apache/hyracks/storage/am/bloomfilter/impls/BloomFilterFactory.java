@@ -26,14 +26,20 @@ import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 public class BloomFilterFactory {
     private final IBufferCache bufferCache;
     private final int[] bloomFilterKeyFields;
+    private final boolean blocked;
 
     public BloomFilterFactory(IBufferCache bufferCache, int[] bloomFilterKeyFields) {
+        this(bufferCache, bloomFilterKeyFields, false);
+    }
+
+    public BloomFilterFactory(IBufferCache bufferCache, int[] bloomFilterKeyFields, boolean blocked) {
         this.bufferCache = bufferCache;
         this.bloomFilterKeyFields = bloomFilterKeyFields;
+        this.blocked = blocked;
     }
 
     public BloomFilter createBloomFiltertInstance(FileReference file) throws HyracksDataException {
-        return new BloomFilter(bufferCache, file, bloomFilterKeyFields);
+        return new BloomFilter(bufferCache, file, bloomFilterKeyFields, blocked);
     }
 
     public int[] getBloomFilterKeyFields() {
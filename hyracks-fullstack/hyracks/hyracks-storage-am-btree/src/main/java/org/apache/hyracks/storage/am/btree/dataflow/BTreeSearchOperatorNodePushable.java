@@ -82,8 +82,12 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
         ITreeIndex treeIndex = (ITreeIndex) index;
         lowKeySearchCmp = BTreeUtils.getSearchMultiComparator(treeIndex.getComparatorFactories(), lowKey);
         highKeySearchCmp = BTreeUtils.getSearchMultiComparator(treeIndex.getComparatorFactories(), highKey);
-        return new RangePredicate(lowKey, highKey, lowKeyInclusive, highKeyInclusive, lowKeySearchCmp, highKeySearchCmp,
-                minFilterKey, maxFilterKey);
+        RangePredicate pred = new RangePredicate(lowKey, highKey, lowKeyInclusive, highKeyInclusive, lowKeySearchCmp,
+                highKeySearchCmp, minFilterKey, maxFilterKey);
+        // The filter range also prunes the leaves of indexes whose zone map is kept over the filter field. The
+        // filter range is only a hint, so the results are still checked downstream.
+        pred.setZoneMapRange(minFilterKey, maxFilterKey);
+        return pred;
     }
 
     @Override
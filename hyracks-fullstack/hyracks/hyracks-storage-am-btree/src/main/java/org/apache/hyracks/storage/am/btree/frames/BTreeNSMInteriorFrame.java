@@ -23,6 +23,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.data.std.primitive.IntegerPointable;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
@@ -49,13 +50,33 @@ public class BTreeNSMInteriorFrame extends TreeIndexNSMFrame implements IBTreeIn
 
     private final ITreeIndexTupleReference cmpFrameTuple;
     private final ITreeIndexTupleReference previousFt;
+    private final NormalizedKeySlotManager normalizedKeySlotManager;
 
     private MultiComparator cmp;
 
     public BTreeNSMInteriorFrame(ITreeIndexTupleWriter tupleWriter) {
-        super(tupleWriter, new OrderedSlotManager());
+        this(tupleWriter, null);
+    }
+
+    /**
+     * @param keyNormalizer
+     *            if not null, searches use an {@link InterpolationSlotManager} over the normalized first key field
+     */
+    public BTreeNSMInteriorFrame(ITreeIndexTupleWriter tupleWriter, INormalizedKeyComputer keyNormalizer) {
+        this(tupleWriter, keyNormalizer, false);
+    }
+
+    /**
+     * @param storeNormalizedKeys
+     *            whether the slots hold the normalized keys, see {@link NormalizedKeySlotManager}
+     */
+    public BTreeNSMInteriorFrame(ITreeIndexTupleWriter tupleWriter, INormalizedKeyComputer keyNormalizer,
+            boolean storeNormalizedKeys) {
+        super(tupleWriter, OrderedSlotManager.create(keyNormalizer, storeNormalizedKeys));
         cmpFrameTuple = tupleWriter.createTupleReference();
         previousFt = tupleWriter.createTupleReference();
+        normalizedKeySlotManager =
+                slotManager instanceof NormalizedKeySlotManager ? (NormalizedKeySlotManager) slotManager : null;
     }
 
     @Override
@@ -95,6 +116,9 @@ public class BTreeNSMInteriorFrame extends TreeIndexNSMFrame implements IBTreeIn
     @Override
     public void insert(ITupleReference tuple, int tupleIndex) {
         int slotOff = slotManager.insertSlot(tupleIndex, buf.getInt(Constants.FREE_SPACE_OFFSET));
+        if (normalizedKeySlotManager != null) {
+            normalizedKeySlotManager.setNormalizedKey(slotOff, tuple);
+        }
         int freeSpace = buf.getInt(Constants.FREE_SPACE_OFFSET);
         int bytesWritten = tupleWriter.writeTupleFields(tuple, 0, tuple.getFieldCount(), buf.array(), freeSpace);
         System.arraycopy(tuple.getFieldData(tuple.getFieldCount() - 1), getLeftChildPageOff(tuple), buf.array(),
@@ -178,7 +202,10 @@ public class BTreeNSMInteriorFrame extends TreeIndexNSMFrame implements IBTreeIn
     @Override
     public void insertSorted(ITupleReference tuple) {
         int freeSpace = buf.getInt(Constants.FREE_SPACE_OFFSET);
-        slotManager.insertSlot(slotManager.getGreatestKeyIndicator(), freeSpace);
+        int slotOff = slotManager.insertSlot(slotManager.getGreatestKeyIndicator(), freeSpace);
+        if (normalizedKeySlotManager != null) {
+            normalizedKeySlotManager.setNormalizedKey(slotOff, tuple);
+        }
         int bytesWritten = tupleWriter.writeTuple(tuple, buf, freeSpace);
         System.arraycopy(tuple.getFieldData(tuple.getFieldCount() - 1), getLeftChildPageOff(tuple), buf.array(),
                 freeSpace + bytesWritten, CHILD_PTR_SIZE);
@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.am.btree.frames;
 
 import java.nio.ByteBuffer;
 
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
@@ -44,10 +45,31 @@ public class BTreeNSMLeafFrame extends TreeIndexNSMFrame implements IBTreeLeafFr
     private MultiComparator cmp;
 
     private final ITreeIndexTupleReference previousFt;
+    private final NormalizedKeySlotManager normalizedKeySlotManager;
 
     public BTreeNSMLeafFrame(ITreeIndexTupleWriter tupleWriter) {
-        super(tupleWriter, new OrderedSlotManager());
+        this(tupleWriter, null);
+    }
+
+    /**
+     * @param keyNormalizer
+     *            if not null, searches use an {@link InterpolationSlotManager} over the normalized first key field
+     */
+    public BTreeNSMLeafFrame(ITreeIndexTupleWriter tupleWriter, INormalizedKeyComputer keyNormalizer) {
+        this(tupleWriter, keyNormalizer, false);
+    }
+
+    /**
+     * @param storeNormalizedKeys
+     *            whether the slots hold the normalized keys, see {@link NormalizedKeySlotManager}. This changes the
+     *            page format, so it must not change over the life of an index.
+     */
+    public BTreeNSMLeafFrame(ITreeIndexTupleWriter tupleWriter, INormalizedKeyComputer keyNormalizer,
+            boolean storeNormalizedKeys) {
+        super(tupleWriter, OrderedSlotManager.create(keyNormalizer, storeNormalizedKeys));
         previousFt = tupleWriter.createTupleReference();
+        normalizedKeySlotManager =
+                slotManager instanceof NormalizedKeySlotManager ? (NormalizedKeySlotManager) slotManager : null;
     }
 
     @Override
@@ -144,7 +166,10 @@ public class BTreeNSMLeafFrame extends TreeIndexNSMFrame implements IBTreeLeafFr
     @Override
     public void insert(ITupleReference tuple, int tupleIndex) {
         int freeSpace = buf.getInt(Constants.FREE_SPACE_OFFSET);
-        slotManager.insertSlot(tupleIndex, freeSpace);
+        int slotOff = slotManager.insertSlot(tupleIndex, freeSpace);
+        if (normalizedKeySlotManager != null) {
+            normalizedKeySlotManager.setNormalizedKey(slotOff, tuple);
+        }
         int bytesWritten = tupleWriter.writeTuple(tuple, buf.array(), freeSpace);
         buf.putInt(Constants.TUPLE_COUNT_OFFSET, buf.getInt(Constants.TUPLE_COUNT_OFFSET) + 1);
         buf.putInt(Constants.FREE_SPACE_OFFSET, buf.getInt(Constants.FREE_SPACE_OFFSET) + bytesWritten);
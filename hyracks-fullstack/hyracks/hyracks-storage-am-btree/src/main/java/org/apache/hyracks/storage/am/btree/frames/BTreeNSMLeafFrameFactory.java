@@ -19,6 +19,7 @@
 
 package org.apache.hyracks.storage.am.btree.frames;
 
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriterFactory;
@@ -28,14 +29,41 @@ public class BTreeNSMLeafFrameFactory implements ITreeIndexFrameFactory {
     private static final long serialVersionUID = 1L;
 
     private final ITreeIndexTupleWriterFactory tupleWriterFactory;
+    private final INormalizedKeyComputerFactory keyNormalizerFactory;
+    private final boolean storeNormalizedKeys;
 
     public BTreeNSMLeafFrameFactory(ITreeIndexTupleWriterFactory tupleWriterFactory) {
+        this(tupleWriterFactory, null);
+    }
+
+    /**
+     * @param keyNormalizerFactory
+     *            the normalized key computer of the first key field to search the frames by interpolation, or null
+     *            to search them by bisection
+     */
+    public BTreeNSMLeafFrameFactory(ITreeIndexTupleWriterFactory tupleWriterFactory,
+            INormalizedKeyComputerFactory keyNormalizerFactory) {
+        this(tupleWriterFactory, keyNormalizerFactory, false);
+    }
+
+    /**
+     * @param storeNormalizedKeys
+     *            whether the frames store the normalized keys next to the slots. This changes the page format, so
+     *            the leaf and interior frame factories of an index must agree on it and it must not change over the
+     *            life of the index.
+     */
+    public BTreeNSMLeafFrameFactory(ITreeIndexTupleWriterFactory tupleWriterFactory,
+            INormalizedKeyComputerFactory keyNormalizerFactory, boolean storeNormalizedKeys) {
         this.tupleWriterFactory = tupleWriterFactory;
+        this.keyNormalizerFactory = keyNormalizerFactory;
+        this.storeNormalizedKeys = storeNormalizedKeys && keyNormalizerFactory != null;
     }
 
     @Override
     public IBTreeLeafFrame createFrame() {
-        return new BTreeNSMLeafFrame(tupleWriterFactory.createTupleWriter());
+        return new BTreeNSMLeafFrame(tupleWriterFactory.createTupleWriter(),
+                keyNormalizerFactory == null ? null : keyNormalizerFactory.createNormalizedKeyComputer(),
+                storeNormalizedKeys);
     }
 
     @Override
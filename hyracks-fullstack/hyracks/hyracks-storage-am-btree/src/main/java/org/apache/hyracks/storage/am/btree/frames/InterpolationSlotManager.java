@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.frames;
+
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.ophelpers.FindTupleMode;
+import org.apache.hyracks.storage.am.common.ophelpers.FindTupleNoExactMatchPolicy;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * An ordered slot manager that searches by the normalized key of the first key field. Probes are placed by
+ * interpolating between the normalized keys of the closest known tuples, falling back to bisection for the next probe
+ * whenever an interpolation did not halve the range. The comparator is only called when the normalized keys are
+ * equal, so the normalized keys must be ordered like the first key field, as e.g. for integer keys.
+ */
+public class InterpolationSlotManager extends OrderedSlotManager {
+    protected static final long UNSIGNED_MASK = 0xffffffffL;
+
+    protected final INormalizedKeyComputer keyNormalizer;
+    private long searchNormalizedKey;
+
+    public InterpolationSlotManager(INormalizedKeyComputer keyNormalizer) {
+        this.keyNormalizer = keyNormalizer;
+    }
+
+    protected InterpolationSlotManager(INormalizedKeyComputer keyNormalizer, int slotSize) {
+        super(slotSize);
+        this.keyNormalizer = keyNormalizer;
+    }
+
+    @Override
+    public int findTupleIndex(ITupleReference searchKey, ITreeIndexTupleReference frameTuple, MultiComparator multiCmp,
+            FindTupleMode mode, FindTupleNoExactMatchPolicy matchPolicy) throws HyracksDataException {
+        int tupleCount = frame.getTupleCount();
+        if (tupleCount <= 0) {
+            return GREATEST_KEY_INDICATOR;
+        }
+        searchNormalizedKey = normalize(searchKey);
+
+        int mid;
+        int begin;
+        int end = tupleCount - 1;
+
+        int highPos = end;
+        long highKey = getNormalizedKey(frameTuple, end);
+        int lowPos;
+        long lowKey;
+        int cmp = compare(searchKey, frameTuple, end, highKey, multiCmp);
+        if (cmp > 0) {
+            // the tuple to be searched is larger than all the keys on the page
+            begin = tupleCount;
+            lowPos = end;
+            lowKey = highKey;
+        } else {
+            begin = 0;
+            lowPos = begin;
+            lowKey = getNormalizedKey(frameTuple, begin);
+        }
+
+        boolean interpolate = true;
+        while (begin <= end) {
+            int range = end - begin;
+            if (interpolate && highKey > lowKey) {
+                long offset = (searchNormalizedKey - lowKey) * (highPos - lowPos) / (highKey - lowKey);
+                mid = (int) Math.max(begin, Math.min(end, lowPos + offset));
+            } else {
+                mid = (begin + end) >>> 1;
+            }
+            long midKey = getNormalizedKey(frameTuple, mid);
+
+            cmp = compare(searchKey, frameTuple, mid, midKey, multiCmp);
+            if (cmp < 0) {
+                end = mid - 1;
+            } else if (cmp > 0) {
+                begin = mid + 1;
+            } else {
+                if (mode == FindTupleMode.EXCLUSIVE) {
+                    if (matchPolicy == FindTupleNoExactMatchPolicy.HIGHER_KEY) {
+                        begin = mid + 1;
+                    } else {
+                        end = mid - 1;
+                    }
+                } else {
+                    if (mode == FindTupleMode.EXCLUSIVE_ERROR_IF_EXISTS) {
+                        return ERROR_INDICATOR;
+                    } else {
+                        return mid;
+                    }
+                }
+            }
+            if (begin > mid) {
+                lowPos = mid;
+                lowKey = midKey;
+            } else {
+                highPos = mid;
+                highKey = midKey;
+            }
+            interpolate = end - begin < range / 2;
+        }
+
+        if (mode == FindTupleMode.EXACT) {
+            return ERROR_INDICATOR;
+        }
+
+        if (matchPolicy == FindTupleNoExactMatchPolicy.HIGHER_KEY) {
+            if (begin > tupleCount - 1) {
+                return GREATEST_KEY_INDICATOR;
+            }
+            if (compare(searchKey, frameTuple, begin, getNormalizedKey(frameTuple, begin), multiCmp) < 0) {
+                return begin;
+            } else {
+                return GREATEST_KEY_INDICATOR;
+            }
+        } else {
+            if (end < 0) {
+                return GREATEST_KEY_INDICATOR;
+            }
+            if (compare(searchKey, frameTuple, end, getNormalizedKey(frameTuple, end), multiCmp) > 0) {
+                return end;
+            } else {
+                return GREATEST_KEY_INDICATOR;
+            }
+        }
+    }
+
+    private int compare(ITupleReference searchKey, ITreeIndexTupleReference frameTuple, int tupleIndex,
+            long frameNormalizedKey, MultiComparator multiCmp) throws HyracksDataException {
+        if (searchNormalizedKey != frameNormalizedKey) {
+            return searchNormalizedKey < frameNormalizedKey ? -1 : 1;
+        }
+        frameTuple.resetByTupleIndex(frame, tupleIndex);
+        return multiCmp.compare(searchKey, frameTuple);
+    }
+
+    /**
+     * @return the unsigned normalized key of the first key field of the tuple at tupleIndex
+     */
+    protected long getNormalizedKey(ITreeIndexTupleReference frameTuple, int tupleIndex) {
+        frameTuple.resetByTupleIndex(frame, tupleIndex);
+        return normalize(frameTuple);
+    }
+
+    protected long normalize(ITupleReference tuple) {
+        return keyNormalizer.normalize(tuple.getFieldData(0), tuple.getFieldStart(0), tuple.getFieldLength(0))
+                & UNSIGNED_MASK;
+    }
+}
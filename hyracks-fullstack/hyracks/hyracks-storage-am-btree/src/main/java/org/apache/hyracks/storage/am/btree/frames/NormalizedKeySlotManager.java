@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.frames;
+
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+
+/**
+ * An interpolation slot manager whose slots hold the normalized key of the first key field next to the tuple offset,
+ * so that searches only touch the tuples of the slots whose normalized key equals the one of the search key.
+ * The slots are twice as wide as regular ones and the frames must set the normalized key of every inserted slot.
+ */
+public class NormalizedKeySlotManager extends InterpolationSlotManager {
+    private static final int NORMALIZED_KEY_OFFSET = 4;
+
+    public NormalizedKeySlotManager(INormalizedKeyComputer keyNormalizer) {
+        super(keyNormalizer, NORMALIZED_KEY_OFFSET + Integer.BYTES);
+    }
+
+    public void setNormalizedKey(int slotOff, ITupleReference tuple) {
+        frame.getBuffer().putInt(slotOff + NORMALIZED_KEY_OFFSET,
+                keyNormalizer.normalize(tuple.getFieldData(0), tuple.getFieldStart(0), tuple.getFieldLength(0)));
+    }
+
+    @Override
+    protected long getNormalizedKey(ITreeIndexTupleReference frameTuple, int tupleIndex) {
+        return frame.getBuffer().getInt(getSlotOff(tupleIndex) + NORMALIZED_KEY_OFFSET) & UNSIGNED_MASK;
+    }
+}
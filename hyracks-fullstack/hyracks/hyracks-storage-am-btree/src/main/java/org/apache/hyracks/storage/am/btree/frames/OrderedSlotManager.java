@@ -19,6 +19,7 @@
 
 package org.apache.hyracks.storage.am.btree.frames;
 
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
@@ -29,6 +30,25 @@ import org.apache.hyracks.storage.common.MultiComparator;
 
 public class OrderedSlotManager extends AbstractSlotManager {
 
+    public OrderedSlotManager() {
+    }
+
+    protected OrderedSlotManager(int slotSize) {
+        super(slotSize);
+    }
+
+    /**
+     * @return a bisection slot manager if keyNormalizer is null, otherwise an interpolation slot manager that
+     *         computes the normalized keys from the tuples or stores them in the slots
+     */
+    static OrderedSlotManager create(INormalizedKeyComputer keyNormalizer, boolean storeNormalizedKeys) {
+        if (keyNormalizer == null) {
+            return new OrderedSlotManager();
+        }
+        return storeNormalizedKeys ? new NormalizedKeySlotManager(keyNormalizer)
+                : new InterpolationSlotManager(keyNormalizer);
+    }
+
     @Override
     public int findTupleIndex(ITupleReference searchKey, ITreeIndexTupleReference frameTuple, MultiComparator multiCmp,
             FindTupleMode mode, FindTupleNoExactMatchPolicy matchPolicy) throws HyracksDataException {
@@ -45,6 +45,8 @@ import org.apache.hyracks.storage.am.common.api.ITreeIndexAccessor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexMetadataFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriter;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
 import org.apache.hyracks.storage.am.common.frames.FrameOpSpaceStatus;
 import org.apache.hyracks.storage.am.common.impls.AbstractTreeIndex;
@@ -62,6 +64,8 @@ import org.apache.hyracks.storage.common.MultiComparator;
 import org.apache.hyracks.storage.common.buffercache.BufferCache;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.IFIFOPageQueue;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public class BTree extends AbstractTreeIndex {
@@ -75,11 +79,38 @@ public class BTree extends AbstractTreeIndex {
     private final AtomicInteger smoCounter;
     private final ReadWriteLock treeLatch;
     private final int maxTupleSize;
+    private final int zoneMapField;
+    private final IBinaryComparatorFactory zoneMapCmpFactory;
+    private volatile BTreeZoneMap zoneMap;
+    private volatile boolean zoneMapRead = false;
 
     public BTree(IBufferCache bufferCache, IPageManager freePageManager, ITreeIndexFrameFactory interiorFrameFactory,
             ITreeIndexFrameFactory leafFrameFactory, IBinaryComparatorFactory[] cmpFactories, int fieldCount,
             FileReference file) {
-        super(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file);
+        this(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file,
+                CompressionScheme.NONE);
+    }
+
+    public BTree(IBufferCache bufferCache, IPageManager freePageManager, ITreeIndexFrameFactory interiorFrameFactory,
+            ITreeIndexFrameFactory leafFrameFactory, IBinaryComparatorFactory[] cmpFactories, int fieldCount,
+            FileReference file, CompressionScheme compressionScheme) {
+        this(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file,
+                compressionScheme, -1, null);
+    }
+
+    /**
+     * Creates a BTree whose bulk loads also build a {@link BTreeZoneMap} over the given field. The zone map is not
+     * maintained by inserts, updates or deletes, so it must only be enabled for trees that are never modified after
+     * they are bulk loaded, such as LSM disk components.
+     */
+    public BTree(IBufferCache bufferCache, IPageManager freePageManager, ITreeIndexFrameFactory interiorFrameFactory,
+            ITreeIndexFrameFactory leafFrameFactory, IBinaryComparatorFactory[] cmpFactories, int fieldCount,
+            FileReference file, CompressionScheme compressionScheme, int zoneMapField,
+            IBinaryComparatorFactory zoneMapCmpFactory) {
+        super(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file,
+                compressionScheme);
+        this.zoneMapField = zoneMapField;
+        this.zoneMapCmpFactory = zoneMapCmpFactory;
         this.treeLatch = new ReentrantReadWriteLock(true);
         this.smoCounter = new AtomicInteger();
         ITreeIndexFrame leafFrame = leafFrameFactory.createFrame();
@@ -183,6 +214,7 @@ public class BTree extends AbstractTreeIndex {
         ctx.reset();
         ctx.setPred((RangePredicate) searchPred);
         ctx.setCursor(cursor);
+        ctx.getCursorInitialState().setZoneMap(ctx.getPred().hasZoneMapRange() ? getZoneMap() : null);
         // simple index scan
         if (ctx.getPred().getLowKeyComparator() == null) {
             ctx.getPred().setLowKeyComparator(ctx.getCmp());
@@ -207,6 +239,59 @@ public class BTree extends AbstractTreeIndex {
         cursor.setFileId(getFileId());
     }
 
+    /**
+     * @return the zone map written by the bulk load of this tree, or null if it has none
+     */
+    public BTreeZoneMap getZoneMap() throws HyracksDataException {
+        if (zoneMapField < 0) {
+            return null;
+        }
+        if (!zoneMapRead) {
+            synchronized (this) {
+                if (!zoneMapRead) {
+                    zoneMap = BTreeZoneMap.read(bufferCache, getFileId(), freePageManager,
+                            zoneMapCmpFactory.createBinaryComparator());
+                    zoneMapRead = true;
+                }
+            }
+        }
+        return zoneMap;
+    }
+
+    /**
+     * @return copies of the keys of the root page, which split the tree into subtrees of about equal size, or an
+     *         empty list if the root is a leaf
+     */
+    public List<ITupleReference> getRootKeys() throws HyracksDataException {
+        List<ITupleReference> keys = new ArrayList<>();
+        ICachedPage rootNode = bufferCache.pin(BufferedFileHandle.getDiskPageId(getFileId(), rootPage), false);
+        rootNode.acquireReadLatch();
+        try {
+            IBTreeInteriorFrame frame = (IBTreeInteriorFrame) interiorFrameFactory.createFrame();
+            frame.setPage(rootNode);
+            if (frame.isLeaf()) {
+                return keys;
+            }
+            frame.setMultiComparator(MultiComparator.create(cmpFactories));
+            ITreeIndexTupleReference frameTuple = frame.createTupleReference();
+            for (int i = 0; i < frame.getTupleCount(); i++) {
+                frameTuple.resetByTupleIndex(frame, i);
+                keys.add(TupleUtils.copyTuple(frameTuple));
+            }
+        } finally {
+            rootNode.releaseReadLatch();
+            bufferCache.unpin(rootNode);
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized void deactivate() throws HyracksDataException {
+        super.deactivate();
+        zoneMap = null;
+        zoneMapRead = false;
+    }
+
     private void unsetSmPages(BTreeOpContext ctx) throws HyracksDataException {
         ICachedPage originalPage = ctx.getInteriorFrame().getPage();
         for (int i = 0; i < ctx.getSmPages().size(); i++) {
@@ -998,12 +1083,21 @@ public class BTree extends AbstractTreeIndex {
     public class BTreeBulkLoader extends AbstractTreeIndex.AbstractTreeIndexBulkLoader {
         protected final ISplitKey splitKey;
         protected final boolean verifyInput;
+        protected final BTreeZoneMap.Builder zoneMapBuilder;
+        private final ITreeIndexTupleReference zoneMapTuple;
 
         public BTreeBulkLoader(float fillFactor, boolean verifyInput) throws HyracksDataException {
             super(fillFactor);
             this.verifyInput = verifyInput;
             splitKey = new BTreeSplitKey(leafFrame.getTupleWriter().createTupleReference());
             splitKey.getTuple().setFieldCount(cmp.getKeyFieldCount());
+            if (zoneMapField >= 0) {
+                zoneMapBuilder = new BTreeZoneMap.Builder(zoneMapField, zoneMapCmpFactory.createBinaryComparator());
+                zoneMapTuple = leafFrame.createTupleReference();
+            } else {
+                zoneMapBuilder = null;
+                zoneMapTuple = null;
+            }
         }
 
         @Override
@@ -1037,6 +1131,7 @@ public class BTree extends AbstractTreeIndex {
                                 splitKey.getBuffer().array(), 0);
                         splitKey.getTuple().resetByTupleOffset(splitKey.getBuffer().array(), 0);
                         splitKey.setLeftPage(leafFrontier.pageId);
+                        addZoneMapLeaf(leafFrontier.pageId);
 
                         propagateBulk(1, pagesToWrite);
 
@@ -1052,27 +1147,8 @@ public class BTree extends AbstractTreeIndex {
 
                         splitKey.setRightPage(leafFrontier.pageId);
                     }
-                    if (tupleSize > maxTupleSize) {
-                        final long dpid = BufferedFileHandle.getDiskPageId(getFileId(), leafFrontier.pageId);
-                        // calculate required number of pages.
-                        int headerSize = Math.max(leafFrame.getPageHeaderSize(), interiorFrame.getPageHeaderSize());
-                        final int multiplier =
-                                (int) Math.ceil((double) tupleSize / (bufferCache.getPageSize() - headerSize));
-                        if (multiplier > 1) {
-                            leafFrontier.page = bufferCache.confiscateLargePage(dpid, multiplier,
-                                    freePageManager.takeBlock(metaFrame, multiplier - 1));
-                        } else {
-                            leafFrontier.page = bufferCache.confiscatePage(dpid);
-                        }
-                        leafFrame.setPage(leafFrontier.page);
-                        leafFrame.initBuffer((byte) 0);
-                        ((IBTreeLeafFrame) leafFrame).setLargeFlag(true);
-                    } else {
-                        final long dpid = BufferedFileHandle.getDiskPageId(getFileId(), leafFrontier.pageId);
-                        leafFrontier.page = bufferCache.confiscatePage(dpid);
-                        leafFrame.setPage(leafFrontier.page);
-                        leafFrame.initBuffer((byte) 0);
-                    }
+                    leafFrontier.page =
+                            confiscateLeaf(leafFrame, interiorFrame, metaFrame, leafFrontier.pageId, tupleSize);
                 } else {
                     if (verifyInput && leafFrame.getTupleCount() > 0) {
                         leafFrontier.lastTuple.resetByTupleIndex(leafFrame, leafFrame.getTupleCount() - 1);
@@ -1086,7 +1162,37 @@ public class BTree extends AbstractTreeIndex {
             }
         }
 
+        private ICachedPage confiscateLeaf(ITreeIndexFrame leafFrame, ITreeIndexFrame interiorFrame,
+                ITreeIndexMetadataFrame metaFrame, int pageId, int tupleSize) throws HyracksDataException {
+            final long dpid = BufferedFileHandle.getDiskPageId(getFileId(), pageId);
+            ICachedPage page;
+            if (tupleSize > maxTupleSize) {
+                // calculate required number of pages.
+                int headerSize = Math.max(leafFrame.getPageHeaderSize(), interiorFrame.getPageHeaderSize());
+                final int multiplier = (int) Math.ceil((double) tupleSize / (bufferCache.getPageSize() - headerSize));
+                if (multiplier > 1) {
+                    page = bufferCache.confiscateLargePage(dpid, multiplier,
+                            freePageManager.takeBlock(metaFrame, multiplier - 1));
+                } else {
+                    page = bufferCache.confiscatePage(dpid);
+                }
+                leafFrame.setPage(page);
+                leafFrame.initBuffer((byte) 0);
+                ((IBTreeLeafFrame) leafFrame).setLargeFlag(true);
+            } else {
+                page = bufferCache.confiscatePage(dpid);
+                leafFrame.setPage(page);
+                leafFrame.initBuffer((byte) 0);
+            }
+            return page;
+        }
+
         protected void verifyInputTuple(ITupleReference tuple, ITupleReference prevTuple) throws HyracksDataException {
+            verifyInputTuple(cmp, tuple, prevTuple);
+        }
+
+        private void verifyInputTuple(MultiComparator cmp, ITupleReference tuple, ITupleReference prevTuple)
+                throws HyracksDataException {
             // New tuple should be strictly greater than last tuple.
             int cmpResult = cmp.compare(tuple, prevTuple);
             if (cmpResult < 0) {
@@ -1111,7 +1217,7 @@ public class BTree extends AbstractTreeIndex {
 
             ITupleReference tuple = splitKey.getTuple();
             int tupleBytes = tupleWriter.bytesRequired(tuple, 0, cmp.getKeyFieldCount());
-            int spaceNeeded = tupleBytes + slotSize + 4;
+            int spaceNeeded = tupleBytes + interiorFrame.getSlotSize() + 4;
             if (tupleBytes > interiorFrame.getMaxTupleSize(BTree.this.bufferCache.getPageSize())) {
                 throw HyracksDataException.create(ErrorCode.RECORD_IS_TOO_LARGE, tupleBytes,
                         interiorFrame.getMaxTupleSize(BTree.this.bufferCache.getPageSize()));
@@ -1153,6 +1259,8 @@ public class BTree extends AbstractTreeIndex {
             if (level < 1) {
                 ICachedPage lastLeaf = nodeFrontiers.get(level).page;
                 int lastLeafPage = nodeFrontiers.get(level).pageId;
+                leafFrame.setPage(lastLeaf);
+                addZoneMapLeaf(lastLeafPage);
                 setPageDpid(lastLeaf, nodeFrontiers.get(level).pageId);
                 queue.put(lastLeaf);
                 nodeFrontiers.get(level).page = null;
@@ -1179,6 +1287,9 @@ public class BTree extends AbstractTreeIndex {
         public void end() throws HyracksDataException {
             try {
                 persistFrontiers(0, -1);
+                if (zoneMapBuilder != null) {
+                    zoneMapBuilder.write(bufferCache, getFileId(), freePageManager, metaFrame, queue);
+                }
                 super.end();
             } catch (HyracksDataException | RuntimeException e) {
                 handleException();
@@ -1191,9 +1302,174 @@ public class BTree extends AbstractTreeIndex {
             super.handleException();
         }
 
+        /**
+         * @return a loader of the leaves of a key range that follows the tuples added to this bulk loader. It may run
+         *         in a thread of its own while this bulk loader is used, and its leaves become part of the tree when
+         *         it is appended.
+         */
+        public RangeLoader createRangeLoader() throws HyracksDataException {
+            return new RangeLoader();
+        }
+
+        /**
+         * Makes the leaves of a completely loaded key range part of the tree. Ranges are appended in key order, after
+         * all the tuples added to this bulk loader.
+         */
+        public void append(RangeLoader range) throws HyracksDataException {
+            if (range.page == null) {
+                return;
+            }
+            try {
+                NodeFrontier leafFrontier = nodeFrontiers.get(0);
+                leafFrame.setPage(leafFrontier.page);
+                if (leafFrame.getTupleCount() == 0) {
+                    // nothing has been added, the first leaf is left empty and unreferenced
+                    ((IBTreeLeafFrame) leafFrame).setNextLeaf(range.firstPageId);
+                    queue.put(leafFrontier.page);
+                } else {
+                    leafFrontier.lastTuple.resetByTupleIndex(leafFrame, leafFrame.getTupleCount() - 1);
+                    int splitKeySize = tupleWriter.bytesRequired(leafFrontier.lastTuple, 0, cmp.getKeyFieldCount());
+                    splitKey.initData(splitKeySize);
+                    tupleWriter.writeTupleFields(leafFrontier.lastTuple, 0, cmp.getKeyFieldCount(),
+                            splitKey.getBuffer().array(), 0);
+                    splitKey.getTuple().resetByTupleOffset(splitKey.getBuffer().array(), 0);
+                    splitKey.setLeftPage(leafFrontier.pageId);
+                    addZoneMapLeaf(leafFrontier.pageId);
+                    propagateBulk(1, pagesToWrite);
+                    ((IBTreeLeafFrame) leafFrame).setNextLeaf(range.firstPageId);
+                    queue.put(leafFrontier.page);
+                    writePropagatedPages();
+                }
+                for (byte[] separator : range.separators) {
+                    splitKey.initData(separator.length - 2 * Integer.BYTES);
+                    System.arraycopy(separator, 0, splitKey.getBuffer().array(), 0, separator.length);
+                    splitKey.getTuple().resetByTupleOffset(splitKey.getBuffer().array(), 0);
+                    propagateBulk(1, pagesToWrite);
+                    writePropagatedPages();
+                }
+                if (zoneMapBuilder != null) {
+                    zoneMapBuilder.append(range.zoneMapBuilder);
+                }
+                // the last leaf of the range is the new leaf frontier
+                leafFrontier.page = range.page;
+                leafFrontier.pageId = range.pageId;
+                leafFrame.setPage(leafFrontier.page);
+                range.page = null;
+            } catch (HyracksDataException | RuntimeException e) {
+                handleException();
+                throw e;
+            }
+        }
+
+        private void writePropagatedPages() throws HyracksDataException {
+            for (ICachedPage c : pagesToWrite) {
+                queue.put(c);
+            }
+            pagesToWrite.clear();
+        }
+
+        private void addZoneMapLeaf(int pageId) throws HyracksDataException {
+            if (zoneMapBuilder != null) {
+                zoneMapBuilder.addLeaf(pageId, (IBTreeLeafFrame) leafFrame, zoneMapTuple);
+            }
+        }
+
         private void setPageDpid(ICachedPage page, int pageId) {
             bufferCache.setPageDiskId(page, BufferedFileHandle.getDiskPageId(getFileId(), pageId));
         }
+
+        /**
+         * Fills and writes the leaves of a key range. Only its last leaf is held until the range is appended, the
+         * other leaves are represented by their separator keys.
+         */
+        public class RangeLoader implements IIndexBulkLoader {
+            private final MultiComparator cmp = MultiComparator.create(cmpFactories);
+            private final ITreeIndexFrame leafFrame = leafFrameFactory.createFrame();
+            private final ITreeIndexFrame interiorFrame = interiorFrameFactory.createFrame();
+            private final ITreeIndexTupleWriter tupleWriter = leafFrame.getTupleWriter();
+            private final ITreeIndexTupleReference lastTuple = leafFrame.createTupleReference();
+            private final ITreeIndexMetadataFrame metaFrame = freePageManager.createMetadataFrame();
+            private final IFIFOPageQueue queue = bufferCache.createFIFOQueue();
+            private final BTreeZoneMap.Builder zoneMapBuilder;
+            private final ITreeIndexTupleReference zoneMapTuple;
+            // the last key and the page id of every leaf but the last one, laid out like the data of a split key
+            private final List<byte[]> separators = new ArrayList<>();
+            private int firstPageId = -1;
+            private int pageId = -1;
+            private ICachedPage page;
+
+            private RangeLoader() throws HyracksDataException {
+                leafFrame.setMultiComparator(cmp);
+                interiorFrame.setMultiComparator(cmp);
+                if (zoneMapField >= 0) {
+                    zoneMapBuilder = new BTreeZoneMap.Builder(zoneMapField, zoneMapCmpFactory.createBinaryComparator());
+                    zoneMapTuple = leafFrame.createTupleReference();
+                } else {
+                    zoneMapBuilder = null;
+                    zoneMapTuple = null;
+                }
+            }
+
+            @Override
+            public void add(ITupleReference tuple) throws HyracksDataException {
+                try {
+                    int tupleSize = Math.max(leafFrame.getBytesRequiredToWriteTuple(tuple),
+                            interiorFrame.getBytesRequiredToWriteTuple(tuple));
+                    if (page == null) {
+                        pageId = freePageManager.takePage(metaFrame);
+                        firstPageId = pageId;
+                        page = confiscateLeaf(leafFrame, interiorFrame, metaFrame, pageId, tupleSize);
+                    } else {
+                        int spaceNeeded = tupleWriter.bytesRequired(tuple) + slotSize;
+                        int spaceUsed = leafFrame.getBuffer().capacity() - leafFrame.getTotalFreeSpace();
+                        if (spaceUsed + spaceNeeded > leafMaxBytes) {
+                            leafFrame.compress();
+                            spaceUsed = leafFrame.getBuffer().capacity() - leafFrame.getTotalFreeSpace();
+                        }
+                        lastTuple.resetByTupleIndex(leafFrame, leafFrame.getTupleCount() - 1);
+                        if (verifyInput) {
+                            verifyInputTuple(cmp, tuple, lastTuple);
+                        }
+                        if (spaceUsed + spaceNeeded > leafMaxBytes) {
+                            int keySize = tupleWriter.bytesRequired(lastTuple, 0, cmp.getKeyFieldCount());
+                            byte[] separator = new byte[keySize + 2 * Integer.BYTES];
+                            tupleWriter.writeTupleFields(lastTuple, 0, cmp.getKeyFieldCount(), separator, 0);
+                            IntegerPointable.setInteger(separator, keySize, pageId);
+                            separators.add(separator);
+                            if (zoneMapBuilder != null) {
+                                zoneMapBuilder.addLeaf(pageId, (IBTreeLeafFrame) leafFrame, zoneMapTuple);
+                            }
+                            pageId = freePageManager.takePage(metaFrame);
+                            ((IBTreeLeafFrame) leafFrame).setNextLeaf(pageId);
+                            queue.put(page);
+                            // the queue returns the page once it is written
+                            page = null;
+                            page = confiscateLeaf(leafFrame, interiorFrame, metaFrame, pageId, tupleSize);
+                        }
+                    }
+                    ((IBTreeLeafFrame) leafFrame).insertSorted(tuple);
+                } catch (HyracksDataException | RuntimeException e) {
+                    abort();
+                    throw e;
+                }
+            }
+
+            /**
+             * Does nothing, the last leaf is written once the range is appended.
+             */
+            @Override
+            public void end() throws HyracksDataException {
+                // nothing to do
+            }
+
+            @Override
+            public void abort() throws HyracksDataException {
+                if (page != null) {
+                    bufferCache.returnPage(page, false);
+                    page = null;
+                }
+            }
+        }
     }
 
     @SuppressWarnings("rawtypes")
@@ -31,6 +31,7 @@ public class BTreeCursorInitialState implements ICursorInitialState {
     private ICachedPage page;
     private ISearchOperationCallback searchCallback;
     private MultiComparator originalKeyCmp;
+    private BTreeZoneMap zoneMap;
     private final IIndexAccessor accessor;
 
     public BTreeCursorInitialState(ICachedPage page, ISearchOperationCallback searchCallback, IIndexAccessor accessor) {
@@ -78,4 +79,12 @@ public class BTreeCursorInitialState implements ICursorInitialState {
     public void setOriginialKeyComparator(MultiComparator originalCmp) {
         this.originalKeyCmp = originalCmp;
     }
+
+    public BTreeZoneMap getZoneMap() {
+        return zoneMap;
+    }
+
+    public void setZoneMap(BTreeZoneMap zoneMap) {
+        this.zoneMap = zoneMap;
+    }
 }
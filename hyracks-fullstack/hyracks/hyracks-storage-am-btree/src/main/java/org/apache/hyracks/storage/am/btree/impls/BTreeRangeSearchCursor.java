@@ -39,6 +39,11 @@ import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public class BTreeRangeSearchCursor implements ITreeIndexCursor {
+    // number of consecutive leaves that need to be visited in page order before reading ahead
+    private static final int READ_AHEAD_THRESHOLD = 2;
+    // leaves of bulk loaded trees are interleaved with the interior pages that were created while loading
+    private static final int READ_AHEAD_MAX_GAP = 2;
+    private static final int READ_AHEAD_PAGES = 32;
 
     private final IBTreeLeafFrame frame;
     private final ITreeIndexTupleReference frameTuple;
@@ -50,6 +55,8 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
 
     private ICachedPage page = null;
     private int pageId = -1; // This is used by the LSMRTree flush operation
+    private int sequentialLeaves = 0;
+    private int readAheadEnd = -1;
 
     private int tupleIndex = 0;
     private int stopTupleIndex;
@@ -67,6 +74,7 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
     private FindTupleNoExactMatchPolicy highKeyFtp;
 
     private RangePredicate pred;
+    private BTreeZoneMap zoneMap;
     private MultiComparator lowKeyCmp;
     private MultiComparator highKeyCmp;
     protected ITupleReference lowKey;
@@ -95,6 +103,9 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         page = null;
         isPageDirty = false;
         pred = null;
+        zoneMap = null;
+        sequentialLeaves = 0;
+        readAheadEnd = -1;
     }
 
     @Override
@@ -122,6 +133,9 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
 
     private void fetchNextLeafPage(int nextLeafPage) throws HyracksDataException {
         do {
+            if (!exclusiveLatchNodes) {
+                readAhead(nextLeafPage);
+            }
             ICachedPage nextLeaf = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, nextLeafPage), false);
             if (exclusiveLatchNodes) {
                 nextLeaf.acquireWriteLatch();
@@ -140,11 +154,29 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         } while (frame.getTupleCount() == 0 && nextLeafPage > 0);
     }
 
+    private void readAhead(int nextLeafPage) throws HyracksDataException {
+        if (nextLeafPage > pageId && nextLeafPage - pageId <= READ_AHEAD_MAX_GAP) {
+            sequentialLeaves++;
+        } else {
+            sequentialLeaves = 0;
+            readAheadEnd = -1;
+        }
+        if (sequentialLeaves >= READ_AHEAD_THRESHOLD && nextLeafPage >= readAheadEnd) {
+            int numPages = bufferCache.prefetch(BufferedFileHandle.getDiskPageId(fileId, nextLeafPage),
+                    READ_AHEAD_PAGES);
+            // if no page could be read ahead, it isn't tried again for the next READ_AHEAD_PAGES leaves
+            readAheadEnd = nextLeafPage + (numPages > 0 ? numPages : READ_AHEAD_PAGES);
+        }
+    }
+
     @Override
     public boolean hasNext() throws HyracksDataException {
         int nextLeafPage;
         if (tupleIndex >= frame.getTupleCount()) {
             nextLeafPage = frame.getNextLeaf();
+            if (nextLeafPage >= 0 && zoneMap != null) {
+                nextLeafPage = zoneMap.nextCandidate(nextLeafPage, pred.getZoneMapLowKey(), pred.getZoneMapHighKey());
+            }
             if (nextLeafPage >= 0) {
                 fetchNextLeafPage(nextLeafPage);
                 tupleIndex = 0;
@@ -261,6 +293,8 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         pageId = ((BTreeCursorInitialState) initialState).getPageId();
         page = initialState.getPage();
         isPageDirty = false;
+        sequentialLeaves = 0;
+        readAheadEnd = -1;
         frame.setPage(page);
 
         pred = (RangePredicate) searchPred;
@@ -272,6 +306,7 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         reusablePredicate.setLowKeyComparator(originalKeyCmp);
         reusablePredicate.setHighKeyComparator(pred.getHighKeyComparator());
         reusablePredicate.setHighKey(pred.getHighKey(), pred.isHighKeyInclusive());
+        reusablePredicate.setZoneMapRange(pred.getZoneMapLowKey(), pred.getZoneMapHighKey());
 
         lowKeyFtm = FindTupleMode.EXCLUSIVE;
         if (pred.lowKeyInclusive) {
@@ -287,7 +322,13 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
             highKeyFtp = FindTupleNoExactMatchPolicy.LOWER_KEY;
         }
 
-        tupleIndex = getLowKeyIndex();
+        zoneMap = ((BTreeCursorInitialState) initialState).getZoneMap();
+        if (zoneMap != null && !zoneMap.mayContain(pageId, pred.getZoneMapLowKey(), pred.getZoneMapHighKey())) {
+            // move on to the next leaf that may hold a match, the high key still decides where the search stops
+            tupleIndex = frame.getTupleCount();
+        } else {
+            tupleIndex = getLowKeyIndex();
+        }
         stopTupleIndex = getHighKeyIndex();
     }
 
@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.impls;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
+import org.apache.hyracks.storage.am.common.api.IMetadataPageManager;
+import org.apache.hyracks.storage.am.common.api.IPageManager;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexMetadataFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.freepage.MutableArrayValueReference;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.IFIFOPageQueue;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * The min/max of one field for every leaf of a bulk loaded BTree, in leaf order. The zone map is written to pages of
+ * its own at the end of the bulk load and is located through the {@link #ZONE_MAP_KEY} metadata entry.
+ * Range searches whose predicate carries a zone map range skip the leaves that cannot hold a matching tuple.
+ * A leaf that holds a tuple without the field (e.g. an LSM antimatter tuple) is never skipped.
+ */
+public class BTreeZoneMap {
+    public static final MutableArrayValueReference ZONE_MAP_KEY = new MutableArrayValueReference("ZoneMap".getBytes());
+    // first zone map page, number of zone map pages, zone map length in bytes
+    private static final int METADATA_LENGTH = 3 * Integer.BYTES;
+    private static final int UNBOUNDED = -1;
+
+    private final IBinaryComparator cmp;
+    private final byte[] data;
+    private final int[] pageIds;
+    private final int[] minOffsets;
+    private final int[] maxOffsets;
+    private final int[] minLengths;
+    private final int[] maxLengths;
+    // the leaf indexes in page id order, null if the page ids are in leaf order
+    private final int[] pageIdOrder;
+
+    private BTreeZoneMap(IBinaryComparator cmp, byte[] data) {
+        this.cmp = cmp;
+        this.data = data;
+        int numLeaves = IntegerPointable.getInteger(data, 0);
+        pageIds = new int[numLeaves];
+        minOffsets = new int[numLeaves];
+        maxOffsets = new int[numLeaves];
+        minLengths = new int[numLeaves];
+        maxLengths = new int[numLeaves];
+        boolean isOrdered = true;
+        int offset = Integer.BYTES;
+        for (int i = 0; i < numLeaves; i++) {
+            pageIds[i] = IntegerPointable.getInteger(data, offset);
+            isOrdered &= i == 0 || pageIds[i] > pageIds[i - 1];
+            minLengths[i] = IntegerPointable.getInteger(data, offset + Integer.BYTES);
+            offset += 2 * Integer.BYTES;
+            if (minLengths[i] != UNBOUNDED) {
+                minOffsets[i] = offset;
+                offset += minLengths[i];
+                maxLengths[i] = IntegerPointable.getInteger(data, offset);
+                maxOffsets[i] = offset + Integer.BYTES;
+                offset += Integer.BYTES + maxLengths[i];
+            }
+        }
+        // leaves are looked up by binary search on their page ids, which are in leaf order unless the leaves of
+        // several key ranges were loaded concurrently
+        pageIdOrder = isOrdered ? null : sortByPageId(pageIds);
+    }
+
+    private static int[] sortByPageId(int[] pageIds) {
+        long[] entries = new long[pageIds.length];
+        for (int i = 0; i < pageIds.length; i++) {
+            entries[i] = ((long) pageIds[i] << Integer.SIZE) | i;
+        }
+        Arrays.sort(entries);
+        int[] order = new int[pageIds.length];
+        for (int i = 0; i < entries.length; i++) {
+            order[i] = (int) entries[i];
+        }
+        return order;
+    }
+
+    public int getNumLeaves() {
+        return pageIds.length;
+    }
+
+    /**
+     * @return whether the leaf may hold a tuple whose field is within [low, high]. A null bound is unbounded.
+     */
+    public boolean mayContain(int pageId, ITupleReference low, ITupleReference high) throws HyracksDataException {
+        int index = indexOf(pageId);
+        return index < 0 || overlaps(index, low, high);
+    }
+
+    /**
+     * @return the first leaf, starting at pageId and following the leaf order, that may hold a tuple whose field is
+     *         within [low, high], or -1 if there is none
+     */
+    public int nextCandidate(int pageId, ITupleReference low, ITupleReference high) throws HyracksDataException {
+        int index = indexOf(pageId);
+        if (index < 0) {
+            return pageId;
+        }
+        for (; index < pageIds.length; index++) {
+            if (overlaps(index, low, high)) {
+                return pageIds[index];
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(int pageId) {
+        int low = 0;
+        int high = pageIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int index = pageIdOrder == null ? mid : pageIdOrder[mid];
+            if (pageIds[index] < pageId) {
+                low = mid + 1;
+            } else if (pageIds[index] > pageId) {
+                high = mid - 1;
+            } else {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean overlaps(int index, ITupleReference low, ITupleReference high) throws HyracksDataException {
+        if (minLengths[index] == UNBOUNDED) {
+            return true;
+        }
+        if (low != null && cmp.compare(data, maxOffsets[index], maxLengths[index], low.getFieldData(0),
+                low.getFieldStart(0), low.getFieldLength(0)) < 0) {
+            return false;
+        }
+        return high == null || cmp.compare(data, minOffsets[index], minLengths[index], high.getFieldData(0),
+                high.getFieldStart(0), high.getFieldLength(0)) <= 0;
+    }
+
+    /**
+     * Reads the zone map of an index that has been bulk loaded with one.
+     *
+     * @return the zone map, or null if the index has none
+     */
+    public static BTreeZoneMap read(IBufferCache bufferCache, int fileId, IPageManager pageManager,
+            IBinaryComparator cmp) throws HyracksDataException {
+        if (!(pageManager instanceof IMetadataPageManager)) {
+            return null;
+        }
+        IMetadataPageManager metadataPageManager = (IMetadataPageManager) pageManager;
+        VoidPointable location = new VoidPointable();
+        metadataPageManager.get(metadataPageManager.createMetadataFrame(), ZONE_MAP_KEY, location);
+        if (location.getLength() != METADATA_LENGTH) {
+            return null;
+        }
+        byte[] bytes = location.getByteArray();
+        int start = location.getStartOffset();
+        int firstPage = IntegerPointable.getInteger(bytes, start);
+        int numPages = IntegerPointable.getInteger(bytes, start + Integer.BYTES);
+        int length = IntegerPointable.getInteger(bytes, start + 2 * Integer.BYTES);
+        byte[] data = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < numPages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, firstPage + i), false);
+            page.acquireReadLatch();
+            try {
+                ByteBuffer buffer = page.getBuffer().duplicate();
+                buffer.clear();
+                int n = Math.min(buffer.remaining(), length - offset);
+                buffer.get(data, offset, n);
+                offset += n;
+            } finally {
+                page.releaseReadLatch();
+                bufferCache.unpin(page);
+            }
+        }
+        return new BTreeZoneMap(cmp, data);
+    }
+
+    /**
+     * Collects the min/max of the field for every leaf written by a bulk loader.
+     */
+    public static class Builder {
+        private final int field;
+        private final IBinaryComparator cmp;
+        private final ArrayBackedValueStorage data = new ArrayBackedValueStorage();
+        private int numLeaves = 0;
+
+        public Builder(int field, IBinaryComparator cmp) throws HyracksDataException {
+            this.field = field;
+            this.cmp = cmp;
+            try {
+                data.getDataOutput().writeInt(0);
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+        }
+
+        public void addLeaf(int pageId, IBTreeLeafFrame leafFrame, ITreeIndexTupleReference tuple)
+                throws HyracksDataException {
+            int tupleCount = leafFrame.getTupleCount();
+            if (tupleCount == 0) {
+                return;
+            }
+            int minIndex = -1;
+            int maxIndex = -1;
+            ITreeIndexTupleReference other = leafFrame.createTupleReference();
+            for (int i = 0; i < tupleCount; i++) {
+                tuple.resetByTupleIndex(leafFrame, i);
+                if (tuple.getFieldCount() <= field) {
+                    minIndex = UNBOUNDED;
+                    break;
+                }
+                if (minIndex < 0 || compare(tuple, minIndex, other, leafFrame) < 0) {
+                    minIndex = i;
+                }
+                if (maxIndex < 0 || compare(tuple, maxIndex, other, leafFrame) > 0) {
+                    maxIndex = i;
+                }
+            }
+            try {
+                DataOutput out = data.getDataOutput();
+                out.writeInt(pageId);
+                if (minIndex == UNBOUNDED) {
+                    out.writeInt(UNBOUNDED);
+                } else {
+                    writeField(out, tuple, minIndex, leafFrame);
+                    writeField(out, tuple, maxIndex, leafFrame);
+                }
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+            numLeaves++;
+        }
+
+        /**
+         * Adds the leaves collected by another builder, which follow the leaves collected by this builder.
+         */
+        public void append(Builder other) throws HyracksDataException {
+            try {
+                data.getDataOutput().write(other.data.getByteArray(), other.data.getStartOffset() + Integer.BYTES,
+                        other.data.getLength() - Integer.BYTES);
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+            numLeaves += other.numLeaves;
+        }
+
+        private int compare(ITreeIndexTupleReference tuple, int otherIndex, ITreeIndexTupleReference other,
+                IBTreeLeafFrame leafFrame) throws HyracksDataException {
+            other.resetByTupleIndex(leafFrame, otherIndex);
+            return cmp.compare(tuple.getFieldData(field), tuple.getFieldStart(field), tuple.getFieldLength(field),
+                    other.getFieldData(field), other.getFieldStart(field), other.getFieldLength(field));
+        }
+
+        private void writeField(DataOutput out, ITreeIndexTupleReference tuple, int index, IBTreeLeafFrame leafFrame)
+                throws IOException {
+            tuple.resetByTupleIndex(leafFrame, index);
+            out.writeInt(tuple.getFieldLength(field));
+            out.write(tuple.getFieldData(field), tuple.getFieldStart(field), tuple.getFieldLength(field));
+        }
+
+        /**
+         * Queues the zone map pages for writing and records their location in the metadata. Nothing is written if
+         * the page manager cannot hold metadata or does not hand out consecutive pages.
+         */
+        public void write(IBufferCache bufferCache, int fileId, IPageManager pageManager,
+                ITreeIndexMetadataFrame metaFrame, IFIFOPageQueue queue) throws HyracksDataException {
+            if (!(pageManager instanceof IMetadataPageManager)) {
+                return;
+            }
+            IntegerPointable.setInteger(data.getByteArray(), data.getStartOffset(), numLeaves);
+            int length = data.getLength();
+            int pageSize = bufferCache.getPageSize();
+            int numPages = (length + pageSize - 1) / pageSize;
+            int firstPage = -1;
+            for (int i = 0; i < numPages; i++) {
+                int pageId = pageManager.takePage(metaFrame);
+                if (firstPage < 0) {
+                    firstPage = pageId;
+                } else if (pageId != firstPage + i) {
+                    // the pages are already taken, they are simply left unused
+                    return;
+                }
+                ICachedPage page = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, pageId));
+                ByteBuffer buffer = page.getBuffer();
+                buffer.clear();
+                buffer.put(data.getByteArray(), data.getStartOffset() + i * pageSize,
+                        Math.min(pageSize, length - i * pageSize));
+                queue.put(page);
+            }
+            byte[] location = new byte[METADATA_LENGTH];
+            IntegerPointable.setInteger(location, 0, firstPage);
+            IntegerPointable.setInteger(location, Integer.BYTES, numPages);
+            IntegerPointable.setInteger(location, 2 * Integer.BYTES, length);
+            ((IMetadataPageManager) pageManager).put(metaFrame, ZONE_MAP_KEY, new MutableArrayValueReference(location));
+        }
+    }
+}
@@ -34,6 +34,8 @@ public class RangePredicate extends AbstractSearchPredicate {
     protected boolean highKeyInclusive = true;
     protected MultiComparator lowKeyCmp;
     protected MultiComparator highKeyCmp;
+    protected ITupleReference zoneMapLowKey = null;
+    protected ITupleReference zoneMapHighKey = null;
 
     public RangePredicate() {
 
@@ -132,6 +134,28 @@ public class RangePredicate extends AbstractSearchPredicate {
         this.highKeyCmp = highKeyCmp;
     }
 
+    /**
+     * Lets searches skip the leaves whose {@link BTreeZoneMap} range does not intersect [low, high]. The bounds are
+     * inclusive single field tuples, a null bound is unbounded. The searches still return any tuple of the leaves
+     * they visit, so the caller has to apply the range on the results.
+     */
+    public void setZoneMapRange(ITupleReference zoneMapLowKey, ITupleReference zoneMapHighKey) {
+        this.zoneMapLowKey = zoneMapLowKey;
+        this.zoneMapHighKey = zoneMapHighKey;
+    }
+
+    public ITupleReference getZoneMapLowKey() {
+        return zoneMapLowKey;
+    }
+
+    public ITupleReference getZoneMapHighKey() {
+        return zoneMapHighKey;
+    }
+
+    public boolean hasZoneMapRange() {
+        return zoneMapLowKey != null || zoneMapHighKey != null;
+    }
+
     public boolean isPointPredicate(MultiComparator originalKeyComparator) throws HyracksDataException {
         if (getLowKey() == null) {
             return false;
@@ -27,9 +27,21 @@ public abstract class AbstractSlotManager implements ISlotManager {
     public static final int GREATEST_KEY_INDICATOR = -1;
     public static final int ERROR_INDICATOR = -2;
 
-    protected static final int slotSize = 4;
+    protected final int slotSize;
     protected ITreeIndexFrame frame;
 
+    public AbstractSlotManager() {
+        this(4);
+    }
+
+    /**
+     * @param slotSize
+     *            the slot size in bytes, whose first four bytes hold the tuple offset
+     */
+    protected AbstractSlotManager(int slotSize) {
+        this.slotSize = slotSize;
+    }
+
     @Override
     public int getTupleOff(int offset) {
         return frame.getBuffer().getInt(offset);
@@ -142,9 +142,16 @@ public class AppendOnlyLinkedMetadataPageManager implements IMetadataPageManager
 
     @Override
     public int takeBlock(ITreeIndexMetadataFrame metaFrame, int count) throws HyracksDataException {
-        int maxPage = metaFrame.getMaxPage();
-        metaFrame.setMaxPage(maxPage + count);
-        return maxPage + 1;
+        // pages may be taken concurrently by the loaders of the key ranges of a merge
+        confiscatedPage.acquireWriteLatch();
+        try {
+            metaFrame.setPage(confiscatedPage);
+            int maxPage = metaFrame.getMaxPage();
+            metaFrame.setMaxPage(maxPage + count);
+            return maxPage + 1;
+        } finally {
+            confiscatedPage.releaseWriteLatch(false);
+        }
     }
 
     @Override
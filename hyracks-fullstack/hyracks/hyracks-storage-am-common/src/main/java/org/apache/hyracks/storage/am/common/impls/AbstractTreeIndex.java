@@ -39,6 +39,7 @@ import org.apache.hyracks.storage.common.MultiComparator;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.buffercache.IFIFOPageQueue;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public abstract class AbstractTreeIndex implements ITreeIndex {
@@ -57,6 +58,7 @@ public abstract class AbstractTreeIndex implements ITreeIndex {
     protected final int fieldCount;
 
     protected FileReference file;
+    protected final CompressionScheme compressionScheme;
     private int fileId = -1;
 
     protected boolean isActive = false;
@@ -66,6 +68,14 @@ public abstract class AbstractTreeIndex implements ITreeIndex {
     public AbstractTreeIndex(IBufferCache bufferCache, IPageManager freePageManager,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
             IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file) {
+        this(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories, fieldCount, file,
+                CompressionScheme.NONE);
+    }
+
+    public AbstractTreeIndex(IBufferCache bufferCache, IPageManager freePageManager,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file,
+            CompressionScheme compressionScheme) {
         this.bufferCache = bufferCache;
         this.freePageManager = freePageManager;
         this.interiorFrameFactory = interiorFrameFactory;
@@ -73,6 +83,7 @@ public abstract class AbstractTreeIndex implements ITreeIndex {
         this.cmpFactories = cmpFactories;
         this.fieldCount = fieldCount;
         this.file = file;
+        this.compressionScheme = compressionScheme;
     }
 
     @Override
@@ -80,7 +91,7 @@ public abstract class AbstractTreeIndex implements ITreeIndex {
         if (isActive) {
             throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_ACTIVE_INDEX);
         }
-        fileId = bufferCache.createFile(file);
+        fileId = bufferCache.createFile(file, compressionScheme);
         bufferCache.openFile(fileId);
         freePageManager.open(fileId);
         freePageManager.init(interiorFrameFactory, leafFrameFactory);
@@ -38,6 +38,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCacheProvider;
 import org.apache.hyracks.storage.am.lsm.common.dataflow.LsmResource;
 import org.apache.hyracks.storage.common.IStorageManager;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 
 public class LSMBTreeLocalResource extends LsmResource {
 
@@ -47,6 +48,15 @@ public class LSMBTreeLocalResource extends LsmResource {
     protected final double bloomFilterFalsePositiveRate;
     protected final boolean isPrimary;
     protected final int[] btreeFields;
+    // null for resources that were created before compression was supported
+    protected final CompressionScheme compressionScheme;
+    // false for resources that were created before blocked bloom filters were supported
+    protected final boolean blockedBloomFilter;
+    protected final int zoneMapField;
+    // null for resources that were created before zone maps were supported
+    protected final IBinaryComparatorFactory zoneMapCmpFactory;
+    // false for resources that were created before skip list memory components were supported
+    protected final boolean skipListMemoryComponents;
 
     public LSMBTreeLocalResource(ITypeTraits[] typeTraits, IBinaryComparatorFactory[] cmpFactories,
             int[] bloomFilterKeyFields, double bloomFilterFalsePositiveRate, boolean isPrimary, String path,
@@ -55,7 +65,9 @@ public class LSMBTreeLocalResource extends LsmResource {
             IBinaryComparatorFactory[] filterCmpFactories, int[] btreeFields, int[] filterFields,
             ILSMOperationTrackerFactory opTrackerProvider, ILSMIOOperationCallbackFactory ioOpCallbackFactory,
             IMetadataPageManagerFactory metadataPageManagerFactory, IVirtualBufferCacheProvider vbcProvider,
-            ILSMIOOperationSchedulerProvider ioSchedulerProvider, boolean durable) {
+            ILSMIOOperationSchedulerProvider ioSchedulerProvider, boolean durable,
+            CompressionScheme compressionScheme, boolean blockedBloomFilter, int zoneMapField,
+            IBinaryComparatorFactory zoneMapCmpFactory, boolean skipListMemoryComponents) {
         super(path, storageManager, typeTraits, cmpFactories, filterTypeTraits, filterCmpFactories, filterFields,
                 opTrackerProvider, ioOpCallbackFactory, metadataPageManagerFactory, vbcProvider, ioSchedulerProvider,
                 mergePolicyFactory, mergePolicyProperties, durable);
@@ -63,6 +75,11 @@ public class LSMBTreeLocalResource extends LsmResource {
         this.bloomFilterFalsePositiveRate = bloomFilterFalsePositiveRate;
         this.isPrimary = isPrimary;
         this.btreeFields = btreeFields;
+        this.compressionScheme = compressionScheme;
+        this.blockedBloomFilter = blockedBloomFilter;
+        this.zoneMapField = zoneMapField;
+        this.zoneMapCmpFactory = zoneMapCmpFactory;
+        this.skipListMemoryComponents = skipListMemoryComponents;
     }
 
     @Override
@@ -75,6 +92,10 @@ public class LSMBTreeLocalResource extends LsmResource {
                 mergePolicyFactory.createMergePolicy(mergePolicyProperties, serviceCtx),
                 opTrackerProvider.getOperationTracker(serviceCtx), ioSchedulerProvider.getIoScheduler(serviceCtx),
                 ioOpCallbackFactory.createIoOpCallback(), isPrimary, filterTypeTraits, filterCmpFactories, btreeFields,
-                filterFields, durable, metadataPageManagerFactory);
+                filterFields, durable, metadataPageManagerFactory,
+                compressionScheme == null ? CompressionScheme.NONE : compressionScheme, blockedBloomFilter,
+                zoneMapCmpFactory == null ? -1 : zoneMapField, zoneMapCmpFactory,
+                ioSchedulerProvider.getNumMergePartitions(serviceCtx),
+                ioSchedulerProvider.getMergeExecutor(serviceCtx), skipListMemoryComponents);
     }
 }
@@ -20,9 +20,15 @@
 package org.apache.hyracks.storage.am.lsm.btree.impls;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.ErrorCode;
@@ -46,6 +52,7 @@ import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
 import org.apache.hyracks.storage.am.lsm.btree.tuples.LSMBTreeTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.IComponentFilterHelper;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilterFrameFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponentBulkLoader;
@@ -78,6 +85,7 @@ import org.apache.hyracks.storage.common.MultiComparator;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
 public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
+    private static final Logger LOGGER = Logger.getLogger(LSMBTree.class.getName());
 
     private static final ICursorFactory cursorFactory = opCtx -> new LSMBTreeSearchCursor(opCtx);
     // For creating BTree's used in flush and merge.
@@ -87,6 +95,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     protected final LSMBTreeDiskComponentFactory bulkLoadComponentFactory;
 
     // Common for in-memory and on-disk components.
+    private final ITreeIndexFrameFactory interiorFrameFactory;
     protected final ITreeIndexFrameFactory insertLeafFrameFactory;
     protected final ITreeIndexFrameFactory deleteLeafFrameFactory;
     protected final IBinaryComparatorFactory[] cmpFactories;
@@ -96,6 +105,10 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     // Primary LSMBTree has a Bloomfilter, but Secondary one doesn't have.
     private final boolean hasBloomFilter;
 
+    // The number of key ranges a merge is split into, all but the first merged by the threads of mergeExecutor.
+    private final int numMergePartitions;
+    private final ExecutorService mergeExecutor;
+
     public LSMBTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory insertLeafFrameFactory,
             ITreeIndexFrameFactory deleteLeafFrameFactory, ILSMIndexFileManager fileManager,
@@ -106,20 +119,59 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
             ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
             boolean durable) throws HyracksDataException {
+        this(ioManager, virtualBufferCaches, interiorFrameFactory, insertLeafFrameFactory, deleteLeafFrameFactory,
+                fileManager, diskBTreeFactory, bulkLoadBTreeFactory, bloomFilterFactory, filterHelper,
+                filterFrameFactory, filterManager, bloomFilterFalsePositiveRate, fieldCount, cmpFactories, mergePolicy,
+                opTracker, ioScheduler, ioOpCallback, needKeyDupCheck, btreeFields, filterFields, durable, 1, null,
+                false);
+    }
+
+    /**
+     * @param numMergePartitions
+     *            the number of key ranges a merge is split into. The ranges are merged concurrently and appended to
+     *            the merged component in key order.
+     * @param mergeExecutor
+     *            the executor that merges all but the first key range, which is merged by the merging thread. It
+     *            is owned by the caller and meant to be shared by all the indexes of a node, so that the number of
+     *            merge threads stays bounded. It may be null if numMergePartitions is 1.
+     * @param skipListMemoryComponents
+     *            whether the in-memory components are {@link MemorySkipList}s instead of BTrees. Their writers don't
+     *            latch pages, so they contend less when many writers insert into the same index.
+     */
+    public LSMBTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory insertLeafFrameFactory,
+            ITreeIndexFrameFactory deleteLeafFrameFactory, ILSMIndexFileManager fileManager,
+            TreeIndexFactory<BTree> diskBTreeFactory, TreeIndexFactory<BTree> bulkLoadBTreeFactory,
+            BloomFilterFactory bloomFilterFactory, IComponentFilterHelper filterHelper,
+            ILSMComponentFilterFrameFactory filterFrameFactory, LSMComponentFilterManager filterManager,
+            double bloomFilterFalsePositiveRate, int fieldCount, IBinaryComparatorFactory[] cmpFactories,
+            ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
+            boolean durable, int numMergePartitions, ExecutorService mergeExecutor, boolean skipListMemoryComponents)
+            throws HyracksDataException {
         super(ioManager, virtualBufferCaches, diskBTreeFactory.getBufferCache(), fileManager,
                 bloomFilterFalsePositiveRate, mergePolicy, opTracker, ioScheduler, ioOpCallback, filterFrameFactory,
                 filterManager, filterFields, durable, filterHelper, btreeFields);
+        this.interiorFrameFactory = interiorFrameFactory;
         this.insertLeafFrameFactory = insertLeafFrameFactory;
         this.deleteLeafFrameFactory = deleteLeafFrameFactory;
         this.cmpFactories = cmpFactories;
         int i = 0;
         for (IVirtualBufferCache virtualBufferCache : virtualBufferCaches) {
-            LSMBTreeMemoryComponent mutableComponent = new LSMBTreeMemoryComponent(
-                    new BTree(virtualBufferCache, new VirtualFreePageManager(virtualBufferCache), interiorFrameFactory,
-                            insertLeafFrameFactory, cmpFactories, fieldCount,
-                            ioManager.resolveAbsolutePath(fileManager.getBaseDir() + "_virtual_" + i)),
-                    virtualBufferCache, i == 0 ? true : false,
-                    filterHelper == null ? null : filterHelper.createFilter());
+            FileReference virtualFile = ioManager.resolveAbsolutePath(fileManager.getBaseDir() + "_virtual_" + i);
+            ILSMComponentFilter filter = filterHelper == null ? null : filterHelper.createFilter();
+            ILSMMemoryComponent mutableComponent;
+            if (skipListMemoryComponents) {
+                mutableComponent = new LSMBTreeSkipListMemoryComponent(
+                        new MemorySkipList(virtualBufferCache, insertLeafFrameFactory.getTupleWriterFactory(),
+                                deleteLeafFrameFactory.getTupleWriterFactory(), cmpFactories, fieldCount, virtualFile),
+                        virtualBufferCache, i == 0, filter);
+            } else {
+                mutableComponent = new LSMBTreeMemoryComponent(
+                        new BTree(virtualBufferCache, new VirtualFreePageManager(virtualBufferCache),
+                                interiorFrameFactory, insertLeafFrameFactory, cmpFactories, fieldCount, virtualFile),
+                        virtualBufferCache, i == 0 ? true : false, filter);
+            }
             memoryComponents.add(mutableComponent);
             ++i;
         }
@@ -128,6 +180,8 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 new LSMBTreeDiskComponentFactory(bulkLoadBTreeFactory, bloomFilterFactory, filterHelper);
         this.needKeyDupCheck = needKeyDupCheck;
         this.hasBloomFilter = needKeyDupCheck;
+        this.numMergePartitions = mergeExecutor == null ? 1 : numMergePartitions;
+        this.mergeExecutor = mergeExecutor;
     }
 
     // Without memory components
@@ -140,11 +194,14 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             boolean durable) {
         super(ioManager, diskBTreeFactory.getBufferCache(), fileManager, bloomFilterFalsePositiveRate, mergePolicy,
                 opTracker, ioScheduler, ioOpCallback, durable);
+        this.interiorFrameFactory = null;
         this.insertLeafFrameFactory = insertLeafFrameFactory;
         this.deleteLeafFrameFactory = deleteLeafFrameFactory;
         this.cmpFactories = cmpFactories;
         this.needKeyDupCheck = needKeyDupCheck;
         this.hasBloomFilter = true;
+        this.numMergePartitions = 1;
+        this.mergeExecutor = null;
         componentFactory = new LSMBTreeDiskComponentFactory(diskBTreeFactory, bloomFilterFactory, null);
         bulkLoadComponentFactory = new LSMBTreeDiskComponentFactory(bulkLoadBTreeFactory, bloomFilterFactory, null);
     }
@@ -195,24 +252,31 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     @Override
     public void modify(IIndexOperationContext ictx, ITupleReference tuple) throws HyracksDataException {
         LSMBTreeOpContext ctx = (LSMBTreeOpContext) ictx;
+        MemorySkipList.Accessor skipListAccessor = ctx.getCurrentMutableSkipListAccessor();
         ITupleReference indexTuple;
         if (ctx.getIndexTuple() != null) {
             ctx.getIndexTuple().reset(tuple);
             indexTuple = ctx.getIndexTuple();
-            ctx.getCurrentMutableBTreeAccessor().getOpContext().resetNonIndexFieldsTuple(tuple);
+            if (skipListAccessor != null) {
+                skipListAccessor.resetNonIndexFieldsTuple(tuple);
+            } else {
+                ctx.getCurrentMutableBTreeAccessor().getOpContext().resetNonIndexFieldsTuple(tuple);
+            }
         } else {
             indexTuple = tuple;
         }
 
+        IIndexAccessor mutableAccessor =
+                skipListAccessor != null ? skipListAccessor : ctx.getCurrentMutableBTreeAccessor();
         switch (ctx.getOperation()) {
             case PHYSICALDELETE:
-                ctx.getCurrentMutableBTreeAccessor().delete(indexTuple);
+                mutableAccessor.delete(indexTuple);
                 break;
             case INSERT:
                 insert(indexTuple, ctx);
                 break;
             default:
-                ctx.getCurrentMutableBTreeAccessor().upsert(indexTuple);
+                mutableAccessor.upsert(indexTuple);
                 break;
         }
         updateFilter(ctx, tuple);
@@ -224,24 +288,33 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         RangePredicate predicate = (RangePredicate) ctx.getSearchPredicate();
         predicate.setHighKey(tuple);
         predicate.setLowKey(tuple);
+        MemorySkipList.Accessor skipListAccessor = ctx.getCurrentMutableSkipListAccessor();
         if (needKeyDupCheck) {
             // first check the inmemory component
-            ctx.getCurrentMutableBTreeAccessor().search(memCursor, predicate);
-            try {
-                if (memCursor.hasNext()) {
-                    memCursor.next();
-                    LSMBTreeTupleReference lsmbtreeTuple = (LSMBTreeTupleReference) memCursor.getTuple();
-                    if (!lsmbtreeTuple.isAntimatter()) {
-                        throw HyracksDataException.create(ErrorCode.DUPLICATE_KEY);
-                    } else {
-                        memCursor.close();
-                        ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple,
-                                AntimatterAwareTupleAcceptor.INSTANCE);
-                        return true;
+            if (skipListAccessor != null) {
+                if (skipListAccessor.find(tuple) != null) {
+                    // fails on a matter tuple of the key and replaces an antimatter one
+                    skipListAccessor.insert(tuple);
+                    return true;
+                }
+            } else {
+                ctx.getCurrentMutableBTreeAccessor().search(memCursor, predicate);
+                try {
+                    if (memCursor.hasNext()) {
+                        memCursor.next();
+                        LSMBTreeTupleReference lsmbtreeTuple = (LSMBTreeTupleReference) memCursor.getTuple();
+                        if (!lsmbtreeTuple.isAntimatter()) {
+                            throw HyracksDataException.create(ErrorCode.DUPLICATE_KEY);
+                        } else {
+                            memCursor.close();
+                            ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple,
+                                    AntimatterAwareTupleAcceptor.INSTANCE);
+                            return true;
+                        }
                     }
+                } finally {
+                    memCursor.close();
                 }
-            } finally {
-                memCursor.close();
             }
 
             // TODO: Can we just remove the above code that search the mutable
@@ -264,7 +337,12 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 ctx.getComponentHolder().add(0, firstComponent);
             }
         }
-        ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple, AntimatterAwareTupleAcceptor.INSTANCE);
+        if (skipListAccessor != null) {
+            skipListAccessor.insert(tuple);
+        } else {
+            ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple,
+                    AntimatterAwareTupleAcceptor.INSTANCE);
+        }
         return true;
     }
 
@@ -293,24 +371,34 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     @Override
     public ILSMDiskComponent flush(ILSMIOOperation operation) throws HyracksDataException {
         LSMBTreeFlushOperation flushOp = (LSMBTreeFlushOperation) operation;
-        LSMBTreeMemoryComponent flushingComponent = (LSMBTreeMemoryComponent) flushOp.getFlushingComponent();
-        IIndexAccessor accessor = flushingComponent.getBTree().createAccessor(NoOpOperationCallback.INSTANCE,
-                NoOpOperationCallback.INSTANCE);
-
+        ILSMMemoryComponent flushingComponent = (ILSMMemoryComponent) flushOp.getFlushingComponent();
         RangePredicate nullPred = new RangePredicate(null, null, true, true, null, null);
+        IIndexAccessor accessor;
         long numElements = 0L;
-        if (hasBloomFilter) {
-            //count elements in btree for creating Bloomfilter
-            IIndexCursor countingCursor = ((BTreeAccessor) accessor).createCountingSearchCursor();
-            accessor.search(countingCursor, nullPred);
-            try {
-                while (countingCursor.hasNext()) {
-                    countingCursor.next();
-                    ITupleReference countTuple = countingCursor.getTuple();
-                    numElements = IntegerPointable.getInteger(countTuple.getFieldData(0), countTuple.getFieldStart(0));
+        if (flushingComponent instanceof LSMBTreeSkipListMemoryComponent) {
+            // The skip list is scanned in key order, like the memory BTree.
+            MemorySkipList skipList = ((LSMBTreeSkipListMemoryComponent) flushingComponent).getSkipList();
+            accessor = skipList.createAccessor(NoOpOperationCallback.INSTANCE, null);
+            if (hasBloomFilter) {
+                numElements = skipList.getNumElements();
+            }
+        } else {
+            accessor = ((LSMBTreeMemoryComponent) flushingComponent).getBTree()
+                    .createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+            if (hasBloomFilter) {
+                //count elements in btree for creating Bloomfilter
+                IIndexCursor countingCursor = ((BTreeAccessor) accessor).createCountingSearchCursor();
+                accessor.search(countingCursor, nullPred);
+                try {
+                    while (countingCursor.hasNext()) {
+                        countingCursor.next();
+                        ITupleReference countTuple = countingCursor.getTuple();
+                        numElements =
+                                IntegerPointable.getInteger(countTuple.getFieldData(0), countTuple.getFieldStart(0));
+                    }
+                } finally {
+                    countingCursor.close();
                 }
-            } finally {
-                countingCursor.close();
             }
         }
 
@@ -355,10 +443,8 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public ILSMDiskComponent merge(ILSMIOOperation operation) throws HyracksDataException {
         LSMBTreeMergeOperation mergeOp = (LSMBTreeMergeOperation) operation;
         IIndexCursor cursor = mergeOp.getCursor();
-        RangePredicate rangePred = new RangePredicate(null, null, true, true, null, null);
         ILSMIndexOperationContext opCtx = ((LSMIndexSearchCursor) cursor).getOpCtx();
         opCtx.getComponentHolder().addAll(mergeOp.getMergingComponents());
-        search(opCtx, cursor, rangePred);
         List<ILSMComponent> mergedComponents = mergeOp.getMergingComponents();
 
         long numElements = 0L;
@@ -371,30 +457,115 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         LSMBTreeDiskComponent mergedComponent =
                 createDiskComponent(componentFactory, mergeOp.getTarget(), mergeOp.getBloomFilterTarget(), true);
 
-        ILSMDiskComponentBulkLoader componentBulkLoader =
+        LSMBTreeDiskComponentBulkLoader componentBulkLoader = (LSMBTreeDiskComponentBulkLoader)
                 createComponentBulkLoader(mergedComponent, 1.0f, false, numElements, false, false, false);
+
+        // This thread merges the first key range, the others are merged by the merge executor.
+        List<ITupleReference> splitKeys = getMergeSplitKeys(mergedComponents);
+        RangePredicate rangePred = splitKeys.isEmpty() ? new RangePredicate(null, null, true, true, null, null)
+                : new RangePredicate(null, splitKeys.get(0), true, true, null, MultiComparator.create(cmpFactories));
+        List<LSMBTreeMergePartition> partitions = new ArrayList<>();
+        List<Future<Void>> futures = new ArrayList<>();
         try {
-            while (cursor.hasNext()) {
-                cursor.next();
-                ITupleReference frameTuple = cursor.getTuple();
-                componentBulkLoader.add(frameTuple);
+            for (int i = 0; i < splitKeys.size(); i++) {
+                MultiComparator cmp = MultiComparator.create(cmpFactories);
+                RangePredicate partitionPred = new RangePredicate(splitKeys.get(i),
+                        i + 1 < splitKeys.size() ? splitKeys.get(i + 1) : null, false, true, cmp, cmp);
+                LSMBTreeOpContext partitionCtx =
+                        createOpContext(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                partitionCtx.getComponentHolder().addAll(mergedComponents);
+                LSMIndexSearchCursor mergeCursor = (LSMIndexSearchCursor) cursor;
+                LSMBTreeRangeSearchCursor partitionCursor =
+                        new LSMBTreeRangeSearchCursor(partitionCtx, mergeCursor.isReturnDeletedTuples());
+                // the key ranges share the pace of the merge
+                partitionCursor.setMergeThrottle(mergeCursor.getMergeThrottle());
+                partitions.add(new LSMBTreeMergePartition(partitionCtx, partitionCursor, partitionPred,
+                        componentBulkLoader.createRangeLoader()));
+            }
+            for (LSMBTreeMergePartition partition : partitions) {
+                futures.add(mergeExecutor.submit(partition));
+            }
+            search(opCtx, cursor, rangePred);
+            try {
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    ITupleReference frameTuple = cursor.getTuple();
+                    componentBulkLoader.add(frameTuple);
+                }
+            } finally {
+                cursor.close();
+            }
+            for (int i = 0; i < partitions.size(); i++) {
+                awaitMergePartition(futures.get(i));
+                componentBulkLoader.append(partitions.get(i).getRangeLoader());
+            }
+            if (mergedComponent.getLSMComponentFilter() != null) {
+                List<ITupleReference> filterTuples = new ArrayList<>();
+                for (int i = 0; i < mergeOp.getMergingComponents().size(); ++i) {
+                    filterTuples.add(mergeOp.getMergingComponents().get(i).getLSMComponentFilter().getMinTuple());
+                    filterTuples.add(mergeOp.getMergingComponents().get(i).getLSMComponentFilter().getMaxTuple());
+                }
+                getFilterManager().updateFilter(mergedComponent.getLSMComponentFilter(), filterTuples);
+                getFilterManager().writeFilter(mergedComponent.getLSMComponentFilter(), mergedComponent.getBTree());
             }
+
+            componentBulkLoader.end();
+
+            return mergedComponent;
         } finally {
-            cursor.close();
-        }
-        if (mergedComponent.getLSMComponentFilter() != null) {
-            List<ITupleReference> filterTuples = new ArrayList<>();
-            for (int i = 0; i < mergeOp.getMergingComponents().size(); ++i) {
-                filterTuples.add(mergeOp.getMergingComponents().get(i).getLSMComponentFilter().getMinTuple());
-                filterTuples.add(mergeOp.getMergingComponents().get(i).getLSMComponentFilter().getMaxTuple());
+            if (!partitions.isEmpty()) {
+                // the partitions still hold pages of the merging components until their threads are done
+                for (LSMBTreeMergePartition partition : partitions) {
+                    partition.abort();
+                }
+                for (Future<Void> future : futures) {
+                    try {
+                        awaitMergePartition(future);
+                    } catch (HyracksDataException e) {
+                        LOGGER.log(Level.WARNING, "Failure in a merge partition", e);
+                    }
+                }
+                for (LSMBTreeMergePartition partition : partitions) {
+                    partition.cleanup();
+                }
             }
-            getFilterManager().updateFilter(mergedComponent.getLSMComponentFilter(), filterTuples);
-            getFilterManager().writeFilter(mergedComponent.getLSMComponentFilter(), mergedComponent.getBTree());
         }
+    }
 
-        componentBulkLoader.end();
+    /**
+     * @return the keys that split a merge into numMergePartitions key ranges, taken from the root of the largest
+     *         merging component, or an empty list if the merge is not split
+     */
+    private List<ITupleReference> getMergeSplitKeys(List<ILSMComponent> mergingComponents)
+            throws HyracksDataException {
+        if (numMergePartitions <= 1) {
+            return Collections.emptyList();
+        }
+        LSMBTreeDiskComponent largestComponent = null;
+        for (ILSMComponent component : mergingComponents) {
+            LSMBTreeDiskComponent diskComponent = (LSMBTreeDiskComponent) component;
+            if (largestComponent == null || diskComponent.getComponentSize() > largestComponent.getComponentSize()) {
+                largestComponent = diskComponent;
+            }
+        }
+        List<ITupleReference> rootKeys = largestComponent.getBTree().getRootKeys();
+        int numSplitKeys = Math.min(numMergePartitions - 1, rootKeys.size());
+        List<ITupleReference> splitKeys = new ArrayList<>(numSplitKeys);
+        for (int i = 1; i <= numSplitKeys; i++) {
+            splitKeys.add(rootKeys.get(i * rootKeys.size() / (numSplitKeys + 1)));
+        }
+        return splitKeys;
+    }
 
-        return mergedComponent;
+    private static void awaitMergePartition(Future<Void> future) throws HyracksDataException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        } catch (ExecutionException e) {
+            throw HyracksDataException.create(e.getCause());
+        }
     }
 
     protected LSMBTreeDiskComponent createDiskComponent(LSMBTreeDiskComponentFactory factory,
@@ -495,50 +666,62 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     public ITreeIndexFrameFactory getInteriorFrameFactory() {
-        LSMBTreeMemoryComponent mutableComponent =
-                (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
-        return mutableComponent.getBTree().getInteriorFrameFactory();
+        return interiorFrameFactory;
     }
 
     @Override
     public int getFieldCount() {
-        LSMBTreeMemoryComponent mutableComponent =
-                (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
-        return mutableComponent.getBTree().getFieldCount();
+        ILSMMemoryComponent mutableComponent = memoryComponents.get(currentMutableComponentId.get());
+        if (mutableComponent instanceof LSMBTreeSkipListMemoryComponent) {
+            return ((LSMBTreeSkipListMemoryComponent) mutableComponent).getSkipList().getFieldCount();
+        }
+        return ((LSMBTreeMemoryComponent) mutableComponent).getBTree().getFieldCount();
     }
 
     @Override
     public int getFileId() {
-        LSMBTreeMemoryComponent mutableComponent =
-                (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
-        return mutableComponent.getBTree().getFileId();
+        ILSMMemoryComponent mutableComponent = memoryComponents.get(currentMutableComponentId.get());
+        if (mutableComponent instanceof LSMBTreeSkipListMemoryComponent) {
+            return ((LSMBTreeSkipListMemoryComponent) mutableComponent).getSkipList().getFileId();
+        }
+        return ((LSMBTreeMemoryComponent) mutableComponent).getBTree().getFileId();
     }
 
     @Override
     public IPageManager getPageManager() {
-        LSMBTreeMemoryComponent mutableComponent =
-                (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
-        return mutableComponent.getBTree().getPageManager();
+        ILSMMemoryComponent mutableComponent = memoryComponents.get(currentMutableComponentId.get());
+        if (mutableComponent instanceof LSMBTreeSkipListMemoryComponent) {
+            // the pages of a skip list are not managed by a page manager
+            throw new UnsupportedOperationException("The skip list in-memory components of " + this
+                    + " have no page manager");
+        }
+        return ((LSMBTreeMemoryComponent) mutableComponent).getBTree().getPageManager();
     }
 
     @Override
     public ITreeIndexFrameFactory getLeafFrameFactory() {
-        LSMBTreeMemoryComponent mutableComponent =
-                (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
-        return mutableComponent.getBTree().getLeafFrameFactory();
+        ILSMMemoryComponent mutableComponent = memoryComponents.get(currentMutableComponentId.get());
+        if (mutableComponent instanceof LSMBTreeSkipListMemoryComponent) {
+            return insertLeafFrameFactory;
+        }
+        return ((LSMBTreeMemoryComponent) mutableComponent).getBTree().getLeafFrameFactory();
     }
 
     @Override
     public int getRootPageId() {
-        LSMBTreeMemoryComponent mutableComponent =
-                (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
-        return mutableComponent.getBTree().getRootPageId();
+        ILSMMemoryComponent mutableComponent = memoryComponents.get(currentMutableComponentId.get());
+        if (mutableComponent instanceof LSMBTreeSkipListMemoryComponent) {
+            throw new UnsupportedOperationException("The skip list in-memory components of " + this
+                    + " have no root page");
+        }
+        return ((LSMBTreeMemoryComponent) mutableComponent).getBTree().getRootPageId();
     }
 
     @Override
     protected long getMemoryComponentSize(ILSMMemoryComponent c) {
-        LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-        IBufferCache virtualBufferCache = mutableComponent.getBTree().getBufferCache();
+        IBufferCache virtualBufferCache = c instanceof LSMBTreeSkipListMemoryComponent
+                ? ((LSMBTreeSkipListMemoryComponent) c).getSkipList().getBufferCache()
+                : ((LSMBTreeMemoryComponent) c).getBTree().getBufferCache();
         return virtualBufferCache.getNumPages() * (long) virtualBufferCache.getPageSize();
     }
 
@@ -560,6 +743,11 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     protected void clearMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
+        if (c instanceof LSMBTreeSkipListMemoryComponent) {
+            ((LSMBTreeSkipListMemoryComponent) c).getSkipList().clear();
+            c.reset();
+            return;
+        }
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
         mutableComponent.getBTree().clear();
         mutableComponent.reset();
@@ -567,6 +755,10 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     protected void validateMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
+        if (c instanceof LSMBTreeSkipListMemoryComponent) {
+            ((LSMBTreeSkipListMemoryComponent) c).getSkipList().validate();
+            return;
+        }
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
         mutableComponent.getBTree().validate();
     }
@@ -590,6 +782,13 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     protected void deactivateMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
+        if (c instanceof LSMBTreeSkipListMemoryComponent) {
+            MemorySkipList skipList = ((LSMBTreeSkipListMemoryComponent) c).getSkipList();
+            skipList.deactivate();
+            skipList.destroy();
+            skipList.getBufferCache().close();
+            return;
+        }
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
         mutableComponent.getBTree().deactivate();
         mutableComponent.getBTree().destroy();
@@ -598,6 +797,13 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     protected void allocateMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
+        if (c instanceof LSMBTreeSkipListMemoryComponent) {
+            MemorySkipList skipList = ((LSMBTreeSkipListMemoryComponent) c).getSkipList();
+            skipList.getBufferCache().open();
+            skipList.create();
+            skipList.activate();
+            return;
+        }
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
         ((IVirtualBufferCache) mutableComponent.getBTree().getBufferCache()).open();
         mutableComponent.getBTree().create();
@@ -19,12 +19,15 @@
 package org.apache.hyracks.storage.am.lsm.btree.impls;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
+import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeBulkLoader;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilterManager;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMDiskComponentBulkLoader;
 import org.apache.hyracks.storage.common.IIndex;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
 import org.apache.hyracks.storage.common.MultiComparator;
 
 public class LSMBTreeDiskComponentBulkLoader extends AbstractLSMDiskComponentBulkLoader {
@@ -46,6 +49,33 @@ public class LSMBTreeDiskComponentBulkLoader extends AbstractLSMDiskComponentBul
                 cleanupEmptyComponent, null, null, null, null);
     }
 
+    /**
+     * @return a loader of a key range that follows the tuples added to this bulk loader, which may run in a thread of
+     *         its own, see {@link BTreeBulkLoader#createRangeLoader()}
+     */
+    public RangeLoader createRangeLoader() throws HyracksDataException {
+        if (filterTuple != null) {
+            throw new IllegalStateException("Key ranges cannot be loaded into a component with a filter");
+        }
+        return new RangeLoader(((BTreeBulkLoader) indexBulkLoader).createRangeLoader());
+    }
+
+    /**
+     * Makes a completely loaded key range part of the component. Ranges are appended in key order, after all the
+     * tuples added to this bulk loader.
+     */
+    public void append(RangeLoader rangeLoader) throws HyracksDataException {
+        try {
+            ((BTreeBulkLoader) indexBulkLoader).append(rangeLoader.btreeRangeLoader);
+        } catch (Exception e) {
+            cleanupArtifacts();
+            throw e;
+        }
+        if (!rangeLoader.isEmpty) {
+            isEmptyComponent = false;
+        }
+    }
+
     @Override
     protected BloomFilter getBloomFilter(ILSMDiskComponent component) {
         return ((LSMBTreeDiskComponent) component).getBloomFilter();
@@ -56,4 +86,35 @@ public class LSMBTreeDiskComponentBulkLoader extends AbstractLSMDiskComponentBul
         return ((LSMBTreeDiskComponent) component).getBTree();
     }
 
+    /**
+     * Adds the tuples of a key range to the leaves of the range and to the bloom filter of the component.
+     */
+    public class RangeLoader implements IIndexBulkLoader {
+        private final BTreeBulkLoader.RangeLoader btreeRangeLoader;
+        private boolean isEmpty = true;
+
+        private RangeLoader(BTreeBulkLoader.RangeLoader btreeRangeLoader) {
+            this.btreeRangeLoader = btreeRangeLoader;
+        }
+
+        @Override
+        public void add(ITupleReference tuple) throws HyracksDataException {
+            btreeRangeLoader.add(tuple);
+            if (bloomFilterBuilder != null) {
+                bloomFilterBuilder.add(tuple);
+            }
+            isEmpty = false;
+        }
+
+        @Override
+        public void end() throws HyracksDataException {
+            btreeRangeLoader.end();
+        }
+
+        @Override
+        public void abort() throws HyracksDataException {
+            btreeRangeLoader.abort();
+        }
+    }
+
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.util.concurrent.Callable;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeDiskComponentBulkLoader.RangeLoader;
+import org.apache.hyracks.storage.common.IIndexCursor;
+
+/**
+ * Merges one key range of the merging components into the leaves of the merged component. The ranges after the first
+ * one are merged by threads of their own, each loading leaves of its own, and then appended to the merged component
+ * in key order.
+ */
+class LSMBTreeMergePartition implements Callable<Void> {
+    private final LSMBTreeOpContext opCtx;
+    private final IIndexCursor cursor;
+    private final RangePredicate rangePred;
+    private final RangeLoader rangeLoader;
+    private volatile boolean aborted = false;
+
+    LSMBTreeMergePartition(LSMBTreeOpContext opCtx, IIndexCursor cursor, RangePredicate rangePred,
+            RangeLoader rangeLoader) {
+        this.opCtx = opCtx;
+        this.cursor = cursor;
+        this.rangePred = rangePred;
+        this.rangeLoader = rangeLoader;
+    }
+
+    @Override
+    public Void call() throws HyracksDataException {
+        opCtx.getSearchInitialState().reset(rangePred, opCtx.getComponentHolder());
+        cursor.open(opCtx.getSearchInitialState(), rangePred);
+        try {
+            while (!aborted && cursor.hasNext()) {
+                cursor.next();
+                rangeLoader.add(cursor.getTuple());
+            }
+        } finally {
+            cursor.close();
+        }
+        rangeLoader.end();
+        return null;
+    }
+
+    /**
+     * Makes a running merge of this partition stop at its next tuple.
+     */
+    void abort() {
+        aborted = true;
+    }
+
+    RangeLoader getRangeLoader() {
+        return rangeLoader;
+    }
+
+    /**
+     * Releases the leaf that is held by the range loader if the partition has not been appended.
+     */
+    void cleanup() throws HyracksDataException {
+        rangeLoader.abort();
+    }
+}
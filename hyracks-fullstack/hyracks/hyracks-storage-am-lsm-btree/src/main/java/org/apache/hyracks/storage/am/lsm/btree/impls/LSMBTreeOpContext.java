@@ -49,6 +49,8 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     private final BTree[] mutableBTrees;
     private final BTree.BTreeAccessor[] mutableBTreeAccessors;
     private final BTreeOpContext[] mutableBTreeOpCtxs;
+    // The accessors of the in-memory components that are skip lists, null for the ones that are BTrees
+    private final MemorySkipList.Accessor[] mutableSkipListAccessors;
     private final MultiComparator cmp;
     private final MultiComparator bloomFilterCmp;
     private final BTreeRangeSearchCursor memCursor;
@@ -59,27 +61,36 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
      */
     private BTree.BTreeAccessor currentMutableBTreeAccessor;
     private BTreeOpContext currentMutableBTreeOpCtx;
+    private MemorySkipList.Accessor currentMutableSkipListAccessor;
 
     public LSMBTreeOpContext(List<ILSMMemoryComponent> mutableComponents, ITreeIndexFrameFactory insertLeafFrameFactory,
             ITreeIndexFrameFactory deleteLeafFrameFactory, IModificationOperationCallback modificationCallback,
             ISearchOperationCallback searchCallback, int numBloomFilterKeyFields, int[] btreeFields, int[] filterFields,
             ILSMHarness lsmHarness, IBinaryComparatorFactory[] filterCmpFactories) {
         super(btreeFields, filterFields, filterCmpFactories, searchCallback, modificationCallback);
-        LSMBTreeMemoryComponent c = (LSMBTreeMemoryComponent) mutableComponents.get(0);
-        IBinaryComparatorFactory cmpFactories[] = c.getBTree().getComparatorFactories();
+        ILSMMemoryComponent c = mutableComponents.get(0);
+        IBinaryComparatorFactory cmpFactories[] = c instanceof LSMBTreeSkipListMemoryComponent
+                ? ((LSMBTreeSkipListMemoryComponent) c).getSkipList().getComparatorFactories()
+                : ((LSMBTreeMemoryComponent) c).getBTree().getComparatorFactories();
         if (cmpFactories[0] != null) {
-            this.cmp = MultiComparator.create(c.getBTree().getComparatorFactories());
+            this.cmp = MultiComparator.create(cmpFactories);
         } else {
             this.cmp = null;
         }
 
-        bloomFilterCmp = numBloomFilterKeyFields == 0 ? null
-                : MultiComparator.create(c.getBTree().getComparatorFactories(), 0, numBloomFilterKeyFields);
+        bloomFilterCmp =
+                numBloomFilterKeyFields == 0 ? null : MultiComparator.create(cmpFactories, 0, numBloomFilterKeyFields);
 
         mutableBTrees = new BTree[mutableComponents.size()];
         mutableBTreeAccessors = new BTree.BTreeAccessor[mutableComponents.size()];
         mutableBTreeOpCtxs = new BTreeOpContext[mutableComponents.size()];
+        mutableSkipListAccessors = new MemorySkipList.Accessor[mutableComponents.size()];
         for (int i = 0; i < mutableComponents.size(); i++) {
+            if (mutableComponents.get(i) instanceof LSMBTreeSkipListMemoryComponent) {
+                mutableSkipListAccessors[i] = ((LSMBTreeSkipListMemoryComponent) mutableComponents.get(i))
+                        .getSkipList().createAccessor(modificationCallback, allFields);
+                continue;
+            }
             LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) mutableComponents.get(i);
             mutableBTrees[i] = mutableComponent.getBTree();
             if (allFields != null) {
@@ -116,11 +127,19 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     }
 
     public void setInsertMode() {
+        if (currentMutableSkipListAccessor != null) {
+            currentMutableSkipListAccessor.setInsertMode();
+            return;
+        }
         currentMutableBTreeOpCtx.setLeafFrame(insertLeafFrame);
         currentMutableBTreeOpCtx.setLeafFrameFactory(insertLeafFrameFactory);
     }
 
     public void setDeleteMode() {
+        if (currentMutableSkipListAccessor != null) {
+            currentMutableSkipListAccessor.setDeleteMode();
+            return;
+        }
         currentMutableBTreeOpCtx.setLeafFrame(deleteLeafFrame);
         currentMutableBTreeOpCtx.setLeafFrameFactory(deleteLeafFrameFactory);
     }
@@ -129,6 +148,7 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     public void setCurrentMutableComponentId(int currentMutableComponentId) {
         setCurrentMutableBTreeAccessor(mutableBTreeAccessors[currentMutableComponentId]);
         currentMutableBTreeOpCtx = mutableBTreeOpCtxs[currentMutableComponentId];
+        currentMutableSkipListAccessor = mutableSkipListAccessors[currentMutableComponentId];
         switch (op) {
             case SEARCH:
             case DISKORDERSCAN:
@@ -152,6 +172,13 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
         return currentMutableBTreeAccessor;
     }
 
+    /**
+     * @return the accessor of the current in-memory component if it is a skip list, null if it is a BTree
+     */
+    public MemorySkipList.Accessor getCurrentMutableSkipListAccessor() {
+        return currentMutableSkipListAccessor;
+    }
+
     public void setCurrentMutableBTreeAccessor(BTree.BTreeAccessor currentMutableBTreeAccessor) {
         this.currentMutableBTreeAccessor = currentMutableBTreeAccessor;
     }
@@ -38,19 +38,21 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.impls.BloomFilterAwareBTreePointSearchCursor;
 import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.ISearchOperationCallback;
 import org.apache.hyracks.storage.common.ISearchPredicate;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
 public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
 
-    private BTreeRangeSearchCursor[] rangeCursors;
+    private IIndexCursor[] rangeCursors;
     private final ILSMIndexOperationContext opCtx;
     private ISearchOperationCallback searchCallback;
     private RangePredicate predicate;
     private boolean includeMutableComponent;
     private int numBTrees;
-    private BTreeAccessor[] btreeAccessors;
+    private IIndexAccessor[] btreeAccessors;
     private ILSMHarness lsmHarness;
     private boolean nextHasBeenCalled;
     private boolean foundTuple;
@@ -159,18 +161,32 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
         numBTrees = operationalComponents.size();
         if (rangeCursors == null || rangeCursors.length != numBTrees) {
             // object creation: should be relatively low
-            rangeCursors = new BTreeRangeSearchCursor[numBTrees];
-            btreeAccessors = new BTreeAccessor[numBTrees];
+            rangeCursors = new IIndexCursor[numBTrees];
+            btreeAccessors = new IIndexAccessor[numBTrees];
         }
         includeMutableComponent = false;
 
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
             BTree btree;
-            if (component.getType() == LSMComponentType.MEMORY) {
+            if (component instanceof LSMBTreeSkipListMemoryComponent) {
+                includeMutableComponent = true;
+                MemorySkipList skipList = ((LSMBTreeSkipListMemoryComponent) component).getSkipList();
+                if (!(btreeAccessors[i] instanceof MemorySkipList.Accessor)
+                        || ((MemorySkipList.Accessor) btreeAccessors[i]).getSkipList() != skipList) {
+                    btreeAccessors[i] = skipList.createAccessor(NoOpOperationCallback.INSTANCE, null);
+                }
+                if (rangeCursors[i] instanceof MemorySkipListSearchCursor) {
+                    rangeCursors[i].reset();
+                } else {
+                    rangeCursors[i] = btreeAccessors[i].createSearchCursor(false);
+                }
+                continue;
+            } else if (component.getType() == LSMComponentType.MEMORY) {
                 includeMutableComponent = true;
                 // No need for a bloom filter for the in-memory BTree.
-                if (rangeCursors[i] == null || rangeCursors[i].isBloomFilterAware()) {
+                if (!(rangeCursors[i] instanceof BTreeRangeSearchCursor)
+                        || ((BTreeRangeSearchCursor) rangeCursors[i]).isBloomFilterAware()) {
                     // create a new one
                     IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
                     rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
@@ -180,7 +196,8 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
                 }
                 btree = ((LSMBTreeMemoryComponent) component).getBTree();
             } else {
-                if (rangeCursors[i] != null && rangeCursors[i].isBloomFilterAware()) {
+                if (rangeCursors[i] instanceof BTreeRangeSearchCursor
+                        && ((BTreeRangeSearchCursor) rangeCursors[i]).isBloomFilterAware()) {
                     // can re-use cursor
                     ((BloomFilterAwareBTreePointSearchCursor) rangeCursors[i])
                             .resetBloomFilter(((LSMBTreeDiskComponent) component).getBloomFilter());
@@ -193,12 +210,13 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
                 }
                 btree = ((LSMBTreeDiskComponent) component).getBTree();
             }
-            if (btreeAccessors[i] == null) {
-                btreeAccessors[i] = (BTreeAccessor) btree.createAccessor(NoOpOperationCallback.INSTANCE,
+            if (btreeAccessors[i] instanceof BTreeAccessor) {
+                // re-use
+                ((BTreeAccessor) btreeAccessors[i]).reset(btree, NoOpOperationCallback.INSTANCE,
                         NoOpOperationCallback.INSTANCE);
             } else {
-                // re-use
-                btreeAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
             }
         }
         nextHasBeenCalled = false;
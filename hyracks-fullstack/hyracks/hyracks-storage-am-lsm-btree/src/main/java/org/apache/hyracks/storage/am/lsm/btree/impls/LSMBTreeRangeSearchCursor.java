@@ -36,6 +36,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentTy
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMIndexSearchCursor;
 import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.IIndexAccessor;
 import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.ISearchOperationCallback;
 import org.apache.hyracks.storage.common.ISearchPredicate;
@@ -46,7 +47,7 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
 
     private ISearchOperationCallback searchCallback;
     private RangePredicate predicate;
-    private BTreeAccessor[] btreeAccessors;
+    private IIndexAccessor[] btreeAccessors;
     private ArrayTupleBuilder tupleBuilder;
     private boolean canCallProceed = true;
     private boolean resultOfSearchCallBackProceed = false;
@@ -219,18 +220,32 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         reusablePred.setLowKeyComparator(cmp);
         reusablePred.setHighKey(predicate.getHighKey(), predicate.isHighKeyInclusive());
         reusablePred.setHighKeyComparator(predicate.getHighKeyComparator());
+        reusablePred.setZoneMapRange(predicate.getZoneMapLowKey(), predicate.getZoneMapHighKey());
         includeMutableComponent = false;
 
         int numBTrees = operationalComponents.size();
         if (rangeCursors == null || rangeCursors.length != numBTrees) {
             // object creation: should be relatively low
             rangeCursors = new IIndexCursor[numBTrees];
-            btreeAccessors = new BTreeAccessor[numBTrees];
+            btreeAccessors = new IIndexAccessor[numBTrees];
         }
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
+            if (component instanceof LSMBTreeSkipListMemoryComponent) {
+                includeMutableComponent = true;
+                MemorySkipList skipList = ((LSMBTreeSkipListMemoryComponent) component).getSkipList();
+                if (!(btreeAccessors[i] instanceof MemorySkipList.Accessor)
+                        || ((MemorySkipList.Accessor) btreeAccessors[i]).getSkipList() != skipList) {
+                    btreeAccessors[i] = skipList.createAccessor(NoOpOperationCallback.INSTANCE, null);
+                }
+                if (!(rangeCursors[i] instanceof MemorySkipListSearchCursor)) {
+                    rangeCursors[i] = btreeAccessors[i].createSearchCursor(false);
+                }
+                btreeAccessors[i].search(rangeCursors[i], searchPred);
+                continue;
+            }
             BTree btree;
-            if (rangeCursors[i] == null) {
+            if (rangeCursors[i] == null || rangeCursors[i] instanceof MemorySkipListSearchCursor) {
                 // create, should be relatively rare
                 IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
                 rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
@@ -245,12 +260,13 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
                 btree = ((LSMBTreeDiskComponent) component).getBTree();
             }
 
-            if (btreeAccessors[i] == null) {
-                btreeAccessors[i] = (BTreeAccessor) btree.createAccessor(NoOpOperationCallback.INSTANCE,
+            if (!(btreeAccessors[i] instanceof BTreeAccessor)) {
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
                         NoOpOperationCallback.INSTANCE);
             } else {
                 // re-use
-                btreeAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                ((BTreeAccessor) btreeAccessors[i]).reset(btree, NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
             }
             btreeAccessors[i].search(rangeCursors[i], searchPred);
         }
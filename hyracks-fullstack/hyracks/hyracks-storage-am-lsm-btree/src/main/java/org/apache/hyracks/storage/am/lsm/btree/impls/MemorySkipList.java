@@ -0,0 +1,431 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriter;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriterFactory;
+import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.IModificationOperationCallback;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * The index of an in-memory component of an LSMBTree that orders its tuples with a concurrent skip list instead of a
+ * BTree. The tuples are kept in the pages of the virtual buffer cache of the component. They are written by the tuple
+ * writers of the LSM leaf frames, so they carry the antimatter bit. Only the skip list nodes that point to the tuples
+ * are kept on the heap, and an estimate of their size is charged to the budget of the virtual buffer cache.
+ * Writers don't latch any page: the space of a tuple is taken from the current page with an atomic add, and the tuple
+ * is published by a compare-and-set in the skip list. A new version of a key is written as a new tuple, which replaces
+ * the older one in the skip list. The space of the older one is reclaimed when the component is reset after its flush.
+ * Searches walk the skip list without latches.
+ * Like for the memory BTree, the modifications of a key are serialized by the locks of the caller, and the modification
+ * callbacks are called before the tuple is published.
+ */
+public class MemorySkipList {
+    // An estimate of the heap bytes of an entry of the skip list: its node, its share of the index nodes and its slot
+    private static final int ENTRY_BYTES = 80;
+    private final IVirtualBufferCache bufferCache;
+    private final ITreeIndexTupleWriterFactory insertTupleWriterFactory;
+    private final ITreeIndexTupleWriterFactory deleteTupleWriterFactory;
+    private final IBinaryComparatorFactory[] cmpFactories;
+    private final int fieldCount;
+    private final FileReference file;
+    // The comparators may keep state, so each thread compares the keys with comparators of its own.
+    private final ThreadLocal<TupleSlotComparator> comparators;
+    // Maps the first version of each key to its latest version
+    private final ConcurrentSkipListMap<TupleSlot, TupleSlot> tuples;
+    // The pages of the tuples, guarded by this
+    private final List<ICachedPage> pages = new ArrayList<>();
+    private volatile Region region;
+    private int fileId = -1;
+    private boolean isActive = false;
+
+    public MemorySkipList(IVirtualBufferCache bufferCache, ITreeIndexTupleWriterFactory insertTupleWriterFactory,
+            ITreeIndexTupleWriterFactory deleteTupleWriterFactory, IBinaryComparatorFactory[] cmpFactories,
+            int fieldCount, FileReference file) {
+        this.bufferCache = bufferCache;
+        this.insertTupleWriterFactory = insertTupleWriterFactory;
+        this.deleteTupleWriterFactory = deleteTupleWriterFactory;
+        this.cmpFactories = cmpFactories;
+        this.fieldCount = fieldCount;
+        this.file = file;
+        this.comparators = ThreadLocal.withInitial(TupleSlotComparator::new);
+        this.tuples = new ConcurrentSkipListMap<>((slotA, slotB) -> comparators.get().compare(slotA, slotB));
+    }
+
+    public synchronized void create() throws HyracksDataException {
+        if (isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_ACTIVE_INDEX);
+        }
+        fileId = bufferCache.createFile(file);
+    }
+
+    public synchronized void activate() throws HyracksDataException {
+        if (isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_ACTIVATE_ACTIVE_INDEX);
+        }
+        if (fileId >= 0) {
+            bufferCache.openFile(fileId);
+        } else {
+            fileId = bufferCache.openFile(file);
+        }
+        isActive = true;
+    }
+
+    public synchronized void clear() throws HyracksDataException {
+        if (!isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_CLEAR_INACTIVE_INDEX);
+        }
+        tuples.clear();
+        releasePages();
+    }
+
+    public synchronized void deactivate() throws HyracksDataException {
+        if (!isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_DEACTIVATE_INACTIVE_INDEX);
+        }
+        bufferCache.closeFile(fileId);
+        isActive = false;
+    }
+
+    public synchronized void destroy() throws HyracksDataException {
+        if (isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_DESTROY_ACTIVE_INDEX);
+        }
+        tuples.clear();
+        releasePages();
+        bufferCache.deleteFile(file);
+        fileId = -1;
+    }
+
+    public void validate() throws HyracksDataException {
+        TupleSlotComparator cmp = comparators.get();
+        TupleSlot previous = null;
+        for (TupleSlot slot : tuples.values()) {
+            if (previous != null && cmp.compare(previous, slot) >= 0) {
+                throw new HyracksDataException("The tuples of the memory skip list are out of order");
+            }
+            previous = slot;
+        }
+    }
+
+    /**
+     * @return the number of keys, which is computed by a traversal of the skip list
+     */
+    public long getNumElements() {
+        return tuples.size();
+    }
+
+    public IVirtualBufferCache getBufferCache() {
+        return bufferCache;
+    }
+
+    public FileReference getFileReference() {
+        return file;
+    }
+
+    public int getFileId() {
+        return fileId;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public IBinaryComparatorFactory[] getComparatorFactories() {
+        return cmpFactories;
+    }
+
+    /**
+     * @param logTupleFields
+     *            the fields of the tuples that are passed to the modification callback, if they are not the fields of
+     *            the skip list, e.g. for a filtered index. May be null.
+     */
+    public Accessor createAccessor(IModificationOperationCallback modificationCallback, int[] logTupleFields) {
+        return new Accessor(modificationCallback, logTupleFields);
+    }
+
+    private TupleSlot write(ITreeIndexTupleWriter tupleWriter, ITupleReference tuple) throws HyracksDataException {
+        int size = tupleWriter.bytesRequired(tuple);
+        while (true) {
+            Region current = region;
+            if (current != null) {
+                int offset = current.freeOffset.getAndAdd(size);
+                if (offset <= current.buf.length - size) {
+                    tupleWriter.writeTuple(tuple, current.buf, offset);
+                    // the entries live on the heap, so they are charged to the budget of the buffer cache
+                    bufferCache.charge(ENTRY_BYTES);
+                    return new TupleSlot(current.buf, offset);
+                }
+            }
+            nextRegion(current, size);
+        }
+    }
+
+    private synchronized void nextRegion(Region full, int size) throws HyracksDataException {
+        if (region != full) {
+            // Another writer has already moved on to a new page.
+            return;
+        }
+        ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pages.size()), true);
+        pages.add(page);
+        int multiplier = (size + bufferCache.getPageSize() - 1) / bufferCache.getPageSize();
+        if (multiplier > page.getFrameSizeMultiplier()) {
+            // A tuple that doesn't fit into a page gets a large page.
+            bufferCache.resizePage(page, multiplier, null);
+        }
+        region = new Region(page.getBuffer().array());
+    }
+
+    private synchronized void releasePages() throws HyracksDataException {
+        // The pages are kept by the buffer cache until the file is deleted, and are reused once the skip list is
+        // cleared.
+        for (ICachedPage page : pages) {
+            bufferCache.unpin(page);
+        }
+        pages.clear();
+        region = null;
+    }
+
+    Iterator<TupleSlot> iterator(ITupleReference lowKey, boolean lowKeyInclusive) {
+        if (lowKey == null) {
+            return tuples.values().iterator();
+        }
+        TupleSlot searchKey = new TupleSlot(lowKey);
+        TupleSlot first = lowKeyInclusive ? tuples.ceilingKey(searchKey) : tuples.higherKey(searchKey);
+        return first == null ? Collections.emptyIterator() : tuples.tailMap(first, true).values().iterator();
+    }
+
+    /**
+     * A tuple in the pages of the skip list, or a search key.
+     */
+    static final class TupleSlot {
+        private final byte[] buf;
+        private final int offset;
+        private final ITupleReference key;
+
+        private TupleSlot(byte[] buf, int offset) {
+            this.buf = buf;
+            this.offset = offset;
+            this.key = null;
+        }
+
+        private TupleSlot(ITupleReference key) {
+            this.buf = null;
+            this.offset = -1;
+            this.key = key;
+        }
+
+        ITupleReference getTuple(ITreeIndexTupleReference tupleRef) {
+            if (key != null) {
+                return key;
+            }
+            tupleRef.resetByTupleOffset(buf, offset);
+            return tupleRef;
+        }
+    }
+
+    /**
+     * The space of a page that is left to the writers
+     */
+    private static final class Region {
+        private final byte[] buf;
+        private final AtomicInteger freeOffset = new AtomicInteger();
+
+        private Region(byte[] buf) {
+            this.buf = buf;
+        }
+    }
+
+    /**
+     * Compares the key fields that two tuples have in common, so that a search key can be a prefix of the key.
+     */
+    private class TupleSlotComparator {
+        private final IBinaryComparator[] cmps = new IBinaryComparator[cmpFactories.length];
+        private final ITreeIndexTupleReference tupleA = insertTupleWriterFactory.createTupleWriter()
+                .createTupleReference();
+        private final ITreeIndexTupleReference tupleB = insertTupleWriterFactory.createTupleWriter()
+                .createTupleReference();
+
+        private TupleSlotComparator() {
+            for (int i = 0; i < cmps.length; i++) {
+                cmps[i] = cmpFactories[i].createBinaryComparator();
+            }
+        }
+
+        private int compare(TupleSlot slotA, TupleSlot slotB) {
+            ITupleReference a = slotA.getTuple(tupleA);
+            ITupleReference b = slotB.getTuple(tupleB);
+            int numFields = Math.min(cmps.length, Math.min(a.getFieldCount(), b.getFieldCount()));
+            try {
+                for (int i = 0; i < numFields; i++) {
+                    int c = cmps[i].compare(a.getFieldData(i), a.getFieldStart(i), a.getFieldLength(i),
+                            b.getFieldData(i), b.getFieldStart(i), b.getFieldLength(i));
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+            } catch (HyracksDataException e) {
+                throw new IllegalArgumentException(e);
+            }
+            return 0;
+        }
+    }
+
+    public class Accessor implements IIndexAccessor {
+        private final IModificationOperationCallback modificationCallback;
+        private final ITreeIndexTupleWriter insertTupleWriter;
+        private final ITreeIndexTupleWriter deleteTupleWriter;
+        private final ITreeIndexTupleReference beforeTuple;
+        // Optional, for filtered LSM Index transaction support
+        private final PermutingTupleReference tupleWithNonIndexFields;
+        private ITreeIndexTupleWriter tupleWriter;
+
+        private Accessor(IModificationOperationCallback modificationCallback, int[] logTupleFields) {
+            this.modificationCallback = modificationCallback;
+            this.insertTupleWriter = insertTupleWriterFactory.createTupleWriter();
+            this.deleteTupleWriter = deleteTupleWriterFactory.createTupleWriter();
+            this.beforeTuple = insertTupleWriter.createTupleReference();
+            this.tupleWithNonIndexFields = logTupleFields == null ? null : new PermutingTupleReference(logTupleFields);
+            this.tupleWriter = insertTupleWriter;
+        }
+
+        /**
+         * Makes the following modifications write matter tuples.
+         */
+        public void setInsertMode() {
+            tupleWriter = insertTupleWriter;
+        }
+
+        /**
+         * Makes the following modifications write antimatter tuples.
+         */
+        public void setDeleteMode() {
+            tupleWriter = deleteTupleWriter;
+        }
+
+        public void resetNonIndexFieldsTuple(ITupleReference newValue) {
+            tupleWithNonIndexFields.reset(newValue);
+        }
+
+        /**
+         * Inserts a tuple, which replaces the tuple of the same key if that one is an antimatter tuple.
+         *
+         * @throws HyracksDataException
+         *             if there is a matter tuple with the same key
+         */
+        @Override
+        public void insert(ITupleReference tuple) throws HyracksDataException {
+            modificationCallback.before(tuple);
+            TupleSlot before = tuples.get(new TupleSlot(tuple));
+            if (before != null && !isAntimatter(before)) {
+                throw HyracksDataException.create(ErrorCode.DUPLICATE_KEY);
+            }
+            found(before, tuple);
+            TupleSlot after = write(tupleWriter, tuple);
+            if (before == null ? tuples.putIfAbsent(after, after) != null : !tuples.replace(before, before, after)) {
+                throw HyracksDataException.create(ErrorCode.DUPLICATE_KEY);
+            }
+        }
+
+        @Override
+        public void update(ITupleReference tuple) throws HyracksDataException {
+            modificationCallback.before(tuple);
+            TupleSlot before = tuples.get(new TupleSlot(tuple));
+            if (before == null) {
+                throw HyracksDataException.create(ErrorCode.UPDATE_OR_DELETE_NON_EXISTENT_KEY);
+            }
+            found(before, tuple);
+            tuples.put(before, write(tupleWriter, tuple));
+        }
+
+        /**
+         * Removes the tuple of a key, without leaving an antimatter tuple behind.
+         */
+        @Override
+        public void delete(ITupleReference tuple) throws HyracksDataException {
+            modificationCallback.before(tuple);
+            TupleSlot before = tuples.get(new TupleSlot(tuple));
+            if (before == null) {
+                throw HyracksDataException.create(ErrorCode.UPDATE_OR_DELETE_NON_EXISTENT_KEY);
+            }
+            found(before, tuple);
+            tuples.remove(before);
+        }
+
+        @Override
+        public void upsert(ITupleReference tuple) throws HyracksDataException {
+            modificationCallback.before(tuple);
+            found(tuples.get(new TupleSlot(tuple)), tuple);
+            TupleSlot after = write(tupleWriter, tuple);
+            // The first version of the key stays the key of the skip list.
+            tuples.put(after, after);
+        }
+
+        /**
+         * @return the latest version of the tuple of a key, which is valid until the next call, or null
+         */
+        public ITupleReference find(ITupleReference key) {
+            TupleSlot slot = tuples.get(new TupleSlot(key));
+            return slot == null ? null : slot.getTuple(beforeTuple);
+        }
+
+        @Override
+        public IIndexCursor createSearchCursor(boolean exclusive) {
+            return new MemorySkipListSearchCursor(MemorySkipList.this, insertTupleWriter.createTupleReference());
+        }
+
+        @Override
+        public void search(IIndexCursor cursor, ISearchPredicate searchPred) throws HyracksDataException {
+            cursor.open(null, searchPred);
+        }
+
+        MemorySkipList getSkipList() {
+            return MemorySkipList.this;
+        }
+
+        private boolean isAntimatter(TupleSlot slot) {
+            return ((ILSMTreeTupleReference) slot.getTuple(beforeTuple)).isAntimatter();
+        }
+
+        private void found(TupleSlot before, ITupleReference tuple) throws HyracksDataException {
+            modificationCallback.found(before == null ? null : before.getTuple(beforeTuple),
+                    tupleWithNonIndexFields == null ? tuple : tupleWithNonIndexFields);
+        }
+    }
+}
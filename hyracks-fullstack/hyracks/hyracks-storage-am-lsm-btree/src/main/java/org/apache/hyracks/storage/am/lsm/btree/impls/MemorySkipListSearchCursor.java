@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.util.Iterator;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.lsm.btree.impls.MemorySkipList.TupleSlot;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * A range search of a {@link MemorySkipList}. It returns each key at the version that is the latest when the search
+ * reaches it. The tuples stay valid until the skip list is cleared.
+ */
+public class MemorySkipListSearchCursor implements IIndexCursor {
+    private final MemorySkipList skipList;
+    private final ITreeIndexTupleReference frameTuple;
+    private Iterator<TupleSlot> slots;
+    private ITupleReference highKey;
+    private MultiComparator highKeyCmp;
+    private boolean highKeyInclusive;
+    private boolean hasNext = false;
+
+    MemorySkipListSearchCursor(MemorySkipList skipList, ITreeIndexTupleReference frameTuple) {
+        this.skipList = skipList;
+        this.frameTuple = frameTuple;
+    }
+
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        RangePredicate pred = (RangePredicate) searchPred;
+        slots = skipList.iterator(pred.getLowKey(), pred.isLowKeyInclusive());
+        highKey = pred.getHighKey();
+        highKeyCmp = pred.getHighKeyComparator();
+        highKeyInclusive = pred.isHighKeyInclusive();
+        hasNext = false;
+    }
+
+    @Override
+    public boolean hasNext() throws HyracksDataException {
+        if (hasNext) {
+            return true;
+        }
+        if (slots == null || !slots.hasNext()) {
+            return false;
+        }
+        slots.next().getTuple(frameTuple);
+        if (highKey != null) {
+            int c = highKeyCmp.compare(highKey, frameTuple);
+            if (c < 0 || (c == 0 && !highKeyInclusive)) {
+                slots = null;
+                return false;
+            }
+        }
+        hasNext = true;
+        return true;
+    }
+
+    @Override
+    public void next() throws HyracksDataException {
+        hasNext = false;
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        reset();
+    }
+
+    @Override
+    public void reset() throws HyracksDataException {
+        slots = null;
+        hasNext = false;
+    }
+
+    @Override
+    public ITupleReference getTuple() {
+        return frameTuple;
+    }
+
+    @Override
+    public ITupleReference getFilterMinTuple() {
+        return null;
+    }
+
+    @Override
+    public ITupleReference getFilterMaxTuple() {
+        return null;
+    }
+}
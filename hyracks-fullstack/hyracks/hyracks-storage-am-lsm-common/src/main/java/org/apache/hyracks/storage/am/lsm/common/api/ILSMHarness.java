@@ -163,6 +163,11 @@ public interface ILSMHarness {
      */
     ILSMOperationTracker getOperationTracker();
 
+    /**
+     * Get index merge policy
+     */
+    ILSMMergePolicy getMergePolicy();
+
     /**
      * Schedule replication
      *
@@ -19,6 +19,7 @@
 package org.apache.hyracks.storage.am.lsm.common.api;
 
 import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.hyracks.api.application.INCServiceContext;
 
@@ -28,4 +29,18 @@ import org.apache.hyracks.api.application.INCServiceContext;
 @FunctionalInterface
 public interface ILSMIOOperationSchedulerProvider extends Serializable {
     ILSMIOOperationScheduler getIoScheduler(INCServiceContext ctx);
+
+    /**
+     * @return the number of key ranges that a merge is split into, each merged by a thread of the merge executor
+     */
+    default int getNumMergePartitions(INCServiceContext ctx) {
+        return 1;
+    }
+
+    /**
+     * @return the executor that merges the key ranges of split merges, or null if merges are not split
+     */
+    default ExecutorService getMergeExecutor(INCServiceContext ctx) {
+        return null;
+    }
 }
@@ -54,4 +54,27 @@ public interface ILSMMergePolicy {
      * @throws IndexException
      */
     boolean isMergeLagging(ILSMIndex index) throws HyracksDataException;
+
+    /**
+     * Observes a disk component that was added to the index, so that the policy can account for the bytes that
+     * its merges write.
+     *
+     * @param component
+     *            the new disk component
+     * @param isMerge
+     *            true if the component is the result of a merge, false if it was flushed or bulk loaded
+     */
+    default void diskComponentWritten(ILSMDiskComponent component, boolean isMerge) {
+        // no accounting by default
+    }
+
+    /**
+     * Observes a search of the index, so that the policy can account for the components that a lookup reads.
+     *
+     * @param numComponents
+     *            the number of (memory and disk) components that the search accesses
+     */
+    default void componentsSearched(int numComponents) {
+        // no accounting by default
+    }
 }
@@ -29,5 +29,14 @@ public interface IVirtualBufferCache extends IBufferCache {
 
     void reset();
 
+    /**
+     * Charges memory that a component holds outside the pages of the cache, such as the nodes of a skip list, to the
+     * page budget of the cache until the next reset.
+     *
+     * @param numBytes
+     *            the number of bytes to charge
+     */
+    void charge(int numBytes);
+
     IFileMapManager getFileMapProvider();
 }
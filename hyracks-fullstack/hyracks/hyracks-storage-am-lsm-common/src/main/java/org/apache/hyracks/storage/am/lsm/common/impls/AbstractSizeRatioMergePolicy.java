@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+
+/**
+ * A merge policy that keeps the sizes of the disk components of an index apart by a size ratio, and that bounds the
+ * number of disk components that a lookup has to read by blocking flushes while there are too many of them (see
+ * {@link PrefixMergePolicy#isMergeLagging(ILSMIndex)}).
+ * It accounts for the write and read amplification of the index in its {@link LSMAmplificationStatistics}.
+ */
+public abstract class AbstractSizeRatioMergePolicy implements ILSMMergePolicy {
+    public static final String SIZE_RATIO = "size-ratio";
+    public static final String MAX_TOLERANCE_COMPONENT_COUNT = "max-tolerance-component-count";
+
+    protected final LSMAmplificationStatistics statistics = new LSMAmplificationStatistics();
+    protected double sizeRatio;
+    protected int maxToleranceComponentCount;
+
+    @Override
+    public void configure(Map<String, String> properties) {
+        sizeRatio = Double.parseDouble(properties.get(SIZE_RATIO));
+        maxToleranceComponentCount = Integer.parseInt(properties.get(MAX_TOLERANCE_COMPONENT_COUNT));
+        if (sizeRatio <= 1 || maxToleranceComponentCount < 2) {
+            throw new IllegalArgumentException(SIZE_RATIO + " must be greater than 1 and "
+                    + MAX_TOLERANCE_COMPONENT_COUNT + " must be at least 2");
+        }
+    }
+
+    @Override
+    public void diskComponentAdded(ILSMIndex index, boolean fullMergeIsRequested) throws HyracksDataException {
+        if (!areComponentsMergable(index.getImmutableComponents())) {
+            return;
+        }
+        if (fullMergeIsRequested) {
+            ILSMIndexAccessor accessor =
+                    index.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+            accessor.scheduleFullMerge(index.getIOOperationCallback());
+            return;
+        }
+        scheduleMerge(index, false);
+    }
+
+    @Override
+    public boolean isMergeLagging(ILSMIndex index) throws HyracksDataException {
+        // see PrefixMergePolicy.isMergeLagging() for the rationale behind this code.
+        List<ILSMDiskComponent> immutableComponents = index.getImmutableComponents();
+        // [case 1]
+        if (immutableComponents.size() < maxToleranceComponentCount) {
+            return false;
+        }
+        // [case 2]
+        if (isMergeOngoing(immutableComponents)) {
+            return true;
+        }
+        // [case 3]
+        if (!areComponentsMergable(immutableComponents) || !scheduleMerge(index, true)) {
+            throw new IllegalStateException();
+        }
+        return true;
+    }
+
+    @Override
+    public void diskComponentWritten(ILSMDiskComponent component, boolean isMerge) {
+        statistics.componentWritten(component.getComponentSize(), isMerge);
+    }
+
+    @Override
+    public void componentsSearched(int numComponents) {
+        statistics.componentsSearched(numComponents);
+    }
+
+    public LSMAmplificationStatistics getAmplificationStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Given the disk components of the index, ordered from the oldest to the newest, identifies a sequence of
+     * components to merge. It is only called when none of the components is being merged.
+     *
+     * @param components
+     *            the disk components, from the oldest to the newest
+     * @return the positions of the oldest and the newest component of the sequence, or null if no merge is needed
+     */
+    protected abstract Pair<Integer, Integer> getMergableComponentsIndex(List<ILSMDiskComponent> components);
+
+    private boolean scheduleMerge(ILSMIndex index, boolean isLagging) throws HyracksDataException {
+        List<ILSMDiskComponent> components = new ArrayList<>(index.getImmutableComponents());
+        // Reverse the components order so that we look at components from oldest to newest.
+        Collections.reverse(components);
+        Pair<Integer, Integer> mergableIndexes = getMergableComponentsIndex(components);
+        if (mergableIndexes == null && isLagging) {
+            // too many components to read, merge all of them regardless of their sizes
+            mergableIndexes = Pair.of(0, components.size() - 1);
+        }
+        if (mergableIndexes == null) {
+            return false;
+        }
+        List<ILSMDiskComponent> mergableComponents =
+                new ArrayList<>(components.subList(mergableIndexes.getLeft(), mergableIndexes.getRight() + 1));
+        // Reverse the components order back to its original order
+        Collections.reverse(mergableComponents);
+        ILSMIndexAccessor accessor =
+                index.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        accessor.scheduleMerge(index.getIOOperationCallback(), mergableComponents);
+        return true;
+    }
+
+    private static boolean areComponentsMergable(List<ILSMDiskComponent> components) {
+        for (ILSMDiskComponent c : components) {
+            if (c.getState() != ComponentState.READABLE_UNWRITABLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isMergeOngoing(List<ILSMDiskComponent> components) {
+        for (ILSMDiskComponent c : components) {
+            if (c.getState() == ComponentState.READABLE_MERGING) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
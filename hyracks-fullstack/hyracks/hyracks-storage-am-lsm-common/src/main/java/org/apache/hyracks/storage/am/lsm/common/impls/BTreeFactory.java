@@ -26,20 +26,43 @@ import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.common.api.IPageManagerFactory;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 
 public class BTreeFactory extends TreeIndexFactory<BTree> {
 
+    private final CompressionScheme compressionScheme;
+    private final int zoneMapField;
+    private final IBinaryComparatorFactory zoneMapCmpFactory;
+
     public BTreeFactory(IIOManager ioManager, IBufferCache bufferCache, IPageManagerFactory freePageManagerFactory,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
             IBinaryComparatorFactory[] cmpFactories, int fieldCount) {
+        this(ioManager, bufferCache, freePageManagerFactory, interiorFrameFactory, leafFrameFactory, cmpFactories,
+                fieldCount, CompressionScheme.NONE);
+    }
+
+    public BTreeFactory(IIOManager ioManager, IBufferCache bufferCache, IPageManagerFactory freePageManagerFactory,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount, CompressionScheme compressionScheme) {
+        this(ioManager, bufferCache, freePageManagerFactory, interiorFrameFactory, leafFrameFactory, cmpFactories,
+                fieldCount, compressionScheme, -1, null);
+    }
+
+    public BTreeFactory(IIOManager ioManager, IBufferCache bufferCache, IPageManagerFactory freePageManagerFactory,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount, CompressionScheme compressionScheme,
+            int zoneMapField, IBinaryComparatorFactory zoneMapCmpFactory) {
         super(ioManager, bufferCache, freePageManagerFactory, interiorFrameFactory, leafFrameFactory, cmpFactories,
                 fieldCount);
+        this.compressionScheme = compressionScheme;
+        this.zoneMapField = zoneMapField;
+        this.zoneMapCmpFactory = zoneMapCmpFactory;
     }
 
     @Override
     public BTree createIndexInstance(FileReference file) {
         return new BTree(bufferCache, freePageManagerFactory.createPageManager(bufferCache), interiorFrameFactory,
-                leafFrameFactory, cmpFactories, fieldCount, file);
+                leafFrameFactory, cmpFactories, fieldCount, file, compressionScheme, zoneMapField, zoneMapCmpFactory);
     }
 
 }
@@ -149,6 +149,7 @@ public class ExternalIndexHarness extends LSMHarness {
                         if (newComponent != null) {
                             beforeSubsumeMergedComponents(newComponent, ctx.getComponentHolder());
                             lsmIndex.subsumeMergedComponents(newComponent, ctx.getComponentHolder());
+                            mergePolicy.diskComponentWritten(newComponent, true);
                             if (replicationEnabled) {
                                 componentsToBeReplicated.clear();
                                 componentsToBeReplicated.add(newComponent);
@@ -183,6 +184,7 @@ public class ExternalIndexHarness extends LSMHarness {
             throws HyracksDataException {
         LSMOperationType opType = LSMOperationType.SEARCH;
         getAndEnterComponents(ctx, opType, false);
+        mergePolicy.componentsSearched(ctx.getComponentHolder().size());
         try {
             lsmIndex.search(ctx, cursor, pred);
         } catch (Exception e) {
@@ -251,6 +253,7 @@ public class ExternalIndexHarness extends LSMHarness {
         lsmIndex.markAsValid(c);
         synchronized (opTracker) {
             lsmIndex.addDiskComponent(c);
+            mergePolicy.diskComponentWritten(c, false);
             if (replicationEnabled) {
                 componentsToBeReplicated.clear();
                 componentsToBeReplicated.add(c);
@@ -290,6 +293,7 @@ public class ExternalIndexHarness extends LSMHarness {
             if (newComponent != null) {
                 // Enter new component
                 enterComponent(newComponent);
+                mergePolicy.diskComponentWritten(newComponent, false);
             }
             index.commitTransactionDiskComponent(newComponent);
             mergePolicy.diskComponentAdded(lsmIndex, fullMergeIsRequested.get());
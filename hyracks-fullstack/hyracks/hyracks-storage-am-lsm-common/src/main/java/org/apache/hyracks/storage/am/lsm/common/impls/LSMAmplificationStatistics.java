@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The write and read amplification of an LSM index under its merge policy:
+ * - the write amplification is the number of bytes written to disk components (by flushes, bulk loads and merges)
+ * per byte ingested (by flushes and bulk loads), and
+ * - the read amplification is the average number of components accessed by a search.
+ */
+public class LSMAmplificationStatistics {
+    private final LongAdder ingestedBytes = new LongAdder();
+    private final LongAdder mergedBytes = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchedComponents = new LongAdder();
+
+    public void componentWritten(long size, boolean isMerge) {
+        if (isMerge) {
+            mergedBytes.add(size);
+        } else {
+            ingestedBytes.add(size);
+        }
+    }
+
+    public void componentsSearched(int numComponents) {
+        searches.increment();
+        searchedComponents.add(numComponents);
+    }
+
+    public long getIngestedBytes() {
+        return ingestedBytes.sum();
+    }
+
+    public long getWrittenBytes() {
+        return ingestedBytes.sum() + mergedBytes.sum();
+    }
+
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    public long getSearchedComponents() {
+        return searchedComponents.sum();
+    }
+
+    /**
+     * @return the bytes written per byte ingested, or 0 if nothing was ingested yet
+     */
+    public double getWriteAmplification() {
+        long ingested = getIngestedBytes();
+        return ingested == 0 ? 0 : (double) getWrittenBytes() / ingested;
+    }
+
+    /**
+     * @return the components accessed per search, or 0 if there was no search yet
+     */
+    public double getReadAmplification() {
+        long numSearches = getSearches();
+        return numSearches == 0 ? 0 : (double) getSearchedComponents() / numSearches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{ \"ingested-bytes\": %d, \"written-bytes\": %d, \"write-amplification\": %.2f, "
+                + "\"searches\": %d, \"read-amplification\": %.2f }", getIngestedBytes(), getWrittenBytes(),
+                getWriteAmplification(), getSearches(), getReadAmplification());
+    }
+}
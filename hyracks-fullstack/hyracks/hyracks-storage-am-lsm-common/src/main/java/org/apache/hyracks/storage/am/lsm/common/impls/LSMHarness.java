@@ -268,6 +268,7 @@ public class LSMHarness implements ILSMHarness {
                             // newComponent is null if the flush op. was not performed.
                             if (newComponent != null) {
                                 lsmIndex.addDiskComponent(newComponent);
+                                mergePolicy.diskComponentWritten(newComponent, false);
                                 if (replicationEnabled) {
                                     componentsToBeReplicated.clear();
                                     componentsToBeReplicated.add(newComponent);
@@ -280,6 +281,7 @@ public class LSMHarness implements ILSMHarness {
                             // newComponent is null if the merge op. was not performed.
                             if (newComponent != null) {
                                 lsmIndex.subsumeMergedComponents(newComponent, ctx.getComponentHolder());
+                                mergePolicy.diskComponentWritten(newComponent, true);
                                 if (replicationEnabled) {
                                     componentsToBeReplicated.clear();
                                     componentsToBeReplicated.add(newComponent);
@@ -434,6 +436,7 @@ public class LSMHarness implements ILSMHarness {
         LSMOperationType opType = LSMOperationType.SEARCH;
         ctx.setSearchPredicate(pred);
         getAndEnterComponents(ctx, opType, false);
+        mergePolicy.componentsSearched(ctx.getComponentHolder().size());
         try {
             ctx.getSearchOperationCallback().before(pred.getLowKey());
             lsmIndex.search(ctx, cursor, pred);
@@ -566,6 +569,7 @@ public class LSMHarness implements ILSMHarness {
         lsmIndex.markAsValid(c);
         synchronized (opTracker) {
             lsmIndex.addDiskComponent(c);
+            mergePolicy.diskComponentWritten(c, false);
             if (replicationEnabled) {
                 componentsToBeReplicated.clear();
                 componentsToBeReplicated.add(c);
@@ -580,6 +584,11 @@ public class LSMHarness implements ILSMHarness {
         return opTracker;
     }
 
+    @Override
+    public ILSMMergePolicy getMergePolicy() {
+        return mergePolicy;
+    }
+
     protected void triggerReplication(List<ILSMDiskComponent> lsmComponents, boolean bulkload, LSMOperationType opType)
             throws HyracksDataException {
         ILSMIndexAccessor accessor =
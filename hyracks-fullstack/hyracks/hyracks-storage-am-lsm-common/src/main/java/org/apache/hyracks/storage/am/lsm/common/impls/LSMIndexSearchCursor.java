@@ -49,6 +49,8 @@ public abstract class LSMIndexSearchCursor implements ITreeIndexCursor {
     protected ILSMHarness lsmHarness;
 
     protected List<ILSMComponent> operationalComponents;
+    // paces the reads of a merge, or null if the reads are not paced
+    protected MergeThrottle mergeThrottle;
 
     public LSMIndexSearchCursor(ILSMIndexOperationContext opCtx, boolean returnDeletedTuples) {
         this.opCtx = opCtx;
@@ -61,6 +63,18 @@ public abstract class LSMIndexSearchCursor implements ITreeIndexCursor {
         return opCtx;
     }
 
+    public boolean isReturnDeletedTuples() {
+        return returnDeletedTuples;
+    }
+
+    public void setMergeThrottle(MergeThrottle mergeThrottle) {
+        this.mergeThrottle = mergeThrottle;
+    }
+
+    public MergeThrottle getMergeThrottle() {
+        return mergeThrottle;
+    }
+
     public void initPriorityQueue() throws HyracksDataException {
         int pqInitSize = (rangeCursors.length > 0) ? rangeCursors.length : 1;
         if (outputPriorityQueue == null) {
@@ -183,6 +197,9 @@ public abstract class LSMIndexSearchCursor implements ITreeIndexCursor {
         int cursorIndex = e.getCursorIndex();
         if (rangeCursors[cursorIndex].hasNext()) {
             rangeCursors[cursorIndex].next();
+            if (mergeThrottle != null) {
+                mergeThrottle.read(rangeCursors[cursorIndex].getTuple());
+            }
             e.reset(rangeCursors[cursorIndex].getTuple());
             outputPriorityQueue.offer(e);
             return true;
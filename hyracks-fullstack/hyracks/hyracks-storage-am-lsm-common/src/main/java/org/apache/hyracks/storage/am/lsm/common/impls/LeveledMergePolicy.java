@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+
+/**
+ * A leveled merge policy for lookup-heavy indexes, which keeps few disk components at the cost of rewriting them
+ * more often.
+ * Since a disk component covers the whole key range of the index, a level is a single component, and each level is
+ * at least size-ratio times larger than the next newer one. When a new component breaks this invariant for a level,
+ * the component of the level is merged with all the newer ones. The number of components that a lookup reads is
+ * therefore logarithmic in the size of the index (with base size-ratio), and it is bounded by
+ * max-tolerance-component-count.
+ */
+public class LeveledMergePolicy extends AbstractSizeRatioMergePolicy {
+
+    @Override
+    protected Pair<Integer, Integer> getMergableComponentsIndex(List<ILSMDiskComponent> components) {
+        int numComponents = components.size();
+        for (int i = 0; i < numComponents - 1; i++) {
+            if (components.get(i).getComponentSize() < sizeRatio * components.get(i + 1).getComponentSize()) {
+                return Pair.of(i, numComponents - 1);
+            }
+        }
+        return null;
+    }
+}
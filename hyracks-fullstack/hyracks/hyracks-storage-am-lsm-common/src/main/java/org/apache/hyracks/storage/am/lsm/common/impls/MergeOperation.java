@@ -57,4 +57,14 @@ public class MergeOperation extends AbstractIoOperation {
     public IIndexCursor getCursor() {
         return cursor;
     }
+
+    /**
+     * Paces the reads of the merge. It is called by the I/O scheduler before the merge runs, and it has no effect if
+     * the cursor of the merge can't be paced.
+     */
+    public void setThrottle(MergeThrottle throttle) {
+        if (cursor instanceof LSMIndexSearchCursor) {
+            ((LSMIndexSearchCursor) cursor).setMergeThrottle(throttle);
+        }
+    }
 }
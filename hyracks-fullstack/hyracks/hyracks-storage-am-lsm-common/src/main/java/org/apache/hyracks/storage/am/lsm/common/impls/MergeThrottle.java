@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+
+/**
+ * Paces the reads of a merge with a token bucket that is shared by the merges of a node. The merge cursor reports
+ * the tuples that it reads from the merging components, and the merge takes tokens for them one chunk at a time, so
+ * it never waits for more than a chunk of its input. A throttle can be shared by the threads of a merge.
+ */
+public class MergeThrottle {
+    private final TokenBucket tokenBucket;
+    private final long chunkSize;
+    // the bytes that were read but not paid for yet
+    private final AtomicLong unpaidBytes = new AtomicLong();
+
+    public MergeThrottle(TokenBucket tokenBucket, long chunkSize) {
+        this.tokenBucket = tokenBucket;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reports a tuple that the merge read, and waits for tokens if a chunk of reads is complete.
+     *
+     * @param tuple
+     *            the tuple that was read
+     * @throws HyracksDataException
+     *             if the merge is interrupted while it waits
+     */
+    public void read(ITupleReference tuple) throws HyracksDataException {
+        long tupleSize = 0;
+        for (int i = 0; i < tuple.getFieldCount(); i++) {
+            tupleSize += tuple.getFieldLength(i);
+        }
+        long unpaid = unpaidBytes.addAndGet(tupleSize);
+        if (unpaid >= chunkSize && unpaidBytes.compareAndSet(unpaid, 0)) {
+            try {
+                tokenBucket.acquire(unpaid);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw HyracksDataException.create(e);
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.buffercache.IExtraPageBlockHelper;
 import org.apache.hyracks.storage.common.buffercache.IFIFOPageQueue;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 import org.apache.hyracks.storage.common.file.IFileMapManager;
 import org.apache.hyracks.util.JSONUtil;
 
@@ -49,6 +50,11 @@ public class MultitenantVirtualBufferCache implements IVirtualBufferCache {
         return vbc.createFile(fileRef);
     }
 
+    @Override
+    public int createFile(FileReference fileRef, CompressionScheme compressionScheme) throws HyracksDataException {
+        return vbc.createFile(fileRef, compressionScheme);
+    }
+
     @Override
     public void openFile(int fileId) throws HyracksDataException {
         vbc.openFile(fileId);
@@ -74,6 +80,11 @@ public class MultitenantVirtualBufferCache implements IVirtualBufferCache {
         return vbc.pin(dpid, newPage);
     }
 
+    @Override
+    public int prefetch(long dpid, int numPages) throws HyracksDataException {
+        return vbc.prefetch(dpid, numPages);
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
         vbc.unpin(page);
@@ -125,6 +136,11 @@ public class MultitenantVirtualBufferCache implements IVirtualBufferCache {
         return vbc.isFull();
     }
 
+    @Override
+    public void charge(int numBytes) {
+        vbc.charge(numBytes);
+    }
+
     @Override
     public void reset() {
         vbc.reset();
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.api.lifecycle.ILifeCycleComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation.LSMIOOpertionType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
+
+/**
+ * An asynchronous scheduler that keeps merges from getting in the way of flushes:
+ * - flushes run as soon as they are scheduled, except that the flushes of an index run serially in the order of
+ * their scheduling (see {@link AsynchronousScheduler}), so they never wait for merges,
+ * - at most maxConcurrentMerges merges run at the same time on an I/O device, the others wait for their turn in the
+ * order of their scheduling, and
+ * - merges take as many tokens as the bytes that they read from a token bucket, which caps the merge bandwidth of
+ * the node. A merge takes its tokens in chunks as it reads (see {@link MergeThrottle}), so it never sleeps before
+ * it starts, while its components are already marked as merging.
+ * The queue depth and the time that the operations wait before they run are reported per operation type.
+ */
+public class PrioritizedScheduler implements ILSMIOOperationScheduler, ILifeCycleComponent {
+    private static final Logger LOGGER = Logger.getLogger(PrioritizedScheduler.class.getName());
+
+    // the number of bytes that a merge reads between two waits for tokens
+    private static final long MERGE_THROTTLE_CHUNK_SIZE = 1024L * 1024L;
+
+    private final ExecutorService executor;
+    private final int maxConcurrentMerges;
+    private final TokenBucket mergeTokenBucket;
+    private final Map<String, ILSMIOOperation> runningFlushOperations = new HashMap<>();
+    private final Map<String, PriorityQueue<ILSMIOOperation>> waitingFlushOperations = new HashMap<>();
+    private final Map<IODeviceHandle, Integer> runningMerges = new HashMap<>();
+    private final Map<IODeviceHandle, Deque<ILSMIOOperation>> waitingMerges = new HashMap<>();
+    private final Map<ILSMIOOperation, Long> scheduleTimes = new IdentityHashMap<>();
+    private final Map<LSMIOOpertionType, IOOperationStatistics> statistics = new EnumMap<>(LSMIOOpertionType.class);
+
+    /**
+     * @param threadFactory
+     *            the factory of the threads that run the operations
+     * @param maxConcurrentMerges
+     *            the maximum number of merges that run at the same time on an I/O device, or 0 for no limit
+     * @param maxMergeBytesPerSecond
+     *            the maximum number of bytes that merges read per second, or 0 for no limit
+     */
+    public PrioritizedScheduler(ThreadFactory threadFactory, int maxConcurrentMerges, long maxMergeBytesPerSecond) {
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+        this.maxConcurrentMerges = maxConcurrentMerges > 0 ? maxConcurrentMerges : Integer.MAX_VALUE;
+        this.mergeTokenBucket =
+                maxMergeBytesPerSecond > 0 ? new TokenBucket(maxMergeBytesPerSecond, maxMergeBytesPerSecond) : null;
+        for (LSMIOOpertionType type : LSMIOOpertionType.values()) {
+            statistics.put(type, new IOOperationStatistics());
+        }
+    }
+
+    @Override
+    public synchronized void scheduleOperation(ILSMIOOperation operation) throws HyracksDataException {
+        scheduleTimes.put(operation, System.nanoTime());
+        statistics.get(operation.getIOOpertionType()).operationQueued();
+        if (operation.getIOOpertionType() == LSMIOOpertionType.MERGE) {
+            IODeviceHandle device = operation.getDevice();
+            int running = runningMerges.getOrDefault(device, 0);
+            if (running < maxConcurrentMerges) {
+                runningMerges.put(device, running + 1);
+                submit(operation);
+            } else {
+                waitingMerges.computeIfAbsent(device, d -> new ArrayDeque<>()).offer(operation);
+            }
+        } else {
+            String id = operation.getIndexIdentifier();
+            if (runningFlushOperations.containsKey(id)) {
+                waitingFlushOperations.computeIfAbsent(id, i -> new PriorityQueue<>()).offer(operation);
+            } else {
+                runningFlushOperations.put(id, operation);
+                submit(operation);
+            }
+        }
+    }
+
+    private void submit(ILSMIOOperation operation) {
+        executor.execute(() -> run(operation));
+    }
+
+    private void run(ILSMIOOperation operation) {
+        try {
+            if (mergeTokenBucket != null && operation instanceof MergeOperation) {
+                ((MergeOperation) operation)
+                        .setThrottle(new MergeThrottle(mergeTokenBucket, MERGE_THROTTLE_CHUNK_SIZE));
+            }
+            operationStarted(operation);
+            operation.call();
+        } catch (Throwable th) {
+            LOGGER.log(Level.SEVERE, "Failed to " + operation.getIOOpertionType() + " "
+                    + operation.getIndexIdentifier(), th);
+        } finally {
+            operationCompleted(operation);
+        }
+    }
+
+    private synchronized void operationStarted(ILSMIOOperation operation) {
+        Long scheduleTime = scheduleTimes.remove(operation);
+        long waitNanos = scheduleTime == null ? 0 : System.nanoTime() - scheduleTime;
+        statistics.get(operation.getIOOpertionType()).operationStarted(waitNanos);
+    }
+
+    private synchronized void operationCompleted(ILSMIOOperation operation) {
+        if (operation.getIOOpertionType() == LSMIOOpertionType.MERGE) {
+            IODeviceHandle device = operation.getDevice();
+            Deque<ILSMIOOperation> waiting = waitingMerges.get(device);
+            if (waiting != null) {
+                // the merge hands over its turn to the next one
+                submit(waiting.poll());
+                if (waiting.isEmpty()) {
+                    waitingMerges.remove(device);
+                }
+            } else {
+                int running = runningMerges.get(device) - 1;
+                if (running == 0) {
+                    runningMerges.remove(device);
+                } else {
+                    runningMerges.put(device, running);
+                }
+            }
+        } else {
+            String id = operation.getIndexIdentifier();
+            runningFlushOperations.remove(id);
+            PriorityQueue<ILSMIOOperation> waiting = waitingFlushOperations.get(id);
+            if (waiting != null) {
+                ILSMIOOperation next = waiting.poll();
+                if (waiting.isEmpty()) {
+                    waitingFlushOperations.remove(id);
+                }
+                runningFlushOperations.put(id, next);
+                submit(next);
+            }
+        }
+    }
+
+    public IOOperationStatistics getStatistics(LSMIOOpertionType type) {
+        return statistics.get(type);
+    }
+
+    @Override
+    public void start() {
+        // the operations run on threads of the thread factory, nothing to start
+    }
+
+    @Override
+    public void stop(boolean dumpState, OutputStream ouputStream) throws IOException {
+        if (dumpState) {
+            dumpState(ouputStream);
+        }
+    }
+
+    @Override
+    public void dumpState(OutputStream os) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s%-15s%-15s%-20s%-20s%n", "Operation", "Queue Depth", "Operations",
+                "Avg Wait (ms)", "Max Wait (ms)"));
+        for (Map.Entry<LSMIOOpertionType, IOOperationStatistics> entry : statistics.entrySet()) {
+            IOOperationStatistics s = entry.getValue();
+            sb.append(String.format("%-10s%-15d%-15d%-20d%-20d%n", entry.getKey(), s.getQueueDepth(),
+                    s.getNumOperations(), TimeUnit.NANOSECONDS.toMillis(s.getAvgWaitNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(s.getMaxWaitNanos())));
+        }
+        if (mergeTokenBucket != null) {
+            sb.append("Merge bandwidth limit (bytes/s): ").append(mergeTokenBucket.getRatePerSecond()).append('\n');
+        }
+        os.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The queue depth and the wait times of the operations of a type.
+     */
+    public static class IOOperationStatistics {
+        private int queueDepth;
+        private long numOperations;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        synchronized void operationQueued() {
+            queueDepth++;
+        }
+
+        synchronized void operationStarted(long waitNanos) {
+            queueDepth--;
+            numOperations++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+
+        /**
+         * @return the number of operations that are scheduled but did not start yet
+         */
+        public synchronized int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return the number of operations that started
+         */
+        public synchronized long getNumOperations() {
+            return numOperations;
+        }
+
+        public synchronized long getAvgWaitNanos() {
+            return numOperations == 0 ? 0 : totalWaitNanos / numOperations;
+        }
+
+        public synchronized long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+    }
+}
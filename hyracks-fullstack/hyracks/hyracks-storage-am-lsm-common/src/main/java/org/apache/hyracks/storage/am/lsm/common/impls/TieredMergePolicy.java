@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+
+/**
+ * A size-tiered merge policy for ingest-heavy indexes, which writes each byte once per tier.
+ * The disk components are grouped in tiers of consecutive components of similar sizes: a component belongs to the
+ * tier of the newer components after it if it is smaller than size-ratio times the newest component of the tier.
+ * When the newest tier that has at least components-per-tier components is found, its components are merged into a
+ * component of the next tier. The number of components that a lookup reads is bounded by
+ * max-tolerance-component-count.
+ */
+public class TieredMergePolicy extends AbstractSizeRatioMergePolicy {
+    public static final String COMPONENTS_PER_TIER = "components-per-tier";
+
+    private int componentsPerTier;
+
+    @Override
+    public void configure(Map<String, String> properties) {
+        super.configure(properties);
+        componentsPerTier = Integer.parseInt(properties.get(COMPONENTS_PER_TIER));
+        if (componentsPerTier < 2) {
+            throw new IllegalArgumentException(COMPONENTS_PER_TIER + " must be at least 2");
+        }
+    }
+
+    @Override
+    protected Pair<Integer, Integer> getMergableComponentsIndex(List<ILSMDiskComponent> components) {
+        int end = components.size() - 1;
+        while (end >= componentsPerTier - 1) {
+            long tierSize = Math.max(components.get(end).getComponentSize(), 1);
+            int start = end;
+            while (start > 0 && components.get(start - 1).getComponentSize() < sizeRatio * tierSize) {
+                start--;
+            }
+            if (end - start + 1 >= componentsPerTier) {
+                return Pair.of(start, end);
+            }
+            end = start - 1;
+        }
+        return null;
+    }
+}
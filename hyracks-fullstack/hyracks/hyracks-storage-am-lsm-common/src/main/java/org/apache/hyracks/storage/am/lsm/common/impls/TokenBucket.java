@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that limits the rate of an activity, e.g., the number of bytes per second that merges read.
+ * Tokens are added at a constant rate up to the capacity of the bucket. A request for more tokens than the bucket
+ * holds is granted right away, but it puts the bucket in debt, and the requester waits until the debt is paid back.
+ * So the requests that follow wait their turn, and large requests are never starved by small ones.
+ */
+public class TokenBucket {
+    private final long ratePerSecond;
+    private final long capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long ratePerSecond, long capacity) {
+        if (ratePerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("The rate and the capacity of a token bucket must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes tokens from the bucket, waiting until the bucket is out of debt.
+     *
+     * @param numTokens
+     *            the number of tokens to take
+     * @throws InterruptedException
+     */
+    public void acquire(long numTokens) throws InterruptedException {
+        long waitNanos = reserve(numTokens);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes tokens from the bucket without waiting.
+     *
+     * @return the time (in nanoseconds) that the caller should wait before it uses the tokens
+     */
+    public synchronized long reserve(long numTokens) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * (double) ratePerSecond / 1e9);
+        lastRefillNanos = now;
+        tokens -= numTokens;
+        return tokens >= 0 ? 0 : (long) (-tokens * 1e9 / ratePerSecond);
+    }
+
+    public long getRatePerSecond() {
+        return ratePerSecond;
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -37,6 +38,7 @@ import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.buffercache.IExtraPageBlockHelper;
 import org.apache.hyracks.storage.common.buffercache.IFIFOPageQueue;
 import org.apache.hyracks.storage.common.buffercache.VirtualPage;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 import org.apache.hyracks.storage.common.file.IFileMapManager;
 import org.apache.hyracks.storage.common.file.FileMapManager;
@@ -57,6 +59,12 @@ public class VirtualBufferCache implements IVirtualBufferCache {
 
     private volatile int nextFree;
     private final AtomicInteger largePages;
+    // bytes held outside the pages, counted against the page budget
+    private final AtomicLong chargedBytes;
+    // the number of pages after which the cache is full, which may differ from numPages when the memory of the
+    // memory components is rebalanced
+    private volatile int pageBudget;
+    private volatile long totalPagesUsed;
 
     private boolean open;
 
@@ -70,6 +78,9 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         pages = new ArrayList<>();
         nextFree = 0;
         largePages = new AtomicInteger(0);
+        chargedBytes = new AtomicLong(0);
+        pageBudget = this.numPages;
+        totalPagesUsed = 0;
         open = false;
     }
 
@@ -80,6 +91,12 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         }
     }
 
+    @Override
+    public int createFile(FileReference fileRef, CompressionScheme compressionScheme) throws HyracksDataException {
+        // in-memory components are never compressed
+        return createFile(fileRef);
+    }
+
     @Override
     public int openFile(FileReference fileRef) throws HyracksDataException {
         synchronized (fileMapManager) {
@@ -184,18 +201,22 @@ public class VirtualBufferCache implements IVirtualBufferCache {
 
     @Override
     public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException {
-        VirtualPage page = null;
         int hash = hash(dpid);
         CacheBucket bucket = buckets[hash];
 
+        // Every operation on a memory component pins the pages on its path from the root, so the pages that are
+        // already cached are looked up without the bucket lock. Pages are added at the head of a bucket, and a page
+        // that is removed concurrently ends the lookup early, in which case the lookup is repeated under the lock.
+        VirtualPage page = findPage(bucket, dpid);
+        if (page != null) {
+            return page;
+        }
+
         bucket.bucketLock.lock();
         try {
-            page = bucket.cachedPage;
-            while (page != null) {
-                if (page.dpid() == dpid) {
-                    return page;
-                }
-                page = page.next();
+            page = findPage(bucket, dpid);
+            if (page != null) {
+                return page;
             }
 
             if (!newPage) {
@@ -216,6 +237,17 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         return page;
     }
 
+    private static VirtualPage findPage(CacheBucket bucket, long dpid) {
+        VirtualPage page = bucket.cachedPage;
+        while (page != null) {
+            if (page.dpid() == dpid) {
+                return page;
+            }
+            page = page.next();
+        }
+        return null;
+    }
+
     private int hash(long dpid) {
         int hashValue = (int) dpid ^ (Integer.reverse((int) (dpid >>> 32)) >>> 1);
         return hashValue % buckets.length;
@@ -232,6 +264,7 @@ public class VirtualBufferCache implements IVirtualBufferCache {
                 page = pages.get(nextFree);
             }
             ++nextFree;
+            ++totalPagesUsed;
             page.dpid(dpid);
         }
         return page;
@@ -270,6 +303,12 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         ((VirtualPage) cPage).multiplier(multiplier);
     }
 
+    @Override
+    public int prefetch(long dpid, int numPages) throws HyracksDataException {
+        // in-memory pages are always resident
+        return 0;
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
     }
@@ -310,6 +349,7 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         }
         nextFree = 0;
         largePages.set(0);
+        chargedBytes.set(0);
         open = true;
     }
 
@@ -318,14 +358,15 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         for (int i = 0; i < numPages; i++) {
             buckets[i].cachedPage = null;
         }
-        int excess = pages.size() - numPages;
-        if (excess > 0) {
-            for (int i = numPages + excess - 1; i >= numPages; i--) {
+        // release the pages over the budget
+        synchronized (pages) {
+            for (int i = pages.size() - 1; i >= pageBudget; i--) {
                 pages.remove(i);
             }
         }
         nextFree = 0;
         largePages.set(0);
+        chargedBytes.set(0);
     }
 
     @Override
@@ -345,9 +386,11 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("Page size = %d\n", pageSize));
         sb.append(String.format("Capacity = %d\n", numPages));
+        sb.append(String.format("Page budget = %d\n", pageBudget));
         sb.append(String.format("Allocated pages = %d\n", pages.size()));
         sb.append(String.format("Allocated large pages = %d\n", largePages.get()));
         sb.append(String.format("Next free page = %d\n", nextFree));
+        sb.append(String.format("Charged bytes = %d\n", chargedBytes.get()));
         return sb.toString();
     }
 
@@ -358,12 +401,50 @@ public class VirtualBufferCache implements IVirtualBufferCache {
 
     @Override
     public boolean isFull() {
-        return (nextFree + largePages.get()) >= numPages;
+        return (nextFree + largePages.get() + getChargedPages()) >= pageBudget;
+    }
+
+    @Override
+    public void charge(int numBytes) {
+        chargedBytes.getAndAdd(numBytes);
+    }
+
+    private int getChargedPages() {
+        return (int) ((chargedBytes.get() + pageSize - 1) / pageSize);
+    }
+
+    public int getPageBudget() {
+        return pageBudget;
+    }
+
+    /**
+     * @return the number of pages that hold memory, which exceeds the page budget after the budget was reduced until
+     *         the next reset
+     */
+    public int getAllocatedPages() {
+        synchronized (pages) {
+            return pages.size() + largePages.get() + getChargedPages();
+        }
+    }
+
+    /**
+     * Sets the number of pages after which the cache is full. A memory component that holds more pages than a reduced
+     * budget is full and gets flushed, and the pages over the budget are released when the cache is reset.
+     */
+    public void setPageBudget(int pageBudget) {
+        this.pageBudget = pageBudget;
+    }
+
+    /**
+     * @return the number of pages that were used since the cache was created, a measure of the write rate
+     */
+    public long getTotalPagesUsed() {
+        return totalPagesUsed;
     }
 
     private static class CacheBucket {
         private final ReentrantLock bucketLock;
-        private VirtualPage cachedPage;
+        private volatile VirtualPage cachedPage;
 
         public CacheBucket() {
             this.bucketLock = new ReentrantLock();
@@ -26,6 +26,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
 import org.apache.hyracks.storage.am.lsm.common.impls.MergeOperation;
+import org.apache.hyracks.storage.am.lsm.common.impls.MergeThrottle;
 
 public class LSMRTreeMergeOperation extends MergeOperation {
     private final FileReference btreeMergeTarget;
@@ -46,4 +47,13 @@ public class LSMRTreeMergeOperation extends MergeOperation {
     public FileReference getBloomFilterTarget() {
         return bloomFilterMergeTarget;
     }
+
+    @Override
+    public void setThrottle(MergeThrottle throttle) {
+        if (cursor instanceof LSMRTreeSortedCursor) {
+            ((LSMRTreeSortedCursor) cursor).setMergeThrottle(throttle);
+        } else {
+            super.setThrottle(throttle);
+        }
+    }
 }
@@ -26,6 +26,7 @@ import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.lsm.common.impls.MergeThrottle;
 import org.apache.hyracks.storage.common.ICursorInitialState;
 import org.apache.hyracks.storage.common.ISearchPredicate;
 
@@ -37,6 +38,8 @@ public class LSMRTreeSortedCursor extends LSMRTreeAbstractCursor {
     private boolean[] depletedRtreeCursors;
     private int foundIn = -1;
     private PermutingTupleReference btreeTuple;
+    // paces the reads of a merge, or null if the reads are not paced
+    private MergeThrottle mergeThrottle;
 
     public LSMRTreeSortedCursor(ILSMIndexOperationContext opCtx, ILinearizeComparatorFactory linearizer,
             int[] buddyBTreeFields) throws HyracksDataException {
@@ -50,6 +53,10 @@ public class LSMRTreeSortedCursor extends LSMRTreeAbstractCursor {
         return opCtx;
     }
 
+    public void setMergeThrottle(MergeThrottle mergeThrottle) {
+        this.mergeThrottle = mergeThrottle;
+    }
+
     @Override
     public void reset() throws HyracksDataException {
         depletedRtreeCursors = new boolean[numberOfTrees];
@@ -95,6 +102,9 @@ public class LSMRTreeSortedCursor extends LSMRTreeAbstractCursor {
             if (foundIn != -1) {
                 if (rtreeCursors[foundIn].hasNext()) {
                     rtreeCursors[foundIn].next();
+                    if (mergeThrottle != null) {
+                        mergeThrottle.read(rtreeCursors[foundIn].getTuple());
+                    }
                 } else {
                     depletedRtreeCursors[foundIn] = true;
                 }
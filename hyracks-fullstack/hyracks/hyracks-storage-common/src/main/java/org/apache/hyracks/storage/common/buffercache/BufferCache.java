@@ -36,6 +36,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,6 +47,9 @@ import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponent;
 import org.apache.hyracks.api.replication.IIOReplicationManager;
 import org.apache.hyracks.api.util.IoUtil;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressor;
+import org.apache.hyracks.storage.common.compression.LookAsideOffsetTable;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 import org.apache.hyracks.storage.common.file.IFileMapManager;
 
@@ -60,6 +64,18 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private static final int MAX_PIN_ATTEMPT_CYCLES = 1000;
     public static final boolean DEBUG = false;
 
+    // compressed files start with a header whose first int can never be a valid frame size multiplier
+    private static final int COMPRESSED_FILE_MARKER = -1;
+    private static final int COMPRESSED_FILE_SCHEME_OFF = 4;
+    private static final int COMPRESSED_FILE_TABLE_OFF = 8;
+    private static final int COMPRESSED_FILE_HEADER_SIZE = 16;
+    // every compressed chunk starts with the frame size multiplier, the extra block page id and the payload length
+    private static final int COMPRESSED_CHUNK_EXTRA_BLOCK_PAGE_ID_OFF = 4;
+    private static final int COMPRESSED_CHUNK_PAYLOAD_LENGTH_OFF = 8;
+    private static final int COMPRESSED_CHUNK_HEADER_SIZE = 12;
+    // a single read ahead never pins more than this fraction of the cache
+    private static final int MAX_PREFETCH_FRACTION = 8;
+
     private final int pageSize;
     private final int maxOpenFiles;
     final IIOManager ioManager;
@@ -71,6 +87,8 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private final Map<Integer, BufferedFileHandle> fileInfoMap;
     private final AsyncFIFOPageQueueManager fifoWriter;
     private final Queue<BufferCacheHeaderHelper> headerPageCache = new ConcurrentLinkedQueue<>();
+    private final Queue<BufferCacheCompressionHelper> compressionHelperCache = new ConcurrentLinkedQueue<>();
+    private final Queue<BufferCacheReadAheadHelper> readAheadHelperCache = new ConcurrentLinkedQueue<>();
 
     //DEBUG
     private Level fileOpsLevel = Level.FINE;
@@ -101,7 +119,8 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         this.fileMapManager = fileMapManager;
 
         Executor executor = Executors.newCachedThreadPool(threadFactory);
-        fileInfoMap = new HashMap<>();
+        // modified while holding its monitor, but looked up without it
+        fileInfoMap = new ConcurrentHashMap<>();
         cleanerThread = new CleanerThread();
         executor.execute(cleanerThread);
         closed = false;
@@ -167,6 +186,12 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         CachedPage cPage = null;
         int hash = hash(dpid);
         CacheBucket bucket = pageMap[hash];
+        cPage = tryOptimisticPin(bucket, dpid);
+        if (cPage != null) {
+            pageReplacementStrategy.notifyCachePageAccess(cPage);
+            pageReplacementStrategy.notifyCachePageLookup(cPage, true);
+            return cPage;
+        }
         bucket.bucketLock.lock();
         try {
             cPage = bucket.cachedPage;
@@ -174,6 +199,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 if (cPage.dpid == dpid) {
                     cPage.pinCount.incrementAndGet();
                     pageReplacementStrategy.notifyCachePageAccess(cPage);
+                    pageReplacementStrategy.notifyCachePageLookup(cPage, true);
                     return cPage;
                 }
                 cPage = cPage.next;
@@ -207,12 +233,15 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
             }
             // Resolve race of multiple threads trying to read the page from
             // disk.
+            boolean hit = true;
             synchronized (cPage) {
                 if (!cPage.valid) {
                     read(cPage);
                     cPage.valid = true;
+                    hit = false;
                 }
             }
+            pageReplacementStrategy.notifyCachePageLookup(cPage, hit);
         } else {
             cPage.valid = true;
         }
@@ -235,6 +264,10 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
          */
         int hash = hash(dpid);
         CacheBucket bucket = pageMap[hash];
+        cPage = tryOptimisticPin(bucket, dpid);
+        if (cPage != null) {
+            return cPage;
+        }
         bucket.bucketLock.lock();
         try {
             cPage = bucket.cachedPage;
@@ -362,6 +395,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 if (cPage != null) {
                     return cPage;
                 }
+                pageReplacementStrategy.notifyCachePageEviction(victim);
                 victim.reset(dpid);
             } finally {
                 bucket.bucketLock.unlock();
@@ -411,6 +445,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     }
                     victimPrev.next = victim.next;
                 }
+                pageReplacementStrategy.notifyCachePageEviction(victim);
                 victim.reset(dpid);
                 victim.next = bucket.cachedPage;
                 bucket.cachedPage = victim;
@@ -425,6 +460,34 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
+    /**
+     * Pins a resident page without taking the bucket lock. Pages only join, leave or change their dpid while the
+     * lock of their bucket is held, so if no one acquired the lock while we were looking for the page, the pin we
+     * took is on the right page and it will make any later attempt to victimize the page fail. Otherwise, the pin
+     * is undone and the caller falls back to the locked path.
+     *
+     * @return the pinned page or null if it wasn't found or the bucket was concurrently modified
+     */
+    private CachedPage tryOptimisticPin(CacheBucket bucket, long dpid) {
+        final long stamp = bucket.lock.tryOptimisticRead();
+        if (stamp == 0) {
+            return null;
+        }
+        CachedPage cPage = bucket.cachedPage;
+        while (cPage != null) {
+            if (cPage.dpid == dpid) {
+                cPage.pinCount.incrementAndGet();
+                if (bucket.lock.validate(stamp)) {
+                    return cPage;
+                }
+                cPage.pinCount.decrementAndGet();
+                return null;
+            }
+            cPage = cPage.next;
+        }
+        return null;
+    }
+
     private CachedPage findTargetInBucket(long dpid, CachedPage cPage, CachedPage victim) {
         while (cPage != null) {
             if (cPage.dpid == dpid) {
@@ -447,6 +510,9 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         buffer.append("Number of physical pages: ").append(pageReplacementStrategy.getMaxAllowedNumPages())
                 .append('\n');
         buffer.append("Hash table size: ").append(pageMap.length).append('\n');
+        buffer.append("Hits/Misses/Evictions: ").append(pageReplacementStrategy.getNumHits()).append('/')
+                .append(pageReplacementStrategy.getNumMisses()).append('/')
+                .append(pageReplacementStrategy.getNumEvictions()).append('\n');
         buffer.append("Page Map:\n");
         buffer.append("cpid -> [fileId:pageId, pinCount, valid/invalid, confiscated/physical, dirty/clean]");
         int nCachedPages = 0;
@@ -530,6 +596,10 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private void read(CachedPage cPage) throws HyracksDataException {
         BufferedFileHandle fInfo = getFileInfo(cPage);
         cPage.buffer.clear();
+        if (fInfo.isCompressed()) {
+            readCompressed(fInfo, cPage);
+            return;
+        }
         BufferCacheHeaderHelper header = checkoutHeaderHelper();
         try {
             long bytesRead = ioManager.syncRead(fInfo.getFileHandle(),
@@ -555,6 +625,56 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
+    private void readCompressed(BufferedFileHandle fInfo, CachedPage cPage) throws HyracksDataException {
+        final int pageId = BufferedFileHandle.getPageId(cPage.dpid);
+        final LookAsideOffsetTable offsetTable = fInfo.getOffsetTable();
+        final long offset = offsetTable.getOffset(pageId);
+        if (offset < 0) {
+            // the page was never written. behave like a read past the end of an uncompressed file
+            return;
+        }
+        final int chunkLength = offsetTable.getLength(pageId);
+        BufferCacheCompressionHelper helper = checkoutCompressionHelper();
+        try {
+            ByteBuffer chunk = helper.wrapChunk(chunkLength);
+            long bytesRead = ioManager.syncRead(fInfo.getFileHandle(), offset, chunk);
+            if (bytesRead != chunkLength) {
+                throw new HyracksDataException("Failed to read a complete page: " + bytesRead);
+            }
+            final int totalPages = chunk.getInt(0);
+            cPage.setFrameSizeMultiplier(totalPages);
+            cPage.setExtraBlockPageId(chunk.getInt(COMPRESSED_CHUNK_EXTRA_BLOCK_PAGE_ID_OFF));
+            if (totalPages > 1) {
+                pageReplacementStrategy.fixupCapacityOnLargeRead(cPage);
+            }
+            final int payloadLength = chunk.getInt(COMPRESSED_CHUNK_PAYLOAD_LENGTH_OFF);
+            final int rawLength = totalPages * pageSize;
+            final ByteBuffer pageBuffer = cPage.buffer;
+            pageBuffer.clear();
+            if (payloadLength == rawLength) {
+                // the page was not compressible and has been stored as is
+                pageBuffer.put(chunk.array(), COMPRESSED_CHUNK_HEADER_SIZE, rawLength);
+                return;
+            }
+            ICompressorDecompressor decompressor = fInfo.getCompressorDecompressor();
+            int uncompressedLength;
+            if (pageBuffer.hasArray()) {
+                uncompressedLength = decompressor.uncompress(chunk.array(), COMPRESSED_CHUNK_HEADER_SIZE,
+                        payloadLength, pageBuffer.array(), pageBuffer.arrayOffset(), rawLength);
+            } else {
+                byte[] raw = helper.getRawBytes(rawLength);
+                uncompressedLength = decompressor.uncompress(chunk.array(), COMPRESSED_CHUNK_HEADER_SIZE,
+                        payloadLength, raw, 0, rawLength);
+                pageBuffer.put(raw, 0, rawLength);
+            }
+            if (uncompressedLength != rawLength) {
+                throw new HyracksDataException("Failed to uncompress a complete page: " + uncompressedLength);
+            }
+        } finally {
+            returnCompressionHelper(helper);
+        }
+    }
+
     private long getOffsetForPage(long pageId) {
         return pageId * getPageSizeWithHeader();
     }
@@ -570,10 +690,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     }
 
     BufferedFileHandle getFileInfo(int fileId) throws HyracksDataException {
-        BufferedFileHandle fInfo;
-        synchronized (fileInfoMap) {
-            fInfo = fileInfoMap.get(fileId);
-        }
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
         if (fInfo == null) {
             throw new HyracksDataException("No such file mapped");
         }
@@ -592,11 +709,39 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         headerPageCache.offer(buffer);
     }
 
+    private BufferCacheReadAheadHelper checkoutReadAheadHelper() {
+        BufferCacheReadAheadHelper helper = readAheadHelperCache.poll();
+        if (helper == null) {
+            helper = new BufferCacheReadAheadHelper();
+        }
+        return helper;
+    }
+
+    private void returnReadAheadHelper(BufferCacheReadAheadHelper helper) {
+        readAheadHelperCache.offer(helper);
+    }
+
+    private BufferCacheCompressionHelper checkoutCompressionHelper() {
+        BufferCacheCompressionHelper helper = compressionHelperCache.poll();
+        if (helper == null) {
+            helper = new BufferCacheCompressionHelper();
+        }
+        return helper;
+    }
+
+    private void returnCompressionHelper(BufferCacheCompressionHelper helper) {
+        compressionHelperCache.offer(helper);
+    }
+
     void write(CachedPage cPage) throws HyracksDataException {
         BufferedFileHandle fInfo = getFileInfo(cPage);
         // synchronize on fInfo to prevent the file handle from being deleted until the page is written.
         synchronized (fInfo) {
             if (!fInfo.fileHasBeenDeleted()) {
+                if (fInfo.isCompressed()) {
+                    writeCompressed(fInfo, cPage);
+                    return;
+                }
                 ByteBuffer buf = cPage.buffer.duplicate();
                 final int totalPages = cPage.getFrameSizeMultiplier();
                 final int extraBlockPageId = cPage.getExtraBlockPageId();
@@ -625,6 +770,178 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
+    private void writeCompressed(BufferedFileHandle fInfo, CachedPage cPage) throws HyracksDataException {
+        final int pageId = BufferedFileHandle.getPageId(cPage.dpid);
+        final int totalPages = cPage.getFrameSizeMultiplier();
+        final int extraBlockPageId = cPage.getExtraBlockPageId();
+        final int rawLength = pageSize * totalPages;
+        final ICompressorDecompressor compressor = fInfo.getCompressorDecompressor();
+        BufferCacheCompressionHelper helper = checkoutCompressionHelper();
+        try {
+            byte[] raw;
+            int rawOffset;
+            if (cPage.buffer.hasArray()) {
+                raw = cPage.buffer.array();
+                rawOffset = cPage.buffer.arrayOffset();
+            } else {
+                raw = helper.getRawBytes(rawLength);
+                rawOffset = 0;
+                ByteBuffer buf = cPage.buffer.duplicate();
+                buf.clear();
+                buf.get(raw, 0, rawLength);
+            }
+            ByteBuffer chunk =
+                    helper.wrapChunk(COMPRESSED_CHUNK_HEADER_SIZE + compressor.computeCompressedBufferSize(rawLength));
+            int payloadLength =
+                    compressor.compress(raw, rawOffset, rawLength, chunk.array(), COMPRESSED_CHUNK_HEADER_SIZE);
+            if (payloadLength >= rawLength) {
+                // not worth it, store the page as is
+                System.arraycopy(raw, rawOffset, chunk.array(), COMPRESSED_CHUNK_HEADER_SIZE, rawLength);
+                payloadLength = rawLength;
+            }
+            final int chunkLength = COMPRESSED_CHUNK_HEADER_SIZE + payloadLength;
+            chunk.limit(chunkLength);
+            chunk.putInt(0, totalPages);
+            chunk.putInt(COMPRESSED_CHUNK_EXTRA_BLOCK_PAGE_ID_OFF, extraBlockPageId);
+            chunk.putInt(COMPRESSED_CHUNK_PAYLOAD_LENGTH_OFF, payloadLength);
+            LookAsideOffsetTable offsetTable = fInfo.getOffsetTable();
+            long offset = offsetTable.append(pageId, chunkLength);
+            if (totalPages > 1) {
+                // the extra block pages live inside this chunk but still occupy logical page ids
+                offsetTable.ensureNumPages(extraBlockPageId + totalPages - 1);
+            }
+            long bytesWritten = ioManager.syncWrite(fInfo.getFileHandle(), offset, chunk);
+            if (bytesWritten != chunkLength) {
+                throw new HyracksDataException("Failed to write completely: " + bytesWritten);
+            }
+        } finally {
+            returnCompressionHelper(helper);
+        }
+    }
+
+    /**
+     * Append the look-aside offset table of a compressed file and point the file header at it.
+     * Must be called while holding the monitor of fInfo.
+     */
+    private void writeOffsetTable(BufferedFileHandle fInfo) throws HyracksDataException {
+        LookAsideOffsetTable offsetTable = fInfo.getOffsetTable();
+        if (offsetTable == null || !offsetTable.isDirty() || fInfo.fileHasBeenDeleted()) {
+            return;
+        }
+        ByteBuffer tableBuf = ByteBuffer.allocate(offsetTable.getSerializedSize());
+        long tableOffset = offsetTable.serialize(tableBuf);
+        tableBuf.flip();
+        ioManager.syncWrite(fInfo.getFileHandle(), tableOffset, tableBuf);
+        ByteBuffer pointer = ByteBuffer.allocate(Long.BYTES);
+        pointer.putLong(0, tableOffset);
+        ioManager.syncWrite(fInfo.getFileHandle(), COMPRESSED_FILE_TABLE_OFF, pointer);
+    }
+
+    private BufferedFileHandle createFileHandle(int fileId, IFileHandle fh) throws HyracksDataException {
+        long fileSize = ioManager.getSize(fh);
+        if (fileSize >= COMPRESSED_FILE_HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(COMPRESSED_FILE_HEADER_SIZE);
+            ioManager.syncRead(fh, 0, header);
+            if (header.getInt(0) == COMPRESSED_FILE_MARKER) {
+                CompressionScheme scheme = CompressionScheme.fromOrdinal(header.getInt(COMPRESSED_FILE_SCHEME_OFF));
+                LookAsideOffsetTable offsetTable = new LookAsideOffsetTable(fileSize);
+                long tableOffset = header.getLong(COMPRESSED_FILE_TABLE_OFF);
+                if (tableOffset >= 0) {
+                    ByteBuffer numPagesBuf = ByteBuffer.allocate(Integer.BYTES);
+                    ioManager.syncRead(fh, tableOffset, numPagesBuf);
+                    ByteBuffer tableBuf =
+                            ByteBuffer.allocate(LookAsideOffsetTable.getSerializedSize(numPagesBuf.getInt(0)));
+                    ioManager.syncRead(fh, tableOffset, tableBuf);
+                    tableBuf.flip();
+                    offsetTable.deserialize(tableBuf);
+                }
+                return new BufferedFileHandle(fileId, fh, scheme.getCompressorDecompressor(), offsetTable);
+            }
+        }
+        return new BufferedFileHandle(fileId, fh);
+    }
+
+    private void closeFileHandle(BufferedFileHandle fInfo) throws HyracksDataException {
+        synchronized (fInfo) {
+            writeOffsetTable(fInfo);
+        }
+        ioManager.close(fInfo.getFileHandle());
+    }
+
+    @Override
+    public int prefetch(long dpid, int numPages) throws HyracksDataException {
+        final int fileId = BufferedFileHandle.getFileId(dpid);
+        final int startPageId = BufferedFileHandle.getPageId(dpid);
+        BufferedFileHandle fInfo = getFileInfo(fileId);
+        if (fInfo.isCompressed()) {
+            // compressed pages have variable sizes and are not laid out in page id order
+            return 0;
+        }
+        int numPagesOfFile = (int) (fInfo.getFileSize() / getPageSizeWithHeader());
+        if (numPagesOfFile - startPageId < numPages) {
+            // the file may have grown since its size was cached
+            long fileSize = ioManager.getSize(fInfo.getFileHandle());
+            fInfo.setFileSize(fileSize);
+            numPagesOfFile = (int) (fileSize / getPageSizeWithHeader());
+        }
+        final int count = Math.min(Math.min(numPages, pageReplacementStrategy.getMaxAllowedNumPages()
+                / MAX_PREFETCH_FRACTION), numPagesOfFile - startPageId);
+        if (count <= 0) {
+            return 0;
+        }
+        CachedPage[] pages = new CachedPage[count];
+        try {
+            int first = -1;
+            int last = -1;
+            for (int i = 0; i < count; i++) {
+                pages[i] = findPage(BufferedFileHandle.getDiskPageId(fileId, startPageId + i));
+                if (!pages[i].valid) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                }
+            }
+            if (first >= 0) {
+                readAhead(fInfo, startPageId, pages, first, last);
+            }
+        } finally {
+            for (int i = 0; i < count && pages[i] != null; i++) {
+                unpin(pages[i]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the pages [first, last] with a single I/O into a staging buffer and fills those of them that are
+     * still invalid. Pinners racing with us either wait on the page monitor or read the page themselves, so
+     * they never observe a partially filled page. Large pages are left for the regular read path.
+     */
+    private void readAhead(BufferedFileHandle fInfo, int startPageId, CachedPage[] pages, int first, int last)
+            throws HyracksDataException {
+        final int pageSizeWithHeader = getPageSizeWithHeader();
+        BufferCacheReadAheadHelper helper = checkoutReadAheadHelper();
+        try {
+            ByteBuffer buf = helper.prepareRead((last - first + 1) * pageSizeWithHeader);
+            long bytesRead = ioManager.syncRead(fInfo.getFileHandle(), getOffsetForPage(startPageId + first), buf);
+            if (bytesRead <= 0) {
+                return;
+            }
+            final int numRead = (int) (bytesRead / pageSizeWithHeader);
+            for (int i = 0; i < numRead; i++) {
+                CachedPage cPage = pages[first + i];
+                synchronized (cPage) {
+                    if (!cPage.valid && helper.processRead(cPage, i * pageSizeWithHeader, pageSize)) {
+                        cPage.valid = true;
+                    }
+                }
+            }
+        } finally {
+            returnReadAheadHelper(helper);
+        }
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
         if (closed) {
@@ -642,11 +959,14 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     }
 
     private static class CacheBucket {
+        private final StampedLock lock;
+        // all modifications of the bucket's chain must be done while holding this (non reentrant) lock
         private final Lock bucketLock;
         private CachedPage cachedPage;
 
         public CacheBucket() {
-            bucketLock = new ReentrantLock();
+            lock = new StampedLock();
+            bucketLock = lock.asWriteLock();
         }
     }
 
@@ -776,7 +1096,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     boolean fileHasBeenDeleted = entry.getValue().fileHasBeenDeleted();
                     sweepAndFlush(entry.getKey(), !fileHasBeenDeleted);
                     if (!fileHasBeenDeleted) {
-                        ioManager.close(entry.getValue().getFileHandle());
+                        closeFileHandle(entry.getValue());
                     }
                 } catch (HyracksDataException e) {
                     if (LOGGER.isLoggable(Level.WARNING)) {
@@ -790,11 +1110,19 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     @Override
     public int createFile(FileReference fileRef) throws HyracksDataException {
+        return createFile(fileRef, CompressionScheme.NONE);
+    }
+
+    @Override
+    public int createFile(FileReference fileRef, CompressionScheme compressionScheme) throws HyracksDataException {
         if (LOGGER.isLoggable(fileOpsLevel)) {
             LOGGER.log(fileOpsLevel, "Creating file: " + fileRef + " in cache: " + this);
         }
         IoUtil.create(fileRef);
         try {
+            if (compressionScheme.isCompressed()) {
+                writeCompressedFileHeader(fileRef, compressionScheme);
+            }
             synchronized (fileInfoMap) {
                 return fileMapManager.registerFile(fileRef);
             }
@@ -809,6 +1137,21 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
+    private void writeCompressedFileHeader(FileReference fileRef, CompressionScheme compressionScheme)
+            throws HyracksDataException {
+        ByteBuffer header = ByteBuffer.allocate(COMPRESSED_FILE_HEADER_SIZE);
+        header.putInt(0, COMPRESSED_FILE_MARKER);
+        header.putInt(COMPRESSED_FILE_SCHEME_OFF, compressionScheme.ordinal());
+        header.putLong(COMPRESSED_FILE_TABLE_OFF, -1L);
+        IFileHandle fh = ioManager.open(fileRef, IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            ioManager.syncWrite(fh, 0, header);
+        } finally {
+            ioManager.close(fh);
+        }
+    }
+
     @Override
     public int openFile(FileReference fileRef) throws HyracksDataException {
         if (LOGGER.isLoggable(fileOpsLevel)) {
@@ -845,7 +1188,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                             boolean fileHasBeenDeleted = entry.getValue().fileHasBeenDeleted();
                             sweepAndFlush(entryFileId, !fileHasBeenDeleted);
                             if (!fileHasBeenDeleted) {
-                                ioManager.close(entry.getValue().getFileHandle());
+                                closeFileHandle(entry.getValue());
                             }
                             fileInfoMap.remove(entryFileId);
                             unreferencedFileFound = true;
@@ -863,7 +1206,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 FileReference fileRef = fileMapManager.lookupFileName(fileId);
                 IFileHandle fh = ioManager.open(fileRef, IIOManager.FileReadWriteMode.READ_WRITE,
                         IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
-                fInfo = new BufferedFileHandle(fileId, fh);
+                fInfo = createFileHandle(fileId, fh);
                 fileInfoMap.put(fileId, fInfo);
             }
             fInfo.incReferenceCount();
@@ -959,6 +1302,9 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         synchronized (fileInfoMap) {
             fInfo = fileInfoMap.get(fileId);
         }
+        synchronized (fInfo) {
+            writeOffsetTable(fInfo);
+        }
         ioManager.sync(fInfo.getFileHandle(), metadata);
     }
 
@@ -1114,6 +1460,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     curr = curr.next;
                 }
                 assert found;
+                notifyConfiscatedPageEviction(victim);
             } finally {
                 bucket.bucketLock.unlock();
             }
@@ -1127,6 +1474,13 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         return true;
     }
 
+    // A victim taken for a confiscated page may have never held a disk page, which isn't an eviction.
+    private void notifyConfiscatedPageEviction(CachedPage victim) {
+        if (victim.dpid >= 0) {
+            pageReplacementStrategy.notifyCachePageEviction(victim);
+        }
+    }
+
     @Override
     public void dumpState(OutputStream os) throws IOException {
         os.write(dumpState().getBytes());
@@ -1139,6 +1493,9 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
             if (fInfo == null) {
                 throw new HyracksDataException("No such file mapped for fileId:" + fileId);
             }
+            if (fInfo.isCompressed()) {
+                return fInfo.getOffsetTable().getNumPages();
+            }
             if (DEBUG) {
                 assert ioManager.getSize(fInfo.getFileHandle()) % getPageSizeWithHeader() == 0;
             }
@@ -1232,6 +1589,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     curr = curr.next;
                 }
                 if (found) {
+                    notifyConfiscatedPageEviction(victim);
                     returnPage = victim;
                     ((CachedPage) returnPage).dpid = dpid;
                 } //otherwise, someone took the same victim before we acquired the lock. try again!
@@ -1408,7 +1766,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         synchronized (fileInfoMap) {
             BufferedFileHandle fh = fileInfoMap.get(fileId);
             if (fh != null) {
-                ioManager.close(fh.getFileHandle());
+                closeFileHandle(fh);
                 fileInfoMap.remove(fileId);
                 fileMapManager.unregisterFile(fileId);
             }
@@ -1452,4 +1810,48 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
             return multiplier;
         }
     }
-}
\ No newline at end of file
+
+    static class BufferCacheCompressionHelper {
+        private byte[] chunk = new byte[0];
+        private byte[] raw = new byte[0];
+
+        private ByteBuffer wrapChunk(int length) {
+            if (chunk.length < length) {
+                chunk = new byte[length];
+            }
+            return ByteBuffer.wrap(chunk, 0, length);
+        }
+
+        private byte[] getRawBytes(int length) {
+            if (raw.length < length) {
+                raw = new byte[length];
+            }
+            return raw;
+        }
+    }
+
+    static class BufferCacheReadAheadHelper {
+        private ByteBuffer buf = ByteBuffer.allocate(0);
+
+        private ByteBuffer prepareRead(int length) {
+            if (buf.capacity() < length) {
+                buf = ByteBuffer.allocate(length);
+            }
+            buf.position(0);
+            buf.limit(length);
+            return buf;
+        }
+
+        private boolean processRead(CachedPage cPage, int offset, int pageSize) {
+            int multiplier = buf.getInt(offset + BufferCacheHeaderHelper.FRAME_MULTIPLIER_OFF);
+            if (multiplier != 1) {
+                return false;
+            }
+            cPage.setFrameSizeMultiplier(multiplier);
+            cPage.setExtraBlockPageId(buf.getInt(offset + BufferCacheHeaderHelper.EXTRA_BLOCK_PAGE_ID_OFF));
+            cPage.buffer.clear();
+            cPage.buffer.put(buf.array(), offset + RESERVED_HEADER_BYTES, pageSize);
+            return true;
+        }
+    }
+}
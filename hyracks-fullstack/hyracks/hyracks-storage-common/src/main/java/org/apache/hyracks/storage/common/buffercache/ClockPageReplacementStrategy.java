@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,6 +40,9 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
     private final int pageSize;
     private final int maxAllowedNumPages;
     private final ConcurrentLinkedQueue<Integer> cpIdFreeList;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
 
     public ClockPageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages) {
         this.allocator = allocator;
@@ -67,14 +71,54 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
 
     @Override
     public void notifyCachePageReset(ICachedPageInternal cPage) {
-        getPerPageObject(cPage).set(false);
+        onPageReset(cPage);
     }
 
     @Override
     public void notifyCachePageAccess(ICachedPageInternal cPage) {
+        onPageAccess(cPage);
+    }
+
+    @Override
+    public void notifyCachePageLookup(ICachedPageInternal cPage, boolean hit) {
+        if (hit) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+    }
+
+    @Override
+    public void notifyCachePageEviction(ICachedPageInternal cPage) {
+        evictionCount.increment();
+    }
+
+    protected void onPageReset(ICachedPageInternal cPage) {
+        getPerPageObject(cPage).set(false);
+    }
+
+    protected void onPageAccess(ICachedPageInternal cPage) {
         getPerPageObject(cPage).set(true);
     }
 
+    /**
+     * Called by the clock for every page it passes over.
+     *
+     * @return true if the page can be evicted now, false to give it another chance
+     */
+    protected boolean isVictimCandidate(ICachedPageInternal cPage) {
+        /*
+         * We do two things here:
+         * 1. If the page has been accessed, then we skip it -- The CAS would return
+         * false if the current value is false which makes the page a possible candidate
+         * for replacement.
+         * 2. We check with the buffer manager if it feels it's a good idea to use this
+         * page as a victim.
+         */
+        AtomicBoolean accessedFlag = getPerPageObject(cPage);
+        return !accessedFlag.compareAndSet(true, false) && cPage.isGoodVictim();
+    }
+
     @Override
     public ICachedPageInternal findVictim() {
         return findVictim(1);
@@ -109,21 +153,8 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
         boolean looped = false;
         while (true) {
             ICachedPageInternal cPage = bufferCache.getPage(clockPtr);
-            if (cPage != null) {
-                /*
-                 * We do two things here:
-                 * 1. If the page has been accessed, then we skip it -- The CAS would return
-                 * false if the current value is false which makes the page a possible candidate
-                 * for replacement.
-                 * 2. We check with the buffer manager if it feels it's a good idea to use this
-                 * page as a victim.
-                 */
-                AtomicBoolean accessedFlag = getPerPageObject(cPage);
-                if (!accessedFlag.compareAndSet(true, false)) {
-                    if (cPage.isGoodVictim()) {
-                        return cPage;
-                    }
-                }
+            if (cPage != null && isVictimCandidate(cPage)) {
+                return cPage;
             }
             if (clockPtr < lastClockPtr) {
                 looped = true;
@@ -248,6 +279,21 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
         return (AtomicBoolean) cPage.getReplacementStrategyObject();
     }
 
+    @Override
+    public long getNumHits() {
+        return hitCount.sum();
+    }
+
+    @Override
+    public long getNumMisses() {
+        return missCount.sum();
+    }
+
+    @Override
+    public long getNumEvictions() {
+        return evictionCount.sum();
+    }
+
     @Override
     public int getPageSize() {
         return pageSize;
@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.replication.IIOReplicationManager;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 
 /**
  * Implementation of an IBufferCache that counts the number of pins/unpins,
@@ -58,6 +59,13 @@ public class DebugBufferCache implements IBufferCache {
         return fileId;
     }
 
+    @Override
+    public int createFile(FileReference fileRef, CompressionScheme compressionScheme) throws HyracksDataException {
+        int fileId = bufferCache.createFile(fileRef, compressionScheme);
+        createFileCount.addAndGet(1);
+        return fileId;
+    }
+
     @Override
     public void openFile(int fileId) throws HyracksDataException {
         bufferCache.openFile(fileId);
@@ -88,6 +96,11 @@ public class DebugBufferCache implements IBufferCache {
         return page;
     }
 
+    @Override
+    public int prefetch(long dpid, int numPages) throws HyracksDataException {
+        return bufferCache.prefetch(dpid, numPages);
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
         bufferCache.unpin(page);
@@ -18,16 +18,69 @@
  */
 package org.apache.hyracks.storage.common.buffercache;
 
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 
+/**
+ * Allocates off-heap pages that are carved out of large direct slabs, so that the memory of a cache is made of a
+ * few big native allocations instead of one per page. Slabs are grouped in arenas and allocating threads are
+ * spread over the arenas to avoid contending on a single one. The slabs, including their unused tails, are charged
+ * to a memory budget: once the budget runs low, new slabs only get what is left of it, and once it is used up, pages
+ * are carved out of the tails of the other arenas' slabs first. So the native memory only exceeds the budget by the
+ * pages that are allocated beyond it, plus less than a page per arena.
+ * Pages can't be freed individually: the memory of all the slabs is given back by {@link #release()} once the owner
+ * of the pages is closed.
+ * Note that the pages are not backed by an array, so they can't be used by consumers that access
+ * {@link ByteBuffer#array()}, such as the tree index frames.
+ */
 public class DirectBufferAllocator implements ICacheMemoryAllocator {
+    private static final Logger LOGGER = Logger.getLogger(DirectBufferAllocator.class.getName());
+    public static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+
+    private final int slabSize;
+    private final long budget;
+    // the native bytes of all the arenas
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final Arena[] arenas;
+
+    public DirectBufferAllocator() {
+        this(DEFAULT_SLAB_SIZE, 1);
+    }
+
+    public DirectBufferAllocator(int slabSize, int numArenas) {
+        this(slabSize, numArenas, Long.MAX_VALUE);
+    }
+
+    public DirectBufferAllocator(int slabSize, int numArenas, long budget) {
+        if (slabSize <= 0 || numArenas <= 0 || budget <= 0) {
+            throw new IllegalArgumentException("Invalid slab size " + slabSize + ", number of arenas " + numArenas
+                    + " or budget " + budget);
+        }
+        this.slabSize = slabSize;
+        this.budget = budget;
+        arenas = new Arena[numArenas];
+        for (int i = 0; i < numArenas; i++) {
+            arenas[i] = new Arena();
+        }
+    }
+
     @Override
     public ByteBuffer[] allocate(int pageSize, int numPages) {
+        int home = (int) (Thread.currentThread().getId() % arenas.length);
         ByteBuffer[] buffers = new ByteBuffer[numPages];
         for (int i = 0; i < numPages; ++i) {
-            buffers[i] = ByteBuffer.allocateDirect(pageSize);
+            ByteBuffer page = arenas[home].allocate(pageSize, false);
+            for (int j = 1; page == null && j < arenas.length; j++) {
+                page = arenas[(home + j) % arenas.length].carve(pageSize);
+            }
+            buffers[i] = page != null ? page : arenas[home].allocate(pageSize, true);
         }
         return buffers;
     }
@@ -40,4 +93,170 @@ public class DirectBufferAllocator implements ICacheMemoryAllocator {
     @Override
     public void reserveAllocation(int pageSize, int numPages) throws HyracksDataException {
     }
+
+    /**
+     * Frees the native memory of all the slabs. The pages that were carved out of them must not be accessed anymore,
+     * so this must only be called after the owner of the pages is closed.
+     */
+    public void release() {
+        for (Arena arena : arenas) {
+            allocatedBytes.addAndGet(-arena.release());
+        }
+    }
+
+    /**
+     * Charges the next native allocation for a page to the budget.
+     *
+     * @param overBudget
+     *            whether a page that doesn't fit in the budget anymore is allocated anyway
+     * @return the size of the allocation, or 0 if the page doesn't fit in the budget anymore
+     */
+    private int reserveSlab(int pageSize, boolean overBudget) {
+        while (true) {
+            long allocated = allocatedBytes.get();
+            long remaining = budget - allocated;
+            int size;
+            if (pageSize > slabSize / 2) {
+                // large pages would waste most of a slab, they get their own allocation
+                size = pageSize;
+            } else if (remaining >= pageSize) {
+                size = (int) Math.min(slabSize, remaining);
+            } else if (overBudget) {
+                size = pageSize;
+            } else {
+                return 0;
+            }
+            if (allocatedBytes.compareAndSet(allocated, allocated + size)) {
+                return size;
+            }
+        }
+    }
+
+    // Frees the memory of a direct buffer right away instead of waiting for its buffer to be garbage collected.
+    private static void free(ByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Direct buffer memory is left to the garbage collector", e);
+            }
+        }
+    }
+
+    public int getNumArenas() {
+        return arenas.length;
+    }
+
+    /**
+     * @return the number of bytes of native memory that were allocated by the arena
+     */
+    public long getAllocatedBytes(int arena) {
+        return arenas[arena].getAllocatedBytes();
+    }
+
+    /**
+     * @return the number of bytes of the arena that were handed out as pages
+     */
+    public long getResidentBytes(int arena) {
+        return arenas[arena].getResidentBytes();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    public long getResidentBytes() {
+        long resident = 0;
+        for (Arena arena : arenas) {
+            resident += arena.getResidentBytes();
+        }
+        return resident;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append("[slabSize=").append(slabSize)
+                .append(", budget=").append(budget);
+        for (int i = 0; i < arenas.length; i++) {
+            sb.append(", arena").append(i).append("={allocated=").append(getAllocatedBytes(i)).append(", resident=")
+                    .append(getResidentBytes(i)).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    private class Arena {
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private ByteBuffer current;
+        private long allocatedBytes;
+        private long residentBytes;
+
+        /**
+         * @return a page, or null if a new slab is needed and the page doesn't fit in the budget anymore
+         */
+        private synchronized ByteBuffer allocate(int pageSize, boolean overBudget) {
+            ByteBuffer page = carve(pageSize);
+            if (page != null) {
+                return page;
+            }
+            int size = reserveSlab(pageSize, overBudget);
+            if (size == 0) {
+                return null;
+            }
+            ByteBuffer slab = ByteBuffer.allocateDirect(size);
+            slabs.add(slab);
+            allocatedBytes += size;
+            if (size == pageSize) {
+                // keep carving pages out of the current slab
+                residentBytes += pageSize;
+                return slab;
+            }
+            current = slab;
+            return carve(pageSize);
+        }
+
+        /**
+         * @return a page out of the current slab, or null if it doesn't have room for the page
+         */
+        private synchronized ByteBuffer carve(int pageSize) {
+            if (current == null || current.remaining() < pageSize) {
+                return null;
+            }
+            residentBytes += pageSize;
+            current.limit(current.position() + pageSize);
+            ByteBuffer page = current.slice();
+            current.position(current.limit());
+            current.limit(current.capacity());
+            return page;
+        }
+
+        /**
+         * @return the number of native bytes that were freed
+         */
+        private synchronized long release() {
+            for (ByteBuffer slab : slabs) {
+                free(slab);
+            }
+            slabs.clear();
+            current = null;
+            long freed = allocatedBytes;
+            allocatedBytes = 0;
+            residentBytes = 0;
+            return freed;
+        }
+
+        private synchronized long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        private synchronized long getResidentBytes() {
+            return residentBytes;
+        }
+    }
 }
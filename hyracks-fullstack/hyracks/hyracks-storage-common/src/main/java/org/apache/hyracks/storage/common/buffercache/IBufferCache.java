@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.common.buffercache;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.replication.IIOReplicationManager;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 
 public interface IBufferCache {
 
@@ -39,6 +40,21 @@ public interface IBufferCache {
      */
     int createFile(FileReference fileRef) throws HyracksDataException;
 
+    /**
+     * Create file on disk whose pages are compressed using the passed scheme when they are written
+     * and uncompressed when they are read. Compressed pages have variable sizes and are located
+     * through a look-aside offset table that is stored in the file itself.
+     *
+     * @param fileRef
+     *            the file to create
+     * @param compressionScheme
+     *            the compression scheme of the file's pages
+     * @return the file id
+     * @throws HyracksDataException
+     *             if the file already exists or attempt to create the file failed
+     */
+    int createFile(FileReference fileRef, CompressionScheme compressionScheme) throws HyracksDataException;
+
     /**
      * Open the file and register it (if not registered) with the file map manager
      *
@@ -94,6 +110,21 @@ public interface IBufferCache {
 
     void unpin(ICachedPage page) throws HyracksDataException;
 
+    /**
+     * Read ahead the pages of a file that follow (and include) the passed page into the cache, so that
+     * a sequential reader finds them resident. Pages that are already cached are left untouched and
+     * contiguous missing pages are read from disk in a single I/O.
+     *
+     * @param dpid
+     *            the disk page id of the first page to read ahead
+     * @param numPages
+     *            the number of pages to read ahead
+     * @return the number of pages that were considered, which is less than numPages when the end of the file is
+     *         reached or the cache limits the read ahead, or 0 if the cache doesn't support read ahead
+     * @throws HyracksDataException
+     */
+    int prefetch(long dpid, int numPages) throws HyracksDataException;
+
     void flushDirtyPage(ICachedPage page) throws HyracksDataException;
 
     void adviseWontNeed(ICachedPage page);
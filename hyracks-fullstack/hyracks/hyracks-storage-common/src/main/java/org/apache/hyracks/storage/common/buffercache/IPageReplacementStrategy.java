@@ -31,6 +31,19 @@ public interface IPageReplacementStrategy {
 
     public void notifyCachePageAccess(ICachedPageInternal cPage);
 
+    /**
+     * Called for every pin of a page that already exists on disk, i.e., not for pins of new pages.
+     *
+     * @param hit
+     *            true if the page was found in the cache, false if it had to be read
+     */
+    public void notifyCachePageLookup(ICachedPageInternal cPage, boolean hit);
+
+    /**
+     * Called once a victim that held a disk page was taken by the buffer cache to hold another page.
+     */
+    public void notifyCachePageEviction(ICachedPageInternal cPage);
+
     public void adviseWontNeed(ICachedPageInternal cPage);
 
     public ICachedPageInternal findVictim();
@@ -39,6 +52,21 @@ public interface IPageReplacementStrategy {
 
     public int getNumPages();
 
+    /**
+     * @return the number of pins of existing pages that were served by an already cached page
+     */
+    public long getNumHits();
+
+    /**
+     * @return the number of pins of existing pages that had to read the page
+     */
+    public long getNumMisses();
+
+    /**
+     * @return the number of cached disk pages that were taken to hold another page
+     */
+    public long getNumEvictions();
+
     void fixupCapacityOnLargeRead(ICachedPageInternal cPage)
             throws HyracksDataException;
 
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scan resistant variant of the clock replacement strategy that approximates 2Q.
+ * Pages enter the cache on probation and only become protected once they are accessed again after the access
+ * that brought them in. The clock evicts probationary pages right away if they have not been referenced since,
+ * whereas protected pages are only demoted back to probation when the protected area is full and they were not
+ * referenced during the last sweep. A large scan that touches every page once can therefore only cycle through the
+ * probationary part of the cache and leaves the hot working set (e.g. index interior pages) in place.
+ */
+public class TwoQueueClockPageReplacementStrategy extends ClockPageReplacementStrategy {
+    public static final double DEFAULT_PROTECTED_RATIO = 0.75;
+
+    // per page state bits
+    private static final int SEEN = 0x1;
+    private static final int REFERENCED = 0x2;
+    private static final int PROTECTED = 0x4;
+
+    private final int maxProtectedPages;
+    private final AtomicInteger numProtectedPages;
+
+    public TwoQueueClockPageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize,
+            int maxAllowedNumPages) {
+        this(allocator, pageSize, maxAllowedNumPages, DEFAULT_PROTECTED_RATIO);
+    }
+
+    public TwoQueueClockPageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize,
+            int maxAllowedNumPages, double protectedRatio) {
+        super(allocator, pageSize, maxAllowedNumPages);
+        if (protectedRatio < 0 || protectedRatio >= 1) {
+            throw new IllegalArgumentException("Invalid protected ratio: " + protectedRatio);
+        }
+        this.maxProtectedPages = (int) (maxAllowedNumPages * protectedRatio);
+        this.numProtectedPages = new AtomicInteger(0);
+    }
+
+    @Override
+    public Object createPerPageStrategyObject(int cpid) {
+        return new AtomicInteger();
+    }
+
+    @Override
+    protected void onPageReset(ICachedPageInternal cPage) {
+        int state = getPerPageObject(cPage).getAndSet(0);
+        if ((state & PROTECTED) != 0) {
+            numProtectedPages.decrementAndGet();
+        }
+    }
+
+    @Override
+    protected void onPageAccess(ICachedPageInternal cPage) {
+        AtomicInteger pageState = getPerPageObject(cPage);
+        int state;
+        int newState;
+        do {
+            state = pageState.get();
+            // the access that brings a page in does not count as a reference
+            newState = (state & SEEN) == 0 ? state | SEEN : state | REFERENCED;
+        } while (newState != state && !pageState.compareAndSet(state, newState));
+    }
+
+    @Override
+    protected boolean isVictimCandidate(ICachedPageInternal cPage) {
+        AtomicInteger pageState = getPerPageObject(cPage);
+        int state = pageState.get();
+        if ((state & PROTECTED) != 0) {
+            if ((state & REFERENCED) != 0) {
+                pageState.compareAndSet(state, state & ~REFERENCED);
+            } else if (numProtectedPages.get() >= maxProtectedPages
+                    && pageState.compareAndSet(state, state & ~PROTECTED)) {
+                // make room for pages waiting to be promoted. the demoted page will be evicted on a later sweep
+                // unless it is referenced again
+                numProtectedPages.decrementAndGet();
+            }
+            return false;
+        }
+        if ((state & REFERENCED) != 0) {
+            if (numProtectedPages.get() < maxProtectedPages
+                    && pageState.compareAndSet(state, (state & ~REFERENCED) | PROTECTED)) {
+                numProtectedPages.incrementAndGet();
+            } else {
+                pageState.compareAndSet(state, state & ~REFERENCED);
+            }
+            return false;
+        }
+        return cPage.isGoodVictim();
+    }
+
+    @Override
+    public void adviseWontNeed(ICachedPageInternal cPage) {
+        //make the page look like a probationary page that was only accessed once
+        int state = getPerPageObject(cPage).getAndSet(SEEN);
+        if ((state & PROTECTED) != 0) {
+            numProtectedPages.decrementAndGet();
+        }
+    }
+
+    public int getNumProtectedPages() {
+        return numProtectedPages.get();
+    }
+
+    private AtomicInteger getPerPageObject(ICachedPageInternal cPage) {
+        return (AtomicInteger) cPage.getReplacementStrategyObject();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.compression;
+
+/**
+ * The page compression schemes supported by the buffer cache. The ordinal of a scheme is persisted in the header of
+ * compressed files, so new schemes must only be appended.
+ */
+public enum CompressionScheme {
+    NONE(null),
+    LZ4(LZ4CompressorDecompressor.INSTANCE);
+
+    private final ICompressorDecompressor compressorDecompressor;
+
+    CompressionScheme(ICompressorDecompressor compressorDecompressor) {
+        this.compressorDecompressor = compressorDecompressor;
+    }
+
+    public ICompressorDecompressor getCompressorDecompressor() {
+        return compressorDecompressor;
+    }
+
+    public boolean isCompressed() {
+        return compressorDecompressor != null;
+    }
+
+    public static CompressionScheme fromName(String name) {
+        for (CompressionScheme scheme : values()) {
+            if (scheme.name().equalsIgnoreCase(name.trim())) {
+                return scheme;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compression scheme: " + name);
+    }
+
+    public static CompressionScheme fromOrdinal(int ordinal) {
+        CompressionScheme[] schemes = values();
+        if (ordinal < 0 || ordinal >= schemes.length) {
+            throw new IllegalArgumentException("Unknown compression scheme ordinal: " + ordinal);
+        }
+        return schemes[ordinal];
+    }
+}
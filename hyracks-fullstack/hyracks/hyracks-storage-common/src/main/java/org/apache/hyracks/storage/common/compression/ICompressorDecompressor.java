@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.compression;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A block codec used to compress the pages of on-disk files.
+ * Implementations must be stateless so that a single instance can be shared by concurrent page writers.
+ */
+public interface ICompressorDecompressor {
+    /**
+     * @param uncompressedLength
+     *            the length of the input
+     * @return the size the output buffer must have to hold the compressed form of any input of the given length
+     */
+    int computeCompressedBufferSize(int uncompressedLength);
+
+    /**
+     * Compress {@code srcLength} bytes of {@code src} starting at {@code srcOffset} into {@code dest}
+     *
+     * @return the length of the compressed data
+     */
+    int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset) throws HyracksDataException;
+
+    /**
+     * Uncompress {@code srcLength} bytes of {@code src} starting at {@code srcOffset} into {@code dest}
+     *
+     * @return the length of the uncompressed data
+     * @throws HyracksDataException
+     *             if the input is corrupted or does not fit in {@code destLength} bytes
+     */
+    int uncompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength)
+            throws HyracksDataException;
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.compression;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A pure Java implementation of the LZ4 block format. It favors speed over ratio: matches are found through a single
+ * hash probe of the last occurrence of each 4-byte sequence, which is enough for the repetitive field names and values
+ * of ADM records.
+ */
+public class LZ4CompressorDecompressor implements ICompressorDecompressor {
+    public static final LZ4CompressorDecompressor INSTANCE = new LZ4CompressorDecompressor();
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+    private static final int HASH_LOG = 12;
+    private static final int RUN_MASK = 0x0F;
+    private static final int ML_MASK = 0x0F;
+
+    private LZ4CompressorDecompressor() {
+    }
+
+    @Override
+    public int computeCompressedBufferSize(int uncompressedLength) {
+        return uncompressedLength + uncompressedLength / 255 + 16;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset)
+            throws HyracksDataException {
+        final int srcEnd = srcOffset + srcLength;
+        final int matchLimit = srcEnd - LAST_LITERALS;
+        final int mfLimit = srcEnd - MF_LIMIT;
+        int sOff = srcOffset;
+        int dOff = destOffset;
+        int anchor = srcOffset;
+        if (srcLength > MF_LIMIT) {
+            final int[] hashTable = new int[1 << HASH_LOG];
+            Arrays.fill(hashTable, -1);
+            while (sOff < mfLimit) {
+                int sequence = readInt(src, sOff);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = sOff;
+                if (ref < 0 || sOff - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ++sOff;
+                    continue;
+                }
+                // extend the match backwards over the pending literals
+                while (sOff > anchor && ref > srcOffset && src[sOff - 1] == src[ref - 1]) {
+                    --sOff;
+                    --ref;
+                }
+                int matchLength = MIN_MATCH;
+                while (sOff + matchLength < matchLimit && src[ref + matchLength] == src[sOff + matchLength]) {
+                    ++matchLength;
+                }
+                dOff = writeSequence(src, anchor, sOff - anchor, sOff - ref, matchLength, dest, dOff);
+                sOff += matchLength;
+                anchor = sOff;
+            }
+        }
+        return writeLastLiterals(src, anchor, srcEnd - anchor, dest, dOff) - destOffset;
+    }
+
+    @Override
+    public int uncompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength)
+            throws HyracksDataException {
+        final int srcEnd = srcOffset + srcLength;
+        final int destEnd = destOffset + destLength;
+        int sOff = srcOffset;
+        int dOff = destOffset;
+        while (sOff < srcEnd) {
+            final int token = src[sOff++] & 0xFF;
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    checkBounds(sOff < srcEnd);
+                    b = src[sOff++] & 0xFF;
+                    literalLength += b;
+                } while (b == 0xFF);
+            }
+            checkBounds(sOff + literalLength <= srcEnd && dOff + literalLength <= destEnd);
+            System.arraycopy(src, sOff, dest, dOff, literalLength);
+            sOff += literalLength;
+            dOff += literalLength;
+            if (sOff == srcEnd) {
+                // the last sequence only consists of literals
+                break;
+            }
+            checkBounds(sOff + 2 <= srcEnd);
+            final int distance = (src[sOff] & 0xFF) | ((src[sOff + 1] & 0xFF) << 8);
+            sOff += 2;
+            int matchLength = token & ML_MASK;
+            if (matchLength == ML_MASK) {
+                int b;
+                do {
+                    checkBounds(sOff < srcEnd);
+                    b = src[sOff++] & 0xFF;
+                    matchLength += b;
+                } while (b == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            int ref = dOff - distance;
+            checkBounds(distance > 0 && ref >= destOffset && dOff + matchLength <= destEnd);
+            // matches may overlap the bytes they produce, so copy byte by byte
+            for (int i = 0; i < matchLength; ++i) {
+                dest[dOff++] = dest[ref++];
+            }
+        }
+        return dOff - destOffset;
+    }
+
+    private static int writeSequence(byte[] src, int literalOffset, int literalLength, int distance,
+            int matchLength, byte[] dest, int dOff) {
+        final int tokenOffset = dOff++;
+        int token;
+        if (literalLength >= RUN_MASK) {
+            token = RUN_MASK << 4;
+            dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(src, literalOffset, dest, dOff, literalLength);
+        dOff += literalLength;
+        dest[dOff++] = (byte) distance;
+        dest[dOff++] = (byte) (distance >>> 8);
+        final int encodedMatchLength = matchLength - MIN_MATCH;
+        if (encodedMatchLength >= ML_MASK) {
+            token |= ML_MASK;
+            dOff = writeLength(encodedMatchLength - ML_MASK, dest, dOff);
+        } else {
+            token |= encodedMatchLength;
+        }
+        dest[tokenOffset] = (byte) token;
+        return dOff;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalOffset, int literalLength, byte[] dest, int dOff) {
+        if (literalLength >= RUN_MASK) {
+            dest[dOff++] = (byte) (RUN_MASK << 4);
+            dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+        } else {
+            dest[dOff++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, literalOffset, dest, dOff, literalLength);
+        return dOff + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dest, int dOff) {
+        while (length >= 0xFF) {
+            dest[dOff++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dest[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    private static int readInt(byte[] buf, int offset) {
+        return (buf[offset] & 0xFF) | ((buf[offset + 1] & 0xFF) << 8) | ((buf[offset + 2] & 0xFF) << 16)
+                | ((buf[offset + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static void checkBounds(boolean condition) throws HyracksDataException {
+        if (!condition) {
+            throw new HyracksDataException("Malformed LZ4 compressed input");
+        }
+    }
+}
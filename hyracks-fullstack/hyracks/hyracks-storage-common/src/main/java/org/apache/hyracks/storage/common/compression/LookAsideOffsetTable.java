@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.compression;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Maps the logical page ids of a compressed file to the offset and length of the variable sized chunk holding the
+ * compressed page. Chunks are only ever appended to the file, so rewriting a page leaves its previous chunk behind as
+ * garbage and simply redirects the entry.
+ * The table is persisted after the last chunk whenever the file is forced and the file header points at it.
+ */
+public class LookAsideOffsetTable {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+    private long[] offsets;
+    private int[] lengths;
+    private int numPages;
+    private long endOfFile;
+    private boolean dirty;
+
+    public LookAsideOffsetTable(long endOfFile) {
+        offsets = new long[INITIAL_CAPACITY];
+        lengths = new int[INITIAL_CAPACITY];
+        Arrays.fill(offsets, -1L);
+        this.endOfFile = endOfFile;
+    }
+
+    /**
+     * Reserve {@code length} bytes at the end of the file for a new chunk of the given page
+     *
+     * @return the file offset of the chunk
+     */
+    public synchronized long append(int pageId, int length) {
+        ensureCapacity(pageId + 1);
+        long offset = endOfFile;
+        endOfFile += length;
+        offsets[pageId] = offset;
+        lengths[pageId] = length;
+        numPages = Math.max(numPages, pageId + 1);
+        dirty = true;
+        return offset;
+    }
+
+    /**
+     * Account for pages that are stored as part of another page's chunk, e.g. the extra blocks of large pages
+     */
+    public synchronized void ensureNumPages(int minNumPages) {
+        if (minNumPages > numPages) {
+            ensureCapacity(minNumPages);
+            numPages = minNumPages;
+            dirty = true;
+        }
+    }
+
+    public synchronized long getOffset(int pageId) {
+        return pageId < numPages ? offsets[pageId] : -1L;
+    }
+
+    public synchronized int getLength(int pageId) {
+        return pageId < numPages ? lengths[pageId] : 0;
+    }
+
+    public synchronized int getNumPages() {
+        return numPages;
+    }
+
+    public synchronized long getEndOfFile() {
+        return endOfFile;
+    }
+
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    public int getSerializedSize() {
+        return Integer.BYTES + getNumPages() * ENTRY_SIZE;
+    }
+
+    /**
+     * Serialize the table into {@code buf}, appending it to the end of the file
+     *
+     * @return the file offset at which {@code buf} must be written
+     */
+    public synchronized long serialize(ByteBuffer buf) {
+        buf.putInt(numPages);
+        for (int i = 0; i < numPages; i++) {
+            buf.putLong(offsets[i]);
+            buf.putInt(lengths[i]);
+        }
+        long offset = endOfFile;
+        endOfFile += buf.position();
+        dirty = false;
+        return offset;
+    }
+
+    public static int getSerializedSize(int numPages) {
+        return Integer.BYTES + numPages * ENTRY_SIZE;
+    }
+
+    public synchronized void deserialize(ByteBuffer buf) {
+        int count = buf.getInt();
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            offsets[i] = buf.getLong();
+            lengths[i] = buf.getInt();
+        }
+        numPages = count;
+        dirty = false;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > offsets.length) {
+            int newCapacity = Math.max(capacity, offsets.length * 2);
+            long[] newOffsets = Arrays.copyOf(offsets, newCapacity);
+            Arrays.fill(newOffsets, offsets.length, newCapacity, -1L);
+            offsets = newOffsets;
+            lengths = Arrays.copyOf(lengths, newCapacity);
+        }
+    }
+}
@@ -21,15 +21,28 @@ package org.apache.hyracks.storage.common.file;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressor;
+import org.apache.hyracks.storage.common.compression.LookAsideOffsetTable;
 
 public class BufferedFileHandle {
     private final int fileId;
     private IFileHandle handle;
     private final AtomicInteger refCount;
+    private final ICompressorDecompressor compressorDecompressor;
+    private final LookAsideOffsetTable offsetTable;
+    // the size of the file when it was last looked up, -1 if it never was. Open files only grow.
+    private volatile long fileSize = -1;
 
     public BufferedFileHandle(int fileId, IFileHandle handle) {
+        this(fileId, handle, null, null);
+    }
+
+    public BufferedFileHandle(int fileId, IFileHandle handle, ICompressorDecompressor compressorDecompressor,
+            LookAsideOffsetTable offsetTable) {
         this.fileId = fileId;
         this.handle = handle;
+        this.compressorDecompressor = compressorDecompressor;
+        this.offsetTable = offsetTable;
         refCount = new AtomicInteger();
     }
 
@@ -49,6 +62,26 @@ public class BufferedFileHandle {
         return handle == null;
     }
 
+    public boolean isCompressed() {
+        return compressorDecompressor != null;
+    }
+
+    public ICompressorDecompressor getCompressorDecompressor() {
+        return compressorDecompressor;
+    }
+
+    public LookAsideOffsetTable getOffsetTable() {
+        return offsetTable;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
     public int incReferenceCount() {
         return refCount.incrementAndGet();
     }
@@ -166,4 +166,64 @@ public class BloomFilterTest extends AbstractBloomFilterTest {
         bf.deactivate();
         bf.destroy();
     }
+
+    @Test
+    public void blockedTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING BLOCKED BLOOM FILTER");
+        }
+
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        int numElements = 10000;
+        int[] keyFields = { 0 };
+
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileReference(), keyFields, true);
+
+        double acceptanleFalsePositiveRate = 0.01;
+        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
+        BloomFilterSpecification bloomFilterSpec =
+                BloomCalculations.computeBloomSpec(maxBucketsPerElement, acceptanleFalsePositiveRate);
+
+        bf.create();
+        bf.activate();
+        IIndexBulkLoader builder = bf.createBuilder(numElements, bloomFilterSpec.getNumHashes(),
+                bloomFilterSpec.getNumBucketsPerElements());
+
+        int fieldCount = 2;
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldCount);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+
+        // insert the even keys
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i, i);
+            builder.add(tuple);
+        }
+        builder.end();
+        bf.deactivate();
+
+        // the layout is persisted, so a filter that is not configured as blocked must still read it as such
+        bf = new BloomFilter(bufferCache, harness.getFileReference(), keyFields);
+        bf.activate();
+        Assert.assertTrue(bf.isBlocked());
+
+        long[] hashes = new long[2];
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i, i);
+            Assert.assertTrue(bf.contains(tuple, hashes));
+        }
+        // blocking costs some accuracy, but it must stay in the same order of magnitude
+        int falsePositives = 0;
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i + 1, i);
+            if (bf.contains(tuple, hashes)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("false positives: " + falsePositives,
+                falsePositives < 3 * acceptanleFalsePositiveRate * numElements);
+
+        bf.deactivate();
+        bf.destroy();
+    }
 }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree;
+
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMLeafFrameFactory;
+import org.apache.hyracks.storage.am.btree.util.BTreeTestHarness;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.ophelpers.FindTupleMode;
+import org.apache.hyracks.storage.am.common.ophelpers.FindTupleNoExactMatchPolicy;
+import org.apache.hyracks.storage.am.common.tuples.TypeAwareTupleWriterFactory;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the leaf frame searches by bisection, by interpolation over normalized keys and by interpolation over
+ * normalized keys stored in the slots. Besides checking that they find the same tuples, it logs the time and the
+ * number of comparator calls per lookup.
+ */
+public class BTreeFrameSearchTest {
+    private static final Logger LOGGER = Logger.getLogger(BTreeFrameSearchTest.class.getName());
+    private static final int NUM_LOOKUPS = 200000;
+    private static final int NUM_ROUNDS = 3;
+    private static final FindTupleMode[] MODES = new FindTupleMode[] { FindTupleMode.INCLUSIVE,
+            FindTupleMode.EXCLUSIVE, FindTupleMode.EXACT, FindTupleMode.EXCLUSIVE_ERROR_IF_EXISTS };
+
+    private final ITypeTraits[] typeTraits =
+            new ITypeTraits[] { IntegerPointable.TYPE_TRAITS, IntegerPointable.TYPE_TRAITS };
+    private final TypeAwareTupleWriterFactory tupleWriterFactory = new TypeAwareTupleWriterFactory(typeTraits);
+
+    @Test
+    public void searchTest32K() throws Exception {
+        runSearches(32768);
+    }
+
+    @Test
+    public void searchTest128K() throws Exception {
+        runSearches(131072);
+    }
+
+    private void runSearches(int pageSize) throws Exception {
+        BTreeTestHarness harness = new BTreeTestHarness(pageSize, 4, 10, 128);
+        harness.setUp();
+        IBufferCache bufferCache = harness.getBufferCache();
+        ICachedPage page = bufferCache.confiscatePage(IBufferCache.INVALID_DPID);
+        ICachedPage storedKeyPage = bufferCache.confiscatePage(IBufferCache.INVALID_DPID);
+        try {
+            CountingComparator counter = new CountingComparator();
+            MultiComparator cmp = new MultiComparator(new IBinaryComparator[] { counter });
+            IBTreeLeafFrame bisectionFrame = new BTreeNSMLeafFrameFactory(tupleWriterFactory).createFrame();
+            IBTreeLeafFrame interpolationFrame =
+                    new BTreeNSMLeafFrameFactory(tupleWriterFactory, new IntegerNormalizedKeyComputerFactory())
+                            .createFrame();
+            IBTreeLeafFrame storedKeyFrame =
+                    new BTreeNSMLeafFrameFactory(tupleWriterFactory, new IntegerNormalizedKeyComputerFactory(), true)
+                            .createFrame();
+            bisectionFrame.setPage(page);
+            bisectionFrame.initBuffer((byte) 0);
+            bisectionFrame.setMultiComparator(cmp);
+            interpolationFrame.setPage(page);
+            interpolationFrame.setMultiComparator(cmp);
+            storedKeyFrame.setPage(storedKeyPage);
+            storedKeyFrame.initBuffer((byte) 0);
+            storedKeyFrame.setMultiComparator(cmp);
+
+            // keys with random gaps, including negative ones
+            Random rnd = new Random(50);
+            ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(typeTraits.length);
+            ArrayTupleReference tuple = new ArrayTupleReference();
+            int key = -100000;
+            int maxKey = key;
+            while (true) {
+                TupleUtils.createIntegerTuple(tupleBuilder, tuple, key, key);
+                if (bisectionFrame.getBytesRequiredToWriteTuple(tuple) > bisectionFrame.getTotalFreeSpace()) {
+                    break;
+                }
+                bisectionFrame.insertSorted(tuple);
+                if (storedKeyFrame.getBytesRequiredToWriteTuple(tuple) <= storedKeyFrame.getTotalFreeSpace()) {
+                    storedKeyFrame.insertSorted(tuple);
+                }
+                maxKey = key;
+                key += 1 + rnd.nextInt(20);
+            }
+            int tupleCount = bisectionFrame.getTupleCount();
+            // the wider slots leave room for fewer tuples, so only keys on both pages are compared
+            int storedKeyCount = storedKeyFrame.getTupleCount();
+            ITreeIndexTupleReference frameTuple = storedKeyFrame.createTupleReference();
+            frameTuple.resetByTupleIndex(storedKeyFrame, storedKeyCount - 1);
+            int maxStoredKey = IntegerPointable.getInteger(frameTuple.getFieldData(0), frameTuple.getFieldStart(0));
+
+            int[] searchKeys = new int[NUM_LOOKUPS];
+            for (int i = 0; i < NUM_LOOKUPS; i++) {
+                searchKeys[i] = -100010 + rnd.nextInt(maxKey + 100020);
+            }
+            for (int i = 0; i < NUM_LOOKUPS / 10; i++) {
+                ITupleReference searchKey = TupleUtils.createIntegerTuple(searchKeys[i]);
+                for (FindTupleMode mode : MODES) {
+                    for (FindTupleNoExactMatchPolicy policy : FindTupleNoExactMatchPolicy.values()) {
+                        Assert.assertEquals(
+                                bisectionFrame.findTupleIndex(searchKey, frameTuple, cmp, mode, policy),
+                                interpolationFrame.findTupleIndex(searchKey, frameTuple, cmp, mode, policy));
+                        if (searchKeys[i] < maxStoredKey) {
+                            Assert.assertEquals(
+                                    bisectionFrame.findTupleIndex(searchKey, frameTuple, cmp, mode, policy),
+                                    storedKeyFrame.findTupleIndex(searchKey, frameTuple, cmp, mode, policy));
+                        }
+                    }
+                }
+            }
+
+            ITupleReference[] searchTuples = new ITupleReference[NUM_LOOKUPS];
+            for (int i = 0; i < NUM_LOOKUPS; i++) {
+                searchTuples[i] = TupleUtils.createIntegerTuple(searchKeys[i]);
+            }
+            long bisectionCalls = 0;
+            long interpolationCalls = 0;
+            long storedKeyCalls = 0;
+            for (int round = 0; round < NUM_ROUNDS; round++) {
+                counter.calls = 0;
+                long bisectionTime = lookup(bisectionFrame, frameTuple, cmp, searchTuples);
+                bisectionCalls = counter.calls;
+                counter.calls = 0;
+                long interpolationTime = lookup(interpolationFrame, frameTuple, cmp, searchTuples);
+                interpolationCalls = counter.calls;
+                counter.calls = 0;
+                long storedKeyTime = lookup(storedKeyFrame, frameTuple, cmp, searchTuples);
+                storedKeyCalls = counter.calls;
+                if (LOGGER.isLoggable(Level.INFO)) {
+                    LOGGER.info(pageSize + " byte page with " + tupleCount + " tuples, round " + round
+                            + ": bisection " + bisectionTime / NUM_LOOKUPS + " ns and "
+                            + (double) bisectionCalls / NUM_LOOKUPS + " comparisons per lookup, interpolation "
+                            + interpolationTime / NUM_LOOKUPS + " ns and "
+                            + (double) interpolationCalls / NUM_LOOKUPS + " comparisons per lookup, stored keys "
+                            + storedKeyTime / NUM_LOOKUPS + " ns and " + (double) storedKeyCalls / NUM_LOOKUPS
+                            + " comparisons per lookup");
+                }
+            }
+            Assert.assertTrue(interpolationCalls < bisectionCalls / 4);
+            Assert.assertTrue(storedKeyCalls < bisectionCalls / 4);
+        } finally {
+            bufferCache.returnPage(page, false);
+            bufferCache.returnPage(storedKeyPage, false);
+            harness.tearDown();
+        }
+    }
+
+    private static long lookup(IBTreeLeafFrame frame, ITreeIndexTupleReference frameTuple, MultiComparator cmp,
+            ITupleReference[] searchTuples) throws Exception {
+        long start = System.nanoTime();
+        for (ITupleReference searchTuple : searchTuples) {
+            frame.findTupleIndex(searchTuple, frameTuple, cmp, FindTupleMode.INCLUSIVE,
+                    FindTupleNoExactMatchPolicy.HIGHER_KEY);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static class CountingComparator implements IBinaryComparator {
+        private final IBinaryComparator cmp =
+                PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator();
+        private long calls = 0;
+
+        @Override
+        public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) throws HyracksDataException {
+            calls++;
+            return cmp.compare(b1, s1, l1, b2, s2, l2);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMInteriorFrameFactory;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMLeafFrameFactory;
+import org.apache.hyracks.storage.am.btree.impls.BTree;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.util.AbstractBTreeTest;
+import org.apache.hyracks.storage.am.common.TestOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexAccessor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.frames.LIFOMetaDataFrameFactory;
+import org.apache.hyracks.storage.am.common.freepage.LinkedMetaDataPageManager;
+import org.apache.hyracks.storage.am.common.tuples.TypeAwareTupleWriterFactory;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs modifications and bulk loads against a string keyed BTree whose frames store normalized keys in their slots.
+ * The keys share prefixes, so that many searches have to fall back to the comparator.
+ */
+public class BTreeNormalizedKeyTest extends AbstractBTreeTest {
+    private static final int NUM_KEYS = 5000;
+
+    private final ITypeTraits[] typeTraits =
+            new ITypeTraits[] { UTF8StringPointable.TYPE_TRAITS, IntegerPointable.TYPE_TRAITS };
+    private final IBinaryComparatorFactory[] cmpFactories =
+            new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY) };
+    private final ISerializerDeserializer[] fieldSerdes = new ISerializerDeserializer[] {
+            new UTF8StringSerializerDeserializer(), IntegerSerializerDeserializer.INSTANCE };
+    private final Random rnd = new Random(50);
+
+    @Test
+    public void modificationTest() throws Exception {
+        BTree btree = createBTree();
+        ITreeIndexAccessor accessor =
+                btree.createAccessor(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        while (expected.size() < NUM_KEYS) {
+            String key = randomKey();
+            if (!expected.containsKey(key)) {
+                expected.put(key, expected.size());
+                accessor.insert(TupleUtils.createTuple(fieldSerdes, key, expected.get(key)));
+            }
+        }
+        verify(btree, expected);
+
+        Iterator<Map.Entry<String, Integer>> iter = expected.entrySet().iterator();
+        int i = 0;
+        while (iter.hasNext()) {
+            Map.Entry<String, Integer> entry = iter.next();
+            if (i % 3 == 0) {
+                accessor.delete(TupleUtils.createTuple(fieldSerdes, entry.getKey(), entry.getValue()));
+                iter.remove();
+            } else if (i % 3 == 1) {
+                entry.setValue(-entry.getValue());
+                accessor.upsert(TupleUtils.createTuple(fieldSerdes, entry.getKey(), entry.getValue()));
+            }
+            i++;
+        }
+        verify(btree, expected);
+
+        btree.deactivate();
+        btree.activate();
+        verify(btree, expected);
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    @Test
+    public void bulkLoadTest() throws Exception {
+        BTree btree = createBTree();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        while (expected.size() < NUM_KEYS) {
+            expected.put(randomKey(), expected.size());
+        }
+        IIndexBulkLoader bulkLoader = btree.createBulkLoader(0.7f, true, NUM_KEYS, true);
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            bulkLoader.add(TupleUtils.createTuple(fieldSerdes, entry.getKey(), entry.getValue()));
+        }
+        bulkLoader.end();
+        verify(btree, expected);
+
+        // inserts into the bulk loaded pages split them
+        ITreeIndexAccessor accessor =
+                btree.createAccessor(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE);
+        for (int i = 0; i < NUM_KEYS / 2; i++) {
+            String key = randomKey();
+            if (!expected.containsKey(key)) {
+                expected.put(key, i);
+                accessor.insert(TupleUtils.createTuple(fieldSerdes, key, i));
+            }
+        }
+        verify(btree, expected);
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    private BTree createBTree() throws Exception {
+        TypeAwareTupleWriterFactory tupleWriterFactory = new TypeAwareTupleWriterFactory(typeTraits);
+        UTF8StringNormalizedKeyComputerFactory keyNormalizerFactory = new UTF8StringNormalizedKeyComputerFactory();
+        ITreeIndexFrameFactory leafFrameFactory =
+                new BTreeNSMLeafFrameFactory(tupleWriterFactory, keyNormalizerFactory, true);
+        ITreeIndexFrameFactory interiorFrameFactory =
+                new BTreeNSMInteriorFrameFactory(tupleWriterFactory, keyNormalizerFactory, true);
+        BTree btree = new BTree(harness.getBufferCache(),
+                new LinkedMetaDataPageManager(harness.getBufferCache(), new LIFOMetaDataFrameFactory()),
+                interiorFrameFactory, leafFrameFactory, cmpFactories, typeTraits.length, harness.getFileReference());
+        btree.create();
+        btree.activate();
+        return btree;
+    }
+
+    private String randomKey() {
+        // the normalized key only covers the first two characters
+        return "k" + (char) ('a' + rnd.nextInt(3)) + rnd.nextInt(NUM_KEYS * 4);
+    }
+
+    private void verify(BTree btree, TreeMap<String, Integer> expected) throws Exception {
+        ITreeIndexAccessor accessor =
+                btree.createAccessor(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE);
+        List<String> keys = new ArrayList<>();
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        accessor.search(cursor, new RangePredicate(null, null, true, true, null, null));
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference tuple = cursor.getTuple();
+                String key = (String) fieldSerdes[0].deserialize(new DataInputStream(new ByteArrayInputStream(
+                        tuple.getFieldData(0), tuple.getFieldStart(0), tuple.getFieldLength(0))));
+                Assert.assertEquals(expected.get(key).intValue(),
+                        IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1)));
+                keys.add(key);
+            }
+        } finally {
+            cursor.close();
+        }
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), keys);
+
+        // point lookups of present and absent keys
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        for (int i = 0; i < 500; i++) {
+            String key = i % 2 == 0 ? keys.get(rnd.nextInt(keys.size())) : randomKey();
+            ITupleReference searchKey = TupleUtils.createTuple(new ISerializerDeserializer[] { fieldSerdes[0] }, key);
+            cursor = accessor.createSearchCursor(false);
+            accessor.search(cursor, new RangePredicate(searchKey, searchKey, true, true, cmp, cmp));
+            try {
+                Assert.assertEquals(expected.containsKey(key), cursor.hasNext());
+                if (cursor.hasNext()) {
+                    cursor.next();
+                    Assert.assertFalse(cursor.hasNext());
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+}
@@ -54,10 +54,13 @@ import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexMetadataFrameFactory;
 import org.apache.hyracks.storage.am.common.frames.LIFOMetaDataFrameFactory;
+import org.apache.hyracks.storage.am.common.freepage.AppendOnlyLinkedMetadataPageManager;
 import org.apache.hyracks.storage.am.common.freepage.LinkedMetaDataPageManager;
 import org.apache.hyracks.storage.am.common.tuples.TypeAwareTupleWriterFactory;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
 import org.apache.hyracks.storage.common.MultiComparator;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -298,6 +301,90 @@ public class BTreeSearchCursorTest extends AbstractBTreeTest {
         btree.destroy();
     }
 
+    @Test
+    public void zoneMapTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING RANGE SEARCH CURSOR WITH ZONE MAP");
+        }
+
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        IBinaryComparatorFactory intCmpFactory = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+        IBinaryComparatorFactory[] cmpFactories = new IBinaryComparatorFactory[] { intCmpFactory };
+
+        ITreeIndexFrameFactory leafFrameFactory = new BTreeNSMLeafFrameFactory(tupleWriterFactory);
+        ITreeIndexFrameFactory interiorFrameFactory = new BTreeNSMInteriorFrameFactory(tupleWriterFactory);
+        IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) leafFrameFactory.createFrame();
+
+        // the zone map is kept for the non-key field
+        IMetadataPageManager freePageManager = new AppendOnlyLinkedMetadataPageManager(bufferCache, metaFrameFactory);
+        BTree btree = new BTree(bufferCache, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories,
+                fieldCount, harness.getFileReference(), CompressionScheme.NONE, 1, intCmpFactory);
+        btree.create();
+        btree.activate();
+
+        // the second field grows with the key, like the creation time of an event
+        int numKeys = 10000;
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldCount);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        IIndexBulkLoader bulkLoader = btree.createBulkLoader(1.0f, true, numKeys, true);
+        for (int i = 0; i < numKeys; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, 2 * i);
+            bulkLoader.add(tuple);
+        }
+        bulkLoader.end();
+        Assert.assertTrue(btree.getZoneMap().getNumLeaves() > 10);
+
+        Assert.assertEquals(numKeys, zoneMapSearch(btree, leafFrame, numKeys, null, null));
+        int matches = zoneMapSearch(btree, leafFrame, numKeys, 9000, 9100);
+        Assert.assertTrue(matches >= 51 && matches < numKeys / 10);
+        Assert.assertEquals(0, zoneMapSearch(btree, leafFrame, numKeys, 2 * numKeys, null));
+
+        // the zone map has to be found again once the tree is reopened
+        btree.deactivate();
+        btree.activate();
+        Assert.assertEquals(matches, zoneMapSearch(btree, leafFrame, numKeys, 9000, 9100));
+        Assert.assertEquals(numKeys, zoneMapSearch(btree, leafFrame, numKeys, null, 2 * numKeys));
+
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    private int zoneMapSearch(BTree btree, IBTreeLeafFrame leafFrame, int numKeys, Integer low, Integer high)
+            throws Exception {
+        RangePredicate rangePred = new RangePredicate(null, null, true, true, null, null);
+        rangePred.setZoneMapRange(low == null ? null : TupleUtils.createIntegerTuple(false, low),
+                high == null ? null : TupleUtils.createIntegerTuple(false, high));
+        ITreeIndexCursor rangeCursor = new BTreeRangeSearchCursor(leafFrame, false);
+        ITreeIndexAccessor indexAccessor =
+                btree.createAccessor(TestOperationCallback.INSTANCE, TestOperationCallback.INSTANCE);
+        indexAccessor.search(rangeCursor, rangePred);
+        int count = 0;
+        int matches = 0;
+        try {
+            while (rangeCursor.hasNext()) {
+                rangeCursor.next();
+                ITupleReference frameTuple = rangeCursor.getTuple();
+                int value = IntegerPointable.getInteger(frameTuple.getFieldData(1), frameTuple.getFieldStart(1));
+                if ((low == null || value >= low) && (high == null || value <= high)) {
+                    matches++;
+                }
+                count++;
+            }
+        } finally {
+            rangeCursor.close();
+        }
+        // the leaves that are visited still return all of their tuples, but no match may be skipped
+        int expectedMatches = 0;
+        for (int i = 0; i < numKeys; i++) {
+            if ((low == null || 2 * i >= low) && (high == null || 2 * i <= high)) {
+                expectedMatches++;
+            }
+        }
+        Assert.assertEquals(expectedMatches, matches);
+        return count;
+    }
+
     public RangePredicate createRangePredicate(int lk, int hk, boolean lowKeyInclusive, boolean highKeyInclusive)
             throws HyracksDataException {
 
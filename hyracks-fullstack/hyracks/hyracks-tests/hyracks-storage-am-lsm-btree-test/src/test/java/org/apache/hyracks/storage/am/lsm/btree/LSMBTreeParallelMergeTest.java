@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.storage.am.btree.OrderedIndexTestContext;
+import org.apache.hyracks.storage.am.btree.OrderedIndexTestUtils;
+import org.apache.hyracks.storage.am.btree.frames.BTreeLeafFrameType;
+import org.apache.hyracks.storage.am.common.CheckTuple;
+import org.apache.hyracks.storage.am.common.TreeIndexTestUtils;
+import org.apache.hyracks.storage.am.config.AccessMethodTestsConfig;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallbackFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the merge tests against an LSMBTree that splits its merges into key ranges merged by threads of their own.
+ */
+@SuppressWarnings("rawtypes")
+public class LSMBTreeParallelMergeTest extends LSMBTreeMergeTestDriver {
+    private static final int NUM_MERGE_PARTITIONS = 4;
+    // fewer threads than key ranges, like the bounded executor shared by the indexes of a node
+    private static final int NUM_MERGE_THREADS = 2;
+
+    public LSMBTreeParallelMergeTest() {
+        super(LSMBTreeTestHarness.LEAF_FRAMES_TO_TEST);
+    }
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+    private ExecutorService mergeExecutor;
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+        mergeExecutor = Executors.newFixedThreadPool(NUM_MERGE_THREADS, Executors.defaultThreadFactory());
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        mergeExecutor.shutdownNow();
+        harness.tearDown();
+    }
+
+    /**
+     * Merges components with deleted tuples, first only some of them, so that the antimatter tuples have to survive
+     * the merge, then all of them.
+     */
+    @Test
+    public void deleteMergeTest() throws Exception {
+        ISerializerDeserializer[] fieldSerdes =
+                { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+        OrderedIndexTestContext ctx =
+                createTestContext(fieldSerdes, 1, LSMBTreeTestHarness.LEAF_FRAMES_TO_TEST[0], false);
+        OrderedIndexTestUtils orderedIndexTestUtils = new OrderedIndexTestUtils();
+        LSMBTree lsmBTree = (LSMBTree) ctx.getIndex();
+        lsmBTree.create();
+        lsmBTree.activate();
+        orderedIndexTestUtils.bulkLoadIntTuples(ctx, numTuplesToInsert * 4, getRandom());
+        for (int i = 0; i < AccessMethodTestsConfig.BTREE_NUM_DELETE_ROUNDS; i++) {
+            orderedIndexTestUtils.insertIntTuples(ctx, numTuplesToInsert, getRandom());
+            orderedIndexTestUtils.deleteTuples(ctx, numTuplesToInsert, getRandom());
+            // Deactivate and the re-activate the index to force it flush its in memory component
+            lsmBTree.deactivate();
+            lsmBTree.activate();
+        }
+
+        ILSMIndexAccessor accessor = (ILSMIndexAccessor) ctx.getIndexAccessor();
+        List<ILSMDiskComponent> newestComponents = new ArrayList<>(lsmBTree.getImmutableComponents().subList(0, 2));
+        accessor.scheduleMerge(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback(), newestComponents);
+        Assert.assertEquals(AccessMethodTestsConfig.BTREE_NUM_DELETE_ROUNDS, lsmBTree.getImmutableComponents().size());
+        orderedIndexTestUtils.checkPointSearches(ctx);
+        orderedIndexTestUtils.checkScan(ctx);
+
+        accessor.scheduleMerge(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback(),
+                new ArrayList<>(lsmBTree.getImmutableComponents()));
+        Assert.assertEquals(1, lsmBTree.getImmutableComponents().size());
+        orderedIndexTestUtils.checkPointSearches(ctx);
+        orderedIndexTestUtils.checkScan(ctx);
+        orderedIndexTestUtils.checkDiskOrderScan(ctx);
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+
+    /**
+     * Merges components in which the lower half of the keys is deleted, so that the key range merged by the calling
+     * thread is empty and the merged component starts with the leaves of the other key ranges.
+     */
+    @Test
+    public void emptyFirstRangeMergeTest() throws Exception {
+        ISerializerDeserializer[] fieldSerdes =
+                { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+        OrderedIndexTestContext ctx =
+                createTestContext(fieldSerdes, 1, LSMBTreeTestHarness.LEAF_FRAMES_TO_TEST[0], false);
+        OrderedIndexTestUtils orderedIndexTestUtils = new OrderedIndexTestUtils();
+        LSMBTree lsmBTree = (LSMBTree) ctx.getIndex();
+        lsmBTree.create();
+        lsmBTree.activate();
+        orderedIndexTestUtils.bulkLoadIntTuples(ctx, numTuplesToInsert * 4, getRandom());
+        List<CheckTuple> lowerHalf = new ArrayList<>(ctx.getCheckTuples()).subList(0, ctx.getCheckTuples().size() / 2);
+        ArrayTupleBuilder deleteTupleBuilder = new ArrayTupleBuilder(fieldSerdes.length);
+        ArrayTupleReference deleteTuple = new ArrayTupleReference();
+        for (CheckTuple checkTuple : lowerHalf) {
+            TreeIndexTestUtils.createTupleFromCheckTuple(checkTuple, deleteTupleBuilder, deleteTuple, fieldSerdes);
+            ctx.getIndexAccessor().delete(deleteTuple);
+            ctx.deleteCheckTuple(checkTuple, ctx.getCheckTuples());
+        }
+        lsmBTree.deactivate();
+        lsmBTree.activate();
+
+        ILSMIndexAccessor accessor = (ILSMIndexAccessor) ctx.getIndexAccessor();
+        accessor.scheduleMerge(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback(),
+                new ArrayList<>(lsmBTree.getImmutableComponents()));
+        Assert.assertEquals(1, lsmBTree.getImmutableComponents().size());
+        orderedIndexTestUtils.checkPointSearches(ctx);
+        orderedIndexTestUtils.checkScan(ctx);
+        orderedIndexTestUtils.checkDiskOrderScan(ctx);
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+
+    @Override
+    protected OrderedIndexTestContext createTestContext(ISerializerDeserializer[] fieldSerdes, int numKeys,
+            BTreeLeafFrameType leafType, boolean filtered) throws Exception {
+        return LSMBTreeTestContext.create(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), fieldSerdes, numKeys,
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallback(), harness.getMetadataPageManagerFactory(),
+                filtered, NUM_MERGE_PARTITIONS, mergeExecutor);
+    }
+
+    @Override
+    protected Random getRandom() {
+        return harness.getRandom();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.btree.utils.LSMBTreeUtil;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallbackFactory;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Searches an LSMBTree whose disk components keep a zone map over a non-key field with a zone map range, through the
+ * LSM search cursors.
+ */
+public class LSMBTreeZoneMapTest {
+    private static final int NUM_DISK_KEYS = 10000;
+    private static final int NUM_MEMORY_KEYS = 100;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void zoneMapSearchTest() throws Exception {
+        IBinaryComparatorFactory intCmpFactory = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+        ITypeTraits[] typeTraits = { IntegerPointable.TYPE_TRAITS, IntegerPointable.TYPE_TRAITS };
+        IBinaryComparatorFactory[] cmpFactories = { intCmpFactory };
+        // the zone map is kept for the non-key field
+        LSMBTree lsmBTree = LSMBTreeUtil.createLSMTree(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), typeTraits, cmpFactories, new int[] { 0 },
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallback(), true, null, null, null, null, true,
+                harness.getMetadataPageManagerFactory(), CompressionScheme.NONE, false, 1, intCmpFactory);
+        lsmBTree.create();
+        lsmBTree.activate();
+
+        // the second field grows with the key, like the creation time of an event
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        IIndexBulkLoader bulkLoader = lsmBTree.createBulkLoader(1.0f, false, NUM_DISK_KEYS, true);
+        for (int i = 0; i < NUM_DISK_KEYS; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, 2 * i);
+            bulkLoader.add(tuple);
+        }
+        bulkLoader.end();
+        ILSMIndexAccessor accessor =
+                lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        for (int i = NUM_DISK_KEYS; i < NUM_DISK_KEYS + NUM_MEMORY_KEYS; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, 2 * i);
+            accessor.insert(tuple);
+        }
+
+        int numKeys = NUM_DISK_KEYS + NUM_MEMORY_KEYS;
+        Assert.assertEquals(numKeys, zoneMapSearch(accessor, numKeys, null, null));
+        // the in-memory component has no zone map, so its tuples are always returned
+        int matches = zoneMapSearch(accessor, numKeys, 9000, 9100);
+        Assert.assertTrue(matches >= 51 + NUM_MEMORY_KEYS && matches < NUM_DISK_KEYS / 10);
+        Assert.assertEquals(NUM_MEMORY_KEYS, zoneMapSearch(accessor, numKeys, 2 * NUM_DISK_KEYS, null));
+
+        // once flushed, the new disk component gets a zone map of its own
+        lsmBTree.deactivate();
+        lsmBTree.activate();
+        Assert.assertEquals(2, lsmBTree.getImmutableComponents().size());
+        accessor = lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        Assert.assertEquals(matches - NUM_MEMORY_KEYS, zoneMapSearch(accessor, numKeys, 9000, 9100));
+        Assert.assertEquals(NUM_MEMORY_KEYS, zoneMapSearch(accessor, numKeys, 2 * NUM_DISK_KEYS, null));
+        Assert.assertEquals(0, zoneMapSearch(accessor, numKeys, 2 * numKeys, null));
+
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+
+    /**
+     * The key ranges of a partitioned merge load their leaves concurrently, so the page ids of the merged component
+     * are not in leaf order. Its zone map must still be used.
+     */
+    @Test
+    public void partitionedMergeZoneMapTest() throws Exception {
+        IBinaryComparatorFactory intCmpFactory = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+        ITypeTraits[] typeTraits = { IntegerPointable.TYPE_TRAITS, IntegerPointable.TYPE_TRAITS };
+        IBinaryComparatorFactory[] cmpFactories = { intCmpFactory };
+        ExecutorService mergeExecutor = Executors.newFixedThreadPool(3);
+        try {
+            LSMBTree lsmBTree = LSMBTreeUtil.createLSMTree(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                    harness.getFileReference(), harness.getDiskBufferCache(), typeTraits, cmpFactories,
+                    new int[] { 0 }, harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(),
+                    harness.getOperationTracker(), harness.getIOScheduler(), harness.getIOOperationCallback(), true,
+                    null, null, null, null, true, harness.getMetadataPageManagerFactory(), CompressionScheme.NONE,
+                    false, 1, intCmpFactory, 4, mergeExecutor);
+            lsmBTree.create();
+            lsmBTree.activate();
+            ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+            ArrayTupleReference tuple = new ArrayTupleReference();
+            IIndexBulkLoader bulkLoader = lsmBTree.createBulkLoader(1.0f, false, NUM_DISK_KEYS, true);
+            for (int i = 0; i < NUM_DISK_KEYS; i++) {
+                TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, 2 * i);
+                bulkLoader.add(tuple);
+            }
+            bulkLoader.end();
+            ILSMIndexAccessor accessor =
+                    lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+            for (int i = NUM_DISK_KEYS; i < NUM_DISK_KEYS + NUM_MEMORY_KEYS; i++) {
+                TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, 2 * i);
+                accessor.insert(tuple);
+            }
+            lsmBTree.deactivate();
+            lsmBTree.activate();
+            accessor = lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+            accessor.scheduleMerge(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback(),
+                    new ArrayList<>(lsmBTree.getImmutableComponents()));
+            Assert.assertEquals(1, lsmBTree.getImmutableComponents().size());
+
+            int numKeys = NUM_DISK_KEYS + NUM_MEMORY_KEYS;
+            Assert.assertEquals(numKeys, zoneMapSearch(accessor, numKeys, null, null));
+            int matches = zoneMapSearch(accessor, numKeys, 9000, 9100);
+            Assert.assertTrue(matches >= 51 && matches < NUM_DISK_KEYS / 10);
+            Assert.assertEquals(0, zoneMapSearch(accessor, numKeys, 2 * numKeys, null));
+            lsmBTree.deactivate();
+            lsmBTree.destroy();
+        } finally {
+            mergeExecutor.shutdownNow();
+        }
+    }
+
+    private int zoneMapSearch(ILSMIndexAccessor accessor, int numKeys, Integer low, Integer high) throws Exception {
+        RangePredicate rangePred = new RangePredicate(null, null, true, true, null, null);
+        rangePred.setZoneMapRange(low == null ? null : TupleUtils.createIntegerTuple(false, low),
+                high == null ? null : TupleUtils.createIntegerTuple(false, high));
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        accessor.search(cursor, rangePred);
+        int count = 0;
+        int matches = 0;
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference frameTuple = cursor.getTuple();
+                int value = IntegerPointable.getInteger(frameTuple.getFieldData(1), frameTuple.getFieldStart(1));
+                if ((low == null || value >= low) && (high == null || value <= high)) {
+                    matches++;
+                }
+                count++;
+            }
+        } finally {
+            cursor.close();
+        }
+        // the leaves that are visited still return all of their tuples, but no match may be skipped
+        int expectedMatches = 0;
+        for (int i = 0; i < numKeys; i++) {
+            if ((low == null || 2 * i >= low) && (high == null || 2 * i <= high)) {
+                expectedMatches++;
+            }
+        }
+        Assert.assertEquals(expectedMatches, matches);
+        return count;
+    }
+}
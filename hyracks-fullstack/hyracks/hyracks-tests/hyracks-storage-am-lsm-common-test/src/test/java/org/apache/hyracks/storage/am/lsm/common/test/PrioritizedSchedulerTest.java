@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation.LSMIOOpertionType;
+import org.apache.hyracks.storage.am.lsm.common.impls.MergeThrottle;
+import org.apache.hyracks.storage.am.lsm.common.impls.PrioritizedScheduler;
+import org.apache.hyracks.storage.am.lsm.common.impls.TokenBucket;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class PrioritizedSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void testMergeLimit() throws Exception {
+        PrioritizedScheduler scheduler = new PrioritizedScheduler(Executors.defaultThreadFactory(), 1, 0);
+        IODeviceHandle device1 = Mockito.mock(IODeviceHandle.class);
+        IODeviceHandle device2 = Mockito.mock(IODeviceHandle.class);
+        Semaphore started = new Semaphore(0);
+        CountDownLatch release = new CountDownLatch(1);
+
+        scheduler.scheduleOperation(mockOperation(LSMIOOpertionType.MERGE, device1, started, release));
+        scheduler.scheduleOperation(mockOperation(LSMIOOpertionType.MERGE, device1, started, release));
+        scheduler.scheduleOperation(mockOperation(LSMIOOpertionType.MERGE, device2, started, release));
+        Assert.assertTrue(started.tryAcquire(2, TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // the second merge on the first device waits for the first one
+        Assert.assertFalse(started.tryAcquire(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, scheduler.getStatistics(LSMIOOpertionType.MERGE).getQueueDepth());
+
+        // flushes do not wait for merges, even on a device that has waiting merges
+        scheduler.scheduleOperation(mockOperation(LSMIOOpertionType.FLUSH, device1, started, release));
+        Assert.assertTrue(started.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        release.countDown();
+        Assert.assertTrue(started.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(0, scheduler.getStatistics(LSMIOOpertionType.MERGE).getQueueDepth());
+        Assert.assertEquals(3, scheduler.getStatistics(LSMIOOpertionType.MERGE).getNumOperations());
+        Assert.assertEquals(1, scheduler.getStatistics(LSMIOOpertionType.FLUSH).getNumOperations());
+        Assert.assertTrue(scheduler.getStatistics(LSMIOOpertionType.MERGE).getMaxWaitNanos() > 0);
+    }
+
+    @Test
+    public void testTokenBucket() {
+        TokenBucket bucket = new TokenBucket(1000, 1000);
+        Assert.assertEquals(0, bucket.reserve(1000));
+        // the bucket is empty, so the next 500 tokens take half a second
+        long waitNanos = bucket.reserve(500);
+        Assert.assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(400));
+        Assert.assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(500));
+        // a large request puts the bucket in debt, and the requests that follow wait for it
+        Assert.assertTrue(bucket.reserve(2000) > TimeUnit.MILLISECONDS.toNanos(2400));
+        Assert.assertTrue(bucket.reserve(1) > TimeUnit.MILLISECONDS.toNanos(2400));
+    }
+
+    @Test
+    public void testMergeThrottle() throws Exception {
+        TokenBucket bucket = Mockito.mock(TokenBucket.class);
+        MergeThrottle throttle = new MergeThrottle(bucket, 100);
+        ITupleReference tuple = Mockito.mock(ITupleReference.class);
+        Mockito.when(tuple.getFieldCount()).thenReturn(2);
+        Mockito.when(tuple.getFieldLength(Mockito.anyInt())).thenReturn(20);
+        // the tokens are taken once a chunk of reads is complete, not before the merge reads
+        throttle.read(tuple);
+        throttle.read(tuple);
+        Mockito.verify(bucket, Mockito.never()).acquire(Mockito.anyLong());
+        throttle.read(tuple);
+        Mockito.verify(bucket).acquire(120);
+        throttle.read(tuple);
+        Mockito.verifyNoMoreInteractions(bucket);
+    }
+
+    private static ILSMIOOperation mockOperation(LSMIOOpertionType type, IODeviceHandle device, Semaphore started,
+            CountDownLatch release) throws Exception {
+        ILSMIOOperation operation = Mockito.mock(ILSMIOOperation.class);
+        Mockito.when(operation.getIOOpertionType()).thenReturn(type);
+        Mockito.when(operation.getDevice()).thenReturn(device);
+        Mockito.when(operation.getIndexIdentifier()).thenReturn("index");
+        Mockito.when(operation.call()).thenAnswer(invocation -> {
+            started.release();
+            if (type == LSMIOOpertionType.MERGE) {
+                release.await();
+            }
+            return true;
+        });
+        return operation;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.AbstractSizeRatioMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMAmplificationStatistics;
+import org.apache.hyracks.storage.am.lsm.common.impls.LeveledMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.TieredMergePolicy;
+import org.apache.hyracks.storage.common.IModificationOperationCallback;
+import org.apache.hyracks.storage.common.ISearchOperationCallback;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class SizeRatioMergePolicyTest {
+
+    private static final int SIZE_RATIO = 4;
+
+    private static final int MAX_COMPONENT_COUNT = 10;
+
+    private static final int NUM_FLUSHES = 1000;
+
+    @Test
+    public void testTiered() throws HyracksDataException {
+        AbstractSizeRatioMergePolicy policy = createMergePolicy(new TieredMergePolicy());
+        // the components are ordered from the newest to the oldest
+        List<Long> sizes = new ArrayList<>(Arrays.asList(1L, 1L, 1L, 4L));
+        List<List<Long>> merges = new ArrayList<>();
+        policy.diskComponentAdded(mockIndex(sizes, merges, policy), false);
+        Assert.assertTrue(merges.isEmpty());
+
+        sizes.add(0, 1L);
+        policy.diskComponentAdded(mockIndex(sizes, merges, policy), false);
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1L, 1L, 1L, 1L)), merges);
+        Assert.assertEquals(Arrays.asList(4L, 4L), sizes);
+    }
+
+    @Test
+    public void testLeveled() throws HyracksDataException {
+        AbstractSizeRatioMergePolicy policy = createMergePolicy(new LeveledMergePolicy());
+        List<Long> sizes = new ArrayList<>(Arrays.asList(1L, 4L, 16L));
+        List<List<Long>> merges = new ArrayList<>();
+        policy.diskComponentAdded(mockIndex(sizes, merges, policy), false);
+        Assert.assertTrue(merges.isEmpty());
+
+        sizes.add(0, 1L);
+        policy.diskComponentAdded(mockIndex(sizes, merges, policy), false);
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1L, 1L)), merges);
+        Assert.assertEquals(Arrays.asList(2L, 4L, 16L), sizes);
+    }
+
+    @Test
+    public void testMergeLagging() throws HyracksDataException {
+        AbstractSizeRatioMergePolicy policy = createMergePolicy(new TieredMergePolicy());
+        // components of very different sizes never form a tier
+        List<Long> sizes = new ArrayList<>();
+        for (int i = 0; i < MAX_COMPONENT_COUNT; i++) {
+            sizes.add(1L << (3 * i));
+        }
+        List<List<Long>> merges = new ArrayList<>();
+        ILSMIndex index = mockIndex(sizes, merges, policy);
+        policy.diskComponentAdded(index, false);
+        Assert.assertTrue(merges.isEmpty());
+        Assert.assertTrue(policy.isMergeLagging(index));
+        Assert.assertEquals(1, merges.size());
+        Assert.assertEquals(1, sizes.size());
+    }
+
+    @Test
+    public void testAmplification() throws HyracksDataException {
+        AbstractSizeRatioMergePolicy tiered = createMergePolicy(new TieredMergePolicy());
+        AbstractSizeRatioMergePolicy leveled = createMergePolicy(new LeveledMergePolicy());
+        int tieredMaxComponents = simulateFlushes(tiered);
+        int leveledMaxComponents = simulateFlushes(leveled);
+
+        LSMAmplificationStatistics tieredStatistics = tiered.getAmplificationStatistics();
+        LSMAmplificationStatistics leveledStatistics = leveled.getAmplificationStatistics();
+        Assert.assertEquals(NUM_FLUSHES, tieredStatistics.getIngestedBytes());
+        Assert.assertEquals(NUM_FLUSHES, leveledStatistics.getIngestedBytes());
+        Assert.assertEquals(NUM_FLUSHES, tieredStatistics.getSearches());
+        // tiering writes less, leveling reads fewer components
+        Assert.assertTrue(tieredStatistics.getWriteAmplification() < leveledStatistics.getWriteAmplification());
+        Assert.assertTrue(tieredStatistics.getReadAmplification() > leveledStatistics.getReadAmplification());
+        Assert.assertTrue(tieredMaxComponents <= MAX_COMPONENT_COUNT);
+        Assert.assertTrue(leveledMaxComponents <= MAX_COMPONENT_COUNT);
+    }
+
+    private int simulateFlushes(AbstractSizeRatioMergePolicy policy) throws HyracksDataException {
+        List<Long> sizes = new ArrayList<>();
+        List<List<Long>> merges = new ArrayList<>();
+        int maxComponents = 0;
+        for (int i = 0; i < NUM_FLUSHES; i++) {
+            sizes.add(0, 1L);
+            policy.diskComponentWritten(mockComponent(1L), false);
+            // the harness calls the policy again after each merge, and blocks flushes while merges are lagging
+            int numMerges;
+            do {
+                numMerges = merges.size();
+                policy.diskComponentAdded(mockIndex(sizes, merges, policy), false);
+                policy.isMergeLagging(mockIndex(sizes, merges, policy));
+            } while (merges.size() > numMerges);
+            maxComponents = Math.max(maxComponents, sizes.size());
+            policy.componentsSearched(sizes.size());
+        }
+        return maxComponents;
+    }
+
+    private AbstractSizeRatioMergePolicy createMergePolicy(AbstractSizeRatioMergePolicy policy) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(AbstractSizeRatioMergePolicy.SIZE_RATIO, String.valueOf(SIZE_RATIO));
+        properties.put(AbstractSizeRatioMergePolicy.MAX_TOLERANCE_COMPONENT_COUNT,
+                String.valueOf(MAX_COMPONENT_COUNT));
+        properties.put(TieredMergePolicy.COMPONENTS_PER_TIER, String.valueOf(SIZE_RATIO));
+        policy.configure(properties);
+        return policy;
+    }
+
+    private static ILSMDiskComponent mockComponent(long size) {
+        ILSMDiskComponent component = Mockito.mock(ILSMDiskComponent.class);
+        Mockito.when(component.getComponentSize()).thenReturn(size);
+        Mockito.when(component.getState()).thenReturn(ComponentState.READABLE_UNWRITABLE);
+        return component;
+    }
+
+    private static ILSMIndex mockIndex(List<Long> componentSizes, List<List<Long>> merges,
+            AbstractSizeRatioMergePolicy policy) throws HyracksDataException {
+        List<ILSMDiskComponent> components = new ArrayList<>();
+        for (Long size : componentSizes) {
+            components.add(mockComponent(size));
+        }
+        ILSMIndex index = Mockito.mock(ILSMIndex.class);
+        Mockito.when(index.getImmutableComponents()).thenReturn(components);
+
+        ILSMIndexAccessor accessor = Mockito.mock(ILSMIndexAccessor.class);
+        Mockito.doAnswer(invocation -> {
+            List<ILSMDiskComponent> mergedComponents = invocation.getArgumentAt(1, List.class);
+            List<Long> mergedSizes = new ArrayList<>();
+            long sum = 0;
+            for (ILSMDiskComponent c : mergedComponents) {
+                mergedSizes.add(c.getComponentSize());
+                sum += c.getComponentSize();
+            }
+            merges.add(mergedSizes);
+            ILSMDiskComponent component = mockComponent(sum);
+            policy.diskComponentWritten(component, true);
+            int swapIndex = components.indexOf(mergedComponents.get(0));
+            components.removeAll(mergedComponents);
+            components.add(swapIndex, component);
+            componentSizes.clear();
+            for (ILSMDiskComponent c : components) {
+                componentSizes.add(c.getComponentSize());
+            }
+            return null;
+        }).when(accessor).scheduleMerge(Mockito.any(ILSMIOOperationCallback.class),
+                Mockito.anyListOf(ILSMDiskComponent.class));
+        Mockito.when(index.createAccessor(Mockito.any(IModificationOperationCallback.class),
+                Mockito.any(ISearchOperationCallback.class))).thenReturn(accessor);
+        return index;
+    }
+}
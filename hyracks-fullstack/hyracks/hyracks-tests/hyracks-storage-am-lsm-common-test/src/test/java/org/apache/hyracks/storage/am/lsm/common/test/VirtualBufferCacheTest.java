@@ -18,12 +18,20 @@
  */
 package org.apache.hyracks.storage.am.lsm.common.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.control.nc.io.IOManager;
@@ -97,6 +105,120 @@ public class VirtualBufferCacheTest {
         vbc.close();
     }
 
+    /**
+     * Checks that the cache is full once it uses its page budget rather than its initial number of pages, whether the
+     * budget is smaller or larger.
+     */
+    @Test
+    public void test02() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, NUM_FILES);
+        ioManager = TestStorageManagerComponentHolder.getIOManager();
+        ICacheMemoryAllocator allocator = new HeapBufferAllocator();
+        vbc = new VirtualBufferCache(allocator, PAGE_SIZE, NUM_PAGES);
+        vbc.open();
+        createFiles();
+
+        vbc.setPageBudget(NUM_PAGES / 4);
+        kPins(NUM_PAGES / 4 - 1);
+        assertFalse(vbc.isFull());
+        kPins(1);
+        assertTrue(vbc.isFull());
+
+        vbc.reset();
+        for (FileState f : fileStates) {
+            f.pinnedPages.clear();
+        }
+        vbc.setPageBudget(NUM_PAGES * 2);
+        kPins(NUM_PAGES + NUM_OVERPIN);
+        assertFalse(vbc.isFull());
+        assertTrue(pagesDisjointed());
+        assertEquals(NUM_PAGES / 4 + NUM_PAGES + NUM_OVERPIN, vbc.getTotalPagesUsed());
+
+        deleteFiles();
+        vbc.close();
+    }
+
+    /**
+     * Pins the same pages from several threads, which look the cached pages up without the bucket locks, and checks
+     * that every thread gets the same page for a page id.
+     */
+    @Test
+    public void test03() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, NUM_FILES);
+        ioManager = TestStorageManagerComponentHolder.getIOManager();
+        ICacheMemoryAllocator allocator = new HeapBufferAllocator();
+        vbc = new VirtualBufferCache(allocator, PAGE_SIZE, NUM_PAGES);
+        vbc.open();
+        createFiles();
+
+        final int numThreads = 4;
+        List<Callable<ICachedPage[]>> pinners = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int offset = t;
+            pinners.add(() -> {
+                ICachedPage[] pinned = new ICachedPage[NUM_PAGES];
+                for (int i = 0; i < NUM_PAGES; i++) {
+                    // the threads pin the pages in different orders
+                    int pageId = (i + offset * (NUM_PAGES / numThreads)) % NUM_PAGES;
+                    FileState f = fileStates[pageId % NUM_FILES];
+                    pinned[pageId] = vbc.pin(BufferedFileHandle.getDiskPageId(f.fileId, pageId), true);
+                }
+                return pinned;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<ICachedPage[]>> results = executor.invokeAll(pinners);
+            ICachedPage[] expected = results.get(0).get();
+            Set<ICachedPage> distinct = new HashSet<>();
+            Collections.addAll(distinct, expected);
+            assertEquals(NUM_PAGES, distinct.size());
+            for (Future<ICachedPage[]> result : results) {
+                ICachedPage[] pinned = result.get();
+                for (int i = 0; i < NUM_PAGES; i++) {
+                    assertTrue(expected[i] == pinned[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        deleteFiles();
+        vbc.close();
+    }
+
+    /**
+     * Checks that the bytes charged to the cache count against its page budget, together with the pinned pages, until
+     * the cache is reset.
+     */
+    @Test
+    public void test04() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, NUM_FILES);
+        ioManager = TestStorageManagerComponentHolder.getIOManager();
+        ICacheMemoryAllocator allocator = new HeapBufferAllocator();
+        vbc = new VirtualBufferCache(allocator, PAGE_SIZE, NUM_PAGES);
+        vbc.open();
+        createFiles();
+
+        vbc.setPageBudget(NUM_PAGES);
+        kPins(NUM_PAGES / 2);
+        for (int i = 0; i < NUM_PAGES / 2 - 1; i++) {
+            vbc.charge(PAGE_SIZE);
+        }
+        assertFalse(vbc.isFull());
+        vbc.charge(1);
+        assertTrue(vbc.isFull());
+        assertEquals(NUM_PAGES, vbc.getAllocatedPages());
+
+        vbc.reset();
+        assertFalse(vbc.isFull());
+        // the pages within the budget are kept for reuse
+        assertEquals(NUM_PAGES / 2, vbc.getAllocatedPages());
+
+        deleteFiles();
+        vbc.close();
+    }
+
     private boolean pagesDisjointed() {
         boolean disjoint = true;
         for (int i = 0; i < NUM_FILES; i++) {
@@ -26,6 +26,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
 
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
@@ -42,6 +45,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 public class BufferCacheTest {
+    private static final Logger LOGGER = Logger.getLogger(BufferCacheTest.class.getName());
     protected static final List<String> openedFiles = new ArrayList<>();
     protected static final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("ddMMyy-hhmmssSS");
 
@@ -314,6 +318,135 @@ public class BufferCacheTest {
         bufferCache.close();
     }
 
+    @Test
+    public void prefetchTest() throws HyracksException {
+        final int numCachePages = 64;
+        final int numFilePages = 24;
+        // a single read ahead is limited to an eighth of the cache
+        final int maxPrefetchPages = numCachePages / 8;
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, numCachePages, MAX_OPEN_FILES);
+        IBufferCache bufferCache =
+                TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        String fileName = getFileName();
+        FileReference file = ioManager.resolve(fileName);
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < numFilePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            try {
+                for (int j = 0; j < PAGE_SIZE / 4; j++) {
+                    page.getBuffer().putInt(j * 4, i * PAGE_SIZE + j);
+                }
+            } finally {
+                page.releaseWriteLatch(true);
+                bufferCache.unpin(page);
+            }
+        }
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+
+        // read the file back through a cold cache
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, numCachePages, MAX_OPEN_FILES);
+        bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        fileId = bufferCache.openFile(file);
+        Assert.assertEquals(maxPrefetchPages,
+                bufferCache.prefetch(BufferedFileHandle.getDiskPageId(fileId, 0), numFilePages));
+        // cached pages in the middle of the range must survive a read ahead that overlaps them
+        Assert.assertEquals(maxPrefetchPages,
+                bufferCache.prefetch(BufferedFileHandle.getDiskPageId(fileId, maxPrefetchPages / 2), numFilePages));
+        // read ahead stops at the end of the file
+        Assert.assertEquals(4, bufferCache.prefetch(BufferedFileHandle.getDiskPageId(fileId, numFilePages - 4),
+                maxPrefetchPages));
+        Assert.assertEquals(0,
+                bufferCache.prefetch(BufferedFileHandle.getDiskPageId(fileId, numFilePages), maxPrefetchPages));
+        for (int i = 0; i < numFilePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+            page.acquireReadLatch();
+            try {
+                for (int j = 0; j < PAGE_SIZE / 4; j++) {
+                    Assert.assertEquals(i * PAGE_SIZE + j, page.getBuffer().getInt(j * 4));
+                }
+            } finally {
+                page.releaseReadLatch();
+                bufferCache.unpin(page);
+            }
+        }
+        // read ahead sees the pages that are appended to the file after its size was cached
+        for (int i = numFilePages; i < numFilePages + 4; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            page.releaseWriteLatch(true);
+            bufferCache.flushDirtyPage(page);
+            bufferCache.unpin(page);
+        }
+        Assert.assertEquals(4,
+                bufferCache.prefetch(BufferedFileHandle.getDiskPageId(fileId, numFilePages), maxPrefetchPages));
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+    }
+
+    @Test
+    public void concurrentPinTest() throws Exception {
+        final int numCachePages = 64;
+        final int numFilePages = 32;
+        final int pinsPerThread = 20000;
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, numCachePages, MAX_OPEN_FILES);
+        IBufferCache bufferCache =
+                TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve(getFileName());
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < numFilePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            try {
+                page.getBuffer().putInt(0, i);
+            } finally {
+                page.releaseWriteLatch(true);
+                bufferCache.unpin(page);
+            }
+        }
+        // all pages are resident, so every pin exercises the lookup path of the page table
+        for (int numThreads : new int[] { 1, 8, 64 }) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread[] threads = new Thread[numThreads];
+            for (int t = 0; t < numThreads; t++) {
+                threads[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < pinsPerThread; i++) {
+                            int pageId = ThreadLocalRandom.current().nextInt(numFilePages);
+                            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), false);
+                            try {
+                                Assert.assertEquals(pageId, page.getBuffer().getInt(0));
+                            } finally {
+                                bufferCache.unpin(page);
+                            }
+                        }
+                    } catch (Throwable th) {
+                        failure.compareAndSet(null, th);
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1000000);
+            if (failure.get() != null) {
+                throw new AssertionError("Concurrent pin failed with " + numThreads + " threads", failure.get());
+            }
+            LOGGER.info(numThreads + " threads: " + (long) numThreads * pinsPerThread / elapsedMs + " pins/ms");
+        }
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+    }
+
     @AfterClass
     public static void cleanup() throws Exception {
         for (String s : openedFiles) {
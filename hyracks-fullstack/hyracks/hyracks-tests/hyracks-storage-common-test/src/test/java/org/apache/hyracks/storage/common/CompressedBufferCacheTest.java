@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.compression.CompressionScheme;
+import org.apache.hyracks.storage.common.compression.ICompressorDecompressor;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressedBufferCacheTest {
+    private static final int PAGE_SIZE = 4096;
+    private static final int NUM_PAGES = 10;
+    private static final int MAX_OPEN_FILES = 20;
+    private static final int NUM_FILE_PAGES = 4 * NUM_PAGES;
+
+    private final IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+    private final Random rnd = new Random(50);
+
+    @Test
+    public void lz4RoundTripTest() throws HyracksException {
+        ICompressorDecompressor lz4 = CompressionScheme.LZ4.getCompressorDecompressor();
+        byte[][] inputs = new byte[][] { new byte[0], new byte[7], repetitiveBytes(PAGE_SIZE, 0),
+                randomBytes(PAGE_SIZE), repetitiveBytes(3 * PAGE_SIZE + 17, 3) };
+        for (byte[] input : inputs) {
+            byte[] compressed = new byte[lz4.computeCompressedBufferSize(input.length)];
+            int compressedLength = lz4.compress(input, 0, input.length, compressed, 0);
+            byte[] output = new byte[input.length];
+            int length = lz4.uncompress(compressed, 0, compressedLength, output, 0, output.length);
+            Assert.assertEquals(input.length, length);
+            Assert.assertArrayEquals(input, output);
+        }
+        byte[] repetitive = repetitiveBytes(PAGE_SIZE, 1);
+        byte[] compressed = new byte[lz4.computeCompressedBufferSize(repetitive.length)];
+        Assert.assertTrue(lz4.compress(repetitive, 0, repetitive.length, compressed, 0) < repetitive.length / 4);
+    }
+
+    @Test
+    public void compressedFileTest() throws HyracksException {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        IBufferCache bufferCache =
+                TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        FileReference file = ioManager.resolve("compressed-" + System.nanoTime());
+        int fileId = bufferCache.createFile(file, CompressionScheme.LZ4);
+        bufferCache.openFile(fileId);
+        // write more pages than the cache can hold so that most of them are written and read back from disk
+        for (int i = 0; i < NUM_FILE_PAGES; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            try {
+                fillPage(page, i);
+            } finally {
+                page.releaseWriteLatch(true);
+                // force() does not write dirty pages, so don't leave them to the cleaner
+                bufferCache.flushDirtyPage(page);
+                bufferCache.unpin(page);
+            }
+        }
+        verifyPages(bufferCache, fileId);
+        bufferCache.force(fileId, true);
+        Assert.assertEquals(NUM_FILE_PAGES, bufferCache.getNumPagesOfFile(fileId));
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+        Assert.assertTrue(file.getFile().length() < (long) NUM_FILE_PAGES * PAGE_SIZE / 2);
+
+        // a new cache must find the pages through the persisted offset table
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        fileId = bufferCache.openFile(file);
+        Assert.assertEquals(NUM_FILE_PAGES, bufferCache.getNumPagesOfFile(fileId));
+        verifyPages(bufferCache, fileId);
+        bufferCache.closeFile(fileId);
+        bufferCache.deleteFile(fileId);
+        bufferCache.close();
+        Assert.assertFalse(new File(file.getAbsolutePath()).exists());
+    }
+
+    private void verifyPages(IBufferCache bufferCache, int fileId) throws HyracksException {
+        for (int i = 0; i < NUM_FILE_PAGES; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+            page.acquireReadLatch();
+            try {
+                byte[] expected = repetitiveBytes(PAGE_SIZE, i);
+                for (int j = 0; j < PAGE_SIZE; j++) {
+                    Assert.assertEquals(expected[j], page.getBuffer().get(j));
+                }
+            } finally {
+                page.releaseReadLatch();
+                bufferCache.unpin(page);
+            }
+        }
+    }
+
+    private static void fillPage(ICachedPage page, int pageId) {
+        page.getBuffer().clear();
+        page.getBuffer().put(repetitiveBytes(PAGE_SIZE, pageId));
+    }
+
+    private static byte[] repetitiveBytes(int length, int seed) {
+        byte[] record = ("{\"id\": " + seed + ", \"name\": \"user" + seed + "\", \"active\": true}")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = record[i % record.length];
+        }
+        return bytes;
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        rnd.nextBytes(bytes);
+        return bytes;
+    }
+}
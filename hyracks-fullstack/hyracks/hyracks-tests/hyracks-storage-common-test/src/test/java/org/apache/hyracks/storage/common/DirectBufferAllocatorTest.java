@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.storage.common.buffercache.DirectBufferAllocator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DirectBufferAllocatorTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int SLAB_SIZE = 4 * PAGE_SIZE;
+
+    @Test
+    public void slabAllocationTest() {
+        DirectBufferAllocator allocator = new DirectBufferAllocator(SLAB_SIZE, 1);
+        ByteBuffer[] pages = allocator.allocate(PAGE_SIZE, 6);
+        // six pages need two slabs
+        Assert.assertEquals(2L * SLAB_SIZE, allocator.getAllocatedBytes(0));
+        Assert.assertEquals(6L * PAGE_SIZE, allocator.getResidentBytes(0));
+        for (int i = 0; i < pages.length; i++) {
+            Assert.assertTrue(pages[i].isDirect());
+            Assert.assertEquals(PAGE_SIZE, pages[i].capacity());
+            for (int j = 0; j < PAGE_SIZE; j++) {
+                pages[i].put(j, (byte) i);
+            }
+        }
+        // pages carved out of the same slab must not overlap
+        for (int i = 0; i < pages.length; i++) {
+            for (int j = 0; j < PAGE_SIZE; j++) {
+                Assert.assertEquals((byte) i, pages[i].get(j));
+            }
+        }
+        // large pages get their own allocation
+        ByteBuffer large = allocator.allocate(SLAB_SIZE, 1)[0];
+        Assert.assertEquals(SLAB_SIZE, large.capacity());
+        Assert.assertEquals(3L * SLAB_SIZE, allocator.getAllocatedBytes());
+        Assert.assertEquals(6L * PAGE_SIZE + SLAB_SIZE, allocator.getResidentBytes());
+        allocator.release();
+        Assert.assertEquals(0L, allocator.getAllocatedBytes());
+        Assert.assertEquals(0L, allocator.getResidentBytes());
+    }
+
+    @Test
+    public void budgetTest() throws Exception {
+        DirectBufferAllocator allocator = new DirectBufferAllocator(SLAB_SIZE, 2, 6L * PAGE_SIZE);
+        // a thread that allocates from the other arena
+        Thread other;
+        do {
+            other = new Thread(() -> allocator.allocate(PAGE_SIZE, 1));
+        } while (other.getId() % 2 == Thread.currentThread().getId() % 2);
+        other.start();
+        other.join();
+        Assert.assertEquals(SLAB_SIZE, allocator.getAllocatedBytes());
+
+        // the second slab only gets what is left of the budget
+        allocator.allocate(PAGE_SIZE, 2);
+        Assert.assertEquals(6L * PAGE_SIZE, allocator.getAllocatedBytes());
+        // then the tail of the other arena's slab is used
+        allocator.allocate(PAGE_SIZE, 3);
+        Assert.assertEquals(6L * PAGE_SIZE, allocator.getAllocatedBytes());
+        Assert.assertEquals(6L * PAGE_SIZE, allocator.getResidentBytes());
+        // and only then the budget is exceeded, by a page at a time
+        Assert.assertEquals(PAGE_SIZE, allocator.allocate(PAGE_SIZE, 1)[0].capacity());
+        Assert.assertEquals(7L * PAGE_SIZE, allocator.getAllocatedBytes());
+        allocator.release();
+        Assert.assertEquals(0L, allocator.getAllocatedBytes());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.IPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.TwoQueueClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.FileMapManager;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PageReplacementStrategyTest {
+    private static final List<String> openedFiles = new ArrayList<>();
+    private static final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("ddMMyy-hhmmssSS");
+
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 10;
+    private static final int NUM_HOT_PAGES = 3;
+    private static final int NUM_SCAN_PAGES = 100;
+    private static final int MAX_OPEN_FILES = 20;
+    private static final ThreadFactory threadFactory = r -> new Thread(r);
+
+    private String getFileName() {
+        String fileName = simpleDateFormat.format(new Date()) + openedFiles.size();
+        openedFiles.add(fileName);
+        return fileName;
+    }
+
+    @Test
+    public void twoQueueScanResistanceTest() throws HyracksException {
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        IPageReplacementStrategy prs =
+                new TwoQueueClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES);
+        IBufferCache bufferCache = new BufferCache(ioManager, prs, new DelayPageCleanerPolicy(1000),
+                new FileMapManager(), MAX_OPEN_FILES, threadFactory);
+        FileReference file = ioManager.resolve(getFileName());
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+
+        // build up a working set that is accessed repeatedly
+        for (int i = 0; i < 2; i++) {
+            for (int pageId = 0; pageId < NUM_HOT_PAGES; pageId++) {
+                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), i == 0);
+                bufferCache.unpin(page);
+            }
+        }
+
+        // a scan touches every page exactly once
+        for (int pageId = NUM_HOT_PAGES; pageId < NUM_HOT_PAGES + NUM_SCAN_PAGES; pageId++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), true);
+            bufferCache.unpin(page);
+        }
+
+        // the working set must have survived the scan
+        for (int pageId = 0; pageId < NUM_HOT_PAGES; pageId++) {
+            ICachedPage page = bufferCache.tryPin(BufferedFileHandle.getDiskPageId(fileId, pageId));
+            Assert.assertNotNull("hot page " + pageId + " was evicted by the scan", page);
+            bufferCache.unpin(page);
+        }
+
+        // pins of new pages are neither hits nor misses
+        Assert.assertEquals(0, prs.getNumMisses());
+        Assert.assertEquals(2 * NUM_HOT_PAGES, prs.getNumHits());
+        Assert.assertEquals(NUM_HOT_PAGES + NUM_SCAN_PAGES - NUM_PAGES, prs.getNumEvictions());
+
+        // the first scan page was evicted long ago and has to be read again
+        ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, NUM_HOT_PAGES), false);
+        bufferCache.unpin(page);
+        Assert.assertEquals(1, prs.getNumMisses());
+        Assert.assertEquals(NUM_HOT_PAGES + NUM_SCAN_PAGES - NUM_PAGES + 1, prs.getNumEvictions());
+
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+    }
+
+    @Test
+    public void confiscationEvictionTest() throws HyracksException {
+        IIOManager ioManager = TestStorageManagerComponentHolder.getIOManager();
+        IPageReplacementStrategy prs =
+                new TwoQueueClockPageReplacementStrategy(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES);
+        IBufferCache bufferCache = new BufferCache(ioManager, prs, new DelayPageCleanerPolicy(1000),
+                new FileMapManager(), MAX_OPEN_FILES, threadFactory);
+        FileReference file = ioManager.resolve(getFileName());
+        int fileId = bufferCache.createFile(file);
+        bufferCache.openFile(fileId);
+
+        // the victims of these confiscations never held a disk page
+        for (int i = 0; i < 2 * NUM_PAGES; i++) {
+            ICachedPage page = bufferCache.confiscatePage(IBufferCache.INVALID_DPID);
+            bufferCache.returnPage(page, false);
+        }
+        Assert.assertEquals(0, prs.getNumEvictions());
+
+        for (int pageId = 0; pageId < NUM_PAGES; pageId++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), true);
+            bufferCache.unpin(page);
+        }
+        Assert.assertEquals(0, prs.getNumEvictions());
+        // now the victim holds a disk page
+        ICachedPage page = bufferCache.confiscatePage(IBufferCache.INVALID_DPID);
+        bufferCache.returnPage(page, false);
+        Assert.assertEquals(1, prs.getNumEvictions());
+
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+    }
+
+    @AfterClass
+    public static void cleanup() throws Exception {
+        for (String s : openedFiles) {
+            File f = new File(s);
+            f.deleteOnExit();
+        }
+    }
+}